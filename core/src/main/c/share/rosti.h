@@ -292,6 +292,8 @@ void resize(rosti_t *map, uint64_t new_capacity, HASH_M hash_m, CPY cpy) {
     const uint64_t old_capacity = map->capacity_;
     map->capacity_ = new_capacity;
     initialize_slots(map);
+    // new slots are initialised from this template, it has to survive resize
+    memcpy(map->slot_initial_values_, old_init, map->slot_size_);
 
     uint64_t total_probe_length = 0;
     for (uint64_t i = 0; i != old_capacity; ++i) {
@@ -29,6 +29,10 @@ import io.questdb.cairo.TableBlockWriter.TableBlockWriterTaskHolder;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.tasks.ColumnIndexerTask;
+import io.questdb.tasks.OutOfOrderColumnTask;
+import io.questdb.tasks.PageFrameFilterTask;
+import io.questdb.tasks.PageFrameGroupByTask;
+import io.questdb.tasks.PageFrameHashJoinTask;
 import io.questdb.tasks.VectorAggregateTask;
 
 public interface MessageBus {
@@ -56,5 +60,53 @@ public interface MessageBus {
         return null;
     }
 
+    default RingQueue<OutOfOrderColumnTask> getOutOfOrderColumnQueue() {
+        return null;
+    }
+
+    default Sequence getOutOfOrderColumnPubSequence() {
+        return null;
+    }
+
+    default Sequence getOutOfOrderColumnSubSequence() {
+        return null;
+    }
+
+    default RingQueue<PageFrameFilterTask> getPageFrameFilterQueue() {
+        return null;
+    }
+
+    default Sequence getPageFrameFilterPubSequence() {
+        return null;
+    }
+
+    default Sequence getPageFrameFilterSubSequence() {
+        return null;
+    }
+
+    default RingQueue<PageFrameGroupByTask> getPageFrameGroupByQueue() {
+        return null;
+    }
+
+    default Sequence getPageFrameGroupByPubSequence() {
+        return null;
+    }
+
+    default Sequence getPageFrameGroupBySubSequence() {
+        return null;
+    }
+
+    default RingQueue<PageFrameHashJoinTask> getPageFrameHashJoinQueue() {
+        return null;
+    }
+
+    default Sequence getPageFrameHashJoinPubSequence() {
+        return null;
+    }
+
+    default Sequence getPageFrameHashJoinSubSequence() {
+        return null;
+    }
+
     CairoConfiguration getConfiguration();
 }
@@ -31,6 +31,10 @@ import io.questdb.mp.MPSequence;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.tasks.ColumnIndexerTask;
+import io.questdb.tasks.OutOfOrderColumnTask;
+import io.questdb.tasks.PageFrameFilterTask;
+import io.questdb.tasks.PageFrameGroupByTask;
+import io.questdb.tasks.PageFrameHashJoinTask;
 import io.questdb.tasks.VectorAggregateTask;
 import org.jetbrains.annotations.NotNull;
 
@@ -43,6 +47,21 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence vectorAggregatePubSeq;
     private final MCSequence vectorAggregateSubSeq;
 
+    private final RingQueue<OutOfOrderColumnTask> outOfOrderColumnQueue;
+    private final MPSequence outOfOrderColumnPubSeq;
+    private final MCSequence outOfOrderColumnSubSeq;
+
+    private final RingQueue<PageFrameFilterTask> pageFrameFilterQueue;
+    private final MPSequence pageFrameFilterPubSeq;
+    private final MCSequence pageFrameFilterSubSeq;
+
+    private final RingQueue<PageFrameGroupByTask> pageFrameGroupByQueue;
+    private final MPSequence pageFrameGroupByPubSeq;
+    private final MCSequence pageFrameGroupBySubSeq;
+    private final RingQueue<PageFrameHashJoinTask> pageFrameHashJoinQueue;
+    private final MPSequence pageFrameHashJoinPubSeq;
+    private final MCSequence pageFrameHashJoinSubSeq;
+
     private final RingQueue<TableBlockWriterTaskHolder> tableBlockWriterQueue;
     private final MPSequence tableBlockWriterPubSeq;
     private final MCSequence tableBlockWriterSubSeq;
@@ -60,8 +79,28 @@ public class MessageBusImpl implements MessageBus {
         this.vectorAggregatePubSeq = new MPSequence(vectorAggregateQueue.getCapacity());
         this.vectorAggregateSubSeq = new MCSequence(vectorAggregateQueue.getCapacity());
 
+        this.outOfOrderColumnQueue = new RingQueue<>(OutOfOrderColumnTask::new, 1024);
+        this.outOfOrderColumnPubSeq = new MPSequence(outOfOrderColumnQueue.getCapacity());
+        this.outOfOrderColumnSubSeq = new MCSequence(outOfOrderColumnQueue.getCapacity());
+
+        this.pageFrameFilterQueue = new RingQueue<>(PageFrameFilterTask::new, 1024);
+        this.pageFrameFilterPubSeq = new MPSequence(pageFrameFilterQueue.getCapacity());
+        this.pageFrameFilterSubSeq = new MCSequence(pageFrameFilterQueue.getCapacity());
+
+        this.pageFrameGroupByQueue = new RingQueue<>(PageFrameGroupByTask::new, 1024);
+        this.pageFrameGroupByPubSeq = new MPSequence(pageFrameGroupByQueue.getCapacity());
+        this.pageFrameGroupBySubSeq = new MCSequence(pageFrameGroupByQueue.getCapacity());
+
+        this.pageFrameHashJoinQueue = new RingQueue<>(PageFrameHashJoinTask::new, 1024);
+        this.pageFrameHashJoinPubSeq = new MPSequence(pageFrameHashJoinQueue.getCapacity());
+        this.pageFrameHashJoinSubSeq = new MCSequence(pageFrameHashJoinQueue.getCapacity());
+
         indexerPubSeq.then(indexerSubSeq).then(indexerPubSeq);
         vectorAggregatePubSeq.then(vectorAggregateSubSeq).then(vectorAggregatePubSeq);
+        outOfOrderColumnPubSeq.then(outOfOrderColumnSubSeq).then(outOfOrderColumnPubSeq);
+        pageFrameFilterPubSeq.then(pageFrameFilterSubSeq).then(pageFrameFilterPubSeq);
+        pageFrameGroupByPubSeq.then(pageFrameGroupBySubSeq).then(pageFrameGroupByPubSeq);
+        pageFrameHashJoinPubSeq.then(pageFrameHashJoinSubSeq).then(pageFrameHashJoinPubSeq);
 
         this.tableBlockWriterQueue = new RingQueue<>(TableBlockWriterTaskHolder::new, configuration.getTableBlockWriterQueueSize());
         this.tableBlockWriterPubSeq = new MPSequence(tableBlockWriterQueue.getCapacity());
@@ -104,6 +143,66 @@ public class MessageBusImpl implements MessageBus {
         return vectorAggregateSubSeq;
     }
 
+    @Override
+    public RingQueue<OutOfOrderColumnTask> getOutOfOrderColumnQueue() {
+        return outOfOrderColumnQueue;
+    }
+
+    @Override
+    public Sequence getOutOfOrderColumnPubSequence() {
+        return outOfOrderColumnPubSeq;
+    }
+
+    @Override
+    public Sequence getOutOfOrderColumnSubSequence() {
+        return outOfOrderColumnSubSeq;
+    }
+
+    @Override
+    public RingQueue<PageFrameFilterTask> getPageFrameFilterQueue() {
+        return pageFrameFilterQueue;
+    }
+
+    @Override
+    public Sequence getPageFrameFilterPubSequence() {
+        return pageFrameFilterPubSeq;
+    }
+
+    @Override
+    public Sequence getPageFrameFilterSubSequence() {
+        return pageFrameFilterSubSeq;
+    }
+
+    @Override
+    public RingQueue<PageFrameGroupByTask> getPageFrameGroupByQueue() {
+        return pageFrameGroupByQueue;
+    }
+
+    @Override
+    public Sequence getPageFrameGroupByPubSequence() {
+        return pageFrameGroupByPubSeq;
+    }
+
+    @Override
+    public Sequence getPageFrameGroupBySubSequence() {
+        return pageFrameGroupBySubSeq;
+    }
+
+    @Override
+    public RingQueue<PageFrameHashJoinTask> getPageFrameHashJoinQueue() {
+        return pageFrameHashJoinQueue;
+    }
+
+    @Override
+    public Sequence getPageFrameHashJoinPubSequence() {
+        return pageFrameHashJoinPubSeq;
+    }
+
+    @Override
+    public Sequence getPageFrameHashJoinSubSequence() {
+        return pageFrameHashJoinSubSeq;
+    }
+
     @Override
     public RingQueue<TableBlockWriterTaskHolder> getTableBlockWriterQueue() {
         return tableBlockWriterQueue;
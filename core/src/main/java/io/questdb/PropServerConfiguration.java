@@ -27,6 +27,7 @@ package io.questdb;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
@@ -87,6 +88,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int maxSwapFileCount;
     private final int mkdirMode;
     private final int parallelIndexThreshold;
+    private final long materializedViewRefreshInterval;
     private final int readerPoolMaxSegments;
     private final long spinLockTimeoutUs;
     private final int sqlCacheRows;
@@ -118,6 +120,19 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortValueMaxPages;
     private final long workStealTimeoutNanos;
     private final boolean parallelIndexingEnabled;
+    private final boolean outOfOrderEnabled;
+    private final boolean sqlParallelFilterEnabled;
+    private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelSampleByEnabled;
+    private final boolean sqlVectorSampleByEnabled;
+    private final boolean sqlRadixSortEnabled;
+    private final boolean sqlSortSpillEnabled;
+    private final boolean sqlHashJoinSpillEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlMergeJoinEnabled;
+    private final boolean sqlPartitionPruningEnabled;
+    private final boolean sqlSymbolKeyFilterEnabled;
+    private final boolean sqlJitFilterEnabled;
     private final int sqlJoinMetadataPageSize;
     private final int sqlJoinMetadataMaxResizes;
     private final int lineUdpCommitRate;
@@ -138,6 +153,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int lineUdpOwnThreadAffinity;
     private final boolean lineUdpUnicast;
     private final boolean lineUdpOwnThread;
+    private final int lineUdpReceiverCount;
     private final int sqlCopyBufferSize;
     private final long sqlAppendPageSize;
     private final int sqlAnalyticColumnPoolCapacity;
@@ -152,6 +168,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlBindVariablePoolSize;
     private final DateLocale locale;
     private final String backupRoot;
+    private final String sqlSpillRoot;
     private final DateFormat backupDirTimestampFormat;
     private final CharSequence backupTempDirName;
     private final int backupMkdirMode;
@@ -229,6 +246,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int jsonQueryFloatScale;
     private int jsonQueryDoubleScale;
     private int jsonQueryConnectionCheckFrequency;
+    private boolean queryResultCacheEnabled;
+    private long queryResultCacheSize;
     private boolean httpFrozenClock;
     private boolean readOnlySecurityContext;
     private long maxHttpQueryResponseRowLimit;
@@ -289,7 +308,12 @@ public class PropServerConfiguration implements ServerConfiguration {
     private double lineTcpMaxLoadRatio;
     private int lineTcpMaxUncommittedRows;
     private long lineTcpMaintenanceJobHysteresisInMs;
+    private long lineTcpCommitLagInMs;
+    private final LowerCaseCharSequenceIntHashMap lineTcpTableCommitLagsInMs = new LowerCaseCharSequenceIntHashMap();
+    private long lineTcpMaxUncommittedBytes;
+    private boolean lineTcpCommitRateAdaptive;
     private String lineTcpAuthDbPath;
+    private int lineTcpDefaultPartitionBy;
     private String httpVersion;
     private int httpMinWorkerCount;
     private boolean httpMinWorkerHaltOnError;
@@ -322,6 +346,13 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.databaseRoot = new File(root, databaseRoot).getAbsolutePath();
         }
 
+        final String sqlSpillRoot = getString(properties, env, "cairo.sql.spill.root", new File(this.databaseRoot, ".spill").getAbsolutePath());
+        if (new File(sqlSpillRoot).isAbsolute()) {
+            this.sqlSpillRoot = sqlSpillRoot;
+        } else {
+            this.sqlSpillRoot = new File(root, sqlSpillRoot).getAbsolutePath();
+        }
+
         this.httpMinServerEnabled = getBoolean(properties, env, "http.min.enabled", true);
         if (httpMinServerEnabled) {
             this.httpMinWorkerAffinity = getAffinity(properties, env, "http.min.worker.affinity", httpWorkerCount);
@@ -407,6 +438,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.jsonQueryConnectionCheckFrequency = getInt(properties, env, "http.json.query.connection.check.frequency", 1_000_000);
             this.jsonQueryFloatScale = getInt(properties, env, "http.json.query.float.scale", 4);
             this.jsonQueryDoubleScale = getInt(properties, env, "http.json.query.double.scale", 12);
+            this.queryResultCacheEnabled = getBoolean(properties, env, "http.query.result.cache.enabled", false);
+            this.queryResultCacheSize = getLongSize(properties, env, "http.query.result.cache.size", 8 * 1024 * 1024);
             this.readOnlySecurityContext = getBoolean(properties, env, "http.security.readonly", false);
             this.maxHttpQueryResponseRowLimit = getLong(properties, env, "http.security.max.response.rows", Long.MAX_VALUE);
             this.interruptOnClosedConnection = getBoolean(properties, env, "http.security.interrupt.on.closed.connection", true);
@@ -486,6 +519,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.maxSwapFileCount = getInt(properties, env, "cairo.max.swap.file.count", 30);
         this.mkdirMode = getInt(properties, env, "cairo.mkdir.mode", 509);
         this.parallelIndexThreshold = getInt(properties, env, "cairo.parallel.index.threshold", 100000);
+        this.materializedViewRefreshInterval = getLong(properties, env, "cairo.materialized.view.refresh.interval", 100);
         this.readerPoolMaxSegments = getInt(properties, env, "cairo.reader.pool.max.segments", 5);
         this.spinLockTimeoutUs = getLong(properties, env, "cairo.spin.lock.timeout", 1_000_000);
         this.sqlCacheRows = getInt(properties, env, "cairo.cache.rows", 16);
@@ -516,6 +550,19 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlSortValueMaxPages = getIntSize(properties, env, "cairo.sql.sort.value.max.pages", Integer.MAX_VALUE);
         this.workStealTimeoutNanos = getLong(properties, env, "cairo.work.steal.timeout.nanos", 10_000);
         this.parallelIndexingEnabled = getBoolean(properties, env, "cairo.parallel.indexing.enabled", true);
+        this.outOfOrderEnabled = getBoolean(properties, env, "cairo.out.of.order.enabled", true);
+        this.sqlParallelFilterEnabled = getBoolean(properties, env, "cairo.sql.parallel.filter.enabled", true);
+        this.sqlParallelGroupByEnabled = getBoolean(properties, env, "cairo.sql.parallel.groupby.enabled", true);
+        this.sqlParallelSampleByEnabled = getBoolean(properties, env, "cairo.sql.parallel.sampleby.enabled", true);
+        this.sqlVectorSampleByEnabled = getBoolean(properties, env, "cairo.sql.vector.sampleby.enabled", true);
+        this.sqlRadixSortEnabled = getBoolean(properties, env, "cairo.sql.radix.sort.enabled", true);
+        this.sqlSortSpillEnabled = getBoolean(properties, env, "cairo.sql.sort.spill.enabled", true);
+        this.sqlHashJoinSpillEnabled = getBoolean(properties, env, "cairo.sql.hash.join.spill.enabled", true);
+        this.sqlParallelHashJoinEnabled = getBoolean(properties, env, "cairo.sql.parallel.hash.join.enabled", true);
+        this.sqlMergeJoinEnabled = getBoolean(properties, env, "cairo.sql.merge.join.enabled", true);
+        this.sqlPartitionPruningEnabled = getBoolean(properties, env, "cairo.sql.partition.pruning.enabled", true);
+        this.sqlSymbolKeyFilterEnabled = getBoolean(properties, env, "cairo.sql.symbol.key.filter.enabled", true);
+        this.sqlJitFilterEnabled = getBoolean(properties, env, "cairo.sql.jit.filter.enabled", true);
         this.sqlJoinMetadataPageSize = getIntSize(properties, env, "cairo.sql.join.metadata.page.size", 16384);
         this.sqlJoinMetadataMaxResizes = getIntSize(properties, env, "cairo.sql.join.metadata.max.resizes", Integer.MAX_VALUE);
         this.sqlAnalyticColumnPoolCapacity = getInt(properties, env, "cairo.sql.analytic.column.pool.capacity", 64);
@@ -588,6 +635,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.lineUdpEnabled = getBoolean(properties, env, "line.udp.enabled", true);
         this.lineUdpOwnThreadAffinity = getInt(properties, env, "line.udp.own.thread.affinity", -1);
         this.lineUdpOwnThread = getBoolean(properties, env, "line.udp.own.thread", false);
+        this.lineUdpReceiverCount = getInt(properties, env, "line.udp.receiver.count", 1);
         this.lineUdpUnicast = getBoolean(properties, env, "line.udp.unicast", false);
         this.lineUdpCommitMode = getCommitMode(properties, env, "line.udp.commit.mode");
         this.lineUdpTimestampAdapter = getLineTimestampAdaptor(properties, env, "line.udp.timestamp");
@@ -622,10 +670,15 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.lineTcpMaxLoadRatio = getDouble(properties, env, "line.tcp.max.load.ratio", 1.9);
             this.lineTcpMaxUncommittedRows = getInt(properties, env, "line.tcp.max.uncommitted.rows", 1000);
             this.lineTcpMaintenanceJobHysteresisInMs = getInt(properties, env, "line.tcp.maintenance.job.hysteresis.in.ms", 250);
+            this.lineTcpCommitLagInMs = getLong(properties, env, "line.tcp.commit.lag.ms", 1000);
+            parseTableCommitLags(properties, env, "line.tcp.table.commit.lag.ms", lineTcpTableCommitLagsInMs);
+            this.lineTcpMaxUncommittedBytes = getLongSize(properties, env, "line.tcp.max.uncommitted.bytes", 16 * 1024 * 1024);
+            this.lineTcpCommitRateAdaptive = getBoolean(properties, env, "line.tcp.commit.rate.adaptive", true);
             this.lineTcpAuthDbPath = getString(properties, env, "line.tcp.auth.db.path", null);
             if (null != lineTcpAuthDbPath) {
                 this.lineTcpAuthDbPath = new File(root, this.lineTcpAuthDbPath).getAbsolutePath();
             }
+            this.lineTcpDefaultPartitionBy = getPartitionBy(properties, env, "line.tcp.default.partition.by", PartitionBy.DAY);
         }
 
         this.buildInformation = buildInformation;
@@ -687,6 +740,24 @@ public class PropServerConfiguration implements ServerConfiguration {
         return result;
     }
 
+    private void parseTableCommitLags(Properties properties, @Nullable Map<String, String> env, String key, LowerCaseCharSequenceIntHashMap lags) throws ServerConfigurationException {
+        final String value = overrideWithEnv(properties, env, key);
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        for (String entry : value.split(",")) {
+            final int p = entry.lastIndexOf(':');
+            if (p < 1) {
+                throw new ServerConfigurationException(key, "expected <table>:<lag ms> [value=" + entry + ']');
+            }
+            try {
+                lags.put(entry.substring(0, p).trim(), Numbers.parseInt(entry.substring(p + 1).trim()));
+            } catch (NumericException e) {
+                throw new ServerConfigurationException(key, "invalid commit lag [value=" + entry + ']');
+            }
+        }
+    }
+
     protected boolean getBoolean(Properties properties, @Nullable Map<String, String> env, String key, boolean defaultValue) {
         final String value = overrideWithEnv(properties, env, key);
         return value == null ? defaultValue : Boolean.parseBoolean(value);
@@ -714,6 +785,18 @@ public class PropServerConfiguration implements ServerConfiguration {
         return CommitMode.NOSYNC;
     }
 
+    private int getPartitionBy(Properties properties, @Nullable Map<String, String> env, String key, int defaultValue) throws ServerConfigurationException {
+        final String value = overrideWithEnv(properties, env, key);
+        if (value == null) {
+            return defaultValue;
+        }
+        final int partitionBy = PartitionBy.fromString(value.toUpperCase());
+        if (partitionBy == -1) {
+            throw new ServerConfigurationException(key, value);
+        }
+        return partitionBy;
+    }
+
     private double getDouble(Properties properties, @Nullable Map<String, String> env, String key, double defaultValue) throws ServerConfigurationException {
         final String value = overrideWithEnv(properties, env, key);
         try {
@@ -1248,6 +1331,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlCacheRows;
         }
 
+        @Override
+        public long getQueryResultCacheSize() {
+            return queryResultCacheSize;
+        }
+
         @Override
         public WaitProcessorConfiguration getWaitProcessorConfiguration() {
             return httpWaitProcessorConfiguration;
@@ -1263,6 +1351,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return httpServerEnabled;
         }
 
+        @Override
+        public boolean isQueryResultCacheEnabled() {
+            return queryResultCacheEnabled;
+        }
+
         @Override
         public int[] getWorkerAffinity() {
             return httpWorkerAffinity;
@@ -1361,6 +1454,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return maxSwapFileCount;
         }
 
+        @Override
+        public long getMaterializedViewRefreshInterval() {
+            return materializedViewRefreshInterval;
+        }
+
         @Override
         public MicrosecondClock getMicrosecondClock() {
             return MicrosecondClockImpl.INSTANCE;
@@ -1406,6 +1504,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return backupRoot;
         }
 
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public DateFormat getBackupDirTimestampFormat() {
             return backupDirTimestampFormat;
@@ -1591,6 +1694,71 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isOutOfOrderEnabled() {
+            return outOfOrderEnabled;
+        }
+
+        @Override
+        public boolean isSqlJitFilterEnabled() {
+            return sqlJitFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelFilterEnabled() {
+            return sqlParallelFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSampleByEnabled() {
+            return sqlParallelSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlVectorSampleByEnabled() {
+            return sqlVectorSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlRadixSortEnabled() {
+            return sqlRadixSortEnabled;
+        }
+
+        @Override
+        public boolean isSqlSortSpillEnabled() {
+            return sqlSortSpillEnabled;
+        }
+
+        @Override
+        public boolean isSqlHashJoinSpillEnabled() {
+            return sqlHashJoinSpillEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlMergeJoinEnabled() {
+            return sqlMergeJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlPartitionPruningEnabled() {
+            return sqlPartitionPruningEnabled;
+        }
+
+        @Override
+        public boolean isSqlSymbolKeyFilterEnabled() {
+            return sqlSymbolKeyFilterEnabled;
+        }
+
         @Override
         public int getSqlJoinMetadataPageSize() {
             return sqlJoinMetadataPageSize;
@@ -1753,6 +1921,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineUdpOwnThreadAffinity;
         }
 
+        @Override
+        public int getReceiverCount() {
+            return lineUdpReceiverCount;
+        }
+
         @Override
         public LineProtoTimestampAdapter getTimestampAdapter() {
             return lineUdpTimestampAdapter;
@@ -1945,10 +2118,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpMaintenanceJobHysteresisInMs;
         }
 
+        @Override
+        public long getCommitLagInMs() {
+            return lineTcpCommitLagInMs;
+        }
+
+        @Override
+        public long getCommitLagInMs(CharSequence tableName) {
+            final int index = lineTcpTableCommitLagsInMs.keyIndex(tableName);
+            return index < 0 ? lineTcpTableCommitLagsInMs.valueAt(index) : lineTcpCommitLagInMs;
+        }
+
+        @Override
+        public long getMaxUncommittedBytes() {
+            return lineTcpMaxUncommittedBytes;
+        }
+
+        @Override
+        public boolean isCommitRateAdaptive() {
+            return lineTcpCommitRateAdaptive;
+        }
+
         @Override
         public String getAuthDbPath() {
             return lineTcpAuthDbPath;
         }
+
+        @Override
+        public int getDefaultPartitionBy() {
+            return lineTcpDefaultPartitionBy;
+        }
     }
 
     private class PropJsonQueryProcessorConfiguration implements JsonQueryProcessorConfiguration {
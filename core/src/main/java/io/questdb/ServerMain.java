@@ -29,14 +29,17 @@ import io.questdb.cutlass.http.HttpServer;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.line.tcp.LineTcpServer;
 import io.questdb.cutlass.line.udp.LineProtoReceiver;
+import io.questdb.cutlass.line.udp.LineUdpReceiverGroup;
 import io.questdb.cutlass.line.udp.LinuxMMLineProtoReceiver;
 import io.questdb.cutlass.pgwire.PGWireServer;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.MaterializedViewRefreshJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
 import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.NetworkError;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.Dates;
@@ -53,6 +56,24 @@ import java.util.zip.ZipInputStream;
 
 public class ServerMain {
     private static final String VERSION_TXT = "version.txt";
+    private static final WorkerPoolConfiguration MATERIALIZED_VIEW_WORKER_POOL_CONFIGURATION = new WorkerPoolConfiguration() {
+        private final int[] affinity = {-1};
+
+        @Override
+        public int[] getWorkerAffinity() {
+            return affinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return affinity.length;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return false;
+        }
+    };
 
     protected PropServerConfiguration configuration;
 
@@ -137,6 +158,10 @@ public class ServerMain {
         final WorkerPool workerPool = new WorkerPool(configuration.getWorkerPoolConfiguration());
         final FunctionFactoryCache functionFactoryCache = new FunctionFactoryCache(configuration.getCairoConfiguration(), ServiceLoader.load(FunctionFactory.class));
         final ObjList<Closeable> instancesToClean = new ObjList<>();
+        // materialized views are refreshed on a dedicated worker, refresh of large view would stall the shared pool,
+        // worker has to stop before engine is closed
+        final WorkerPool materializedViewWorkerPool = new WorkerPool(MATERIALIZED_VIEW_WORKER_POOL_CONFIGURATION);
+        instancesToClean.add(materializedViewWorkerPool::halt);
 
         LogFactory.configureFromSystemProperties(workerPool);
         final CairoEngine cairoEngine = new CairoEngine(configuration.getCairoConfiguration());
@@ -152,6 +177,10 @@ public class ServerMain {
             workerPool.assign(telemetryJob);
         }
 
+        final MaterializedViewRefreshJob materializedViewRefreshJob = new MaterializedViewRefreshJob(cairoEngine, functionFactoryCache);
+        instancesToClean.add(materializedViewRefreshJob);
+        materializedViewWorkerPool.assign(materializedViewRefreshJob);
+
         try {
             initQuestDb(workerPool, cairoEngine, log);
 
@@ -169,19 +198,12 @@ public class ServerMain {
             }
 
             if (configuration.getLineUdpReceiverConfiguration().isEnabled()) {
-                if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
-                    instancesToClean.add(new LinuxMMLineProtoReceiver(
-                            configuration.getLineUdpReceiverConfiguration(),
-                            cairoEngine,
-                            workerPool
-                    ));
-                } else {
-                    instancesToClean.add(new LineProtoReceiver(
-                            configuration.getLineUdpReceiverConfiguration(),
-                            cairoEngine,
-                            workerPool
-                    ));
-                }
+                instancesToClean.add(new LineUdpReceiverGroup(
+                        configuration.getLineUdpReceiverConfiguration(),
+                        cairoEngine,
+                        workerPool,
+                        Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64 ? LinuxMMLineProtoReceiver::new : LineProtoReceiver::new
+                ));
             }
 
             instancesToClean.add(LineTcpServer.create(
@@ -192,6 +214,7 @@ public class ServerMain {
             ));
 
             startQuestDb(workerPool, cairoEngine, log);
+            materializedViewWorkerPool.start(log);
             if (configuration.getHttpServerConfiguration().isEnabled()) {
                 logWebConsoleUrls(log, configuration);
             }
@@ -89,6 +89,7 @@ public class AppendMemory extends VirtualMemory {
     public final void of(FilesFacade ff, long fd, long pageSize) {
         close();
         this.ff = ff;
+        mappedPage = -1;
         setPageSize(pageSize);
         this.fd = fd;
     }
@@ -159,6 +160,7 @@ public class AppendMemory extends VirtualMemory {
         if (pageAddress != 0) {
             release(0, pageAddress);
             pageAddress = 0;
+            mappedPage = -1;
         }
     }
 
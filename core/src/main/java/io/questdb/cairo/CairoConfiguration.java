@@ -68,6 +68,8 @@ public interface CairoConfiguration {
 
     int getMaxSwapFileCount();
 
+    long getMaterializedViewRefreshInterval();
+
     MicrosecondClock getMicrosecondClock();
 
     MillisecondClock getMillisecondClock();
@@ -88,6 +90,9 @@ public interface CairoConfiguration {
     // null disables backups
     CharSequence getBackupRoot();
 
+    // temporary files of sorts and joins that spill to disk, emptied when engine starts
+    CharSequence getSqlSpillRoot();
+
     DateFormat getBackupDirTimestampFormat();
 
     CharSequence getBackupTempDirName();
@@ -162,6 +167,30 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    boolean isSqlJitFilterEnabled();
+
+    boolean isSqlParallelFilterEnabled();
+
+    boolean isSqlParallelGroupByEnabled();
+
+    boolean isSqlParallelSampleByEnabled();
+
+    boolean isSqlRadixSortEnabled();
+
+    boolean isSqlSortSpillEnabled();
+
+    boolean isSqlVectorSampleByEnabled();
+
+    boolean isSqlHashJoinSpillEnabled();
+
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlMergeJoinEnabled();
+
+    boolean isSqlPartitionPruningEnabled();
+
+    boolean isSqlSymbolKeyFilterEnabled();
+
     /**
      * This holds table metadata, which is usually quite small. 16K page should be adequate.
      *
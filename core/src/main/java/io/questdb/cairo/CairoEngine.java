@@ -53,6 +53,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final CairoConfiguration configuration;
     private final WriterMaintenanceJob writerMaintenanceJob;
     private final MessageBus messageBus;
+    private final MaterializedViewRegistry materializedViewRegistry = new MaterializedViewRegistry();
     private final RingQueue<TelemetryTask> telemetryQueue;
     private final MPSequence telemetryPubSeq;
     private final SCSequence telemetrySubSeq;
@@ -63,7 +64,7 @@ public class CairoEngine implements Closeable, WriterSource {
     public CairoEngine(CairoConfiguration configuration) {
         this.configuration = configuration;
         this.messageBus = new MessageBusImpl(configuration);
-        this.writerPool = new WriterPool(configuration, messageBus);
+        this.writerPool = new WriterPool(configuration, messageBus, materializedViewRegistry);
         this.readerPool = new ReaderPool(configuration);
         this.writerMaintenanceJob = new WriterMaintenanceJob(configuration);
         this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
@@ -94,6 +95,7 @@ public class CairoEngine implements Closeable, WriterSource {
                 close();
                 throw e;
             }
+            SpillFiles.clean(configuration, path);
         }
     }
 
@@ -145,6 +147,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return configuration;
     }
 
+    public MaterializedViewRegistry getMaterializedViewRegistry() {
+        return materializedViewRegistry;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -304,6 +310,7 @@ public class CairoEngine implements Closeable, WriterSource {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(error).$(']').$();
                     throw CairoException.instance(error).put("Table remove failed");
                 }
+                materializedViewRegistry.remove(tableName);
                 return;
             } finally {
                 unlock(securityContext, tableName, null);
@@ -467,6 +474,7 @@ public class CairoEngine implements Closeable, WriterSource {
             LOG.error().$("rename failed [from='").$(path).$("', to='").$(otherPath).$("', error=").$(error).$(']').$();
             throw CairoException.instance(error).put("Rename failed");
         }
+        materializedViewRegistry.rename(tableName, to);
     }
 
     private class WriterMaintenanceJob extends SynchronizedJob {
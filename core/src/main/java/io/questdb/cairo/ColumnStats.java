@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Numbers;
+
+/**
+ * Min/max value and null count of fixed-width column in single partition. Statistics are maintained by
+ * {@link TableWriter} in the ".st" file next to the column file. They describe first rows of the partition,
+ * the number of which is stored alongside. Writer extends statistics as rows are committed and computes
+ * them again from scratch when rows are rolled back or column is shifted, so that statistics can also
+ * shrink. Statistics prove something only about rows they cover, they are safe to rule partitions out
+ * when they cover all rows query sees, but not to compute query results.
+ * <p>
+ * File layout is min and max value, null count, the number of partition rows statistics cover and
+ * version, 8 bytes each. Values of float columns are stored as doubles, other types are stored as longs.
+ * Writer makes version odd for the duration of update and even once update is complete. Readers retry
+ * when version is odd or has changed while they were reading, this way they never mix values of two updates.
+ */
+public class ColumnStats {
+    static final long OFFSET_MIN = 0;
+    static final long OFFSET_MAX = 8;
+    static final long OFFSET_NULL_COUNT = 16;
+    static final long OFFSET_ROW_COUNT = 24;
+    static final long OFFSET_VERSION = 32;
+    static final long FILE_SIZE = 40;
+    private long min;
+    private long max;
+    private long nullCount;
+    private long rowCount;
+    private boolean floatingPoint;
+
+    public static boolean isFloatingPoint(int columnType) {
+        return columnType == ColumnType.FLOAT || columnType == ColumnType.DOUBLE;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (columnType) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public double getMaxDouble() {
+        return floatingPoint ? Double.longBitsToDouble(max) : Numbers.longToDouble(max);
+    }
+
+    public long getMaxLong() {
+        return max;
+    }
+
+    public double getMinDouble() {
+        return floatingPoint ? Double.longBitsToDouble(min) : Numbers.longToDouble(min);
+    }
+
+    public long getMinLong() {
+        return min;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return true when all rows statistics cover are null, min and max values are undefined
+     */
+    public boolean isAllNull() {
+        return nullCount >= rowCount;
+    }
+
+    void of(int columnType, long min, long max, long nullCount, long rowCount) {
+        this.floatingPoint = isFloatingPoint(columnType);
+        this.min = min;
+        this.max = max;
+        this.nullCount = nullCount;
+        this.rowCount = rowCount;
+    }
+}
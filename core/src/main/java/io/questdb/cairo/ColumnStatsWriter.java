@@ -0,0 +1,316 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Maintains {@link ColumnStats} of single column in the partition writer has open. Rows are read back
+ * from the column, which makes no difference whether they were appended row by row, as a block
+ * or by out-of-order merge. Statistics are brought up to date before transaction is committed and before
+ * writer moves on to another partition. Statistics file is mapped to memory, so that commit
+ * does not pay for system call per column. File of new partition is mapped on first update.
+ */
+class ColumnStatsWriter implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ColumnStatsWriter.class);
+    private final FilesFacade ff;
+    private final int columnType;
+    private final int sizeShift;
+    private long statsFd = -1;
+    private long statsAddress = 0;
+    private long columnTop;
+    private long min;
+    private long max;
+    private long nullCount;
+    private long rowCount;
+
+    ColumnStatsWriter(FilesFacade ff, int columnType) {
+        assert ColumnStats.isSupported(columnType);
+        this.ff = ff;
+        this.columnType = columnType;
+        this.sizeShift = Numbers.msb(ColumnType.sizeOf(columnType));
+        reset();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Opens statistics of column in the partition. Statistics that claim to cover more rows than the
+     * partition has are left over by rolled back transaction and statistics with odd version are left over
+     * by interrupted update, both are discarded and computed again.
+     * Statistics are optional, when they cannot be maintained their file is removed and writer carries on.
+     *
+     * @param path              partition path
+     * @param name              column name
+     * @param partitionRowCount number of rows partition has
+     * @param columnTop         number of rows column does not have in the partition
+     */
+    void of(Path path, CharSequence name, long partitionRowCount, long columnTop) {
+        clear();
+        final int plen = path.length();
+        try {
+            this.columnTop = columnTop;
+            this.statsFd = ff.openRW(TableUtils.statsFile(path, name));
+            if (statsFd == -1) {
+                throw CairoException.instance(ff.errno()).put("could not open [file=").put(path).put(']');
+            }
+            reset();
+            if (ff.length(statsFd) >= ColumnStats.FILE_SIZE) {
+                map();
+                final long rowCount = Unsafe.getUnsafe().getLong(statsAddress + ColumnStats.OFFSET_ROW_COUNT);
+                final long version = Unsafe.getUnsafe().getLong(statsAddress + ColumnStats.OFFSET_VERSION);
+                if (rowCount <= partitionRowCount && (version & 1) == 0) {
+                    this.min = Unsafe.getUnsafe().getLong(statsAddress + ColumnStats.OFFSET_MIN);
+                    this.max = Unsafe.getUnsafe().getLong(statsAddress + ColumnStats.OFFSET_MAX);
+                    this.nullCount = Unsafe.getUnsafe().getLong(statsAddress + ColumnStats.OFFSET_NULL_COUNT);
+                    this.rowCount = rowCount;
+                } else {
+                    write();
+                }
+            }
+        } catch (CairoException e) {
+            LOG.error().$("column stats disabled [path=").$(path).$(", errno=").$(e.getErrno()).$(", msg=").$(e.getFlyweightMessage()).$(']').$();
+            clear();
+            // stale statistics must not outlive rows they describe
+            ff.remove(TableUtils.statsFile(path.trimTo(plen), name));
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    void clear() {
+        if (statsAddress != 0) {
+            ff.munmap(statsAddress, ColumnStats.FILE_SIZE);
+            statsAddress = 0;
+        }
+        if (statsFd != -1) {
+            ff.close(statsFd);
+            statsFd = -1;
+        }
+    }
+
+    void truncate() {
+        reset();
+        if (statsAddress != 0) {
+            write();
+        }
+    }
+
+    /**
+     * Extends statistics with rows from the last update up to the given row.
+     *
+     * @param mem       column memory writer appends to
+     * @param hi        partition row, exclusive
+     * @param columnTop number of rows column does not have in the partition
+     */
+    void update(AppendMemory mem, long hi, long columnTop) {
+        if (statsFd == -1) {
+            return;
+        }
+        if (hi < rowCount || columnTop != this.columnTop) {
+            // rows have been rolled back or column has been shifted, start over
+            reset();
+            this.columnTop = columnTop;
+            if (statsAddress != 0) {
+                write();
+            }
+        }
+        if (hi == rowCount) {
+            return;
+        }
+
+        long lo = rowCount;
+        if (lo < columnTop) {
+            final long top = Math.min(hi, columnTop);
+            nullCount += top - lo;
+            lo = top;
+        }
+
+        if (lo < hi) {
+            final long offsetLo = (lo - columnTop) << sizeShift;
+            final long offsetHi = (hi - columnTop) << sizeShift;
+            final int page = mem.pageIndex(offsetLo);
+            final long pageAddress = mem.getPageAddress(page);
+            if (pageAddress != -1 && mem.pageIndex(offsetHi - 1) == page) {
+                // rows of typical commit are still in the page writer has mapped
+                scan(pageAddress + mem.offsetInPage(offsetLo), hi - lo);
+            } else if (!scan(mem.getFd(), offsetLo, offsetHi, hi - lo)) {
+                // leave statistics file in the state that does not cover any rows
+                reset();
+                if (statsAddress != 0) {
+                    write();
+                }
+                clear();
+                return;
+            }
+        }
+        rowCount = hi;
+        if (statsAddress == 0) {
+            // new file is mapped when there are rows to describe
+            try {
+                map();
+            } catch (CairoException e) {
+                LOG.error().$("column stats disabled [fd=").$(statsFd).$(", errno=").$(e.getErrno()).$(", msg=").$(e.getFlyweightMessage()).$(']').$();
+                clear();
+                return;
+            }
+        }
+        write();
+    }
+
+    private void map() {
+        if (ff.length(statsFd) < ColumnStats.FILE_SIZE && !ff.allocate(statsFd, ColumnStats.FILE_SIZE)) {
+            throw CairoException.instance(ff.errno()).put("could not allocate [fd=").put(statsFd).put(']');
+        }
+        final long address = ff.mmap(statsFd, ColumnStats.FILE_SIZE, 0, Files.MAP_RW);
+        if (address == -1) {
+            throw CairoException.instance(ff.errno()).put("could not mmap [fd=").put(statsFd).put(']');
+        }
+        this.statsAddress = address;
+    }
+
+    private boolean scan(long dataFd, long offsetLo, long offsetHi, long count) {
+        final long pageSize = ff.getPageSize();
+        final long mapOffset = offsetLo - offsetLo % pageSize;
+        final long mapSize = offsetHi - mapOffset;
+        final long address = ff.mmap(dataFd, mapSize, mapOffset, Files.MAP_RO);
+        if (address == -1) {
+            LOG.error().$("could not mmap column, stats disabled [fd=").$(dataFd).$(", offset=").$(mapOffset).$(", size=").$(mapSize).$(", errno=").$(ff.errno()).$(']').$();
+            return false;
+        }
+        try {
+            scan(address + offsetLo - mapOffset, count);
+        } finally {
+            ff.munmap(address, mapSize);
+        }
+        return true;
+    }
+
+    private void reset() {
+        if (ColumnStats.isFloatingPoint(columnType)) {
+            min = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+            max = Double.doubleToLongBits(Double.NEGATIVE_INFINITY);
+        } else {
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+        nullCount = 0;
+        rowCount = 0;
+    }
+
+    private void scan(long address, long count) {
+        switch (columnType) {
+            case ColumnType.BYTE:
+                for (long i = 0; i < count; i++) {
+                    updateLong(Unsafe.getUnsafe().getByte(address + i));
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long i = 0; i < count; i++) {
+                    updateLong(Unsafe.getUnsafe().getShort(address + (i << 1)));
+                }
+                break;
+            case ColumnType.CHAR:
+                for (long i = 0; i < count; i++) {
+                    updateLong(Unsafe.getUnsafe().getChar(address + (i << 1)));
+                }
+                break;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                for (long i = 0; i < count; i++) {
+                    final int value = Unsafe.getUnsafe().getInt(address + (i << 2));
+                    if (value == Numbers.INT_NaN) {
+                        nullCount++;
+                    } else {
+                        updateLong(value);
+                    }
+                }
+                break;
+            case ColumnType.FLOAT:
+                for (long i = 0; i < count; i++) {
+                    updateDouble(Unsafe.getUnsafe().getFloat(address + (i << 2)));
+                }
+                break;
+            case ColumnType.DOUBLE:
+                for (long i = 0; i < count; i++) {
+                    updateDouble(Unsafe.getUnsafe().getDouble(address + (i << 3)));
+                }
+                break;
+            default:
+                for (long i = 0; i < count; i++) {
+                    final long value = Unsafe.getUnsafe().getLong(address + (i << 3));
+                    if (value == Numbers.LONG_NaN) {
+                        nullCount++;
+                    } else {
+                        updateLong(value);
+                    }
+                }
+                break;
+        }
+    }
+
+    private void updateDouble(double value) {
+        if (value != value) {
+            nullCount++;
+        } else {
+            if (value < Double.longBitsToDouble(min)) {
+                min = Double.doubleToLongBits(value);
+            }
+            if (value > Double.longBitsToDouble(max)) {
+                max = Double.doubleToLongBits(value);
+            }
+        }
+    }
+
+    private void updateLong(long value) {
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    private void write() {
+        // version stays odd while values change, including when previous update did not complete
+        final long version = Unsafe.getUnsafe().getLong(statsAddress + ColumnStats.OFFSET_VERSION) | 1;
+        Unsafe.getUnsafe().putLong(statsAddress + ColumnStats.OFFSET_VERSION, version);
+        Unsafe.getUnsafe().storeFence();
+        Unsafe.getUnsafe().putLong(statsAddress + ColumnStats.OFFSET_MIN, min);
+        Unsafe.getUnsafe().putLong(statsAddress + ColumnStats.OFFSET_MAX, max);
+        Unsafe.getUnsafe().putLong(statsAddress + ColumnStats.OFFSET_NULL_COUNT, nullCount);
+        Unsafe.getUnsafe().putLong(statsAddress + ColumnStats.OFFSET_ROW_COUNT, rowCount);
+        Unsafe.getUnsafe().storeFence();
+        Unsafe.getUnsafe().putLong(statsAddress + ColumnStats.OFFSET_VERSION, version + 1);
+    }
+}
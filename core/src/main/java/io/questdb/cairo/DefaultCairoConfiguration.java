@@ -31,6 +31,7 @@ import io.questdb.TelemetryConfiguration;
 import io.questdb.cutlass.text.DefaultTextConfiguration;
 import io.questdb.cutlass.text.TextConfiguration;
 import io.questdb.std.Chars;
+import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.NanosecondClock;
@@ -47,6 +48,7 @@ import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 public class DefaultCairoConfiguration implements CairoConfiguration {
 
     private final CharSequence root;
+    private final CharSequence spillRoot;
 
     private final TextConfiguration textConfiguration = new DefaultTextConfiguration();
 
@@ -56,6 +58,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
 
     public DefaultCairoConfiguration(CharSequence root) {
         this.root = Chars.toString(root);
+        this.spillRoot = Chars.toString(root) + Files.SEPARATOR + ".spill";
     }
 
     @Override
@@ -138,6 +141,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 30;
     }
 
+    @Override
+    public long getMaterializedViewRefreshInterval() {
+        return 100;
+    }
+
     @Override
     public MicrosecondClock getMicrosecondClock() {
         return MicrosecondClockImpl.INSTANCE;
@@ -183,6 +191,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return null;
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return spillRoot;
+    }
+
     @Override
     public DateFormat getBackupDirTimestampFormat() {
         return null;
@@ -370,6 +383,66 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlJitFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlVectorSampleByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlRadixSortEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlSortSpillEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlHashJoinSpillEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlMergeJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlPartitionPruningEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlSymbolKeyFilterEnabled() {
+        return true;
+    }
+
     @Override
     public int getSqlJoinMetadataPageSize() {
         return 16 * 1024;
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.LongList;
+
+/**
+ * Materialized view known to {@link MaterializedViewRegistry}. View is refreshed by single thread at a time,
+ * which owns refresh state. Out-of-order commits of base table are reported by writer threads and are kept
+ * until refresh has read data they have published.
+ */
+public class MaterializedView {
+    private final String name;
+    private final String baseTableName;
+    private final String sql;
+    private final CairoSecurityContext ownerSecurityContext;
+    // pairs of base table partition table version and low watermark of out-of-order commit
+    private final LongList o3Commits = new LongList();
+    private long basePartitionTableVersion;
+    private long baseTxn = -1;
+
+    public MaterializedView(
+            String name,
+            String baseTableName,
+            String sql,
+            CairoSecurityContext ownerSecurityContext,
+            long basePartitionTableVersion
+    ) {
+        this.name = name;
+        this.baseTableName = baseTableName;
+        this.sql = sql;
+        this.ownerSecurityContext = ownerSecurityContext;
+        this.basePartitionTableVersion = basePartitionTableVersion;
+    }
+
+    MaterializedView(String name, MaterializedView other) {
+        this(name, other.baseTableName, other.sql, other.ownerSecurityContext, other.basePartitionTableVersion);
+        this.baseTxn = other.baseTxn;
+        synchronized (other) {
+            this.o3Commits.add(other.o3Commits);
+        }
+    }
+
+    public long getBasePartitionTableVersion() {
+        return basePartitionTableVersion;
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public long getBaseTxn() {
+        return baseTxn;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Lowest timestamp base table has received out of order since the view has been refreshed.
+     *
+     * @param partitionTableVersion partition table version of base table snapshot view is refreshed from
+     * @return lowest out-of-order timestamp, Long.MAX_VALUE when there has been no out-of-order commits, or
+     * Long.MIN_VALUE when base table has been changed without view being notified and view has to be rebuilt
+     */
+    public synchronized long getO3LowWatermark(long partitionTableVersion) {
+        if (partitionTableVersion == basePartitionTableVersion) {
+            return Long.MAX_VALUE;
+        }
+
+        long lowWatermark = Long.MAX_VALUE;
+        long count = 0;
+        for (int i = 0, n = o3Commits.size(); i < n; i += 2) {
+            final long version = o3Commits.getQuick(i);
+            if (version > basePartitionTableVersion && version <= partitionTableVersion) {
+                lowWatermark = Math.min(lowWatermark, o3Commits.getQuick(i + 1));
+                count++;
+            }
+        }
+        // version also moves on commits view has not been notified of, such as commits before
+        // restart or partition removal
+        return count == partitionTableVersion - basePartitionTableVersion ? lowWatermark : Long.MIN_VALUE;
+    }
+
+    public CairoSecurityContext getOwnerSecurityContext() {
+        return ownerSecurityContext;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Records base table snapshot view has been refreshed from and discards out-of-order commits it included.
+     *
+     * @param baseTxn               base table transaction
+     * @param partitionTableVersion base table partition table version
+     */
+    public synchronized void onRefreshed(long baseTxn, long partitionTableVersion) {
+        this.baseTxn = baseTxn;
+        this.basePartitionTableVersion = partitionTableVersion;
+        int n = 0;
+        for (int i = 0, size = o3Commits.size(); i < size; i += 2) {
+            if (o3Commits.getQuick(i) > partitionTableVersion) {
+                o3Commits.setQuick(n++, o3Commits.getQuick(i));
+                o3Commits.setQuick(n++, o3Commits.getQuick(i + 1));
+            }
+        }
+        o3Commits.setPos(n);
+    }
+
+    synchronized void onO3Commit(long partitionTableVersion, long lowWatermark) {
+        o3Commits.add(partitionTableVersion);
+        o3Commits.add(lowWatermark);
+    }
+}
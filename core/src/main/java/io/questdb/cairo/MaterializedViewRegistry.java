@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.Chars;
+import io.questdb.std.ObjList;
+
+/**
+ * Materialized views of the database. Views are registered when they are created and when refresh job
+ * discovers them on startup; dropped and renamed views are updated by the engine. Pooled writers report
+ * out-of-order commits to the registry, which passes them on to views of the committed table.
+ */
+public class MaterializedViewRegistry implements O3CommitListener {
+    private final CharSequenceObjHashMap<MaterializedView> views = new CharSequenceObjHashMap<>();
+
+    public synchronized void getViews(ObjList<MaterializedView> sink) {
+        sink.clear();
+        final ObjList<CharSequence> names = views.keys();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            sink.add(views.get(names.getQuick(i)));
+        }
+    }
+
+    @Override
+    public synchronized void onO3Commit(CharSequence tableName, long partitionTableVersion, long lowWatermark) {
+        final ObjList<CharSequence> names = views.keys();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            final MaterializedView view = views.get(names.getQuick(i));
+            if (Chars.equals(view.getBaseTableName(), tableName)) {
+                view.onO3Commit(partitionTableVersion, lowWatermark);
+            }
+        }
+    }
+
+    /**
+     * Registers view, replacing view of the same name.
+     *
+     * @param view view to register
+     * @return registered view
+     */
+    public synchronized MaterializedView register(MaterializedView view) {
+        views.put(view.getName(), view);
+        return view;
+    }
+
+    /**
+     * Registers view unless view of the same name is already registered.
+     *
+     * @param view view to register
+     */
+    public synchronized void registerIfAbsent(MaterializedView view) {
+        final int index = views.keyIndex(view.getName());
+        if (index > -1) {
+            views.putAt(index, view.getName(), view);
+        }
+    }
+
+    public synchronized void remove(CharSequence name) {
+        views.remove(name);
+    }
+
+    public synchronized void rename(CharSequence name, CharSequence newName) {
+        final MaterializedView view = views.get(name);
+        if (view != null) {
+            views.remove(name);
+            final String viewName = Chars.toString(newName);
+            views.put(viewName, new MaterializedView(viewName, view));
+        }
+    }
+}
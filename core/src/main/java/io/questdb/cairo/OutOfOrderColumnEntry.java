@@ -0,0 +1,100 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.Sinkable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Unit of out-of-order work, which is confined to a single column of a single partition. Out-of-order
+ * merge is split by partition and column so that columns can be shuffled, copied and indexed by worker
+ * threads concurrently. Each partition has its own merge struct, where each column is backed by its own
+ * slots, and each column has its own out-of-order memory, therefore column entries of the same writer never
+ * share mutable state.
+ */
+public class OutOfOrderColumnEntry {
+    static final int STAGE_SHUFFLE = 0;
+    static final int STAGE_COPY = 1;
+    private static final Log LOG = LogFactory.getLog(OutOfOrderColumnEntry.class);
+    private static final long TARGET_SEQUENCE_OFFSET;
+
+    static {
+        TARGET_SEQUENCE_OFFSET = Unsafe.getFieldOffset(OutOfOrderColumnEntry.class, "targetSequence");
+    }
+
+    private final TableWriter writer;
+    private int columnIndex;
+    private int stage;
+    private OutOfOrderPartition partition;
+    private long srcSequence;
+    // to "lock" the entry thread must successfully CAS targetSequence from "srcSequence" value
+    // to "srcSequence+1". Executing thread must not be changing value of "srcSequence"
+    @SuppressWarnings({"FieldCanBeLocal", "unused", "FieldMayBeFinal"})
+    private volatile long targetSequence = 0;
+    private SOCountDownLatch doneLatch;
+    private volatile boolean distressed = false;
+
+    OutOfOrderColumnEntry(TableWriter writer) {
+        this.writer = writer;
+    }
+
+    public boolean run() {
+        if (tryLock()) {
+            try {
+                writer.oooProcessColumn(stage, partition, columnIndex);
+            } catch (CairoException e) {
+                distressed = true;
+                LOG.error().$("out of order error [column=").$(columnIndex).$(", stage=").$(stage).$("] {").$((Sinkable) e).$('}').$();
+            } finally {
+                doneLatch.countDown();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    boolean isDistressed() {
+        return distressed;
+    }
+
+    void of(int stage, OutOfOrderPartition partition, int columnIndex, SOCountDownLatch doneLatch) {
+        this.stage = stage;
+        this.partition = partition;
+        this.columnIndex = columnIndex;
+        this.doneLatch = doneLatch;
+        this.distressed = false;
+        // sequence advances by two so that stale queue item cannot
+        // lock the entry before "targetSequence" is re-armed
+        this.srcSequence = targetSequence + 1;
+        this.targetSequence = srcSequence;
+    }
+
+    boolean tryLock() {
+        return Unsafe.cas(this, TARGET_SEQUENCE_OFFSET, srcSequence, srcSequence + 1);
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+/**
+ * State of out-of-order copy into single partition. Copy of every partition has its own merge struct
+ * and merge index, therefore columns of several partitions can be copied by worker threads concurrently.
+ * Copy is described by up to three blocks: prefix, merge and suffix, each of which is sourced either from
+ * out-of-order data or from data already in the partition.
+ */
+class OutOfOrderPartition {
+    long[] mergeStruct;
+    // descriptor of partition timestamp column, which is closed once copy is done
+    long timestampFd;
+    int prefixType;
+    long prefixLo;
+    long prefixHi;
+    int mergeType;
+    long mergeDataLo;
+    long mergeDataHi;
+    long mergeOOOLo;
+    long mergeOOOHi;
+    int suffixType;
+    long suffixLo;
+    long suffixHi;
+    long mergeIndex;
+    long mergeIndexLen;
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temporary files of sorts and joins that run out of memory and spill to disk. Files live in
+ * spill root, which is emptied when engine starts, so that files left behind by a process that did
+ * not exit cleanly do not accumulate. File ids are unique within the process.
+ */
+public final class SpillFiles {
+    private static final Log LOG = LogFactory.getLog(SpillFiles.class);
+    private static final AtomicLong FILE_ID = new AtomicLong();
+
+    private SpillFiles() {
+    }
+
+    /**
+     * Removes spill root together with whatever files it has.
+     *
+     * @param configuration configuration of the engine that is starting
+     * @param path          path to use
+     */
+    public static void clean(CairoConfiguration configuration, Path path) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getSqlSpillRoot()).$();
+        if (ff.exists(path) && !ff.rmdir(path)) {
+            LOG.error().$("could not remove spill files [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+        }
+    }
+
+    /**
+     * Creates spill root when it does not exist.
+     *
+     * @param configuration configuration
+     * @param path          path to use
+     * @return id of new spill file
+     */
+    public static long nextFileId(CairoConfiguration configuration, Path path) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getSqlSpillRoot()).put(Files.SEPARATOR).$();
+        if (!ff.exists(path) && ff.mkdirs(path, configuration.getMkDirMode()) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        return FILE_ID.incrementAndGet();
+    }
+}
@@ -445,7 +445,7 @@ public class TableBlockWriter implements Closeable {
             assert !opened;
             partitionStruct.of(columnCount);
             path.of(root).concat(writer.getName());
-            timestampHi = TableUtils.setPathForPartition(path, partitionBy, timestampLo);
+            timestampHi = TableUtils.setPathForPartition(path, partitionBy, timestampLo, writer.getPartitionNameTxn(timestampLo));
             int plen = path.length();
             try {
                 if (ff.mkdirs(path.put(Files.SEPARATOR).$(), mkDirMode) != 0) {
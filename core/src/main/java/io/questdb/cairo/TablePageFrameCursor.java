@@ -25,6 +25,8 @@ public class TablePageFrameCursor implements PageFrameCursor {
     private int partitionCount;
     private int timestampColumnIndex;
     private long frameFirstRow;
+    private long framePartitionLo;
+    private long framePartitionHi;
     private long nPartitionRows;
     private long firstTimestamp = Long.MIN_VALUE;
     private int columnBase;
@@ -179,7 +181,9 @@ public class TablePageFrameCursor implements PageFrameCursor {
                 }
             }
 
+            framePartitionLo = frameFirstRow;
             frameFirstRow += nFrameRows;
+            framePartitionHi = frameFirstRow;
             assert frameFirstRow <= nPartitionRows;
             if (frameFirstRow == nPartitionRows) {
                 moveToNextPartition = true;
@@ -263,6 +267,16 @@ public class TablePageFrameCursor implements PageFrameCursor {
             return partitionIndex;
         }
 
+        @Override
+        public long getPartitionLo() {
+            return framePartitionLo;
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return framePartitionHi;
+        }
+
         @Override
         public long getPageSize(int i) {
             return columnFrameLengths.getQuick(i);
@@ -39,6 +39,7 @@ import java.util.concurrent.locks.LockSupport;
 import static io.questdb.cairo.TableUtils.TX_OFFSET_MIN_TIMESTAMP;
 
 public class TableReader implements Closeable, SymbolTableSource {
+    private static final int COLUMN_STATS_READ_ATTEMPTS = 16;
     private static final Log LOG = LogFactory.getLog(TableReader.class);
     private static final PartitionPathGenerator YEAR_GEN = TableReader::pathGenYear;
     private static final PartitionPathGenerator MONTH_GEN = TableReader::pathGenMonth;
@@ -66,6 +67,10 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final CairoConfiguration configuration;
     private final IntList symbolCountSnapshot = new IntList();
     private final LongHashSet removedPartitions = new LongHashSet();
+    // pairs of (partition timestamp, name txn) for partitions rewritten by out-of-order merge
+    private final LongList partitionNameTxns = new LongList();
+    // partition name txns open partitions have been opened with
+    private final LongList prevPartitionNameTxns = new LongList();
     private LongList columnTops;
     private ObjList<ReadOnlyColumn> columns;
     private ObjList<BitmapIndexReader> bitmapIndexes;
@@ -79,6 +84,9 @@ public class TableReader implements Closeable, SymbolTableSource {
     private long prevPartitionTableVersion;
     private long rowCount;
     private long txn = TableUtils.INITIAL_TXN;
+    private TxnScoreboard txnScoreboard;
+    // true when "txn" is acquired on scoreboard
+    private boolean txnAcquired = false;
     private long maxTimestamp = Numbers.LONG_NaN;
     private int partitionCount;
     private long minTimestamp = Long.MAX_VALUE;
@@ -96,6 +104,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         try {
             failOnPendingTodo();
             this.txMem = openTxnFile();
+            this.txnScoreboard = new TxnScoreboard(ff, path);
             this.metadata = openMetaFile();
             this.columnCount = this.metadata.getColumnCount();
             this.columnCountBits = getColumnBits(columnCount);
@@ -133,6 +142,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             openSymbolMaps();
             this.prevStructVersion = structVersion;
             this.prevPartitionTableVersion = partitionTableVersion;
+            this.prevPartitionNameTxns.add(partitionNameTxns);
             if (metadata.getPartitionBy() == PartitionBy.NONE) {
                 checkDefaultPartitionExistsAndUpdatePartitionCount();
             } else {
@@ -193,6 +203,11 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(path);
             Misc.free(metadata);
             Misc.free(txMem);
+            if (txnAcquired) {
+                txnScoreboard.release(txn);
+                txnAcquired = false;
+            }
+            txnScoreboard = Misc.free(txnScoreboard);
             freeColumns();
             freeTempMem();
             LOG.info().$("closed '").utf8(tableName).$('\'').$();
@@ -286,6 +301,10 @@ public class TableReader implements Closeable, SymbolTableSource {
         return (int) intervalLengthMethod.calculate(partitionTimestamp1, partitionTimestamp2);
     }
 
+    public long getPartitionTableVersion() {
+        return partitionTableVersion;
+    }
+
     public int getPartitionedBy() {
         return metadata.getPartitionBy();
     }
@@ -303,6 +322,10 @@ public class TableReader implements Closeable, SymbolTableSource {
         return tableName;
     }
 
+    public long getTxn() {
+        return txn;
+    }
+
     public long getVersion() {
         return this.structVersion;
     }
@@ -361,6 +384,61 @@ public class TableReader implements Closeable, SymbolTableSource {
         return openPartition0(partitionIndex);
     }
 
+    /**
+     * Reads min/max statistics writer keeps for column in the partition. Statistics are read consistently,
+     * values of concurrent update are never mixed with values of the previous one. Statistics may cover
+     * more or fewer rows than this reader can see, callers must check row count before relying on them.
+     *
+     * @param partitionIndex partition index
+     * @param columnIndex    column index
+     * @param stats          statistics to populate
+     * @return false when partition does not have statistics for the column
+     */
+    public boolean readColumnStats(int partitionIndex, int columnIndex, ColumnStats stats) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ColumnStats.isSupported(columnType)) {
+            return false;
+        }
+        final Path path = partitionPathGenerator.generate(this, partitionIndex);
+        try {
+            final long fd = ff.openRO(TableUtils.statsFile(path.chopZ(), metadata.getColumnName(columnIndex)));
+            if (fd == -1) {
+                return false;
+            }
+            try {
+                for (int attempt = 0; attempt < COLUMN_STATS_READ_ATTEMPTS; attempt++) {
+                    final long version = readStatsLong(fd, ColumnStats.OFFSET_VERSION);
+                    if (version == -1) {
+                        // file is shorter than statistics
+                        return false;
+                    }
+                    if ((version & 1) != 0) {
+                        // writer is half way through update
+                        continue;
+                    }
+                    final long min = readStatsLong(fd, ColumnStats.OFFSET_MIN);
+                    final long max = readStatsLong(fd, ColumnStats.OFFSET_MAX);
+                    final long nullCount = readStatsLong(fd, ColumnStats.OFFSET_NULL_COUNT);
+                    final long rowCount = readStatsLong(fd, ColumnStats.OFFSET_ROW_COUNT);
+                    Unsafe.getUnsafe().loadFence();
+                    if (readStatsLong(fd, ColumnStats.OFFSET_VERSION) == version) {
+                        if (rowCount < 0) {
+                            return false;
+                        }
+                        stats.of(columnType, min, max, nullCount, rowCount);
+                        return true;
+                    }
+                }
+                // statistics are optional, query scans partition instead of waiting for writer
+                return false;
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public boolean reload() {
         return reloadMethod.reload(this);
     }
@@ -562,6 +640,30 @@ public class TableReader implements Closeable, SymbolTableSource {
         Misc.free(bitmapIndexes.getAndSetQuick(index + 1, null));
     }
 
+    private void closeAllPartitions() {
+        for (int i = 0; i < partitionCount; i++) {
+            closePartition(i);
+        }
+        LOG.info()
+                .$("purging memory [prevMinTimestamp=").$ts(prevMinTimestamp)
+                .$(", minTimestamp=").$ts(minTimestamp)
+                .$(", partitionCount=").$(partitionCount)
+                .$(']').$();
+        prevMinTimestamp = minTimestamp;
+        partitionCount = calculatePartitionCount();
+        updateCapacities();
+    }
+
+    private void closePartition(int partitionIndex) {
+        if (getPartitionRowCount(partitionIndex) != -1) {
+            int base = getColumnBase(partitionIndex);
+            for (int k = 0; k < columnCount; k++) {
+                closeColumn(base, k);
+            }
+            partitionRowCounts.setQuick(partitionIndex, -1);
+        }
+    }
+
     private void closeRemovedPartitions() {
         for (int i = 0, n = removedPartitions.size(); i < n; i++) {
             final long timestamp = removedPartitions.get(i);
@@ -569,15 +671,8 @@ public class TableReader implements Closeable, SymbolTableSource {
             int partitionIndex = getPartitionCountBetweenTimestamps(prevMinTimestamp, timestamp);
             if (partitionIndex > -1) {
                 if (partitionIndex < partitionCount) {
-                    if (getPartitionRowCount(partitionIndex) != -1) {
-                        // this is an open partition
-                        int base = getColumnBase(partitionIndex);
-                        for (int k = 0; k < columnCount; k++) {
-                            closeColumn(base, k);
-                        }
-                        partitionRowCounts.setQuick(partitionIndex, -1);
-                    }
-                    // partition has not yet been opened
+                    // partition may not have been opened yet
+                    closePartition(partitionIndex);
                 } else {
                     LOG.error()
                             .$("partition index is out of range [partitionIndex=").$(partitionIndex)
@@ -603,6 +698,22 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private void closeRewrittenPartitions() {
+        // partitions rewritten by out-of-order merge change name txn, the
+        // ones we have open point to the previous version of partition
+        for (int i = 0, n = partitionNameTxns.size(); i < n; i += 2) {
+            final long timestamp = partitionNameTxns.getQuick(i);
+            final long nameTxn = partitionNameTxns.getQuick(i + 1);
+            if (timestamp >= prevMinTimestamp && getPrevPartitionNameTxn(timestamp) != nameTxn) {
+                final int partitionIndex = getPartitionCountBetweenTimestamps(prevMinTimestamp, timestamp);
+                if (partitionIndex < partitionCount) {
+                    LOG.info().$("partition has been rewritten [timestamp=").$ts(timestamp).$(", nameTxn=").$(nameTxn).$(']').$();
+                    closePartition(partitionIndex);
+                }
+            }
+        }
+    }
+
     private void copyColumnsTo(
             ObjList<ReadOnlyColumn> columns,
             LongList columnTops,
@@ -663,6 +774,13 @@ public class TableReader implements Closeable, SymbolTableSource {
         return reader;
     }
 
+    private long readStatsLong(long fd, long offset) {
+        if (ff.read(fd, tempMem8b, Long.BYTES, offset) != Long.BYTES) {
+            return -1;
+        }
+        return Unsafe.getUnsafe().getLong(tempMem8b);
+    }
+
     private void createNewColumnList(int columnCount, long pTransitionIndex, int columnBits) {
         int capacity = partitionCount << columnBits;
         final ObjList<ReadOnlyColumn> columns = new ObjList<>(capacity);
@@ -767,10 +885,6 @@ public class TableReader implements Closeable, SymbolTableSource {
         return transientRowCount;
     }
 
-    long getTxn() {
-        return txn;
-    }
-
     boolean hasNull(int columnIndex) {
         for (int i = 0; i < partitionCount; i++) {
             openPartition(i);
@@ -790,6 +904,15 @@ public class TableReader implements Closeable, SymbolTableSource {
         return false;
     }
 
+    private long getPrevPartitionNameTxn(long partitionTimestamp) {
+        for (int i = 0, n = prevPartitionNameTxns.size(); i < n; i += 2) {
+            if (prevPartitionNameTxns.getQuick(i) == partitionTimestamp) {
+                return prevPartitionNameTxns.getQuick(i + 1);
+            }
+        }
+        return -1;
+    }
+
     private void incrementPartitionCountBy(int delta) {
         partitionRowCounts.seed(partitionCount, delta, -1);
         partitionCount += delta;
@@ -901,13 +1024,14 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     private Path pathGenDay(int partitionIndex) {
+        final long partitionTimestamp = Timestamps.addDays(minTimestamp, partitionIndex);
         TableUtils.fmtDay.format(
-                Timestamps.addDays(minTimestamp, partitionIndex),
+                partitionTimestamp,
                 null, // this format does not need locale access
                 null,
                 path.put(Files.SEPARATOR)
         );
-        return path.$();
+        return putPartitionNameTxn(partitionTimestamp);
     }
 
     private Path pathGenDefault() {
@@ -915,22 +1039,34 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     private Path pathGenMonth(int partitionIndex) {
+        final long partitionTimestamp = Timestamps.addMonths(minTimestamp, partitionIndex);
         TableUtils.fmtMonth.format(
-                Timestamps.addMonths(minTimestamp, partitionIndex),
+                partitionTimestamp,
                 null, // this format does not need locale access
                 null,
                 path.put(Files.SEPARATOR)
         );
-        return path.$();
+        return putPartitionNameTxn(partitionTimestamp);
     }
 
     private Path pathGenYear(int partitionIndex) {
+        final long partitionTimestamp = Timestamps.addYear(minTimestamp, partitionIndex);
         TableUtils.fmtYear.format(
-                Timestamps.addYear(minTimestamp, partitionIndex),
+                partitionTimestamp,
                 null, // this format does not need locale access
                 null,
                 path.put(Files.SEPARATOR)
         );
+        return putPartitionNameTxn(partitionTimestamp);
+    }
+
+    private Path putPartitionNameTxn(long partitionTimestamp) {
+        for (int i = 0, n = partitionNameTxns.size(); i < n; i += 2) {
+            if (partitionNameTxns.getQuick(i) == partitionTimestamp) {
+                path.put('.').put(partitionNameTxns.getQuick(i + 1));
+                break;
+            }
+        }
         return path.$();
     }
 
@@ -987,10 +1123,34 @@ public class TableReader implements Closeable, SymbolTableSource {
                     }
                 }
 
+                this.partitionNameTxns.clear();
+                final long partitionNameTxnSizeOffset = TableUtils.getPartitionNameTxnSizeOffset(symbolMapCount, partitionTableSize);
+                // transaction files created by earlier versions end with removed partition table
+                if (ff.length(txMem.getFd()) >= partitionNameTxnSizeOffset + Integer.BYTES) {
+                    txMem.grow(partitionNameTxnSizeOffset + Integer.BYTES);
+                    int partitionNameTxnCount = txMem.getInt(partitionNameTxnSizeOffset);
+                    if (partitionNameTxnCount > 0) {
+                        txMem.grow(TableUtils.getPartitionNameTxnIndexOffset(symbolMapCount, partitionTableSize, partitionNameTxnCount));
+                        for (int i = 0; i < partitionNameTxnCount; i++) {
+                            final long offset = TableUtils.getPartitionNameTxnIndexOffset(symbolMapCount, partitionTableSize, i);
+                            this.partitionNameTxns.add(txMem.getLong(offset));
+                            this.partitionNameTxns.add(txMem.getLong(offset + Long.BYTES));
+                        }
+                    }
+                }
+
                 Unsafe.getUnsafe().loadFence();
+                // writer keeps files of superseded transactions while there are readers at them,
+                // acquire transaction before confirming it is still current
+                txnScoreboard.acquire(txn);
+                Unsafe.getUnsafe().fullFence();
                 // ok, we have snapshot, check if our snapshot is stable
                 if (txn == txMem.getLong(TableUtils.TX_OFFSET_TXN)) {
                     // good, very stable, congrats
+                    if (txnAcquired) {
+                        txnScoreboard.release(this.txn);
+                    }
+                    txnAcquired = true;
                     this.txn = txn;
                     this.transientRowCount = transientRowCount;
                     this.rowCount = fixedRowCount + transientRowCount;
@@ -1017,6 +1177,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 }
                 // This is unlucky, sequences have changed while we were reading transaction data
                 // We must discard and try again
+                txnScoreboard.release(txn);
             }
             count++;
             if (configuration.getMicrosecondClock().getTicks() > deadline) {
@@ -1206,7 +1367,6 @@ public class TableReader implements Closeable, SymbolTableSource {
 
     private boolean reloadPartitioned() {
         assert timestampFloorMethod != null;
-        final long currentPartitionTimestamp = maxTimestamp == Long.MIN_VALUE ? maxTimestamp : floorToPartitionTimestamp(maxTimestamp);
         final long dataVersion = this.dataVersion;
         if (readTxn()) {
             reloadStruct();
@@ -1224,8 +1384,8 @@ public class TableReader implements Closeable, SymbolTableSource {
 
             assert intervalLengthMethod != null;
 
-            //  calculate timestamp delta between before and after reload.
-            int delta = getPartitionCountBetweenTimestamps(currentPartitionTimestamp, floorToPartitionTimestamp(maxTimestamp));
+            //  calculate partition count delta between before and after reload.
+            int delta = calculatePartitionCount() - partitionCount;
             int partitionIndex = partitionCount - 1;
             // do we have something to reload?
             if (getPartitionRowCount(partitionIndex) > -1) {
@@ -1269,7 +1429,16 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
 
         if (this.prevPartitionTableVersion != this.partitionTableVersion) {
-            closeRemovedPartitions();
+            if (minTimestamp < prevMinTimestamp && prevMinTimestamp != Long.MAX_VALUE) {
+                // out-of-order data has been written below the first partition,
+                // partition indexes have shifted and we have to start afresh
+                closeAllPartitions();
+            } else {
+                closeRewrittenPartitions();
+                closeRemovedPartitions();
+            }
+            this.prevPartitionNameTxns.clear();
+            this.prevPartitionNameTxns.add(partitionNameTxns);
             this.prevPartitionTableVersion = partitionTableVersion;
         }
     }
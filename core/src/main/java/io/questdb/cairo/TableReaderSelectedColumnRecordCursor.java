@@ -27,11 +27,13 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.TimeFrameRecordCursor;
 import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Rows;
 
-public class TableReaderSelectedColumnRecordCursor implements RecordCursor {
+public class TableReaderSelectedColumnRecordCursor implements TimeFrameRecordCursor {
 
     protected final TableReaderSelectedColumnRecord recordA;
     private final TableReaderSelectedColumnRecord recordB;
@@ -56,11 +58,32 @@ public class TableReaderSelectedColumnRecordCursor implements RecordCursor {
         reader = Misc.free(reader);
     }
 
+    @Override
+    public boolean collectFrames(LongList frames) {
+        for (int i = partitionLo; i < partitionLimit; i++) {
+            final long partitionSize = reader.openPartition(i);
+            // same boundaries as switchPartition0()
+            final long rowHi = i == partitionHi && recordHi > -1 ? recordHi : partitionSize;
+            if (rowHi > 0) {
+                frames.add(i);
+                frames.add(0);
+                frames.add(rowHi);
+            }
+        }
+        toTop();
+        return true;
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
     }
 
+    @Override
+    public int getReaderColumnIndex(int columnIndex) {
+        return columnIndexes.getQuick(columnIndex);
+    }
+
     @Override
     public SymbolTable getSymbolTable(int columnIndex) {
         return reader.getSymbolMapReader(columnIndexes.getQuick(columnIndex));
@@ -85,6 +108,11 @@ public class TableReaderSelectedColumnRecordCursor implements RecordCursor {
         ((TableReaderSelectedColumnRecord) record).jumpTo(Rows.toPartitionIndex(rowId), Rows.toLocalRowID(rowId));
     }
 
+    @Override
+    public TableReader getTableReader() {
+        return reader;
+    }
+
     @Override
     public void toTop() {
         partitionIndex = partitionLo;
@@ -40,6 +40,7 @@ public final class TableUtils {
     public static final int TABLE_EXISTS = 0;
     public static final int TABLE_DOES_NOT_EXIST = 1;
     public static final int TABLE_RESERVED = 2;
+    public static final String MATERIALIZED_VIEW_FILE_NAME = "_mv";
     public static final String META_FILE_NAME = "_meta";
     public static final String TXN_FILE_NAME = "_txn";
     public static final String UPGRADE_FILE_NAME = "_upgrade.d";
@@ -56,6 +57,7 @@ public final class TableUtils {
     public static final long META_OFFSET_TABLE_ID = 16;
     public static final String FILE_SUFFIX_I = ".i";
     public static final String FILE_SUFFIX_D = ".d";
+    public static final String FILE_SUFFIX_STATS = ".st";
     static final int MIN_INDEX_VALUE_BLOCK_SIZE = Numbers.ceilPow2(4);
     static final byte TODO_RESTORE_META = 2;
     static final byte TODO_TRUNCATE = 1;
@@ -83,6 +85,13 @@ public final class TableUtils {
      * long txn_check; // same as txn - sanity check for concurrent reads and writes
      * int  map_writer_count; // symbol writer count
      * int  map_writer_position[map_writer_count]; // position of each of map writers
+     * int  removed_partition_count;
+     * long removed_partition_timestamp[removed_partition_count];
+     * int  partition_name_txn_count;
+     * struct {
+     *   long partition_timestamp;
+     *   long name_txn; // partition directory is named "partition_name.name_txn"
+     * } partition_name_txn[partition_name_txn_count];
      * }
      * <p>
      * TableUtils.resetTxn() writes to this file, it could be using different offsets, beware
@@ -221,12 +230,20 @@ public final class TableUtils {
         return getSymbolWriterIndexOffset(symbolWriterCount);
     }
 
+    public static long getPartitionNameTxnIndexOffset(int symbolWriterCount, int removedPartitionsCount, int index) {
+        return getPartitionNameTxnSizeOffset(symbolWriterCount, removedPartitionsCount) + 4 + index * 16L;
+    }
+
+    public static long getPartitionNameTxnSizeOffset(int symbolWriterCount, int removedPartitionsCount) {
+        return getPartitionTableIndexOffset(symbolWriterCount, removedPartitionsCount);
+    }
+
     public static long getSymbolWriterIndexOffset(int index) {
         return TX_OFFSET_MAP_WRITER_COUNT + 4 + index * 4L;
     }
 
-    public static long getTxMemSize(int symbolWriterCount, int removedPartitionsCount) {
-        return getPartitionTableIndexOffset(symbolWriterCount, removedPartitionsCount);
+    public static long getTxMemSize(int symbolWriterCount, int removedPartitionsCount, int partitionNameTxnCount) {
+        return getPartitionNameTxnIndexOffset(symbolWriterCount, removedPartitionsCount, partitionNameTxnCount);
     }
 
     public static boolean isValidColumnName(CharSequence seq) {
@@ -318,10 +335,12 @@ public final class TableUtils {
 
         // partition update count
         txMem.putInt(getPartitionTableSizeOffset(symbolMapCount), 0);
+        // partition name txn count
+        txMem.putInt(getPartitionNameTxnSizeOffset(symbolMapCount, 0), 0);
 
         // make sure we put append pointer behind our data so that
         // files does not get truncated when closing
-        txMem.jumpTo(getPartitionTableIndexOffset(symbolMapCount, 0));
+        txMem.jumpTo(getPartitionNameTxnIndexOffset(symbolMapCount, 0, 0));
     }
 
     /**
@@ -333,6 +352,21 @@ public final class TableUtils {
      * @return The last timestamp in the partition
      */
     public static long setPathForPartition(Path path, int partitionBy, long timestamp) {
+        return setPathForPartition(path, partitionBy, timestamp, -1);
+    }
+
+    /**
+     * Same as {@link #setPathForPartition(Path, int, long)} but also appends partition version suffix. Partitions
+     * rewritten by out-of-order merge are written to new directory, which name is suffixed with txn that
+     * created it. Readers continue to use previous version of the partition until txn is published.
+     *
+     * @param path        Set to the root directory for a table, this will be updated to the root directory of the partition
+     * @param partitionBy Partitioning scheme
+     * @param timestamp   A timestamp in the partition
+     * @param nameTxn     txn that created partition version or -1 when partition has never been rewritten
+     * @return The last timestamp in the partition
+     */
+    public static long setPathForPartition(Path path, int partitionBy, long timestamp, long nameTxn) {
         int y, m, d;
         boolean leap;
         path.put(Files.SEPARATOR);
@@ -377,6 +411,10 @@ public final class TableUtils {
                 break;
         }
 
+        if (nameTxn > -1) {
+            path.put('.').put(nameTxn);
+        }
+
         return partitionHi;
     }
 
@@ -520,6 +558,10 @@ public final class TableUtils {
         return path.concat(columnName).put(".top").$();
     }
 
+    static LPSZ statsFile(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(FILE_SUFFIX_STATS).$();
+    }
+
     static LPSZ iFile(Path path, CharSequence columnName) {
         return path.concat(columnName).put(FILE_SUFFIX_I).$();
     }
@@ -43,6 +43,7 @@ import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.NativeLPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.ColumnIndexerTask;
+import io.questdb.tasks.OutOfOrderColumnTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -72,10 +73,14 @@ public class TableWriter implements Closeable {
     private static final int OO_BLOCK_OO = 1;
     private static final int OO_BLOCK_DATA = 2;
     private static final int OO_BLOCK_MERGE = 3;
+    // number of partitions, which out-of-order merge copies concurrently, each of them holds
+    // source and destination column files mapped until the whole batch is copied
+    private static final int OO_MAX_CONCURRENT_PARTITIONS = 8;
     final ObjList<AppendMemory> columns;
     private final ObjList<SymbolMapWriter> symbolMapWriters;
     private final ObjList<SymbolMapWriter> denseSymbolMapWriters;
     private final ObjList<ColumnIndexer> indexers;
+    private final ObjList<ColumnStatsWriter> columnStatsWriters;
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final Path path;
     private final Path other;
@@ -83,6 +88,7 @@ public class TableWriter implements Closeable {
     private final Row row = new Row();
     private final int rootLen;
     private final ReadWriteMemory txMem;
+    private final TxnScoreboard txnScoreboard;
     private final ReadOnlyMemory metaMem;
     private final ContiguousVirtualMemory txPendingPartitionSizes;
     private final int partitionBy;
@@ -105,8 +111,18 @@ public class TableWriter implements Closeable {
     private final SOCountDownLatch indexLatch = new SOCountDownLatch();
     private final LongList indexSequences = new LongList();
     private final MessageBus messageBus;
+    @Nullable
+    private final O3CommitListener o3CommitListener;
     private final boolean parallelIndexerEnabled;
     private final LongHashSet removedPartitions = new LongHashSet();
+    // pairs of (partition timestamp, name txn) for partitions rewritten by out-of-order merge
+    private final LongList partitionNameTxns = new LongList();
+    // triplets of (partition timestamp, name txn, superseding txn) for partition versions superseded
+    // by out-of-order merge, readers at transactions before superseding one may still use them
+    private final LongList supersededPartitions = new LongList();
+    private final ObjList<OutOfOrderColumnEntry> oooColumnEntries = new ObjList<>();
+    private final ObjList<OutOfOrderPartition> oooPartitions = new ObjList<>();
+    private final SOCountDownLatch oooLatch = new SOCountDownLatch();
     private final Timestamps.TimestampFloorMethod timestampFloorMethod;
     private final Timestamps.TimestampAddMethod timestampAddMethod;
     private final int defaultCommitMode;
@@ -160,7 +176,12 @@ public class TableWriter implements Closeable {
     private final FindVisitor findVisitor = (file, type) -> {
         nativeLPSZ.of(file);
         if (type == Files.DT_DIR && IGNORED_FILES.excludes(nativeLPSZ)) {
-            long partitionTimestamp = partitionNameToTimestamp(nativeLPSZ);
+            final int dot = Chars.indexOf(nativeLPSZ, '.');
+            final long partitionTimestamp = partitionNameToTimestamp(nativeLPSZ, 0, dot > -1 ? dot : nativeLPSZ.length());
+            if (!isCurrentPartitionVersion(nativeLPSZ, dot, partitionTimestamp)) {
+                // superseded version of partition, which is yet to be removed
+                return;
+            }
             partitionListByTimestamp.add(partitionTimestamp);
             dropPartitionFunctionRec.setTimestamp(partitionTimestamp);
             if (dropPartitionBasedOnFunction.getBool(dropPartitionFunctionRec)) {
@@ -174,6 +195,9 @@ public class TableWriter implements Closeable {
     private long mergeRowCount;
     private final LongConsumer mergeTimestampMethodRef = this::mergeTimestampSetter;
     private long transientRowCountBeforeOutOfOrder;
+    private long o3LowWatermark;
+    // number of partitions in "oooPartitions" waiting to be copied
+    private int oooPartitionCount;
 
     public TableWriter(CairoConfiguration configuration, CharSequence name) {
         this(configuration, name, null);
@@ -200,9 +224,22 @@ public class TableWriter implements Closeable {
             boolean lock,
             LifecycleManager lifecycleManager,
             CharSequence root
+    ) {
+        this(configuration, name, messageBus, lock, lifecycleManager, root, null);
+    }
+
+    public TableWriter(
+            CairoConfiguration configuration,
+            CharSequence name,
+            @Nullable MessageBus messageBus,
+            boolean lock,
+            LifecycleManager lifecycleManager,
+            CharSequence root,
+            @Nullable O3CommitListener o3CommitListener
     ) {
         LOG.info().$("open '").utf8(name).$('\'').$();
         this.configuration = configuration;
+        this.o3CommitListener = o3CommitListener;
         this.outOfOrderEnabled = configuration.isOutOfOrderEnabled();
         this.messageBus = messageBus;
         this.defaultCommitMode = configuration.getCommitMode();
@@ -227,6 +264,7 @@ public class TableWriter implements Closeable {
                 this.lockFd = -1L;
             }
             this.txMem = openTxnFile();
+            this.txnScoreboard = new TxnScoreboard(ff, path.trimTo(rootLen));
             long todo = readTodoTaskCode();
             if (todo != -1L && (int) (todo & 0xff) == TODO_RESTORE_META) {
                 repairMetaRename((int) (todo >> 8));
@@ -264,6 +302,7 @@ public class TableWriter implements Closeable {
             this.row.activeColumns = columns;
             this.symbolMapWriters = new ObjList<>(columnCount);
             this.indexers = new ObjList<>(columnCount);
+            this.columnStatsWriters = new ObjList<>(columnCount);
             this.denseSymbolMapWriters = new ObjList<>(metadata.getSymbolMapCount());
             this.nullSetters = new ObjList<>(columnCount);
             this.oooNullSetters = new ObjList<>(columnCount);
@@ -295,9 +334,10 @@ public class TableWriter implements Closeable {
 
             configureColumnMemory();
             timestampSetter = configureTimestampSetter();
+            loadRemovedPartitions();
+            loadPartitionNameTxns();
             configureAppendPosition();
             purgeUnusedPartitions();
-            loadRemovedPartitions();
         } catch (CairoException e) {
             LOG.error().$("could not open '").$(path).$("' and this is why: {").$((Sinkable) e).$('}').$();
             doClose(false);
@@ -593,7 +633,12 @@ public class TableWriter implements Closeable {
 
         if (inTransaction()) {
 
-            if (mergeRowCount > 0) {
+            if (supersededPartitions.size() > 0) {
+                purgeSupersededPartitions();
+            }
+
+            final boolean outOfOrder = mergeRowCount > 0;
+            if (outOfOrder) {
                 mergeOutOfOrderRecords();
             }
 
@@ -601,13 +646,23 @@ public class TableWriter implements Closeable {
                 syncColumns(commitMode);
             }
 
-            updateIndexes();
+            // out-of-order merge brings indexes and column stats up to date on its own
+            if (!outOfOrder) {
+                updateIndexes();
+                updateColumnStats(transientRowCount);
+            }
 
             txMem.putLong(TX_OFFSET_TXN, ++txn);
             Unsafe.getUnsafe().storeFence();
 
             txMem.putLong(TX_OFFSET_TRANSIENT_ROW_COUNT, transientRowCount);
 
+            if (outOfOrder) {
+                // readers use partition table version to detect partitions, which have been rewritten
+                txMem.putLong(TX_OFFSET_PARTITION_TABLE_VERSION, txMem.getLong(TX_OFFSET_PARTITION_TABLE_VERSION) + 1);
+                writePartitionNameTxns(denseSymbolMapWriters.size(), removedPartitions.size());
+            }
+
             if (txPartitionCount > 1) {
                 commitPendingPartitions();
                 txMem.putLong(TX_OFFSET_FIXED_ROW_COUNT, fixedRowCount);
@@ -629,6 +684,10 @@ public class TableWriter implements Closeable {
                 txMem.sync(0, commitMode == CommitMode.ASYNC);
             }
             txPrevTransientRowCount = transientRowCount;
+
+            if (outOfOrder && o3CommitListener != null) {
+                o3CommitListener.onO3Commit(name, txMem.getLong(TX_OFFSET_PARTITION_TABLE_VERSION), o3LowWatermark);
+            }
         }
     }
 
@@ -688,11 +747,15 @@ public class TableWriter implements Closeable {
     }
 
     public long partitionNameToTimestamp(CharSequence partitionName) {
+        return partitionNameToTimestamp(partitionName, 0, partitionName.length());
+    }
+
+    private long partitionNameToTimestamp(CharSequence partitionName, int lo, int hi) {
         if (partitionDirFmt == null) {
             throw CairoException.instance(0).put("table is not partitioned");
         }
         try {
-            return partitionDirFmt.parse(partitionName, null);
+            return partitionDirFmt.parse(partitionName, lo, hi, null);
         } catch (NumericException e) {
             final CairoException ee = CairoException.instance(0);
             switch (partitionBy) {
@@ -849,6 +912,9 @@ public class TableWriter implements Closeable {
 
                 txMem.putLong(TX_OFFSET_PARTITION_TABLE_VERSION, partitionVersion);
                 txMem.putInt(getPartitionTableSizeOffset(symbolWriterCount), partitionTableSize + 1);
+                // partition name table follows removed partitions, it has to be moved down
+                removePartitionNameTxn(timestamp);
+                writePartitionNameTxns(symbolWriterCount, partitionTableSize + 1);
 
                 if (nextMinTimestamp != minTimestamp) {
                     txMem.putLong(TX_OFFSET_MIN_TIMESTAMP, nextMinTimestamp);
@@ -963,7 +1029,10 @@ public class TableWriter implements Closeable {
         if (inTransaction()) {
             LOG.info().$("tx rollback [name=").$(name).$(']').$();
             freeColumns(false);
+            clearColumnStatsWriters();
             txPendingPartitionSizes.jumpTo(0);
+            discardUncommittedSupersededPartitions();
+            loadPartitionNameTxns();
             configureAppendPosition();
             rollbackIndexes();
             purgeUnusedPartitions();
@@ -1023,8 +1092,16 @@ public class TableWriter implements Closeable {
                     Misc.free(indexers.getQuick(i));
                 }
             }
+            clearColumnStatsWriters();
             removePartitionDirectories();
             rowFunction = openPartitionFunction;
+        } else {
+            for (int i = 0, n = columnStatsWriters.size(); i < n; i++) {
+                final ColumnStatsWriter w = columnStatsWriters.getQuick(i);
+                if (w != null) {
+                    w.truncate();
+                }
+            }
         }
 
         prevMaxTimestamp = Long.MIN_VALUE;
@@ -1036,6 +1113,9 @@ public class TableWriter implements Closeable {
         fixedRowCount = 0;
         txn++;
         txPartitionCount = 1;
+        removedPartitions.clear();
+        partitionNameTxns.clear();
+        supersededPartitions.clear();
 
         resetTxn(txMem, metadata.getSymbolMapCount(), txn, ++dataVersion);
         try {
@@ -1423,6 +1503,7 @@ public class TableWriter implements Closeable {
             for (int i = 0; i < n; i++) {
                 txMem.putLong(getPartitionTableIndexOffset(count, i), removedPartitions.get(i));
             }
+            writePartitionNameTxns(count, n);
         }
 
         Unsafe.getUnsafe().storeFence();
@@ -1642,6 +1723,7 @@ public class TableWriter implements Closeable {
             indexers.extendAndSet((columns.size() - 1) / 2, new SymbolColumnIndexer());
             populateDenseIndexerList();
         }
+        columnStatsWriters.add(ColumnStats.isSupported(type) ? new ColumnStatsWriter(ff, type) : null);
         refs.add(0);
     }
 
@@ -1809,119 +1891,83 @@ public class TableWriter implements Closeable {
         copyFixedSizeCol(mem.addressOf(0), mergeStruct, columnIndex, srcLo, srcHi, shl);
     }
 
-    private void copyOutOfOrderData(long indexLo, long indexHi, long[] mergeStruct, int timestampIndex) {
-        for (int i = 0; i < columnCount; i++) {
-            ContiguousVirtualMemory mem = oooColumns.getQuick(getPrimaryColumnIndex(i));
-            ContiguousVirtualMemory mem2;
-            final int columnType = metadata.getColumnType(i);
-
-            switch (columnType) {
-                case ColumnType.STRING:
-                case ColumnType.BINARY:
-                    // we can find out the edge of string column in one of two ways
-                    // 1. if indexHi is at the limit of the page - we need to copy the whole page of strings
-                    // 2  if there are more items behind indexHi we can get offset of indexHi+1
-                    mem2 = oooColumns.getQuick(getSecondaryColumnIndex(i));
-                    copyVarSizeCol(
-                            mem2.addressOf(0),
-                            mem2.getAppendOffset(),
-                            mem.addressOf(0),
-                            mem.getAppendOffset(),
-                            mergeStruct,
-                            i,
-                            indexLo,
-                            indexHi
-                    );
-                    break;
-                case ColumnType.BOOLEAN:
-                case ColumnType.BYTE:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 0);
-                    break;
-                case ColumnType.CHAR:
-                case ColumnType.SHORT:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 1);
-                    break;
-                case ColumnType.INT:
-                case ColumnType.FLOAT:
-                case ColumnType.SYMBOL:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 2);
-                    break;
-                case ColumnType.LONG:
-                case ColumnType.DATE:
-                case ColumnType.DOUBLE:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 3);
-                    break;
-                case ColumnType.TIMESTAMP:
-                    if (i != timestampIndex) {
-                        copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 3);
-                    } else {
-                        copyFromTimestampIndex(mem.addressOf(0), mergeStruct, i, indexLo, indexHi);
-                    }
-                    break;
-                default:
-                    break;
-            }
-        }
-    }
-
-    private void copyPartitionData(long indexLo, long indexHi, long[] mergeStruct) {
-        for (int i = 0; i < columnCount; i++) {
-            final int columnType = metadata.getColumnType(i);
-            switch (columnType) {
-                case ColumnType.STRING:
-                case ColumnType.BINARY:
-                    copyVarSizeCol(
-                            MergeStruct.getSrcFixedAddress(mergeStruct, i),
-                            MergeStruct.getSrcFixedAddressSize(mergeStruct, i),
-                            MergeStruct.getSrcVarAddress(mergeStruct, i),
-                            MergeStruct.getSrcVarAddressSize(mergeStruct, i),
-                            mergeStruct,
-                            i,
-                            indexLo,
-                            indexHi
-                    );
-                    break;
-                default:
-                    copyFixedSizeCol(
-                            MergeStruct.getSrcFixedAddress(mergeStruct, i),
-                            mergeStruct,
-                            i,
-                            indexLo,
-                            indexHi,
-                            ColumnType.pow2SizeOf(columnType)
-                    );
-                    break;
-            }
-        }
-    }
-
-    private void copyTempPartitionBack(long[] mergeStruct) {
-        for (int i = 0; i < columnCount; i++) {
-            copyTempPartitionColumnBack(mergeStruct, MergeStruct.getFirstColumnOffset(i));
-            copyTempPartitionColumnBack(mergeStruct, MergeStruct.getSecondColumnOffset(i));
+    private void copyOutOfOrderData(long indexLo, long indexHi, long[] mergeStruct, int columnIndex, int timestampIndex) {
+        final ContiguousVirtualMemory mem = oooColumns.getQuick(getPrimaryColumnIndex(columnIndex));
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (columnType) {
+            case ColumnType.STRING:
+            case ColumnType.BINARY:
+                // we can find out the edge of string column in one of two ways
+                // 1. if indexHi is at the limit of the page - we need to copy the whole page of strings
+                // 2  if there are more items behind indexHi we can get offset of indexHi+1
+                final ContiguousVirtualMemory mem2 = oooColumns.getQuick(getSecondaryColumnIndex(columnIndex));
+                copyVarSizeCol(
+                        mem2.addressOf(0),
+                        mem2.getAppendOffset(),
+                        mem.addressOf(0),
+                        mem.getAppendOffset(),
+                        mergeStruct,
+                        columnIndex,
+                        indexLo,
+                        indexHi
+                );
+                break;
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                copyOOFixed(mem, mergeStruct, columnIndex, indexLo, indexHi, 0);
+                break;
+            case ColumnType.CHAR:
+            case ColumnType.SHORT:
+                copyOOFixed(mem, mergeStruct, columnIndex, indexLo, indexHi, 1);
+                break;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+            case ColumnType.SYMBOL:
+                copyOOFixed(mem, mergeStruct, columnIndex, indexLo, indexHi, 2);
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.DOUBLE:
+                copyOOFixed(mem, mergeStruct, columnIndex, indexLo, indexHi, 3);
+                break;
+            case ColumnType.TIMESTAMP:
+                if (columnIndex != timestampIndex) {
+                    copyOOFixed(mem, mergeStruct, columnIndex, indexLo, indexHi, 3);
+                } else {
+                    copyFromTimestampIndex(mem.addressOf(0), mergeStruct, columnIndex, indexLo, indexHi);
+                }
+                break;
+            default:
+                break;
         }
     }
 
-    private void copyTempPartitionColumnBack(long[] mergeStruct, int offset) {
-        long fd = Math.abs(MergeStruct.getSrcFdFromOffset(mergeStruct, offset));
-        if (fd != 0) {
-            long destOldMem = MergeStruct.getSrcAddressFromOffset(mergeStruct, offset);
-            long destOldSize = MergeStruct.getSrcAddressSizeFromOffset(mergeStruct, offset);
-            long srcMem = MergeStruct.getDestAddressFromOffset(mergeStruct, offset);
-            long srcLen = MergeStruct.getDestAddressSizeFromOffset(mergeStruct, offset);
-
-            truncateToSizeOrFail(ff, null, fd, srcLen);
-            final long dest = ff.mmap(fd, srcLen, 0, Files.MAP_RW);
-            ff.munmap(destOldMem, destOldSize);
-            if (dest == -1) {
-                throw CairoException.instance(ff.errno())
-                        .put("could not remap rw [fd=").put(fd)
-                        .put(", oldSize=").put(destOldSize)
-                        .put(", newSize=").put(srcLen);
-            }
-            MergeStruct.setSrcAddressFromOffset(mergeStruct, offset, dest);
-            MergeStruct.setSrcAddressSizeFromOffset(mergeStruct, offset, srcLen);
-            Unsafe.getUnsafe().copyMemory(srcMem, dest, srcLen);
+    private void copyPartitionData(long indexLo, long indexHi, long[] mergeStruct, int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (columnType) {
+            case ColumnType.STRING:
+            case ColumnType.BINARY:
+                copyVarSizeCol(
+                        MergeStruct.getSrcFixedAddress(mergeStruct, columnIndex),
+                        MergeStruct.getSrcFixedAddressSize(mergeStruct, columnIndex),
+                        MergeStruct.getSrcVarAddress(mergeStruct, columnIndex),
+                        MergeStruct.getSrcVarAddressSize(mergeStruct, columnIndex),
+                        mergeStruct,
+                        columnIndex,
+                        indexLo,
+                        indexHi
+                );
+                break;
+            default:
+                copyFixedSizeCol(
+                        MergeStruct.getSrcFixedAddress(mergeStruct, columnIndex),
+                        mergeStruct,
+                        columnIndex,
+                        indexLo,
+                        indexHi,
+                        ColumnType.pow2SizeOf(columnType)
+                );
+                break;
         }
     }
 
@@ -1969,6 +2015,10 @@ public class TableWriter implements Closeable {
      * @param plen                    path length. This is used to trim shared path object to.
      */
     private void createIndexFiles(CharSequence columnName, int indexValueBlockCapacity, int plen, boolean force) {
+        createIndexFiles(path, columnName, indexValueBlockCapacity, plen, force);
+    }
+
+    private void createIndexFiles(Path path, CharSequence columnName, int indexValueBlockCapacity, int plen, boolean force) {
         try {
             BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName);
 
@@ -2018,6 +2068,7 @@ public class TableWriter implements Closeable {
         freeColumns(truncate);
         freeSymbolMapWriters();
         freeIndexers();
+        Misc.freeObjList(columnStatsWriters);
         try {
             freeTxMem();
         } finally {
@@ -2025,6 +2076,7 @@ public class TableWriter implements Closeable {
                 blockWriter.close();
             }
             Misc.free(metaMem);
+            Misc.free(txnScoreboard);
             Misc.free(txPendingPartitionSizes);
             Misc.free(ddlMem);
             Misc.free(other);
@@ -2060,6 +2112,15 @@ public class TableWriter implements Closeable {
         Misc.freeObjListAndKeepObjects(oooColumns);
     }
 
+    private void clearColumnStatsWriters() {
+        for (int i = 0, n = columnStatsWriters.size(); i < n; i++) {
+            final ColumnStatsWriter w = columnStatsWriters.getQuick(i);
+            if (w != null) {
+                w.clear();
+            }
+        }
+    }
+
     private void freeIndexers() {
         if (indexers != null) {
             for (int i = 0, n = indexers.size(); i < n; i++) {
@@ -2184,6 +2245,25 @@ public class TableWriter implements Closeable {
         return (hi - lo);
     }
 
+    /**
+     * Returns txn of transaction, which created current version of partition. Partitions that have never been
+     * rewritten by out-of-order merge keep their original directory name, for which this method returns -1.
+     *
+     * @param timestamp any timestamp within partition
+     * @return partition name txn or -1
+     */
+    long getPartitionNameTxn(long timestamp) {
+        if (timestampFloorMethod != null) {
+            final long partitionTimestamp = timestampFloorMethod.floor(timestamp);
+            for (int i = 0, n = partitionNameTxns.size(); i < n; i += 2) {
+                if (partitionNameTxns.getQuick(i) == partitionTimestamp) {
+                    return partitionNameTxns.getQuick(i + 1);
+                }
+            }
+        }
+        return -1;
+    }
+
     long getPrimaryAppendOffset(long timestamp, int columnIndex) {
         if (txPartitionCount == 0) {
             openFirstPartition(timestamp);
@@ -2196,6 +2276,15 @@ public class TableWriter implements Closeable {
         return columns.get(getPrimaryColumnIndex(columnIndex)).getAppendOffset();
     }
 
+    private OutOfOrderColumnEntry getOutOfOrderColumnEntry(int index) {
+        OutOfOrderColumnEntry entry = oooColumnEntries.getQuiet(index);
+        if (entry == null) {
+            entry = new OutOfOrderColumnEntry(this);
+            oooColumnEntries.extendAndSet(index, entry);
+        }
+        return entry;
+    }
+
     private AppendMemory getPrimaryColumn(int column) {
         assert column < columnCount : "Column index is out of bounds: " + column + " >= " + columnCount;
         return columns.getQuick(getPrimaryColumnIndex(column));
@@ -2224,7 +2313,7 @@ public class TableWriter implements Closeable {
 
     private long getTxEofOffset() {
         if (metadata != null) {
-            return getTxMemSize(metadata.getSymbolMapCount(), removedPartitions.size());
+            return getTxMemSize(metadata.getSymbolMapCount(), removedPartitions.size(), partitionNameTxns.size() / 2);
         } else {
             return ff.length(txMem.getFd());
         }
@@ -2234,6 +2323,23 @@ public class TableWriter implements Closeable {
         return txPartitionCount;
     }
 
+    private boolean isVarLenColumn(int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        return columnType == ColumnType.STRING || columnType == ColumnType.BINARY;
+    }
+
+    private boolean isCurrentPartitionVersion(CharSequence dirName, int dot, long partitionTimestamp) {
+        final long nameTxn = getPartitionNameTxn(partitionTimestamp);
+        if (dot == -1) {
+            return nameTxn == -1;
+        }
+        try {
+            return nameTxn == Numbers.parseLong(dirName, dot + 1, dirName.length());
+        } catch (NumericException e) {
+            return false;
+        }
+    }
+
     private long getVarColumnSize(int columnType, long dataFd, long lastValueOffset) {
         final long addr;
         final long offset;
@@ -2322,6 +2428,22 @@ public class TableWriter implements Closeable {
         return symbolMapWriters.getQuick(columnIndex).isCached();
     }
 
+    private void loadPartitionNameTxns() {
+        partitionNameTxns.clear();
+        final int symbolWriterCount = denseSymbolMapWriters.size();
+        final int removedPartitionsCount = removedPartitions.size();
+        final long offset = getPartitionNameTxnSizeOffset(symbolWriterCount, removedPartitionsCount);
+        // transaction files created by earlier versions end with removed partition table
+        if (ff.length(txMem.getFd()) >= offset + Integer.BYTES) {
+            final int count = txMem.getInt(offset);
+            for (int i = 0; i < count; i++) {
+                final long o = getPartitionNameTxnIndexOffset(symbolWriterCount, removedPartitionsCount, i);
+                partitionNameTxns.add(txMem.getLong(o));
+                partitionNameTxns.add(txMem.getLong(o + Long.BYTES));
+            }
+        }
+    }
+
     private void loadRemovedPartitions() {
         int symbolWriterCount = denseSymbolMapWriters.size();
         int partitionTableSize = txMem.getInt(getPartitionTableSizeOffset(symbolWriterCount));
@@ -2429,63 +2551,62 @@ public class TableWriter implements Closeable {
         MergeStruct.setDestVarAppendOffset(mergeStruct, columnIndex, destVarOffset);
     }
 
-    private void mergeOOAndShuffleColumns(int timestampIndex, long mergedTimestamps, long mergeDataLo, long mergeDataHi, long mergeOOOLo, long mergeOOOHi, long[] mergeStruct) {
-        final long dataOOMergeIndexLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
-        // copy timestamp column of the partition into a "index" memory
-
-        final long dataOOMergeIndex = mergeTimestampAndOutOfOrder(
-                timestampIndex,
-                mergedTimestamps,
-                mergeDataLo,
-                mergeDataHi,
-                mergeOOOLo,
-                mergeOOOHi,
-                mergeStruct
-        );
-
-        try {
-            for (int i = 0; i < columnCount; i++) {
-                switch (metadata.getColumnType(i)) {
-                    case ColumnType.BOOLEAN:
-                    case ColumnType.BYTE:
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 0, MERGE_SHUFFLE_8);
-                        break;
-                    case ColumnType.SHORT:
-                    case ColumnType.CHAR:
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 1, MERGE_SHUFFLE_16);
-                        break;
-                    case ColumnType.STRING:
-                        mergeCopyStr(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i);
-                        break;
-                    case ColumnType.BINARY:
-                        mergeCopyBin(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i);
-                        break;
-                    case ColumnType.INT:
-                    case ColumnType.FLOAT:
-                    case ColumnType.SYMBOL:
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 2, MERGE_SHUFFLE_32);
-                        break;
-                    case ColumnType.DOUBLE:
-                    case ColumnType.LONG:
-                    case ColumnType.DATE:
-                    case ColumnType.TIMESTAMP:
-                        if (i == timestampIndex) {
-                            // copy timestamp values from the merge index
-                            copyIndex(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i);
-                            break;
-                        }
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 3, MERGE_SHUFFLE_64);
-                        break;
+    private void mergeOOAndShuffleColumn(
+            int columnIndex,
+            int timestampIndex,
+            long dataOOMergeIndex,
+            long dataOOMergeIndexLen,
+            long[] mergeStruct
+    ) {
+        switch (metadata.getColumnType(columnIndex)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 0, MERGE_SHUFFLE_8);
+                break;
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 1, MERGE_SHUFFLE_16);
+                break;
+            case ColumnType.STRING:
+                mergeCopyStr(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex);
+                break;
+            case ColumnType.BINARY:
+                mergeCopyBin(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex);
+                break;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+            case ColumnType.SYMBOL:
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 2, MERGE_SHUFFLE_32);
+                break;
+            case ColumnType.DOUBLE:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                if (columnIndex == timestampIndex) {
+                    // copy timestamp values from the merge index
+                    copyIndex(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex);
+                    break;
                 }
-            }
-        } finally {
-            Vect.freeMergedIndex(dataOOMergeIndex);
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 3, MERGE_SHUFFLE_64);
+                break;
         }
     }
 
     private void mergeOutOfOrderRecords() {
         final int timestampIndex = metadata.getTimestampIndex();
         final long ceilOfMaxTimestamp = ceilMaxTimestamp();
+        // partitions rewritten by this merge are named after transaction that is about to be published
+        final long nameTxn = Math.max(txn, txMem.getLong(TX_OFFSET_TXN)) + 1;
+        boolean lastPartitionRewritten = false;
+        long lastPartitionAppendHi = -1;
+
+        // Index rows appended in order before out-of-order data arrived. Last partition may be
+        // rewritten below, in which case indexers will be re-opened on the new version of partition
+        if (indexCount > 0) {
+            updateIndexes(txPartitionCount == 1 ? txPrevTransientRowCount : 0, transientRowCountBeforeOutOfOrder);
+        }
+        updateColumnStats(transientRowCountBeforeOutOfOrder);
+
         try {
 
             // we may need to re-use file descriptors when this partition is the "current" one
@@ -2498,39 +2619,8 @@ public class TableWriter implements Closeable {
             final long mergedTimestamps = timestampMergeMem.addressOf(0);
             Vect.sortLongIndexAscInPlace(mergedTimestamps, mergeRowCount);
 
-            // reshuffle all variable length columns
-            for (int i = 0; i < columnCount; i++) {
-                final int type = metadata.getColumnType(i);
-                switch (type) {
-                    case ColumnType.BINARY:
-                    case ColumnType.STRING:
-                        shuffleVarLenValues(i, mergedTimestamps, mergeRowCount);
-                        break;
-                    case ColumnType.FLOAT:
-                    case ColumnType.INT:
-                    case ColumnType.SYMBOL:
-                        shuffleFixedLengthValues(i, mergedTimestamps, mergeRowCount, 2, SHUFFLE_32);
-                        break;
-                    case ColumnType.LONG:
-                    case ColumnType.DOUBLE:
-                    case ColumnType.DATE:
-                        shuffleFixedLengthValues(i, mergedTimestamps, mergeRowCount, 3, SHUFFLE_64);
-                        break;
-                    case ColumnType.TIMESTAMP:
-                        if (i != timestampIndex) {
-                            shuffleFixedLengthValues(i, mergedTimestamps, mergeRowCount, 3, SHUFFLE_64);
-                        }
-                        break;
-                    case ColumnType.SHORT:
-                    case ColumnType.CHAR:
-                        shuffleFixedLengthValues(i, mergedTimestamps, mergeRowCount, 1, SHUFFLE_16);
-                        break;
-                    case ColumnType.BOOLEAN:
-                    case ColumnType.BYTE:
-                        shuffleFixedLengthValues(i, mergedTimestamps, mergeRowCount, 0, SHUFFLE_8);
-                        break;
-                }
-            }
+            // reshuffle out-of-order columns in timestamp order
+            oooProcessColumns(OutOfOrderColumnEntry.STAGE_SHUFFLE);
 
             Vect.flattenIndex(mergedTimestamps, mergeRowCount);
 
@@ -2543,6 +2633,7 @@ public class TableWriter implements Closeable {
             long indexHi;
             long indexMax = mergeRowCount;
             long ooTimestampMin = getTimestampIndexValue(mergedTimestamps, 0);
+            o3LowWatermark = ooTimestampMin;
             long ooTimestampHi = getTimestampIndexValue(mergedTimestamps, indexMax - 1);
 
             LOG.debug()
@@ -2601,17 +2692,27 @@ public class TableWriter implements Closeable {
                     // - this partition is below max partition of the table
                     LOG.info().$("copy oo to [path=").$(path).$(", from=").$(indexLo).$(", to=").$(indexHi).$(']').$();
                     // pure OOO data copy into new partition
-                    long[] mergeStruct = oooOpenNewPartitionForAppend(
-                            path,
+                    oooCopyPartition(
+                            oooOpenNewPartitionForAppend(
+                                    path,
+                                    indexLo,
+                                    indexHi,
+                                    indexMax
+                            ),
+                            0,
+                            mergedTimestamps,
+                            OO_BLOCK_NONE,
+                            -1,
+                            -1,
+                            OO_BLOCK_NONE,
+                            -1,
+                            -1,
+                            -1,
+                            -1,
+                            OO_BLOCK_OO,
                             indexLo,
-                            indexHi,
-                            indexMax
+                            indexHi
                     );
-                    try {
-                        copyOutOfOrderData(indexLo, indexHi, mergeStruct, timestampIndex);
-                    } finally {
-                        freeMergeStruct(mergeStruct);
-                    }
                 } else {
 
                     // out of order is hitting existing partition
@@ -2891,30 +2992,35 @@ public class TableWriter implements Closeable {
 
                         path.trimTo(plen);
                         final long[] mergeStruct;
-                        if (prefixType == OO_BLOCK_NONE && mergeType == OO_BLOCK_NONE) {
-                            // We do not need to create a copy of partition when we simply need to append
-                            // existing the one.
-                            if (partitionTimestampHi < floorMaxTimestamp) {
-                                mergeStruct = oooOpenMidPartitionForAppend(
-                                        path,
-                                        indexLo,
-                                        indexHi,
-                                        indexMax,
-                                        dataIndexMax,
-                                        timestampIndex,
-                                        timestampFd
-                                );
-                            } else {
-                                mergeStruct = oooOpenLastPartitionForAppend(
-                                        indexLo,
-                                        indexHi,
-                                        indexMax
-                                );
-                            }
+                        final boolean appendInPlace = prefixType == OO_BLOCK_NONE
+                                && mergeType == OO_BLOCK_NONE
+                                && partitionTimestampHi >= floorMaxTimestamp;
+                        if (appendInPlace) {
+                            // out-of-order data goes after the last row of active partition, rows beyond
+                            // transient row count are invisible to readers, so we can append in place
+                            mergeStruct = oooOpenLastPartitionForAppend(
+                                    indexLo,
+                                    indexHi,
+                                    indexMax
+                            );
                         } else {
+                            if (prefixType == OO_BLOCK_NONE && mergeType == OO_BLOCK_NONE) {
+                                // Readers that have this partition open derive its size from _archive file,
+                                // which we are about to update. Rather than appending in place we copy existing
+                                // data into new version of partition
+                                prefixType = OO_BLOCK_DATA;
+                                prefixLo = 0;
+                                prefixHi = dataIndexMax - 1;
+                            }
+
+                            // merged data goes into new version of partition, old version remains
+                            // intact for the readers until transaction is committed
+                            other.trimTo(rootLen);
+                            TableUtils.setPathForPartition(other, partitionBy, partitionTimestampHi, nameTxn);
                             if (timestampFd > -1) {
                                 mergeStruct = oooOpenMidPartitionForMerge(
                                         path,
+                                        other,
                                         indexLo,
                                         indexHi,
                                         indexMax,
@@ -2925,6 +3031,7 @@ public class TableWriter implements Closeable {
                             } else {
                                 mergeStruct = oooOpenLastPartitionForMerge(
                                         path,
+                                        other,
                                         indexLo,
                                         indexHi,
                                         indexMax,
@@ -2932,73 +3039,33 @@ public class TableWriter implements Closeable {
                                         timestampIndex,
                                         timestampFd
                                 );
+                                lastPartitionRewritten = true;
                             }
+                            setPartitionNameTxn(partitionTimestampHi, nameTxn);
                         }
-                        try {
-                            switch (prefixType) {
-                                case OO_BLOCK_OO:
-                                    LOG.info().$("copy ooo prefix set [from=").$(prefixLo).$(", to=").$(prefixHi).$(']').$();
-                                    copyOutOfOrderData(prefixLo, prefixHi, mergeStruct, timestampIndex);
-                                    break;
-                                case OO_BLOCK_DATA:
-                                    LOG.info().$("copy data prefix set [from=").$(prefixLo).$(", to=").$(prefixHi).$(']').$();
-                                    copyPartitionData(prefixLo, prefixHi, mergeStruct);
-                                    break;
-                                default:
-                                    break;
-                            }
-
-                            switch (mergeType) {
-                                case OO_BLOCK_MERGE:
-                                    LOG.info()
-                                            .$("merge data2 + ooo2 [dataFrom=").$(mergeDataLo)
-                                            .$(", dataTo=").$(mergeDataHi)
-                                            .$(", oooFrom=").$(mergeOOOLo)
-                                            .$(", oooTo=").$(mergeOOOHi)
-                                            .$(']').$();
-                                    mergeOOAndShuffleColumns(
-                                            timestampIndex,
-                                            mergedTimestamps,
-                                            mergeDataLo,
-                                            mergeDataHi,
-                                            mergeOOOLo,
-                                            mergeOOOHi,
-                                            mergeStruct
-                                    );
-                                    break;
-                                case OO_BLOCK_DATA:
-                                    LOG.info().$("copy data middle set [from=").$(mergeDataLo).$(", to=").$(mergeDataHi).$(']').$();
-                                    copyPartitionData(mergeDataLo, mergeDataHi, mergeStruct);
-                                    break;
-                                case OO_BLOCK_OO:
-                                    LOG.info().$("copy OO middle set [from=").$(mergeOOOLo).$(", to=").$(mergeOOOHi).$(']').$();
-                                    copyOutOfOrderData(mergeOOOLo, mergeOOOHi, mergeStruct, timestampIndex);
-                                    break;
-                                default:
-                                    break;
-                            }
-
-                            switch (suffixType) {
-                                case OO_BLOCK_OO:
-                                    LOG.info().$("copy ooo suffix set [from=").$(suffixLo).$(", to=").$(suffixHi).$(']').$();
-                                    copyOutOfOrderData(suffixLo, suffixHi, mergeStruct, timestampIndex);
-                                    break;
-                                case OO_BLOCK_DATA:
-                                    LOG.info().$("copy data suffix set [from=").$(suffixLo).$(", to=").$(suffixHi).$(']').$();
-                                    copyPartitionData(suffixLo, suffixHi, mergeStruct);
-                                    break;
-                                default:
-                                    break;
-                            }
-
-                            oooUpdateIndexes(mergeStruct);
-
-                            if (prefixType != OO_BLOCK_NONE || mergeType != OO_BLOCK_NONE) {
-                                copyTempPartitionBack(mergeStruct);
-                            }
+                        // partition copy takes ownership of timestamp file descriptor, which
+                        // has to stay open until merge struct is released
+                        final long copyTimestampFd = timestampFd;
+                        timestampFd = 0;
+                        oooCopyPartition(
+                                mergeStruct,
+                                copyTimestampFd,
+                                mergedTimestamps,
+                                prefixType,
+                                prefixLo,
+                                prefixHi,
+                                mergeType,
+                                mergeDataLo,
+                                mergeDataHi,
+                                mergeOOOLo,
+                                mergeOOOHi,
+                                suffixType,
+                                suffixLo,
+                                suffixHi
+                        );
 
-                        } finally {
-                            freeMergeStruct(mergeStruct);
+                        if (appendInPlace) {
+                            lastPartitionAppendHi = dataIndexMax + indexHi - indexLo + 1;
                         }
                     } finally {
                         if (timestampFd > 0) {
@@ -3059,22 +3126,42 @@ public class TableWriter implements Closeable {
                     break;
                 }
             }
+            oooCopyPartitions();
         } finally {
+            // partitions are left pending only when merge failed
+            oooFreePartitions();
             path.trimTo(rootLen);
+            other.trimTo(rootLen);
             this.mergeRowCount = 0;
         }
 
         // Alright, we finished updating partitions. Now we need to get this writer instance into
         // a consistent state.
         //
-        // We start with ensuring append memory is in ready-to-use state. When max timestamp changes we need to
-        // move append memory to new set of files. Otherwise we stay on the same set but advance the append position.
-        if (ceilOfMaxTimestamp != ceilMaxTimestamp()) {
+        // We start with ensuring append memory is in ready-to-use state. When max timestamp changes or
+        // last partition has been rewritten we need to move append memory to new set of files. Otherwise we
+        // stay on the same set but advance the append position.
+        if (ceilOfMaxTimestamp != ceilMaxTimestamp() || lastPartitionRewritten) {
+            if (lastPartitionAppendHi > -1 && indexCount > 0) {
+                // rows appended in place to what used to be the last partition
+                // have to be indexed before indexers move on to the new partition
+                setAppendPosition(lastPartitionAppendHi, false);
+                updateIndexes(transientRowCountBeforeOutOfOrder, lastPartitionAppendHi);
+            }
+            if (lastPartitionAppendHi > -1) {
+                updateColumnStats(lastPartitionAppendHi);
+            }
             // close all columns without truncating the underlying file
             closeAppendMemoryNoTruncate(false);
             openPartition(maxTimestamp);
+            setAppendPosition(this.transientRowCount, true);
+        } else {
+            setAppendPosition(this.transientRowCount, true);
+            if (lastPartitionAppendHi > -1 && indexCount > 0) {
+                updateIndexes(transientRowCountBeforeOutOfOrder, transientRowCount);
+            }
         }
-        setAppendPosition(this.transientRowCount, true);
+        updateColumnStats(transientRowCount);
         rowFunction = switchPartitionFunction;
         row.activeColumns = columns;
         row.activeNullSetters = nullSetters;
@@ -3136,6 +3223,133 @@ public class TableWriter implements Closeable {
         timestampMergeMem.putLong(mergeRowCount++);
     }
 
+    private void oooCopyColumn(OutOfOrderPartition partition, int columnIndex) {
+        final int timestampIndex = metadata.getTimestampIndex();
+        final long[] mergeStruct = partition.mergeStruct;
+        switch (partition.prefixType) {
+            case OO_BLOCK_OO:
+                copyOutOfOrderData(partition.prefixLo, partition.prefixHi, mergeStruct, columnIndex, timestampIndex);
+                break;
+            case OO_BLOCK_DATA:
+                copyPartitionData(partition.prefixLo, partition.prefixHi, mergeStruct, columnIndex);
+                break;
+            default:
+                break;
+        }
+
+        switch (partition.mergeType) {
+            case OO_BLOCK_MERGE:
+                mergeOOAndShuffleColumn(columnIndex, timestampIndex, partition.mergeIndex, partition.mergeIndexLen, mergeStruct);
+                break;
+            case OO_BLOCK_DATA:
+                copyPartitionData(partition.mergeDataLo, partition.mergeDataHi, mergeStruct, columnIndex);
+                break;
+            case OO_BLOCK_OO:
+                copyOutOfOrderData(partition.mergeOOOLo, partition.mergeOOOHi, mergeStruct, columnIndex, timestampIndex);
+                break;
+            default:
+                break;
+        }
+
+        switch (partition.suffixType) {
+            case OO_BLOCK_OO:
+                copyOutOfOrderData(partition.suffixLo, partition.suffixHi, mergeStruct, columnIndex, timestampIndex);
+                break;
+            case OO_BLOCK_DATA:
+                copyPartitionData(partition.suffixLo, partition.suffixHi, mergeStruct, columnIndex);
+                break;
+            default:
+                break;
+        }
+
+        oooUpdateIndex(mergeStruct, columnIndex);
+    }
+
+    /**
+     * Queues copy of out-of-order data into partition. Copy takes ownership of merge struct and timestamp file
+     * descriptor straight away, they are released once partition is copied or merge fails. Queued partitions
+     * are copied concurrently in batches, there is no dependency between partitions of the same merge.
+     */
+    private void oooCopyPartition(
+            long[] mergeStruct,
+            long timestampFd,
+            long mergedTimestamps,
+            int prefixType,
+            long prefixLo,
+            long prefixHi,
+            int mergeType,
+            long mergeDataLo,
+            long mergeDataHi,
+            long mergeOOOLo,
+            long mergeOOOHi,
+            int suffixType,
+            long suffixLo,
+            long suffixHi
+    ) {
+        LOG.info()
+                .$("copy partition [prefixType=").$(prefixType)
+                .$(", prefixLo=").$(prefixLo)
+                .$(", prefixHi=").$(prefixHi)
+                .$(", mergeType=").$(mergeType)
+                .$(", mergeDataLo=").$(mergeDataLo)
+                .$(", mergeDataHi=").$(mergeDataHi)
+                .$(", mergeOOOLo=").$(mergeOOOLo)
+                .$(", mergeOOOHi=").$(mergeOOOHi)
+                .$(", suffixType=").$(suffixType)
+                .$(", suffixLo=").$(suffixLo)
+                .$(", suffixHi=").$(suffixHi)
+                .$(']').$();
+
+        OutOfOrderPartition partition = oooPartitions.getQuiet(oooPartitionCount);
+        if (partition == null) {
+            partition = new OutOfOrderPartition();
+            oooPartitions.extendAndSet(oooPartitionCount, partition);
+        }
+        oooPartitionCount++;
+        partition.mergeStruct = mergeStruct;
+        partition.timestampFd = timestampFd;
+        partition.prefixType = prefixType;
+        partition.prefixLo = prefixLo;
+        partition.prefixHi = prefixHi;
+        partition.mergeType = mergeType;
+        partition.mergeDataLo = mergeDataLo;
+        partition.mergeDataHi = mergeDataHi;
+        partition.mergeOOOLo = mergeOOOLo;
+        partition.mergeOOOHi = mergeOOOHi;
+        partition.suffixType = suffixType;
+        partition.suffixLo = suffixLo;
+        partition.suffixHi = suffixHi;
+        partition.mergeIndex = 0;
+
+        if (mergeType == OO_BLOCK_MERGE) {
+            // merge index is shared by all columns, it is read-only for the duration of copy
+            partition.mergeIndexLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+            partition.mergeIndex = mergeTimestampAndOutOfOrder(
+                    metadata.getTimestampIndex(),
+                    mergedTimestamps,
+                    mergeDataLo,
+                    mergeDataHi,
+                    mergeOOOLo,
+                    mergeOOOHi,
+                    mergeStruct
+            );
+        }
+
+        if (oooPartitionCount == OO_MAX_CONCURRENT_PARTITIONS) {
+            oooCopyPartitions();
+        }
+    }
+
+    private void oooCopyPartitions() {
+        if (oooPartitionCount > 0) {
+            try {
+                oooProcessColumns(OutOfOrderColumnEntry.STAGE_COPY);
+            } finally {
+                oooFreePartitions();
+            }
+        }
+    }
+
     private void oooDoOpenIndexFiles(Path path, long[] mergeStruct, int plen, int columnIndex) {
         BitmapIndexUtils.keyFileName(path.trimTo(plen), metadata.getColumnName(columnIndex));
         MergeStruct.setIndexKeyFd(mergeStruct, columnIndex, openReadWriteOrFail(ff, path));
@@ -3201,6 +3415,8 @@ public class TableWriter implements Closeable {
 
     private void oooOpenIndexFiles(long[] mergeStruct, Path path, int plen, int columnIndex) {
         if (metadata.isColumnIndexed(columnIndex)) {
+            // out-of-order data is always written to a new set of column files, index is built from scratch
+            createIndexFiles(path, metadata.getColumnName(columnIndex), metadata.getIndexValueBlockCapacity(columnIndex), plen, true);
             oooDoOpenIndexFiles(path, mergeStruct, plen, columnIndex);
         }
     }
@@ -3227,13 +3443,13 @@ public class TableWriter implements Closeable {
                     );
                     break;
                 default:
+                    // index is updated by writer's own indexers once rows are appended
                     oooMapDestColumn(
                             mergeStruct,
                             getPrimaryColumnIndex(i),
                             MergeStruct.getFirstColumnOffset(i),
                             (indexHi - indexLo + 1) << ColumnType.pow2SizeOf(columnType)
                     );
-                    oooOpenIndexFiles(mergeStruct, path, path.length(), i);
                     break;
             }
         }
@@ -3242,6 +3458,7 @@ public class TableWriter implements Closeable {
 
     private long[] oooOpenLastPartitionForMerge(
             Path path,
+            Path destPath,
             long indexLo,
             long indexHi,
             long indexMax,
@@ -3251,7 +3468,8 @@ public class TableWriter implements Closeable {
     ) {
         long[] mergeStruct = new long[columnCount * MergeStruct.MERGE_STRUCT_ENTRY_SIZE];
 
-        int plen = path.length();
+        final int plen = path.length();
+        final int destPlen = destPath.length();
         for (int i = 0; i < columnCount; i++) {
             final int columnType = metadata.getColumnType(i);
             int shl;
@@ -3276,20 +3494,20 @@ public class TableWriter implements Closeable {
                             path
                     );
 
-                    oooSetPathAndEnsureDir(path, 1, plen, i, FILE_SUFFIX_I);
+                    oooSetPathAndEnsureDir(destPath, destPlen, i, FILE_SUFFIX_I);
                     oooMapDestColumn(
                             mergeStruct,
                             MergeStruct.getFirstColumnOffset(i),
-                            path,
+                            destPath,
                             (indexHi - indexLo + 1 + dataIndexMax) * Long.BYTES,
                             0L
                     );
 
-                    oooSetPathAndEnsureDir(path, 1, plen, i, FILE_SUFFIX_D);
+                    oooSetPathAndEnsureDir(destPath, destPlen, i, FILE_SUFFIX_D);
                     oooMapDestColumn(
                             mergeStruct,
                             MergeStruct.getSecondColumnOffset(i),
-                            path,
+                            destPath,
                             MergeStruct.getSrcVarAddressSize(mergeStruct, i) + getOutOfOrderVarColumnSize(indexLo, indexHi, indexMax, i),
                             0L
                     );
@@ -3318,102 +3536,16 @@ public class TableWriter implements Closeable {
                         );
                     }
 
-                    oooSetPathAndEnsureDir(path, 1, plen, i, FILE_SUFFIX_D);
+                    oooSetPathAndEnsureDir(destPath, destPlen, i, FILE_SUFFIX_D);
                     oooMapDestColumn(
                             mergeStruct,
                             MergeStruct.getFirstColumnOffset(i),
-                            path,
+                            destPath,
                             ((indexHi - indexLo + 1) + dataIndexMax) << shl,
                             0L
                     );
 
-                    oooOpenIndexFiles(
-                            mergeStruct,
-                            path,
-                            plen,
-                            i
-                    );
-                    break;
-            }
-        }
-        return mergeStruct;
-    }
-
-    private long[] oooOpenMidPartitionForAppend(
-            Path path,
-            long indexLo,
-            long indexHi,
-            long indexMax,
-            long dataIndexMax,
-            int timestampIndex,
-            long timestampFd
-    ) {
-        long[] mergeStruct = new long[columnCount * MergeStruct.MERGE_STRUCT_ENTRY_SIZE];
-
-        int plen = path.length();
-        for (int i = 0; i < columnCount; i++) {
-            final int columnType = metadata.getColumnType(i);
-            switch (columnType) {
-                case ColumnType.BINARY:
-                case ColumnType.STRING:
-                    // index files are opened as normal
-                    iFile(path.trimTo(plen), metadata.getColumnName(i));
-                    oooMapDestColumn(
-                            mergeStruct,
-                            MergeStruct.getFirstColumnOffset(i),
-                            path,
-                            (indexHi - indexLo + 1 + dataIndexMax) * Long.BYTES,
-                            dataIndexMax * Long.BYTES
-                    );
-
-                    // open data file now
-                    path.trimTo(plen);
-                    dFile(path.trimTo(plen), metadata.getColumnName(i));
-                    final long dataFd = openReadWriteOrFail(ff, path);
-                    final long dataOffset = getVarColumnSize(
-                            columnType,
-                            dataFd,
-                            Unsafe.getUnsafe().getLong(
-                                    MergeStruct.getDestFixedAddress(mergeStruct, i)
-                                            + MergeStruct.getDestFixedAppendOffset(mergeStruct, i)
-                                            - Long.BYTES
-                            )
-                    );
-                    oooMapDestColumn(
-                            mergeStruct,
-                            MergeStruct.getSecondColumnOffset(i),
-                            dataFd,
-                            path,
-                            getOutOfOrderVarColumnSize(indexLo, indexHi, indexMax, i) + dataOffset,
-                            dataOffset
-                    );
-                    break;
-                default:
-                    final int shl = ColumnType.pow2SizeOf(columnType);
-                    final long dataSize = (indexHi - indexLo + 1 + dataIndexMax) << shl;
-
-                    if (timestampIndex == i && timestampFd != 0) {
-                        // ensure timestamp fd is always negative, we will close it externally
-                        assert timestampFd > 0;
-                        oooMapDestColumn(
-                                mergeStruct,
-                                MergeStruct.getFirstColumnOffset(i),
-                                -timestampFd,
-                                null,
-                                dataSize,
-                                dataIndexMax << shl
-                        );
-                    } else {
-                        dFile(path.trimTo(plen), metadata.getColumnName(i));
-                        oooMapDestColumn(
-                                mergeStruct,
-                                MergeStruct.getFirstColumnOffset(i),
-                                path,
-                                dataSize,
-                                dataIndexMax << shl
-                        );
-                        oooOpenIndexFiles(mergeStruct, path, plen, i);
-                    }
+                    oooOpenIndexFiles(mergeStruct, destPath, destPlen, i);
                     break;
             }
         }
@@ -3422,6 +3554,7 @@ public class TableWriter implements Closeable {
 
     private long[] oooOpenMidPartitionForMerge(
             Path path,
+            Path destPath,
             long indexLo,
             long indexHi,
             long indexMax,
@@ -3431,7 +3564,8 @@ public class TableWriter implements Closeable {
     ) {
         long[] mergeStruct = new long[columnCount * MergeStruct.MERGE_STRUCT_ENTRY_SIZE];
 
-        int plen = path.length();
+        final int plen = path.length();
+        final int destPlen = destPath.length();
         for (int i = 0; i < columnCount; i++) {
             final int columnType = metadata.getColumnType(i);
             int shl;
@@ -3467,20 +3601,20 @@ public class TableWriter implements Closeable {
                             dataSize
                     );
 
-                    oooSetPathAndEnsureDir(path, 1, plen, i, FILE_SUFFIX_I);
+                    oooSetPathAndEnsureDir(destPath, destPlen, i, FILE_SUFFIX_I);
                     oooMapDestColumn(
                             mergeStruct,
                             MergeStruct.getFirstColumnOffset(i),
-                            path,
+                            destPath,
                             ((indexHi - indexLo + 1) + dataIndexMax) << shl,
                             0L
                     );
 
-                    oooSetPathAndEnsureDir(path, 1, plen, i, FILE_SUFFIX_D);
+                    oooSetPathAndEnsureDir(destPath, destPlen, i, FILE_SUFFIX_D);
                     oooMapDestColumn(
                             mergeStruct,
                             MergeStruct.getSecondColumnOffset(i),
-                            path,
+                            destPath,
                             dataSize + getOutOfOrderVarColumnSize(indexLo, indexHi, indexMax, i),
                             0L
                     );
@@ -3505,15 +3639,15 @@ public class TableWriter implements Closeable {
                             dataIndexMax << shl
                     );
 
-                    oooSetPathAndEnsureDir(path, 1, plen, i, FILE_SUFFIX_D);
+                    oooSetPathAndEnsureDir(destPath, destPlen, i, FILE_SUFFIX_D);
                     oooMapDestColumn(
                             mergeStruct,
                             MergeStruct.getFirstColumnOffset(i),
-                            path,
+                            destPath,
                             ((indexHi - indexLo + 1) + dataIndexMax) << shl,
                             0L
                     );
-                    oooOpenIndexFiles(mergeStruct, path, plen, i);
+                    oooOpenIndexFiles(mergeStruct, destPath, destPlen, i);
                     break;
             }
         }
@@ -3573,38 +3707,156 @@ public class TableWriter implements Closeable {
         return mergeStruct;
     }
 
-    private void oooSetPathAndEnsureDir(Path path, int destIndex, int plen, int columnIndex, CharSequence suffix) {
-        path.trimTo(plen).put('.').put(destIndex);
-        path.concat(metadata.getColumnName(columnIndex)).put(suffix).$();
-        createDirsOrFail(path);
+    private void oooFreePartitions() {
+        for (int i = 0; i < oooPartitionCount; i++) {
+            final OutOfOrderPartition partition = oooPartitions.getQuick(i);
+            if (partition.mergeIndex != 0) {
+                Vect.freeMergedIndex(partition.mergeIndex);
+                partition.mergeIndex = 0;
+            }
+            freeMergeStruct(partition.mergeStruct);
+            partition.mergeStruct = null;
+            if (partition.timestampFd > 0) {
+                ff.close(partition.timestampFd);
+            }
+            partition.timestampFd = 0;
+        }
+        oooPartitionCount = 0;
     }
 
-    private void oooSetPathAndEnsureDir(Path path, int plen, int columnIndex, CharSequence suffix) {
-        path.trimTo(plen).concat(metadata.getColumnName(columnIndex)).put(suffix).$();
-        createDirsOrFail(path);
+    void oooProcessColumn(int stage, OutOfOrderPartition partition, int columnIndex) {
+        if (stage == OutOfOrderColumnEntry.STAGE_SHUFFLE) {
+            oooShuffleColumn(columnIndex);
+        } else {
+            oooCopyColumn(partition, columnIndex);
+        }
     }
 
-    private void oooUpdateIndexes(long[] mergeStruct) {
-        if (indexCount > 0) {
-            try (BitmapIndexWriter w = new BitmapIndexWriter()) {
-                // todo: this is hugely inefficient, but we will figure out to cache index writers later
+    /**
+     * Processes all columns for the given stage of out-of-order merge. Shuffle stage is done once per merge,
+     * copy stage is done for every column of every pending partition. When message bus is available column
+     * tasks are published on the queue to be picked up by worker threads, while this thread either
+     * helps with the work or steals back tasks that have not been picked up.
+     *
+     * @param stage either shuffle or copy stage, see {@link OutOfOrderColumnEntry}
+     */
+    private void oooProcessColumns(int stage) {
+        final boolean shuffle = stage == OutOfOrderColumnEntry.STAGE_SHUFFLE;
+        final int partitionCount = shuffle ? 1 : oooPartitionCount;
+        final int entryCount = partitionCount * columnCount;
+        final RingQueue<OutOfOrderColumnTask> queue = messageBus != null ? messageBus.getOutOfOrderColumnQueue() : null;
+
+        if (queue == null || entryCount < 2) {
+            for (int p = 0; p < partitionCount; p++) {
+                final OutOfOrderPartition partition = shuffle ? null : oooPartitions.getQuick(p);
                 for (int i = 0; i < columnCount; i++) {
-                    if (metadata.isColumnIndexed(i)) {
-                        w.of(
-                                configuration,
-                                MergeStruct.getIndexKeyFd(mergeStruct, i),
-                                MergeStruct.getIndexValueFd(mergeStruct, i)
-                        );
+                    oooProcessColumn(stage, partition, i);
+                }
+            }
+            return;
+        }
 
-                        long addr = MergeStruct.getDestFixedAddress(mergeStruct, i);
-                        long size = MergeStruct.getDestFixedAddressSize(mergeStruct, i);
+        // variable length columns are shuffled via shared buffers, they stay with this thread
+        int count = 0;
+        for (int i = 0; i < columnCount; i++) {
+            if (!shuffle || !isVarLenColumn(i)) {
+                count++;
+            }
+        }
+        oooLatch.setCount(count * partitionCount);
 
-                        for (long o = MergeStruct.getIndexStartOffset(mergeStruct, i); o < size; o += Integer.BYTES) {
-                            w.add(Unsafe.getUnsafe().getInt(addr + o), o);
-                        }
+        final Sequence pubSeq = messageBus.getOutOfOrderColumnPubSequence();
+        int serialCount = 0;
+        for (int p = 0; p < partitionCount; p++) {
+            final OutOfOrderPartition partition = shuffle ? null : oooPartitions.getQuick(p);
+            for (int i = 0; i < columnCount; i++) {
+                if (shuffle && isVarLenColumn(i)) {
+                    continue;
+                }
+
+                final OutOfOrderColumnEntry entry = getOutOfOrderColumnEntry(p * columnCount + i);
+                entry.of(stage, partition, i, oooLatch);
+
+                long cursor = pubSeq.next();
+                while (cursor == -2) {
+                    // CAS issue, retry
+                    cursor = pubSeq.next();
+                }
+
+                if (cursor == -1) {
+                    // queue is full, process column in the current thread
+                    entry.run();
+                    serialCount++;
+                } else {
+                    queue.get(cursor).entry = entry;
+                    pubSeq.done(cursor);
+                }
+            }
+        }
+
+        if (shuffle) {
+            final long mergedTimestamps = timestampMergeMem.addressOf(0);
+            for (int i = 0; i < columnCount; i++) {
+                if (isVarLenColumn(i)) {
+                    shuffleVarLenValues(i, mergedTimestamps, mergeRowCount);
+                }
+            }
+        }
+
+        // Instead of waiting for worker threads straight away we gracefully check
+        // latch count and steal columns that have not been picked up yet
+        if (!oooLatch.await(configuration.getWorkStealTimeoutNanos())) {
+            for (int e = 0; e < entryCount; e++) {
+                if (!shuffle || !isVarLenColumn(e % columnCount)) {
+                    if (oooColumnEntries.getQuick(e).run()) {
+                        serialCount++;
                     }
                 }
             }
+            // wait for the ones we cannot steal
+            oooLatch.await();
+        }
+
+        boolean distressed = false;
+        for (int e = 0; e < entryCount; e++) {
+            final OutOfOrderColumnEntry entry = oooColumnEntries.getQuiet(e);
+            if (entry != null) {
+                distressed |= entry.isDistressed();
+            }
+        }
+
+        if (distressed) {
+            throwDistressException(null);
+        }
+
+        LOG.debug()
+                .$("out-of-order columns done [stage=").$(stage)
+                .$(", partitionCount=").$(partitionCount)
+                .$(", columnCount=").$(columnCount)
+                .$(", serialCount=").$(serialCount)
+                .$(']').$();
+    }
+
+    private void oooSetPathAndEnsureDir(Path path, int plen, int columnIndex, CharSequence suffix) {
+        path.trimTo(plen).concat(metadata.getColumnName(columnIndex)).put(suffix).$();
+        createDirsOrFail(path);
+    }
+
+    private void oooUpdateIndex(long[] mergeStruct, int columnIndex) {
+        final long keyFd = MergeStruct.getIndexKeyFd(mergeStruct, columnIndex);
+        if (keyFd != 0) {
+            final long valueFd = MergeStruct.getIndexValueFd(mergeStruct, columnIndex);
+            // index writer takes ownership of file descriptors
+            MergeStruct.setIndexKeyFd(mergeStruct, columnIndex, 0);
+            MergeStruct.setIndexValueFd(mergeStruct, columnIndex, 0);
+            try (BitmapIndexWriter w = new BitmapIndexWriter()) {
+                w.of(configuration, keyFd, valueFd);
+                final long addr = MergeStruct.getDestFixedAddress(mergeStruct, columnIndex);
+                final long hi = MergeStruct.getDestFixedAppendOffset(mergeStruct, columnIndex);
+                for (long o = MergeStruct.getIndexStartOffset(mergeStruct, columnIndex); o < hi; o += Integer.BYTES) {
+                    w.add(TableUtils.toIndexKey(Unsafe.getUnsafe().getInt(addr + o)), o / Integer.BYTES);
+                }
+            }
         }
     }
 
@@ -3686,6 +3938,11 @@ public class TableWriter implements Closeable {
                 indexers.getQuick(columnIndex).configureFollowerAndWriter(configuration, path.trimTo(plen), name, getPrimaryColumn(columnIndex), transientRowCount);
             }
 
+            final ColumnStatsWriter statsWriter = columnStatsWriters.getQuick(columnIndex);
+            if (statsWriter != null) {
+                statsWriter.of(path.trimTo(plen), name, transientRowCount, transientRowCount);
+            }
+
         } finally {
             path.trimTo(rootLen);
         }
@@ -3722,6 +3979,11 @@ public class TableWriter implements Closeable {
                     assert indexer != null;
                     indexer.configureFollowerAndWriter(configuration, path, name, getPrimaryColumn(i), columnTop);
                 }
+
+                final ColumnStatsWriter statsWriter = columnStatsWriters.getQuick(i);
+                if (statsWriter != null) {
+                    statsWriter.of(path.trimTo(plen), name, transientRowCount, columnTop);
+                }
             }
             LOG.info().$("switched partition to '").$(path).$('\'').$();
         } finally {
@@ -3847,6 +4109,8 @@ public class TableWriter implements Closeable {
             indexers.remove(columnIndex);
             populateDenseIndexerList();
         }
+        Misc.free(columnStatsWriters.getQuick(columnIndex));
+        columnStatsWriters.remove(columnIndex);
     }
 
     private void removeColumnFiles(CharSequence columnName, int columnType, RemoveFileLambda removeLambda) {
@@ -3860,6 +4124,7 @@ public class TableWriter implements Closeable {
                     removeLambda.remove(ff, dFile(path, columnName));
                     removeLambda.remove(ff, iFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, topFile(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, statsFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
                 }
@@ -3948,6 +4213,77 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Removes partition versions that have been superseded by out-of-order merge in one of the previous
+     * transactions. Version can be removed once none of table readers is at transaction before the one
+     * that superseded it, see {@link TxnScoreboard}. Versions that are still in use or cannot be removed,
+     * for example because files are still open, are retried on next commit and eventually purged when
+     * the writer is re-opened.
+     */
+    private void purgeSupersededPartitions() {
+        final long minReaderTxn = txnScoreboard.getMin();
+        try {
+            for (int i = supersededPartitions.size() - 3; i > -1; i -= 3) {
+                final long partitionTimestamp = supersededPartitions.getQuick(i);
+                final long nameTxn = supersededPartitions.getQuick(i + 1);
+                if (supersededPartitions.getQuick(i + 2) > minReaderTxn) {
+                    continue;
+                }
+                if (getPartitionNameTxn(partitionTimestamp) != nameTxn && removedPartitions.excludes(partitionTimestamp)) {
+                    other.trimTo(rootLen);
+                    TableUtils.setPathForPartition(other, partitionBy, partitionTimestamp, nameTxn);
+                    if (!ff.rmdir(other.put(Files.SEPARATOR).$())) {
+                        LOG.info().$("could not purge partition version [path=").$(other).$(", errno=").$(ff.errno()).$(']').$();
+                        continue;
+                    }
+                    LOG.info().$("purged partition version [path=").$(other).$(']').$();
+                }
+                supersededPartitions.removeIndex(i + 2);
+                supersededPartitions.removeIndex(i + 1);
+                supersededPartitions.removeIndex(i);
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
+    private void addSupersededPartition(long partitionTimestamp, long nameTxn, long supersedingTxn) {
+        supersededPartitions.add(partitionTimestamp);
+        supersededPartitions.add(nameTxn);
+        supersededPartitions.add(supersedingTxn);
+    }
+
+    private boolean isSupersededPartition(long partitionTimestamp, long nameTxn) {
+        for (int i = 0, n = supersededPartitions.size(); i < n; i += 3) {
+            if (supersededPartitions.getQuick(i) == partitionTimestamp && supersededPartitions.getQuick(i + 1) == nameTxn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void discardUncommittedSupersededPartitions() {
+        // versions superseded by rolled back transaction remain current
+        for (int i = supersededPartitions.size() - 3; i > -1; i -= 3) {
+            if (supersededPartitions.getQuick(i + 2) > txn) {
+                supersededPartitions.removeIndex(i + 2);
+                supersededPartitions.removeIndex(i + 1);
+                supersededPartitions.removeIndex(i);
+            }
+        }
+    }
+
+    private void removePartitionNameTxn(long timestamp) {
+        final long partitionTimestamp = timestampFloorMethod.floor(timestamp);
+        for (int i = 0, n = partitionNameTxns.size(); i < n; i += 2) {
+            if (partitionNameTxns.getQuick(i) == partitionTimestamp) {
+                partitionNameTxns.removeIndex(i + 1);
+                partitionNameTxns.removeIndex(i);
+                return;
+            }
+        }
+    }
+
     private void removePartitionDirectories() {
         try {
             ff.iterateDir(path.$(), removePartitionDirectories);
@@ -3971,6 +4307,7 @@ public class TableWriter implements Closeable {
         } else {
             LOG.info().$("cleaning [path=").$(path.$()).$(']').$();
         }
+        final long minReaderTxn = txnScoreboard.getMin();
         try {
             ff.iterateDir(path.$(), (pName, type) -> {
                 path.trimTo(rootLen);
@@ -3978,9 +4315,21 @@ public class TableWriter implements Closeable {
                 nativeLPSZ.of(pName);
                 if (IGNORED_FILES.excludes(nativeLPSZ) && type == Files.DT_DIR) {
                     try {
-                        long dirTimestamp = partitionDirFmt.parse(nativeLPSZ, null);
+                        final int dot = Chars.indexOf(nativeLPSZ, '.');
+                        final long dirTimestamp = partitionDirFmt.parse(nativeLPSZ, 0, dot > -1 ? dot : nativeLPSZ.length(), null);
                         if (dirTimestamp <= timestamp) {
-                            return;
+                            if (isCurrentPartitionVersion(nativeLPSZ, dot, dirTimestamp)) {
+                                return;
+                            }
+                            // committed version of partition has been superseded by one of committed
+                            // transactions, readers at older transactions may still use it
+                            final long nameTxn = dot > -1 ? Numbers.parseLong(nativeLPSZ, dot + 1, nativeLPSZ.length()) : -1;
+                            if (nameTxn <= txn && minReaderTxn < txn) {
+                                if (!isSupersededPartition(dirTimestamp, nameTxn)) {
+                                    addSupersededPartition(dirTimestamp, nameTxn, txn);
+                                }
+                                return;
+                            }
                         }
                     } catch (NumericException ignore) {
                         // not a date?
@@ -4078,6 +4427,7 @@ public class TableWriter implements Closeable {
                     renameFileOrLog(ff, dFile(path.trimTo(plen), columnName), dFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, iFile(path.trimTo(plen), columnName), iFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, topFile(path.trimTo(plen), columnName), topFile(other.trimTo(plen), newName));
+                    renameFileOrLog(ff, statsFile(path.trimTo(plen), columnName), statsFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName), BitmapIndexUtils.keyFileName(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName), BitmapIndexUtils.valueFileName(other.trimTo(plen), newName));
                 }
@@ -4339,8 +4689,23 @@ public class TableWriter implements Closeable {
      * @param timestamp               to determine interval for
      * @param updatePartitionInterval flag indicating that partition interval partitionLo and
      */
+    private void setPartitionNameTxn(long timestamp, long nameTxn) {
+        final long partitionTimestamp = timestampFloorMethod.floor(timestamp);
+        // new version of partition is named after transaction that supersedes the old one
+        for (int i = 0, n = partitionNameTxns.size(); i < n; i += 2) {
+            if (partitionNameTxns.getQuick(i) == partitionTimestamp) {
+                addSupersededPartition(partitionTimestamp, partitionNameTxns.getQuick(i + 1), nameTxn);
+                partitionNameTxns.setQuick(i + 1, nameTxn);
+                return;
+            }
+        }
+        addSupersededPartition(partitionTimestamp, -1, nameTxn);
+        partitionNameTxns.add(partitionTimestamp);
+        partitionNameTxns.add(nameTxn);
+    }
+
     private void setStateForTimestamp(Path path, long timestamp, boolean updatePartitionInterval) {
-        long partitionHi = TableUtils.setPathForPartition(path, partitionBy, timestamp);
+        long partitionHi = TableUtils.setPathForPartition(path, partitionBy, timestamp, getPartitionNameTxn(timestamp));
         if (updatePartitionInterval) {
             this.partitionHi = partitionHi;
         }
@@ -4384,6 +4749,39 @@ public class TableWriter implements Closeable {
         Unsafe.free(src, srcSize);
     }
 
+    private void oooShuffleColumn(int columnIndex) {
+        final long mergedTimestamps = timestampMergeMem.addressOf(0);
+        switch (metadata.getColumnType(columnIndex)) {
+            case ColumnType.BINARY:
+            case ColumnType.STRING:
+                shuffleVarLenValues(columnIndex, mergedTimestamps, mergeRowCount);
+                break;
+            case ColumnType.FLOAT:
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                shuffleFixedLengthValues(columnIndex, mergedTimestamps, mergeRowCount, 2, SHUFFLE_32);
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DOUBLE:
+            case ColumnType.DATE:
+                shuffleFixedLengthValues(columnIndex, mergedTimestamps, mergeRowCount, 3, SHUFFLE_64);
+                break;
+            case ColumnType.TIMESTAMP:
+                if (columnIndex != metadata.getTimestampIndex()) {
+                    shuffleFixedLengthValues(columnIndex, mergedTimestamps, mergeRowCount, 3, SHUFFLE_64);
+                }
+                break;
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                shuffleFixedLengthValues(columnIndex, mergedTimestamps, mergeRowCount, 1, SHUFFLE_16);
+                break;
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                shuffleFixedLengthValues(columnIndex, mergedTimestamps, mergeRowCount, 0, SHUFFLE_8);
+                break;
+        }
+    }
+
     private void shuffleVarLenValues(int columnIndex, long timestampIndex, long indexRowCount) {
         final int primaryIndex = getPrimaryColumnIndex(columnIndex);
         final int secondaryIndex = getSecondaryColumnIndex(columnIndex);
@@ -4456,7 +4854,7 @@ public class TableWriter implements Closeable {
                     try {
                         assert columnTop == 0;
                         assert blockColumnTop > 0;
-                        TableUtils.setPathForPartition(path, partitionBy, timestampLo);
+                        setStateForTimestamp(path, timestampLo, false);
                         columnTops.setQuick(columnIndex, blockColumnTop);
                         writeColumnTop(getMetadata().getColumnName(columnIndex), blockColumnTop);
                     } finally {
@@ -4472,6 +4870,7 @@ public class TableWriter implements Closeable {
         // added so far. Index writers will start point to different
         // files after switch.
         updateIndexes();
+        updateColumnStats(transientRowCount);
 
         // We need to store reference on partition so that archive
         // file can be created in appropriate directory.
@@ -4503,6 +4902,15 @@ public class TableWriter implements Closeable {
         throw new CairoError(cause);
     }
 
+    private void updateColumnStats(long hi) {
+        for (int i = 0, n = columnStatsWriters.size(); i < n; i++) {
+            final ColumnStatsWriter w = columnStatsWriters.getQuick(i);
+            if (w != null) {
+                w.update(getPrimaryColumn(i), hi, columnTops.getQuick(i));
+            }
+        }
+    }
+
     private void updateIndexes() {
         if (indexCount == 0) {
             return;
@@ -4606,8 +5014,10 @@ public class TableWriter implements Closeable {
     }
 
     private void updateIndexesSlow() {
-        final long lo = txPartitionCount == 1 ? txPrevTransientRowCount : 0;
-        final long hi = transientRowCount;
+        updateIndexes(txPartitionCount == 1 ? txPrevTransientRowCount : 0, transientRowCount);
+    }
+
+    private void updateIndexes(long lo, long hi) {
         if (indexCount > 1 && parallelIndexerEnabled && hi - lo > configuration.getParallelIndexThreshold()) {
             updateIndexesParallel(lo, hi);
         } else {
@@ -4671,6 +5081,16 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void writePartitionNameTxns(int symbolWriterCount, int removedPartitionsCount) {
+        final int count = partitionNameTxns.size() / 2;
+        txMem.putInt(getPartitionNameTxnSizeOffset(symbolWriterCount, removedPartitionsCount), count);
+        for (int i = 0; i < count; i++) {
+            final long offset = getPartitionNameTxnIndexOffset(symbolWriterCount, removedPartitionsCount, i);
+            txMem.putLong(offset, partitionNameTxns.getQuick(i * 2));
+            txMem.putLong(offset + Long.BYTES, partitionNameTxns.getQuick(i * 2 + 1));
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeTodo(((long) metaPrevIndex << 8) | TODO_RESTORE_META);
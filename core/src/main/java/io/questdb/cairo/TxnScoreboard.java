@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Transactions table readers are at. Reader acquires transaction before it opens files of that
+ * transaction and releases it when it moves on to newer transaction or closes. Writer does not remove
+ * files superseded by transaction for as long as there is reader at older transaction.
+ * <p>
+ * Scoreboard lives in memory mapped file next to _txn and is shared by readers of all pools and
+ * processes. File is a ring of slots addressed by transaction. Each slot holds spin lock, reader count
+ * and the lowest transaction acquired since count was last zero. Transactions sharing the same slot make
+ * slot report the lowest of them, which only makes writer keep files for longer.
+ */
+public class TxnScoreboard implements Closeable {
+    public static final String FILE_NAME = "_txn_scoreboard";
+    private static final int SLOT_COUNT = 1024;
+    // lock, reader count, transaction and padding
+    private static final int SLOT_SHIFT = 5;
+    private static final long FILE_SIZE = (long) SLOT_COUNT << SLOT_SHIFT;
+    private static final long COUNT_OFFSET = 8;
+    private static final long TXN_OFFSET = 16;
+    private final FilesFacade ff;
+    private long fd;
+    private long address;
+
+    public TxnScoreboard(FilesFacade ff, Path path) {
+        this.ff = ff;
+        final int plen = path.length();
+        try {
+            path.concat(FILE_NAME).$();
+            this.fd = ff.openRW(path);
+            if (fd == -1) {
+                throw CairoException.instance(ff.errno()).put("could not open ").put(path);
+            }
+            // file is zero filled when created, which leaves all slots unlocked and empty
+            if (ff.length(fd) < FILE_SIZE && !ff.truncate(fd, FILE_SIZE)) {
+                final int errno = ff.errno();
+                close();
+                throw CairoException.instance(errno).put("could not resize ").put(path).put(" to ").put(FILE_SIZE);
+            }
+            this.address = ff.mmap(fd, FILE_SIZE, 0, Files.MAP_RW);
+            if (address == FilesFacade.MAP_FAILED) {
+                final int errno = ff.errno();
+                address = 0;
+                close();
+                throw CairoException.instance(errno).put("could not mmap ").put(path);
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    public void acquire(long txn) {
+        final long slot = lock(txn);
+        try {
+            final long count = Unsafe.getUnsafe().getLong(slot + COUNT_OFFSET);
+            if (count == 0 || txn < Unsafe.getUnsafe().getLong(slot + TXN_OFFSET)) {
+                Unsafe.getUnsafe().putLong(slot + TXN_OFFSET, txn);
+            }
+            Unsafe.getUnsafe().putLong(slot + COUNT_OFFSET, count + 1);
+        } finally {
+            unlock(slot);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            ff.munmap(address, FILE_SIZE);
+            address = 0;
+        }
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    /**
+     * @return the lowest transaction acquired by readers or Long.MAX_VALUE when there are no readers
+     */
+    public long getMin() {
+        long min = Long.MAX_VALUE;
+        for (long txn = 0; txn < SLOT_COUNT; txn++) {
+            final long slot = lock(txn);
+            try {
+                if (Unsafe.getUnsafe().getLong(slot + COUNT_OFFSET) > 0) {
+                    min = Math.min(min, Unsafe.getUnsafe().getLong(slot + TXN_OFFSET));
+                }
+            } finally {
+                unlock(slot);
+            }
+        }
+        return min;
+    }
+
+    public void release(long txn) {
+        final long slot = lock(txn);
+        try {
+            final long count = Unsafe.getUnsafe().getLong(slot + COUNT_OFFSET);
+            assert count > 0;
+            Unsafe.getUnsafe().putLong(slot + COUNT_OFFSET, count - 1);
+        } finally {
+            unlock(slot);
+        }
+    }
+
+    private static void unlock(long slot) {
+        Unsafe.getUnsafe().putLongVolatile(null, slot, 0);
+    }
+
+    private long lock(long txn) {
+        final long slot = address + ((txn & (SLOT_COUNT - 1)) << SLOT_SHIFT);
+        while (!Unsafe.getUnsafe().compareAndSwapLong(null, slot, 0, 1)) {
+            Thread.yield();
+        }
+        return slot;
+    }
+}
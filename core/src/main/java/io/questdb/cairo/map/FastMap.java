@@ -32,6 +32,8 @@ import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
+
 public class FastMap implements Map {
 
     private static final HashFunction DEFAULT_HASH = Hash::hashMem;
@@ -58,6 +60,7 @@ public class FastMap implements Map {
     private int mask;
     private int nResizes;
     private final int maxResizes;
+    private final int[] valueOffsets;
 
     public FastMap(int pageSize,
                    @Transient @NotNull ColumnTypes keyTypes,
@@ -142,6 +145,7 @@ public class FastMap implements Map {
                         throw CairoException.instance(0).put("value type is not supported: ").put(ColumnType.nameOf(valueTypes.getColumnType(i)));
                 }
             }
+            this.valueOffsets = valueOffsets;
             this.value = new FastMapValue(valueOffsets);
             this.value2 = new FastMapValue(valueOffsets);
             this.value3 = new FastMapValue(valueOffsets);
@@ -150,6 +154,7 @@ public class FastMap implements Map {
             this.record = new FastMapRecord(valueOffsets, columnSplit, keyDataOffset, keyBlockOffset, value, keyTypes);
         } else {
             this.valueColumnCount = 0;
+            this.valueOffsets = null;
             this.value = new FastMapValue(null);
             this.value2 = new FastMapValue(null);
             this.value3 = new FastMapValue(null);
@@ -237,6 +242,65 @@ public class FastMap implements Map {
         return valueOf(address, false, this.value);
     }
 
+    /**
+     * Maps key hash to one of partitionCount partitions. Hash is scrambled first, bucket index
+     * of the map is taken from low bits of the same hash and should not be correlated with
+     * the partition.
+     *
+     * @param hash           hash of the key
+     * @param partitionCount number of partitions
+     * @return partition index between 0 and partitionCount - 1
+     */
+    public static int partitionOf(int hash, int partitionCount) {
+        return (int) ((((hash * 0x9E3779B9L) & 0xffffffffL) * partitionCount) >>> 32);
+    }
+
+    /**
+     * Merges entries of "src" map that belong to given hash partition into this map. Keys this map does not
+     * have are copied together with their values, values of keys present in both maps are combined by
+     * mergeFunction. Both maps must have identical key and value types. Source map is read, but not
+     * modified, which allows several threads to merge different partitions of the same source map at
+     * the same time.
+     *
+     * @param src            map to merge entries from
+     * @param partition      index of partition to merge
+     * @param partitionCount total number of partitions
+     * @param mergeFunction  combines value of source entry into value of existing entry
+     */
+    public void merge(FastMap src, int partition, int partitionCount, MergeFunction mergeFunction) {
+        assert src.keyDataOffset == keyDataOffset && src.valueColumnCount == valueColumnCount;
+        long address = src.kStart;
+        for (int i = 0, n = src.size; i < n; i++) {
+            final int len = Unsafe.getUnsafe().getInt(address);
+            final int hash = hashFunction.hash(address + keyDataOffset, len - keyDataOffset);
+            if (partitionCount == 1 || partitionOf(hash, partitionCount) == partition) {
+                mergeEntry(address, len, hash, mergeFunction);
+            }
+            address += len;
+        }
+    }
+
+    private void mergeEntry(long srcAddress, int len, int hash, MergeFunction mergeFunction) {
+        // entry is copied to the append position first, it stays there only when key is new
+        key.init();
+        key.checkSize(len - keyDataOffset);
+        Unsafe.getUnsafe().copyMemory(srcAddress, key.startAddress, len);
+        key.appendAddress = key.startAddress + len;
+        key.len = len;
+
+        int index = hash & mask;
+        long offset;
+        while ((offset = offsets.get(index)) != -1) {
+            if (eq(key, offset)) {
+                // value2 is never handed out by this map while merge is in progress
+                mergeFunction.merge(valueOf(kStart + offset, false, value), value2.of(srcAddress, false));
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        asNew(key, index, value);
+    }
+
     private FastMapValue asNew(Key keyWriter, int index, FastMapValue value) {
         kPos = keyWriter.appendAddress;
         offsets.set(index, keyWriter.startAddress - kStart);
@@ -293,12 +357,40 @@ public class FastMap implements Map {
         return kPos;
     }
 
+    long getStartAddress() {
+        return kStart;
+    }
+
     int getValueColumnCount() {
         return valueColumnCount;
     }
 
-    private int keyIndex() {
-        return hashFunction.hash(key.startAddress + keyDataOffset, key.len - keyDataOffset) & mask;
+    private FastMapValue findValue(Key keyWriter, FastMapValue value) {
+        int index = keyIndex(keyWriter);
+        long offset = offsets.get(index);
+
+        if (offset == -1) {
+            return null;
+        } else if (eq(keyWriter, offset)) {
+            return valueOf(kStart + offset, false, value);
+        } else {
+            return probeReadOnly(keyWriter, index, value);
+        }
+    }
+
+    private int keyIndex(Key keyWriter) {
+        return hashFunction.hash(keyWriter.startAddress + keyDataOffset, keyWriter.len - keyDataOffset) & mask;
+    }
+
+    /**
+     * Creates key that writes to memory of its own. Such key can only be used to look up existing keys,
+     * it does not touch memory of the map. Different threads can look up keys at the same time, each with
+     * its own lookup key, as long as nothing is being added to the map.
+     *
+     * @return lookup key, it has to be closed to release its memory
+     */
+    public LookupKey newLookupKey() {
+        return new LookupKey();
     }
 
     private FastMapValue probeReadOnly(Key keyWriter, int index, FastMapValue value) {
@@ -374,11 +466,16 @@ public class FastMap implements Map {
         int hash(long address, int len);
     }
 
+    @FunctionalInterface
+    public interface MergeFunction {
+        void merge(MapValue destValue, MapValue srcValue);
+    }
+
     public class Key implements MapKey {
-        private long startAddress;
-        private long appendAddress;
-        private int len;
-        private long nextColOffset;
+        long startAddress;
+        long appendAddress;
+        int len;
+        long nextColOffset;
 
         @Override
         public MapValue createValue() {
@@ -414,7 +511,7 @@ public class FastMap implements Map {
             commit();
             // calculate hash remembering "key" structure
             // [ len | value block | key offset block | key data block ]
-            int index = keyIndex();
+            int index = keyIndex(this);
             long offset = offsets.get(index);
 
             if (offset == -1) {
@@ -428,16 +525,7 @@ public class FastMap implements Map {
 
         private MapValue findValue(FastMapValue value) {
             commit();
-            int index = keyIndex();
-            long offset = offsets.get(index);
-
-            if (offset == -1) {
-                return null;
-            } else if (eq(this, offset)) {
-                return valueOf(kStart + offset, false, value);
-            } else {
-                return probeReadOnly(this, index, value);
-            }
+            return FastMap.this.findValue(this, value);
         }
 
         @Override
@@ -600,13 +688,13 @@ public class FastMap implements Map {
             putLong(value);
         }
 
-        private void checkSize(int size) {
+        void checkSize(int size) {
             if (appendAddress + size > kLimit) {
                 resize(size);
             }
         }
 
-        private void commit() {
+        void commit() {
             Unsafe.getUnsafe().putInt(startAddress, len = (int) (appendAddress - startAddress));
         }
 
@@ -626,4 +714,84 @@ public class FastMap implements Map {
             nextColOffset += 4;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lookup key can be used with this map and any other map of the same key and value types.
+     */
+    public class LookupKey extends Key implements Closeable {
+        private final FastMapValue lookupValue = new FastMapValue(valueOffsets);
+        private long lo;
+        private long hi;
+
+        private LookupKey() {
+            final long size = Numbers.ceilPow2(keyDataOffset + 64);
+            this.lo = Unsafe.malloc(size);
+            this.hi = lo + size;
+        }
+
+        @Override
+        public void close() {
+            if (lo != 0) {
+                Unsafe.free(lo, hi - lo);
+                lo = hi = 0;
+            }
+        }
+
+        @Override
+        public MapValue createValue() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MapValue createValue2() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MapValue createValue3() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MapValue findValue() {
+            return findValue(FastMap.this);
+        }
+
+        @Override
+        public MapValue findValue2() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MapValue findValue3() {
+            throw new UnsupportedOperationException();
+        }
+
+        public MapValue findValue(FastMap map) {
+            commit();
+            return map.findValue(this, lookupValue);
+        }
+
+        @Override
+        public LookupKey init() {
+            startAddress = lo;
+            appendAddress = lo + keyDataOffset;
+            nextColOffset = lo + keyBlockOffset;
+            return this;
+        }
+
+        @Override
+        void checkSize(int size) {
+            if (appendAddress + size > hi) {
+                final long capacity = Numbers.ceilPow2(appendAddress + size - lo);
+                final long address = Unsafe.realloc(lo, hi - lo, capacity);
+                final long d = address - lo;
+                startAddress += d;
+                appendAddress += d;
+                nextColOffset += d;
+                lo = address;
+                hi = address + capacity;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Iterates entries of several maps one map after another. Maps must have identical key and value
+ * types, records of the first map are used to read entries of all of them.
+ */
+public final class FastMapConcatCursor implements RecordCursor {
+    private ObjList<FastMap> maps;
+    private FastMapRecord recordA;
+    private MapRecord recordB;
+    private int mapIndex;
+    private int remaining;
+    private long address;
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public MapRecord getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (remaining == 0) {
+            if (++mapIndex >= maps.size()) {
+                return false;
+            }
+            final FastMap map = maps.getQuick(mapIndex);
+            address = map.getStartAddress();
+            remaining = (int) map.size();
+        }
+        final long address = this.address;
+        this.address = address + Unsafe.getUnsafe().getInt(address);
+        remaining--;
+        recordA.of(address);
+        return true;
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        assert record instanceof FastMapRecord;
+        ((FastMapRecord) record).of(atRowId);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (int i = 0, n = maps.size(); i < n; i++) {
+            size += maps.getQuick(i).size();
+        }
+        return size;
+    }
+
+    @Override
+    public void toTop() {
+        mapIndex = -1;
+        remaining = 0;
+    }
+
+    public FastMapConcatCursor of(ObjList<FastMap> maps) {
+        assert maps.size() > 0;
+        if (this.maps != maps) {
+            this.maps = maps;
+            this.recordA = (FastMapRecord) maps.getQuick(0).getRecord();
+            this.recordB = recordA.clone();
+        }
+        toTop();
+        return this;
+    }
+}
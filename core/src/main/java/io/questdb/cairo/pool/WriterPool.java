@@ -71,6 +71,8 @@ public class WriterPool extends AbstractPool implements ResourcePool<TableWriter
     private final CharSequence root;
     @Nullable
     private final MessageBus messageBus;
+    @Nullable
+    private final O3CommitListener o3CommitListener;
 
     /**
      * Pool constructor. WriterPool root directory is passed via configuration.
@@ -79,9 +81,21 @@ public class WriterPool extends AbstractPool implements ResourcePool<TableWriter
      * @param messageBus    message bus instance to allow index tasks to be communicated to available threads.
      */
     public WriterPool(CairoConfiguration configuration, @Nullable MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    /**
+     * Pool constructor. WriterPool root directory is passed via configuration.
+     *
+     * @param configuration    configuration parameters.
+     * @param messageBus       message bus instance to allow index tasks to be communicated to available threads.
+     * @param o3CommitListener notified by pooled writers about commits of out-of-order data.
+     */
+    public WriterPool(CairoConfiguration configuration, @Nullable MessageBus messageBus, @Nullable O3CommitListener o3CommitListener) {
         super(configuration, configuration.getInactiveWriterTTL());
         this.configuration = configuration;
         this.messageBus = messageBus;
+        this.o3CommitListener = o3CommitListener;
         this.clock = configuration.getMicrosecondClock();
         this.root = configuration.getRoot();
         notifyListener(Thread.currentThread().getId(), null, PoolListener.EV_POOL_OPEN);
@@ -368,7 +382,7 @@ public class WriterPool extends AbstractPool implements ResourcePool<TableWriter
         try {
             checkClosed();
             LOG.info().$("open [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
-            e.writer = new TableWriter(configuration, name, messageBus, true, e, root);
+            e.writer = new TableWriter(configuration, name, messageBus, true, e, root, o3CommitListener);
             return logAndReturn(e, PoolListener.EV_CREATE);
         } catch (CairoException ex) {
             LOG.error()
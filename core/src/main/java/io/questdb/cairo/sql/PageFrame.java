@@ -49,4 +49,31 @@ public interface PageFrame {
      * @return size of page in bytes
      */
     long getPageSize(int columnIndex);
+
+    /**
+     * Return index of the partition this page frame belongs to.
+     *
+     * @return partition index
+     */
+    default int getPartitionIndex() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return row number of the first row of this page frame. Row number is relative to the partition.
+     *
+     * @return partition row number of the first row
+     */
+    default long getPartitionLo() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return row number of the row following the last row of this page frame. Row number is relative to the partition.
+     *
+     * @return partition row number, exclusive
+     */
+    default long getPartitionHi() {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.std.LongList;
+
+/**
+ * Record cursor over table reader partitions, or slices of them, whose row ids are
+ * table reader row ids. Such cursor can be positioned by timestamp or by symbol index instead of
+ * being scanned, which is what ASOF and LT joins do with their slave side.
+ */
+public interface TimeFrameRecordCursor extends RecordCursor {
+
+    /**
+     * Copies frames of this cursor to the list as triplets of partition index, first row and
+     * row following the last row. Frames are in timestamp order and empty frames are skipped.
+     * Cursor is positioned at the top after the call.
+     *
+     * @param frames list frames are added to
+     * @return false when cursor does not return all rows of its frames, for example when rows are filtered
+     */
+    boolean collectFrames(LongList frames);
+
+    /**
+     * @param columnIndex index of cursor column
+     * @return index of table reader column that backs the cursor column
+     */
+    int getReaderColumnIndex(int columnIndex);
+
+    TableReader getTableReader();
+}
@@ -161,6 +161,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return 32;
     }
 
+    @Override
+    public long getQueryResultCacheSize() {
+        return 8 * 1024 * 1024;
+    }
+
     @Override
     public WaitProcessorConfiguration getWaitProcessorConfiguration() {
         return new WaitProcessorConfiguration() {
@@ -201,6 +206,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isQueryResultCacheEnabled() {
+        return false;
+    }
+
     @Override
     public int[] getWorkerAffinity() {
         return new int[]{-1, -1};
@@ -27,6 +27,7 @@ package io.questdb.cutlass.http;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
 
 public interface HttpChunkedResponseSocket extends CharSink {
     void bookmark();
@@ -35,11 +36,28 @@ public interface HttpChunkedResponseSocket extends CharSink {
 
     HttpResponseHeader headers();
 
+    /**
+     * Copies as many bytes from the given memory range as there is room in the response buffer.
+     *
+     * @param lo address of first byte to copy
+     * @param hi address of byte following the last one
+     * @return address of the first byte that has not been copied, hi when all of them were
+     */
+    long putDirect(long lo, long hi);
+
     boolean resetToBookmark();
 
     void sendChunk() throws PeerDisconnectedException, PeerIsSlowToReadException;
 
     void sendHeader() throws PeerDisconnectedException, PeerIsSlowToReadException;
 
+    /**
+     * Listener is notified of body bytes every time a chunk is sent. It is reset when
+     * the response sink is cleared.
+     *
+     * @param listener body listener or null to stop notifications
+     */
+    void setBodyListener(@Nullable HttpResponseBodyListener listener);
+
     void status(int status, CharSequence contentType);
 }
@@ -35,6 +35,7 @@ import io.questdb.std.str.AbstractCharSink;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.DirectUnboundedByteSink;
 import io.questdb.std.str.StdoutSink;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -94,6 +95,7 @@ public class HttpResponseSink implements Closeable, Mutable {
     private boolean header = true;
     private long totalBytesSent = 0;
     private final boolean connectionCloseHeader;
+    private HttpResponseBodyListener bodyListener;
 
     public HttpResponseSink(HttpContextConfiguration configuration) {
         this.responseBufferSize = Numbers.ceilPow2(configuration.getSendBufferSize());
@@ -123,6 +125,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         this.zpos = this.zlimit = 0;
         header = true;
         totalBytesSent = 0;
+        bodyListener = null;
         resetZip();
     }
 
@@ -655,6 +658,18 @@ public class HttpResponseSink implements Closeable, Mutable {
             return headerImpl;
         }
 
+        @Override
+        public long putDirect(long lo, long hi) {
+            // keep the last byte free, same as other put methods
+            final long len = Math.min(hi - lo, limit - _wPtr - 1);
+            if (len > 0) {
+                Unsafe.getUnsafe().copyMemory(lo, _wPtr, len);
+                _wPtr += len;
+                return lo + len;
+            }
+            return lo;
+        }
+
         @Override
         public boolean resetToBookmark() {
             _wPtr = bookmark;
@@ -664,6 +679,9 @@ public class HttpResponseSink implements Closeable, Mutable {
         @Override
         public void sendChunk() throws PeerDisconnectedException, PeerIsSlowToReadException {
             if (outPtr != _wPtr) {
+                if (bodyListener != null) {
+                    bodyListener.onBody(outPtr, _wPtr);
+                }
                 if (deflateBeforeSend) {
                     flushBufSize = 0;
                 } else {
@@ -679,6 +697,11 @@ public class HttpResponseSink implements Closeable, Mutable {
             flushSingle();
         }
 
+        @Override
+        public void setBodyListener(@Nullable HttpResponseBodyListener listener) {
+            bodyListener = listener;
+        }
+
         @Override
         public void status(int status, CharSequence contentType) {
             super.status(status, contentType);
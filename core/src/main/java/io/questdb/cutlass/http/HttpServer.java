@@ -29,10 +29,14 @@ import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.WorkerPoolAwareConfiguration.ServerFactory;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
+import io.questdb.cairo.OutOfOrderColumnJob;
 import io.questdb.cairo.TableBlockWriter.TableBlockWriterJob;
 import io.questdb.cutlass.http.processors.*;
 import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.engine.groupby.PageFrameGroupByJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.join.PageFrameHashJoinJob;
+import io.questdb.griffin.engine.table.PageFrameFilterJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.EagerThreadSetup;
@@ -58,10 +62,33 @@ public class HttpServer implements Closeable {
     private final HttpContextFactory httpContextFactory;
     private final WorkerPool workerPool;
     private final WaitProcessor rescheduleContext;
-
+    private final QueryCache queryCache;
+    private final QueryResultCache queryResultCache;
 
     public HttpServer(HttpMinServerConfiguration configuration, WorkerPool pool, boolean localPool) {
+        this(configuration, pool, localPool, null, null);
+    }
+
+    public HttpServer(HttpServerConfiguration configuration, WorkerPool pool, boolean localPool) {
+        this(
+                configuration,
+                pool,
+                localPool,
+                new QueryCache(configuration, pool.getWorkerCount()),
+                configuration.isQueryResultCacheEnabled() ? new QueryResultCache(configuration.getQueryResultCacheSize()) : null
+        );
+    }
+
+    private HttpServer(
+            HttpMinServerConfiguration configuration,
+            WorkerPool pool,
+            boolean localPool,
+            @Nullable QueryCache queryCache,
+            @Nullable QueryResultCache queryResultCache
+    ) {
         this.workerCount = pool.getWorkerCount();
+        this.queryCache = queryCache;
+        this.queryResultCache = queryResultCache;
         this.selectors = new ObjList<>(workerCount);
 
         if (localPool) {
@@ -103,11 +130,24 @@ public class HttpServer implements Closeable {
             pool.assign(i, () -> {
                 Misc.free(selectors.getQuick(index));
                 httpContextFactory.closeContextPool();
-                Misc.free(QueryCache.getInstance());
             });
         }
     }
 
+    /**
+     * @return compiled query cache shared by query processors of this server, null for minimal server
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return cache of serialized /exec results, null when the cache is disabled or for minimal server
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public static void addDefaultEndpoints(
             HttpServer server,
             HttpServerConfiguration configuration,
@@ -147,6 +187,7 @@ public class HttpServer implements Closeable {
                 return new TextQueryProcessor(
                         configuration.getJsonQueryProcessorConfiguration(),
                         cairoEngine,
+                        server.getQueryCache(),
                         messageBus,
                         workerPool.getWorkerCount(),
                         functionFactoryCache
@@ -186,6 +227,10 @@ public class HttpServer implements Closeable {
         // jobs that help parallel execution of queries
         workerPool.assign(new ColumnIndexerJob(messageBus));
         workerPool.assign(new GroupByJob(messageBus));
+        workerPool.assign(new OutOfOrderColumnJob(messageBus));
+        workerPool.assign(new PageFrameFilterJob(messageBus));
+        workerPool.assign(new PageFrameGroupByJob(messageBus));
+        workerPool.assign(new PageFrameHashJoinJob(messageBus));
         workerPool.assign(new TableBlockWriterJob(messageBus));
     }
 
@@ -279,6 +324,9 @@ public class HttpServer implements Closeable {
         }
         Misc.free(httpContextFactory);
         Misc.free(dispatcher);
+        // connection states return factories to the cache when they close, cache goes last
+        Misc.free(queryCache);
+        Misc.free(queryResultCache);
     }
 
     private static HttpServer create0(
@@ -290,10 +338,11 @@ public class HttpServer implements Closeable {
             FunctionFactoryCache functionFactoryCache
     ) {
         final HttpServer s = new HttpServer(configuration, workerPool, localPool);
-        QueryCache.configure(configuration);
         HttpRequestProcessorBuilder jsonQueryProcessorBuilder = () -> new JsonQueryProcessor(
                 configuration.getJsonQueryProcessorConfiguration(),
                 cairoEngine,
+                s.getQueryCache(),
+                s.getQueryResultCache(),
                 messageBus,
                 workerPool.getWorkerCount(),
                 functionFactoryCache);
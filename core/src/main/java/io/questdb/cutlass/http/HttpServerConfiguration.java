@@ -39,10 +39,14 @@ public interface HttpServerConfiguration extends WorkerPoolAwareConfiguration, H
 
     int getQueryCacheRows();
 
+    long getQueryResultCacheSize();
+
     WaitProcessorConfiguration getWaitProcessorConfiguration();
 
     StaticContentProcessorConfiguration getStaticContentProcessorConfiguration();
 
     @Override
     boolean isEnabled();
+
+    boolean isQueryResultCacheEnabled();
 }
@@ -61,34 +61,44 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Path path = new Path();
     private final NanosecondClock nanosecondClock;
     private final HttpSqlExecutionInterruptor interruptor;
+    private final QueryCache queryCache;
+    private final QueryResultCache resultCache;
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
+            @Nullable QueryResultCache resultCache,
             @Nullable MessageBus messageBus,
             int workerCount
     ) {
-        this(configuration, engine, messageBus, workerCount, (FunctionFactoryCache) null);
+        this(configuration, engine, queryCache, resultCache, messageBus, workerCount, (FunctionFactoryCache) null);
     }
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
+            @Nullable QueryResultCache resultCache,
             @Nullable MessageBus messageBus,
             int workerCount,
             @Nullable FunctionFactoryCache functionFactoryCache
     ) {
-        this(configuration, engine, messageBus, workerCount, new SqlCompiler(engine, messageBus, functionFactoryCache));
+        this(configuration, engine, queryCache, resultCache, messageBus, workerCount, new SqlCompiler(engine, messageBus, functionFactoryCache));
     }
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
+            @Nullable QueryResultCache resultCache,
             @Nullable MessageBus messageBus,
             int workerCount,
             SqlCompiler sqlCompiler
     ) {
         this.configuration = configuration;
+        this.queryCache = queryCache;
+        this.resultCache = resultCache;
         this.compiler = sqlCompiler;
         final QueryExecutor sendConfirmation = JsonQueryProcessor::sendConfirmation;
         this.queryExecutors.extendAndSet(CompiledQuery.SELECT, this::executeNewSelect);
@@ -123,8 +133,15 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         // the only time we need to copy random from state is when we resume request execution
         sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), interruptor.of(context.getFd()));
         state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
-        final RecordCursorFactory factory = QueryCache.getInstance().poll(state.getQuery());
         try {
+            if (resultCache != null && state.ofCachedResult(resultCache, sqlExecutionContext)) {
+                sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
+                sendCachedResult(state, configuration.getKeepAliveHeader());
+                return;
+            }
+
+            // query is compiled to find out tables it reads when result cache does not know them yet
+            final RecordCursorFactory factory = state.isResultTableListRequired() ? null : queryCache.poll(state.getQuery());
             if (factory != null) {
                 try {
                     sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
@@ -166,6 +183,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (state == null) {
             LV.set(context, state = new JsonQueryProcessorState(
                     context,
+                    queryCache,
+                    resultCache,
                     nanosecondClock,
                     configuration.getFloatScale(),
                     configuration.getDoubleScale()
@@ -354,6 +373,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         state.logExecuteNew();
+        state.setResultTableNames(compiler.getTablesRead());
         final RecordCursorFactory factory = cc.getRecordCursorFactory();
         executeSelect(
                 state,
@@ -361,6 +381,17 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 keepAliveHeader);
     }
 
+    private void sendCachedResult(
+            JsonQueryProcessorState state,
+            CharSequence keepAliveHeader
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        state.setCompilerNanos(0);
+        state.logExecuteCachedResult();
+        final HttpConnectionContext context = state.getHttpConnectionContext();
+        header(context.getChunkedResponseSocket(), keepAliveHeader);
+        doResumeSend(state, context);
+    }
+
     private void executeSelect(
             JsonQueryProcessorState state,
             RecordCursorFactory factory,
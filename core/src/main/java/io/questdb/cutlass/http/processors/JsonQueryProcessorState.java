@@ -33,9 +33,11 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.http.HttpChunkedResponseSocket;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
+import io.questdb.cutlass.http.HttpResponseBodyListener;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -46,10 +48,12 @@ import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
 public class JsonQueryProcessorState implements Mutable, Closeable {
+    static final int QUERY_CACHED_RESULT = 10;
     static final int QUERY_RECORD_PREFIX = 9;
     static final int QUERY_SETUP_FIRST_RECORD = 8;
     static final int QUERY_SUFFIX = 7;
@@ -68,11 +72,23 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
     private final ObjList<String> columnNames = new ObjList<>();
     private final HttpConnectionContext httpConnectionContext;
+    private final QueryCache queryCache;
+    private final QueryResultCache resultCache;
     private final IntList columnSkewList = new IntList();
     private final ObjList<ValueWriter> skewedValueWriters = new ObjList<>();
     private final NanosecondClock nanosecondClock;
     private final int floatScale;
     private final int doubleScale;
+    private final StringSink resultCacheKey = new StringSink();
+    private final ObjList<CharSequence> resultTableNames = new ObjList<>();
+    private final LongList resultTableVersions = new LongList();
+    private final HttpResponseBodyListener resultSink = this::appendResult;
+    private final HttpResponseBodyListener resultCaptureSink = this::captureResult;
+    private long resultAddress;
+    private long resultCapacity;
+    private long resultSize;
+    private long resultOffset;
+    private boolean resultCapturing = false;
     private Rnd rnd;
     private RecordCursorFactory recordCursorFactory;
     private RecordCursor cursor;
@@ -93,11 +109,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
 
     public JsonQueryProcessorState(
             HttpConnectionContext httpConnectionContext,
+            QueryCache queryCache,
+            @Nullable QueryResultCache resultCache,
             NanosecondClock nanosecondClock,
             int floatScale,
             int doubleScale
     ) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryCache = queryCache;
+        this.resultCache = resultCache;
         resumeActions.extendAndSet(QUERY_PREFIX, this::onQueryPrefix);
         resumeActions.extendAndSet(QUERY_METADATA, this::onQueryMetadata);
         resumeActions.extendAndSet(QUERY_METADATA_SUFFIX, this::onQueryMetadataSuffix);
@@ -106,6 +126,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         resumeActions.extendAndSet(QUERY_RECORD, this::onQueryRecord);
         resumeActions.extendAndSet(QUERY_RECORD_SUFFIX, this::onQueryRecordSuffix);
         resumeActions.extendAndSet(QUERY_SUFFIX, this::doQuerySuffix);
+        resumeActions.extendAndSet(QUERY_CACHED_RESULT, this::onCachedResult);
 
         skewedValueWriters.extendAndSet(ColumnType.BOOLEAN, this::putSkewedBooleanValue);
         skewedValueWriters.extendAndSet(ColumnType.BYTE, this::putSkewedByteValue);
@@ -153,7 +174,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getInstance().push(query, recordCursorFactory);
+                queryCache.push(query, recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -164,12 +185,18 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         queryState = QUERY_PREFIX;
         columnIndex = 0;
         countRows = false;
+        resultCacheKey.clear();
+        resultTableNames.clear();
+        resultTableVersions.clear();
+        resultCapturing = false;
+        freeResult();
     }
 
     @Override
     public void close() {
         cursor = Misc.free(cursor);
         recordCursorFactory = Misc.free(recordCursorFactory);
+        freeResult();
     }
 
     public void configure(
@@ -186,6 +213,19 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
         this.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
         this.timings = Chars.equalsNc("true", request.getUrlParam("timings"));
+        this.resultCacheKey.clear();
+        if (resultCache != null && !timings) {
+            // everything that shapes the response, except for data
+            resultCacheKey.put(this.query).put('\n')
+                    .put(skip).put(',')
+                    .put(stop).put(',')
+                    .put(noMeta).put(',')
+                    .put(countRows).put(',');
+            final DirectByteCharSequence columnNames = request.getUrlParam("cols");
+            if (columnNames != null) {
+                resultCacheKey.put(columnNames);
+            }
+        }
     }
 
     public LogRecord error() {
@@ -216,6 +256,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         info().$("Response buffer is too small, state=").$(queryState).$();
     }
 
+    public void logExecuteCachedResult() {
+        info().$("execute-cached-result ").$("[skip: ").$(skip).$(", stop: ").$(stop).$(", size: ").$(resultSize).$(']').$();
+    }
+
     public void logExecuteCached() {
         info().$("execute-cached ").$("[skip: ").$(skip).$(", stop: ").$(stop).$(']').$();
     }
@@ -383,6 +427,40 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return false;
     }
 
+    private void appendResult(long lo, long hi) {
+        final long len = hi - lo;
+        if (resultSize + len > resultCapacity) {
+            final long capacity = Math.max(resultSize + len, Math.max(resultCapacity * 2, 64 * 1024));
+            resultAddress = resultAddress == 0 ? Unsafe.malloc(capacity) : Unsafe.realloc(resultAddress, resultCapacity, capacity);
+            resultCapacity = capacity;
+        }
+        Unsafe.getUnsafe().copyMemory(lo, resultAddress + resultSize, len);
+        resultSize += len;
+    }
+
+    private void cacheResult(HttpChunkedResponseSocket socket) {
+        if (resultCapturing) {
+            resultCapturing = false;
+            socket.setBodyListener(null);
+            if (resultCache != null) {
+                resultCache.put(resultCacheKey, resultTableNames, resultTableVersions, resultAddress, resultAddress + resultSize);
+            }
+            freeResult();
+        }
+    }
+
+    private void captureResult(long lo, long hi) {
+        if (resultCapturing) {
+            if (resultCache != null && resultSize + hi - lo <= resultCache.getCapacity()) {
+                appendResult(lo, hi);
+            } else {
+                // result would not fit the cache anyway
+                resultCapturing = false;
+                freeResult();
+            }
+        }
+    }
+
     private void doFirstRecordLoop(
             HttpChunkedResponseSocket socket,
             int columnCount
@@ -497,7 +575,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             }
             socket.put('}');
             count = -1;
-            socket.sendChunk();
+            try {
+                socket.sendChunk();
+            } finally {
+                // last chunk has been handed to result capture by now
+                cacheResult(socket);
+            }
         }
         socket.done();
     }
@@ -514,17 +597,45 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         doQuerySuffix(socket, columnCount);
     }
 
+    private void freeResult() {
+        if (resultAddress != 0) {
+            Unsafe.free(resultAddress, resultCapacity);
+            resultAddress = 0;
+            resultCapacity = 0;
+        }
+        resultSize = 0;
+        resultOffset = 0;
+    }
+
     private long getFd() {
         return httpConnectionContext.getFd();
     }
 
+    /**
+     * Result cache can only be populated when it is known which tables query reads. This list is
+     * available from the compiler and from stale cache entry. When neither is present query has to be
+     * compiled even if its factory is cached.
+     */
+    boolean isResultTableListRequired() {
+        return resultCacheKey.length() > 0 && resultTableNames.size() == 0;
+    }
+
     boolean noCursor() {
-        return cursor == null;
+        return cursor == null && queryState != QUERY_CACHED_RESULT;
     }
 
     boolean of(RecordCursorFactory factory, SqlExecutionContextImpl sqlExecutionContext) throws PeerDisconnectedException, PeerIsSlowToReadException {
         this.recordCursorFactory = factory;
         queryCacheable = true;
+        // versions must be read before the cursor, so that cached result is never older than the versions
+        resultCapturing = resultCacheKey.length() > 0
+                && resultTableNames.size() > 0
+                && QueryResultCache.readTableVersions(
+                sqlExecutionContext.getCairoEngine(),
+                sqlExecutionContext.getCairoSecurityContext(),
+                resultTableNames,
+                resultTableVersions
+        );
         this.cursor = factory.getCursor(sqlExecutionContext);
         final RecordMetadata metadata = factory.getMetadata();
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
@@ -576,9 +687,48 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             }
         }
         this.columnCount = columnCount;
+        if (resultCapturing) {
+            resultSize = 0;
+            httpConnectionContext.getChunkedResponseSocket().setBodyListener(resultCaptureSink);
+        }
         return true;
     }
 
+    boolean ofCachedResult(QueryResultCache cache, SqlExecutionContext sqlExecutionContext) {
+        if (resultCacheKey.length() > 0) {
+            resultSize = 0;
+            if (cache.get(
+                    resultCacheKey,
+                    sqlExecutionContext.getCairoEngine(),
+                    sqlExecutionContext.getCairoSecurityContext(),
+                    resultSink,
+                    resultTableNames
+            )) {
+                resultOffset = 0;
+                queryState = QUERY_CACHED_RESULT;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onCachedResult(
+            HttpChunkedResponseSocket socket,
+            int columnCount
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        while (resultOffset < resultSize) {
+            final long lo = resultAddress + resultOffset;
+            final long p = socket.putDirect(lo, resultAddress + resultSize);
+            if (p > lo) {
+                resultOffset += p - lo;
+            } else {
+                socket.sendChunk();
+            }
+        }
+        socket.sendChunk();
+        socket.done();
+    }
+
     private void onNoMoreData() {
         long nanos = nanosecondClock.getTicks();
         if (countRows) {
@@ -739,6 +889,13 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.queryCacheable = queryCacheable;
     }
 
+    void setResultTableNames(ObjList<CharSequence> tableNames) {
+        resultTableNames.clear();
+        if (tableNames != null) {
+            resultTableNames.addAll(tableNames);
+        }
+    }
+
     @FunctionalInterface
     interface StateResumeAction {
         void onResume(
@@ -28,27 +28,28 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.http.HttpServerConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.std.AssociativeCache;
-import io.questdb.std.ThreadLocal;
+import io.questdb.std.ConcurrentAssociativeCache;
 
 import java.io.Closeable;
 
+/**
+ * Compiled query cache shared by all HTTP workers. Factory is checked out of cache for the
+ * duration of query execution and is pushed back when query is done, so that factory is never
+ * used by two threads at once. Cache is owned by {@link io.questdb.cutlass.http.HttpServer}
+ * and is closed together with the server.
+ */
 public final class QueryCache implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(QueryCache.class);
-    private static ThreadLocal<QueryCache> TL_QUERY_CACHE;
-    private final AssociativeCache<RecordCursorFactory> cache;
+    private final ConcurrentAssociativeCache<RecordCursorFactory> cache;
 
-    public QueryCache(int blocks, int rows) {
-        this.cache = new AssociativeCache<>(blocks, rows);
+    public QueryCache(int segments, int blocks, int rows) {
+        this.cache = new ConcurrentAssociativeCache<>(segments, blocks, rows);
     }
 
-    public static void configure(HttpServerConfiguration configuration) {
-        TL_QUERY_CACHE = new ThreadLocal<>(() -> new QueryCache(configuration.getQueryCacheBlocks(), configuration.getQueryCacheRows()));
-    }
-
-    public static QueryCache getInstance() {
-        return TL_QUERY_CACHE.get();
+    public QueryCache(HttpServerConfiguration configuration, int workerCount) {
+        // one segment per worker keeps capacity of the cache same as it was when cache was local to thread
+        this(workerCount, configuration.getQueryCacheBlocks(), configuration.getQueryCacheRows());
     }
 
     @Override
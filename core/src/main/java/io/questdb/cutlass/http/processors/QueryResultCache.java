@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.TableReader;
+import io.questdb.cutlass.http.HttpResponseBodyListener;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Serialized query results shared by all HTTP workers. Result is stored off-heap together with
+ * id, transaction number and data version of every table the query read. Cached result is served
+ * for as long as none of these tables changed. Cache is bounded by total size of stored results,
+ * least recently used results are evicted first.
+ * <p>
+ * Results of queries that use table or {@link io.questdb.griffin.FunctionFactory#isNonDeterministic() non-deterministic}
+ * functions are not cached. Cache is owned by {@link io.questdb.cutlass.http.HttpServer} and is closed together
+ * with the server.
+ */
+public final class QueryResultCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final LongList versions = new LongList();
+    private final long capacity;
+    // most recently used entry
+    private Entry head;
+    // least recently used entry
+    private Entry tail;
+    private long size;
+    private long hitCount;
+    private long missCount;
+
+    public QueryResultCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Reads id, transaction number and data version of given tables.
+     *
+     * @return false when any of tables cannot be read
+     */
+    static boolean readTableVersions(
+            CairoEngine engine,
+            CairoSecurityContext securityContext,
+            ObjList<CharSequence> tableNames,
+            LongList versions
+    ) {
+        versions.clear();
+        try {
+            for (int i = 0, n = tableNames.size(); i < n; i++) {
+                // reader is reloaded when it is taken from pool
+                try (TableReader reader = engine.getReader(securityContext, tableNames.getQuick(i))) {
+                    versions.add(reader.getMetadata().getId());
+                    versions.add(reader.getTxn());
+                    versions.add(reader.getDataVersion());
+                }
+            }
+            return true;
+        } catch (CairoException e) {
+            LOG.info().$("could not read table version [msg=").$(e.getFlyweightMessage()).$(']').$();
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Entry e = head; e != null; e = e.next) {
+            Unsafe.free(e.address, e.size);
+        }
+        entries.clear();
+        head = tail = null;
+        size = 0;
+        LOG.info().$("closed").$();
+    }
+
+    /**
+     * Copies result of the query to target, provided tables the result was produced from
+     * have not changed since. Versions of the tables are checked while holding cache lock, this
+     * takes a reader from the pool for each table.
+     *
+     * @param key             query text and request parameters that affect the result
+     * @param securityContext security context of the request
+     * @param target          receives cached result on hit
+     * @param tableNames      receives names of tables result was produced from, names are available
+     *                        even when result is stale
+     * @return true on cache hit
+     */
+    public synchronized boolean get(
+            CharSequence key,
+            CairoEngine engine,
+            CairoSecurityContext securityContext,
+            HttpResponseBodyListener target,
+            ObjList<CharSequence> tableNames
+    ) {
+        final Entry e = entries.get(key);
+        if (e != null) {
+            tableNames.addAll(e.tableNames);
+            if (readTableVersions(engine, securityContext, e.tableNames, versions) && e.isCurrent(versions)) {
+                hitCount++;
+                moveToHead(e);
+                target.onBody(e.address, e.address + e.size);
+                return true;
+            }
+        }
+        missCount++;
+        return false;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Stores result of the query replacing previous result, if any. Least recently used results
+     * are evicted to make room.
+     *
+     * @param key        query text and request parameters that affect the result
+     * @param tableNames tables the result was produced from
+     * @param versions   versions of the tables, as they were before query executed
+     * @param lo         address of first byte of the result
+     * @param hi         address of byte following the last one
+     */
+    public synchronized void put(CharSequence key, ObjList<CharSequence> tableNames, LongList versions, long lo, long hi) {
+        final long len = hi - lo;
+        final int index = entries.keyIndex(key);
+        if (index < 0) {
+            remove(entries.valueAt(index));
+            entries.removeAt(index);
+        }
+
+        if (len > capacity) {
+            return;
+        }
+
+        while (size + len > capacity) {
+            final Entry lru = tail;
+            entries.remove(lru.key);
+            remove(lru);
+        }
+
+        final Entry e = new Entry(Chars.toString(key), tableNames, versions, Unsafe.malloc(len), len);
+        Unsafe.getUnsafe().copyMemory(lo, e.address, len);
+        entries.put(e.key, e);
+        size += len;
+        moveToHead(e);
+    }
+
+    private void moveToHead(Entry e) {
+        if (e == head) {
+            return;
+        }
+        unlink(e);
+        e.next = head;
+        if (head != null) {
+            head.prev = e;
+        }
+        head = e;
+        if (tail == null) {
+            tail = e;
+        }
+    }
+
+    private void remove(Entry e) {
+        unlink(e);
+        Unsafe.free(e.address, e.size);
+        size -= e.size;
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else if (e == head) {
+            head = e.next;
+        }
+        if (e.next != null) {
+            e.next.prev = e.prev;
+        } else if (e == tail) {
+            tail = e.prev;
+        }
+        e.prev = e.next = null;
+    }
+
+    private static class Entry {
+        private final String key;
+        private final ObjList<CharSequence> tableNames = new ObjList<>();
+        private final LongList versions = new LongList();
+        private final long address;
+        private final long size;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(String key, ObjList<CharSequence> tableNames, LongList versions, long address, long size) {
+            this.key = key;
+            this.tableNames.addAll(tableNames);
+            this.versions.add(versions);
+            this.address = address;
+            this.size = size;
+        }
+
+        private boolean isCurrent(LongList versions) {
+            if (this.versions.size() != versions.size()) {
+                return false;
+            }
+            for (int i = 0, n = versions.size(); i < n; i++) {
+                if (this.versions.getQuick(i) != versions.getQuick(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
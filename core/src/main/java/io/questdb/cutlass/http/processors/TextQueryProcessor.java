@@ -66,24 +66,28 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final MillisecondClock clock;
     private final int doubleScale;
     private final HttpSqlExecutionInterruptor interruptor;
+    private final QueryCache queryCache;
 
     public TextQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
             @Nullable MessageBus messageBus,
             int workerCount
     ) {
-        this(configuration, engine, messageBus, workerCount, null);
+        this(configuration, engine, queryCache, messageBus, workerCount, null);
     }
 
     public TextQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
             @Nullable MessageBus messageBus,
             int workerCount,
             @Nullable FunctionFactoryCache functionFactoryCache
     ) {
         this.configuration = configuration;
+        this.queryCache = queryCache;
         this.compiler = new SqlCompiler(engine, messageBus, functionFactoryCache);
         this.floatScale = configuration.getFloatScale();
         this.clock = configuration.getClock();
@@ -103,7 +107,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             TextQueryProcessorState state
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         try {
-            state.recordCursorFactory = QueryCache.getInstance().poll(state.query);
+            state.recordCursorFactory = queryCache.poll(state.query);
             state.setQueryCacheable(true);
             sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), interruptor.of(context.getFd()));
             if (state.recordCursorFactory == null) {
@@ -156,7 +160,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new TextQueryProcessorState(context));
+            LV.set(context, state = new TextQueryProcessorState(context, queryCache));
         }
         // new request clears random
         state.rnd = null;
@@ -39,6 +39,7 @@ import java.io.Closeable;
 public class TextQueryProcessorState implements Mutable, Closeable {
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
+    private final QueryCache queryCache;
     boolean countRows = false;
     boolean noMeta = false;
     RecordCursorFactory recordCursorFactory;
@@ -53,8 +54,9 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     int columnIndex;
     private boolean queryCacheable = false;
 
-    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
+    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext, QueryCache queryCache) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryCache = queryCache;
     }
 
     @Override
@@ -64,7 +66,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getInstance().push(query, recordCursorFactory);
+                queryCache.push(query, recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -35,4 +35,9 @@ public class LineProtoSecondTimestampAdapter implements LineProtoTimestampAdapte
     public long getMicros(CharSequence value) throws NumericException {
         return Numbers.parseLong(value) * Timestamps.SECOND_MICROS;
     }
+
+    @Override
+    public long getMicros(long value) {
+        return value * Timestamps.SECOND_MICROS;
+    }
 }
@@ -115,9 +115,7 @@ public class LineProtoSender extends AbstractCharSink implements Closeable {
 
     public void $() {
         put('\n');
-        lineStart = ptr;
-        hasMetric = false;
-        noFields = true;
+        endLine();
     }
 
     @Override
@@ -222,6 +220,32 @@ public class LineProtoSender extends AbstractCharSink implements Closeable {
         throw CairoException.instance(0).put("metric expected");
     }
 
+    /**
+     * Copies bytes of a complete measurement to send buffer. Measurement has to be closed with {@link #endLine()}.
+     *
+     * @param lo  address of first byte
+     * @param len number of bytes to copy
+     */
+    protected void putBytes(long lo, int len) {
+        if (ptr + len < hi) {
+            Unsafe.getUnsafe().copyMemory(lo, ptr, len);
+        } else {
+            send00();
+            if (ptr + len < hi) {
+                Unsafe.getUnsafe().copyMemory(lo, ptr, len);
+            } else {
+                throw CairoException.instance(0).put("value too long");
+            }
+        }
+        ptr += len;
+    }
+
+    protected void endLine() {
+        lineStart = ptr;
+        hasMetric = false;
+        noFields = true;
+    }
+
     private LineProtoSender putUtf8Escaped(CharSequence cs) {
         for (int i = 0, n = cs.length(); i < n; i++) {
             char c = cs.charAt(i);
@@ -26,6 +26,7 @@ package io.questdb.cutlass.line.tcp;
 
 import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cutlass.line.LineProtoNanoTimestampAdapter;
 import io.questdb.cutlass.line.LineProtoTimestampAdapter;
@@ -120,9 +121,34 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
     public long getMaintenanceJobHysteresisInMs() {
         return 100;
     }
+
+    @Override
+    public long getCommitLagInMs() {
+        return 1000;
+    }
+
+    @Override
+    public long getCommitLagInMs(CharSequence tableName) {
+        return getCommitLagInMs();
+    }
+
+    @Override
+    public long getMaxUncommittedBytes() {
+        return 16 * 1024 * 1024;
+    }
+
+    @Override
+    public boolean isCommitRateAdaptive() {
+        return true;
+    }
 	
 	@Override
 	public String getAuthDbPath() {
 	    return null;
 	}
+
+    @Override
+    public int getDefaultPartitionBy() {
+        return PartitionBy.DAY;
+    }
 }
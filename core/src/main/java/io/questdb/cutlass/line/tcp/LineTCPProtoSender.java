@@ -24,16 +24,129 @@
 
 package io.questdb.cutlass.line.tcp;
 
+import io.questdb.cairo.CairoException;
 import io.questdb.cutlass.line.LineProtoSender;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.NetworkError;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
 
 public class LineTCPProtoSender extends LineProtoSender {
     private static final Log LOG = LogFactory.getLog(LineProtoSender.class);
+    private final boolean binary;
+    private final FrameSink frameSink;
 
     public LineTCPProtoSender(int sendToIPv4Address, int sendToPort, int bufferCapacity) {
+        this(sendToIPv4Address, sendToPort, bufferCapacity, false);
+    }
+
+    /**
+     * @param binary when true measurements are sent as frames of {@link LineTcpBinaryProtocol}, which
+     *               spares formatting and parsing of numbers
+     */
+    public LineTCPProtoSender(int sendToIPv4Address, int sendToPort, int bufferCapacity, boolean binary) {
         super(0, sendToIPv4Address, sendToPort, bufferCapacity, 0);
+        this.binary = binary;
+        if (binary) {
+            frameSink = new FrameSink(bufferCapacity);
+            // protocol selection is sent with the first measurement, after authentication
+            put((char) (LineTcpBinaryProtocol.MAGIC & 0xFF));
+            endLine();
+        } else {
+            frameSink = null;
+        }
+    }
+
+    @Override
+    public void $(long timestamp) {
+        if (binary) {
+            frameSink.endFrame(timestamp);
+        } else {
+            super.$(timestamp);
+        }
+    }
+
+    @Override
+    public void $() {
+        if (binary) {
+            frameSink.endFrame(LineTcpBinaryProtocol.NO_TIMESTAMP);
+        } else {
+            super.$();
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (binary) {
+            frameSink.close();
+        }
+    }
+
+    @Override
+    public LineProtoSender field(CharSequence name, long value) {
+        if (binary) {
+            frameSink.field(name, LineTcpBinaryProtocol.TYPE_LONG).putLong(value);
+            return this;
+        }
+        return super.field(name, value);
+    }
+
+    @Override
+    public LineProtoSender field(CharSequence name, CharSequence value) {
+        if (binary) {
+            frameSink.field(name, LineTcpBinaryProtocol.TYPE_STRING).putString(value);
+            return this;
+        }
+        return super.field(name, value);
+    }
+
+    @Override
+    public LineProtoSender field(CharSequence name, double value) {
+        if (binary) {
+            frameSink.field(name, LineTcpBinaryProtocol.TYPE_DOUBLE).putLong(Double.doubleToRawLongBits(value));
+            return this;
+        }
+        return super.field(name, value);
+    }
+
+    @Override
+    public LineProtoSender field(CharSequence name, boolean value) {
+        if (binary) {
+            frameSink.field(name, LineTcpBinaryProtocol.TYPE_BOOLEAN).put((char) (value ? 1 : 0));
+            return this;
+        }
+        return super.field(name, value);
+    }
+
+    @Override
+    public LineProtoSender metric(CharSequence metric) {
+        if (binary) {
+            frameSink.startFrame(metric);
+            return this;
+        }
+        return super.metric(metric);
+    }
+
+    @Override
+    public LineProtoSender tag(CharSequence tag, CharSequence value) {
+        if (binary) {
+            frameSink.tag(tag, value);
+            return this;
+        }
+        return super.tag(tag, value);
+    }
+
+    @Override
+    public LineProtoSender tagEscaped(CharSequence tag, CharSequence value) {
+        if (binary) {
+            // binary strings are length prefixed and need no escaping
+            frameSink.tag(tag, value);
+            return this;
+        }
+        return super.tagEscaped(tag, value);
     }
 
     @Override
@@ -55,4 +168,119 @@ public class LineTCPProtoSender extends LineProtoSender {
             throw NetworkError.instance(nf.errno()).put("send error");
         }
     }
+
+    private class FrameSink extends AbstractCharSink {
+        private final long capacity;
+        private long lo;
+        private long ptr;
+        private long nTagsPtr;
+        private long nFieldsPtr;
+
+        private FrameSink(long capacity) {
+            this.capacity = capacity;
+            this.lo = Unsafe.malloc(capacity);
+        }
+
+        @Override
+        public CharSink put(char c) {
+            ensureCapacity(Byte.BYTES);
+            Unsafe.getUnsafe().putByte(ptr++, (byte) c);
+            return this;
+        }
+
+        @Override
+        public CharSink put(char[] chars, int start, int len) {
+            throw new UnsupportedOperationException();
+        }
+
+        private void close() {
+            if (lo != 0) {
+                Unsafe.free(lo, capacity);
+                lo = ptr = 0;
+            }
+        }
+
+        private void endFrame(long timestamp) {
+            checkFrame();
+            if (nFieldsPtr == 0) {
+                throw CairoException.instance(0).put("field expected");
+            }
+            putLong(timestamp);
+            Unsafe.getUnsafe().putInt(lo, (int) (ptr - lo - Integer.BYTES));
+            putBytes(lo, (int) (ptr - lo));
+            endLine();
+            ptr = 0;
+        }
+
+        private void ensureCapacity(int len) {
+            if (ptr + len > lo + capacity) {
+                throw CairoException.instance(0).put("line too long");
+            }
+        }
+
+        private FrameSink field(CharSequence name, byte type) {
+            checkFrame();
+            if (nFieldsPtr == 0) {
+                nFieldsPtr = ptr;
+                put((char) 0);
+            }
+            increment(nFieldsPtr);
+            putString(name);
+            put((char) type);
+            return this;
+        }
+
+        private void checkFrame() {
+            if (ptr == 0) {
+                throw CairoException.instance(0).put("metric expected");
+            }
+        }
+
+        private void increment(long countPtr) {
+            final int count = Unsafe.getUnsafe().getByte(countPtr) & 0xFF;
+            if (count == LineTcpBinaryProtocol.MAX_TAG_OR_FIELD_COUNT) {
+                throw CairoException.instance(0).put("too many values");
+            }
+            Unsafe.getUnsafe().putByte(countPtr, (byte) (count + 1));
+        }
+
+        private void putLong(long value) {
+            ensureCapacity(Long.BYTES);
+            Unsafe.getUnsafe().putLong(ptr, value);
+            ptr += Long.BYTES;
+        }
+
+        private void putString(CharSequence value) {
+            ensureCapacity(Short.BYTES);
+            final long lenPtr = ptr;
+            ptr += Short.BYTES;
+            encodeUtf8(value);
+            final long len = ptr - lenPtr - Short.BYTES;
+            if (len > LineTcpBinaryProtocol.MAX_STRING_LENGTH) {
+                throw CairoException.instance(0).put("value too long");
+            }
+            Unsafe.getUnsafe().putShort(lenPtr, (short) len);
+        }
+
+        private void startFrame(CharSequence metric) {
+            if (ptr != 0) {
+                throw CairoException.instance(0).put("duplicate metric");
+            }
+            ptr = lo + Integer.BYTES;
+            nFieldsPtr = 0;
+            putString(metric);
+            nTagsPtr = ptr;
+            put((char) 0);
+        }
+
+        private void tag(CharSequence tag, CharSequence value) {
+            checkFrame();
+            if (nFieldsPtr != 0) {
+                throw CairoException.instance(0).put("tags must precede fields");
+            }
+            increment(nTagsPtr);
+            putString(tag);
+            putString(value);
+        }
+    }
 }
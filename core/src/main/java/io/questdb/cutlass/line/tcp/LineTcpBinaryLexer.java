@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.CharSequenceCache;
+import io.questdb.std.Chars;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.AbstractCharSequence;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+
+import java.io.Closeable;
+
+/**
+ * Decodes UTF-8 strings of binary measurement frames into char buffer, so that they can be accessed
+ * the same way as tokens of text measurements.
+ */
+class LineTcpBinaryLexer implements CharSequenceCache, Closeable {
+    private final FloatingCharSequence floatingCharSequence = new FloatingCharSequence();
+    private final BufferCharSink sink = new BufferCharSink();
+    private long buffer;
+    private long bufferHi;
+    private long dstPos;
+
+    LineTcpBinaryLexer(int bufferSize) {
+        buffer = Unsafe.malloc(bufferSize);
+        bufferHi = buffer + bufferSize;
+        dstPos = buffer;
+    }
+
+    @Override
+    public void close() {
+        if (buffer != 0) {
+            Unsafe.free(buffer, bufferHi - buffer);
+            buffer = bufferHi = dstPos = 0;
+        }
+    }
+
+    @Override
+    public CharSequence get(long address) {
+        floatingCharSequence.lo = buffer + Numbers.decodeHighInt(address);
+        floatingCharSequence.hi = buffer + Numbers.decodeLowInt(address);
+        return floatingCharSequence;
+    }
+
+    void clear() {
+        dstPos = buffer;
+    }
+
+    /**
+     * Decodes UTF-8 bytes to char buffer.
+     *
+     * @param lo     address of first byte
+     * @param hi     address of byte after the last one
+     * @param quoted when true decoded string is enclosed in double quotes, as text string fields are
+     * @return cache address of decoded string or -1 when bytes are not valid UTF-8
+     */
+    long decodeUtf8(long lo, long hi, boolean quoted) {
+        final long top = dstPos - buffer;
+        if (quoted) {
+            sink.put('"');
+        }
+        if (!Chars.utf8Decode(lo, hi, sink)) {
+            dstPos = buffer + top;
+            return -1;
+        }
+        if (quoted) {
+            sink.put('"');
+        }
+        return Numbers.encodeLowHighInts((int) (dstPos - buffer), (int) top);
+    }
+
+    private static class FloatingCharSequence extends AbstractCharSequence {
+        long lo, hi;
+
+        @Override
+        public int length() {
+            return (int) (hi - lo) / 2;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return Unsafe.getUnsafe().getChar(lo + index * 2L);
+        }
+    }
+
+    private class BufferCharSink extends AbstractCharSink {
+
+        @Override
+        public CharSink put(char c) {
+            if (dstPos == bufferHi) {
+                extend();
+            }
+            Unsafe.getUnsafe().putChar(dstPos, c);
+            dstPos += 2;
+            return this;
+        }
+
+        @Override
+        public CharSink put(char[] chars, int start, int len) {
+            throw new UnsupportedOperationException();
+        }
+
+        private void extend() {
+            final long size = bufferHi - buffer;
+            final long offset = dstPos - buffer;
+            buffer = Unsafe.realloc(buffer, size, size * 2);
+            bufferHi = buffer + size * 2;
+            dstPos = buffer + offset;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+/**
+ * Binary variant of line protocol. Client selects it by sending {@link #MAGIC} as the very first byte of
+ * the connection, after authentication when it is enabled. Every measurement is then sent as a frame of
+ * little-endian values:
+ * <pre>
+ * int32  frame length, not including this field
+ * string table name
+ * uint8  number of tags, followed by name and value string of each tag
+ * uint8  number of fields, followed by name string, uint8 type and value of each field
+ * int64  timestamp in line.tcp.timestamp units, the same as text lines, {@link #NO_TIMESTAMP} to use server time
+ * </pre>
+ * Strings are UTF-8 bytes prefixed by uint16 length. Field values are int64 for {@link #TYPE_LONG},
+ * float64 for {@link #TYPE_DOUBLE}, single byte for {@link #TYPE_BOOLEAN} and a string for {@link #TYPE_STRING}.
+ * Malformed frame is skipped, negative frame length is a protocol error and the connection is closed.
+ */
+public final class LineTcpBinaryProtocol {
+    // not a valid first byte of UTF-8 text, so it cannot start text measurement
+    public static final byte MAGIC = (byte) 0xFF;
+    public static final byte TYPE_LONG = 1;
+    public static final byte TYPE_DOUBLE = 2;
+    public static final byte TYPE_BOOLEAN = 3;
+    public static final byte TYPE_STRING = 4;
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    public static final int MAX_STRING_LENGTH = 0xFFFF;
+    public static final int MAX_TAG_OR_FIELD_COUNT = 0xFF;
+    // returned by frame parser when stream cannot be resynchronised
+    static final long BROKEN_STREAM = -2;
+
+    private LineTcpBinaryProtocol() {
+    }
+}
@@ -49,6 +49,8 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     protected long recvBufPos;
     protected boolean peerDisconnected;
     private boolean queueFull;
+    private boolean protocolNegotiated;
+    private boolean binaryProtocol;
     private long lastQueueFullLogMillis = 0;
 
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler) {
@@ -64,6 +66,8 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         recvBufPos = recvBufStart;
         peerDisconnected = false;
         queueFull = false;
+        protocolNegotiated = false;
+        binaryProtocol = false;
     }
 
     @Override
@@ -132,6 +136,9 @@ class LineTcpConnectionContext implements IOContext, Mutable {
 
     IOContextResult handleIO() {
         while (read()) {
+            if (!protocolNegotiated && !negotiateProtocol()) {
+                continue;
+            }
             try {
                 // Process as much data as possible
                 long recvBufLineStart = recvBufStart;
@@ -142,13 +149,19 @@ class LineTcpConnectionContext implements IOContext, Mutable {
                     if (event != null) {
                         boolean success = true;
                         try {
-                            final long recvBufLineNext = event.parseLine(recvBufLineStart, recvBufPos);
+                            final long recvBufLineNext = binaryProtocol ?
+                                    event.parseBinary(recvBufLineStart, recvBufPos) :
+                                    event.parseLine(recvBufLineStart, recvBufPos);
                             if (recvBufLineNext > -1 && event.isSuccess()) {
                                 recvBufLineStart = recvBufLineNext;
                             } else if (recvBufLineNext == -1) {
                                 // incomplete line
                                 success = false;
                                 break;
+                            } else if (recvBufLineNext == LineTcpBinaryProtocol.BROKEN_STREAM) {
+                                success = false;
+                                LOG.error().$('[').$(fd).$("] invalid binary frame length, disconnecting").$();
+                                return IOContextResult.NEEDS_DISCONNECT;
                             } else {
                                 success = false;
                                 LOG.error().$('[').$(fd).$("] could not parse measurement, code ").$(event.getErrorCode()).$(" at ").$(event.getErrorPosition()).$(" in ")
@@ -194,6 +207,19 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         return IOContextResult.NEEDS_READ;
     }
 
+    private boolean negotiateProtocol() {
+        if (recvBufPos == recvBufStart) {
+            return false;
+        }
+        protocolNegotiated = true;
+        if (Unsafe.getUnsafe().getByte(recvBufStart) == LineTcpBinaryProtocol.MAGIC) {
+            binaryProtocol = true;
+            compactBuffer(recvBufStart + 1);
+            LOG.info().$('[').$(fd).$("] binary protocol").$();
+        }
+        return true;
+    }
+
     LineTcpConnectionContext of(long clientFd, IODispatcher<LineTcpConnectionContext> dispatcher) {
         this.fd = clientFd;
         this.dispatcher = dispatcher;
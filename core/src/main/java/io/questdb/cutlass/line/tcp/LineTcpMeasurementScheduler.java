@@ -35,6 +35,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
 import io.questdb.mp.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -52,18 +53,25 @@ class LineTcpMeasurementScheduler implements Closeable {
     private static final int INCOMPLETE_EVENT_ID = -2; // An incomplete event is used when the queue producer has grabbed an event but is
     // not able to populate it for some reason, the event needs to be committed to the
     // queue incomplete
+    private static final int DECODED_VALUE_FLAG = 1 << 16; // Added to the value type when network thread was able to decode the value
+    private static final double ROW_RATE_SMOOTHING = 0.25; // Weight of the latest commit batch in observed row rate of a table
     private static final IntHashSet ALLOWED_LONG_CONVERSIONS = new IntHashSet();
     private final CairoEngine engine;
     private final CairoSecurityContext securityContext;
     private final CairoConfiguration cairoConfiguration;
+    private final LineTcpReceiverConfiguration lineConfiguration;
     private final MillisecondClock milliClock;
     private final RingQueue<LineTcpMeasurementEvent> queue;
     private final CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsByTableName;
-    private final int[] loadByThread;
+    private final NanosecondClock nanoClock;
+    private final long[] loadByThread;
     private final int nUpdatesPerLoadRebalance;
     private final double maxLoadRatio;
     private final int maxUncommittedRows;
     private final long maintenanceJobHysteresisInMs;
+    private final long maxUncommittedBytes;
+    private final boolean commitRateAdaptive;
+    private final int defaultPartitionBy;
     private final SqlExecutionContext sqlExecutionContext;
     private Sequence pubSeq;
     private long nextEventCursor = -1;
@@ -79,12 +87,14 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.engine = engine;
         this.securityContext = lineConfiguration.getCairoSecurityContext();
         this.cairoConfiguration = engine.getConfiguration();
+        this.lineConfiguration = lineConfiguration;
         this.milliClock = cairoConfiguration.getMillisecondClock();
+        this.nanoClock = cairoConfiguration.getNanosecondClock();
         // Worker count is set to 1 because we do not use this execution context
         // in worker threads.
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1, messageBus);
         tableUpdateDetailsByTableName = new CharSequenceObjHashMap<>();
-        loadByThread = new int[writerWorkerPool.getWorkerCount()];
+        loadByThread = new long[writerWorkerPool.getWorkerCount()];
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
         int queueSize = lineConfiguration.getWriterQueueSize();
         queue = new RingQueue<>(
@@ -97,6 +107,14 @@ class LineTcpMeasurementScheduler implements Closeable {
         );
         pubSeq = new SPSequence(queueSize);
 
+        nUpdatesPerLoadRebalance = lineConfiguration.getNUpdatesPerLoadRebalance();
+        maxLoadRatio = lineConfiguration.getMaxLoadRatio();
+        maxUncommittedRows = lineConfiguration.getMaxUncommittedRows();
+        maintenanceJobHysteresisInMs = lineConfiguration.getMaintenanceJobHysteresisInMs();
+        maxUncommittedBytes = lineConfiguration.getMaxUncommittedBytes();
+        commitRateAdaptive = lineConfiguration.isCommitRateAdaptive();
+        defaultPartitionBy = lineConfiguration.getDefaultPartitionBy();
+
         int nWriterThreads = writerWorkerPool.getWorkerCount();
         if (nWriterThreads > 1) {
             FanOut fanOut = new FanOut();
@@ -115,11 +133,6 @@ class LineTcpMeasurementScheduler implements Closeable {
             writerWorkerPool.assign(0, writerJob);
             writerWorkerPool.assign(0, writerJob::close);
         }
-
-        nUpdatesPerLoadRebalance = lineConfiguration.getNUpdatesPerLoadRebalance();
-        maxLoadRatio = lineConfiguration.getMaxLoadRatio();
-        maxUncommittedRows = lineConfiguration.getMaxUncommittedRows();
-        maintenanceJobHysteresisInMs = lineConfiguration.getMaintenanceJobHysteresisInMs();
     }
 
     @Override
@@ -139,7 +152,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         TableUpdateDetails tableUpdateDetails;
         String tableName = Chars.toString(event.getTableName());
         calcThreadLoad();
-        int leastLoad = Integer.MAX_VALUE;
+        long leastLoad = Long.MAX_VALUE;
         int threadId = 0;
         for (int n = 0; n < loadByThread.length; n++) {
             if (loadByThread[n] < leastLoad) {
@@ -158,7 +171,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         ObjList<CharSequence> tableNames = tableUpdateDetailsByTableName.keys();
         for (int n = 0, sz = tableNames.size(); n < sz; n++) {
             TableUpdateDetails stats = tableUpdateDetailsByTableName.get(tableNames.get(n));
-            loadByThread[stats.threadId] += stats.nUpdates;
+            loadByThread[stats.threadId] += stats.getLoad();
         }
     }
 
@@ -174,9 +187,11 @@ class LineTcpMeasurementScheduler implements Closeable {
                 tableUpdateDetails = assignTableToThread(event, keyIndex);
             }
             event.threadId = tableUpdateDetails.threadId;
+            event.tableUpdateDetails = tableUpdateDetails;
         } else {
             tableUpdateDetails = null;
             event.threadId = INCOMPLETE_EVENT_ID;
+            event.tableUpdateDetails = null;
         }
         pubSeq.done(nextEventCursor);
         nextEventCursor = -1;
@@ -193,7 +208,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         nextEventCursor = -1;
     }
 
-    int[] getLoadByThread() {
+    long[] getLoadByThread() {
         return loadByThread;
     }
 
@@ -228,17 +243,17 @@ class LineTcpMeasurementScheduler implements Closeable {
     }
 
     private void loadRebalance() {
-        LOG.info().$("load check [cycle=").$(++nLoadCheckCycles).$(']').$();
         calcThreadLoad();
+        logThreadLoad();
         ObjList<CharSequence> tableNames = tableUpdateDetailsByTableName.keys();
         int fromThreadId = -1;
         int toThreadId = -1;
         String tableNameToMove = null;
-        int maxLoad = Integer.MAX_VALUE;
+        long maxLoad = Long.MAX_VALUE;
         while (true) {
-            int highestLoad = Integer.MIN_VALUE;
+            long highestLoad = Long.MIN_VALUE;
             int highestLoadedThreadId = -1;
-            int lowestLoad = Integer.MAX_VALUE;
+            long lowestLoad = Long.MAX_VALUE;
             int lowestLoadedThreadId = -1;
             for (int n = 0; n < loadByThread.length; n++) {
                 if (loadByThread[n] >= maxLoad) {
@@ -266,35 +281,41 @@ class LineTcpMeasurementScheduler implements Closeable {
                 break;
             }
 
+            // Move the table that brings both threads closest to the mean of their loads, tables
+            // loaded more than the difference would only swap the roles of the two threads
+            final long loadDiff = highestLoad - lowestLoad;
             int nTables = 0;
-            lowestLoad = Integer.MAX_VALUE;
-            String leastLoadedTableName = null;
+            long bestDistance = Long.MAX_VALUE;
+            String bestTableName = null;
             for (int n = 0, sz = tableNames.size(); n < sz; n++) {
                 TableUpdateDetails stats = tableUpdateDetailsByTableName.get(tableNames.get(n));
-                if (stats.threadId == highestLoadedThreadId && stats.nUpdates > 0) {
+                final long load = stats.getLoad();
+                if (stats.threadId == highestLoadedThreadId && load > 0) {
                     nTables++;
-                    if (stats.nUpdates < lowestLoad) {
-                        lowestLoad = stats.nUpdates;
-                        leastLoadedTableName = stats.tableName;
+                    final long distance = Math.abs(loadDiff - 2 * load);
+                    if (load < loadDiff && distance < bestDistance) {
+                        bestDistance = distance;
+                        bestTableName = stats.tableName;
                     }
                 }
             }
 
-            if (nTables < 2) {
-                // The most loaded thread only has 1 table with load assigned to it
+            if (nTables < 2 || bestTableName == null) {
+                // The most loaded thread only has 1 table with load assigned to it, or none of its tables can be moved
+                // without overloading the least loaded thread
                 maxLoad = highestLoad;
                 continue;
             }
 
             fromThreadId = highestLoadedThreadId;
             toThreadId = lowestLoadedThreadId;
-            tableNameToMove = leastLoadedTableName;
+            tableNameToMove = bestTableName;
             break;
         }
 
         for (int n = 0, sz = tableNames.size(); n < sz; n++) {
             TableUpdateDetails stats = tableUpdateDetailsByTableName.get(tableNames.get(n));
-            stats.nUpdates = 0;
+            stats.resetLoad();
         }
 
         if (null != tableNameToMove) {
@@ -316,19 +337,43 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    private void logThreadLoad() {
+        long highestLoad = Long.MIN_VALUE;
+        long lowestLoad = Long.MAX_VALUE;
+        final LogRecord r = LOG.info().$("load check [cycle=").$(++nLoadCheckCycles).$(", loadByThread=[");
+        for (int n = 0; n < loadByThread.length; n++) {
+            final long load = loadByThread[n];
+            if (n > 0) {
+                r.$(',');
+            }
+            r.$(load);
+            highestLoad = Math.max(highestLoad, load);
+            lowestLoad = Math.min(lowestLoad, load);
+        }
+        r.$("], skew=").$(lowestLoad > 0 ? (double) highestLoad / lowestLoad : 0).$(']').$();
+    }
+
     static class LineTcpMeasurementEvent implements Closeable {
-        private final CharSequenceCache cache;
+        private final CharSequenceCache textCache;
         private final MicrosecondClock clock;
         private final LineProtoTimestampAdapter timestampAdapter;
         private final LongList addresses = new LongList();
+        // values are decoded by the network thread, writer thread only copies them into the row
+        private final IntList valueTypes = new IntList();
+        private final LongList decodedValues = new LongList();
         private TruncatedLineProtoLexer lexer;
+        private LineTcpBinaryLexer binaryLexer;
+        private CharSequenceCache cache;
+        private boolean binary;
         private long measurementNameAddress;
         private int firstFieldIndex;
         private long timestampAddress;
         private int errorPosition;
         private int errorCode;
         private int threadId;
+        private TableUpdateDetails tableUpdateDetails;
         private long timestamp;
+        private long size;
 
         private int rebalanceFromThreadId;
         private int rebalanceToThreadId;
@@ -337,7 +382,9 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         private LineTcpMeasurementEvent(int maxMeasurementSize, MicrosecondClock clock, LineProtoTimestampAdapter timestampAdapter) {
             lexer = new TruncatedLineProtoLexer(maxMeasurementSize);
-            cache = lexer.getCharSequenceCache();
+            binaryLexer = new LineTcpBinaryLexer(maxMeasurementSize);
+            textCache = lexer.getCharSequenceCache();
+            cache = textCache;
             this.clock = clock;
             this.timestampAdapter = timestampAdapter;
             lexer.withParser(new LineProtoParser() {
@@ -350,7 +397,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
                 @Override
                 public void onEvent(CachedCharSequence token, int type, CharSequenceCache cache) {
-                    assert cache == LineTcpMeasurementEvent.this.cache;
+                    assert cache == textCache;
                     switch (type) {
                         case EVT_MEASUREMENT:
                             assert measurementNameAddress == 0;
@@ -388,14 +435,19 @@ class LineTcpMeasurementScheduler implements Closeable {
         public void close() {
             lexer.close();
             lexer = null;
+            binaryLexer.close();
+            binaryLexer = null;
         }
 
         private void clear() {
             measurementNameAddress = 0;
             addresses.clear();
+            valueTypes.clear();
+            decodedValues.clear();
             firstFieldIndex = -1;
             timestampAddress = 0;
             errorPosition = -1;
+            errorCode = 0;
         }
 
         void createRebalanceEvent(int fromThreadId, int toThreadId, String tableName) {
@@ -431,6 +483,10 @@ class LineTcpMeasurementScheduler implements Closeable {
             return cache.get(measurementNameAddress);
         }
 
+        long getSize() {
+            return size;
+        }
+
         long getTimestamp() throws NumericException {
             if (timestampAddress != 0) {
                 try {
@@ -449,6 +505,65 @@ class LineTcpMeasurementScheduler implements Closeable {
             return cache.get(addresses.getQuick(2 * i + 1));
         }
 
+        double getDoubleValue(int i) {
+            return Double.longBitsToDouble(decodedValues.getQuick(i));
+        }
+
+        long getLongValue(int i) {
+            return decodedValues.getQuick(i);
+        }
+
+        int getValueType(int i) {
+            final int type = valueTypes.getQuick(i);
+            return type < DECODED_VALUE_FLAG ? type : type - DECODED_VALUE_FLAG;
+        }
+
+        boolean isValueDecoded(int i) {
+            return valueTypes.getQuick(i) >= DECODED_VALUE_FLAG;
+        }
+
+        private void decodeValues() {
+            for (int i = 0, n = getNValues(); i < n; i++) {
+                if (i < firstFieldIndex) {
+                    valueTypes.add(ColumnType.SYMBOL);
+                    decodedValues.add(0);
+                    continue;
+                }
+
+                final CharSequence value = getValue(i);
+                final int valueType = CairoLineProtoParserSupport.getValueType(value);
+                long decoded = 0;
+                boolean isDecoded = false;
+                try {
+                    switch (valueType) {
+                        case ColumnType.LONG:
+                            decoded = Numbers.parseLong(value, 0, value.length() - 1);
+                            isDecoded = true;
+                            break;
+                        case ColumnType.DOUBLE:
+                            decoded = Double.doubleToRawLongBits(Numbers.parseDouble(value));
+                            isDecoded = true;
+                            break;
+                        case ColumnType.BOOLEAN:
+                            decoded = CairoLineProtoParserSupport.isTrue(value) ? 1 : 0;
+                            isDecoded = true;
+                            break;
+                        default:
+                            // strings are copied from the cache, numbers that do not decode here
+                            // are re-parsed by the writer thread to report cast error against column type
+                            break;
+                    }
+                } catch (NumericException ignore) {
+                }
+                valueTypes.add(isDecoded ? valueType + DECODED_VALUE_FLAG : valueType);
+                decodedValues.add(decoded);
+            }
+        }
+
+        boolean isBinary() {
+            return binary;
+        }
+
         boolean isRebalanceEvent() {
             return threadId == REBALANCE_EVENT_ID;
         }
@@ -457,10 +572,140 @@ class LineTcpMeasurementScheduler implements Closeable {
             return errorPosition == -1;
         }
 
+        /**
+         * Parses single frame of binary line protocol, see {@link LineTcpBinaryProtocol}. Values are decoded
+         * straight away, so the writer thread does not parse any numbers.
+         *
+         * @param bytesPtr address of frame length
+         * @param hi       address of the end of received data
+         * @return address of the next frame, -1 when frame has not been fully received yet or
+         * {@link LineTcpBinaryProtocol#BROKEN_STREAM} when frame length is invalid and connection has to be closed
+         */
+        long parseBinary(long bytesPtr, long hi) {
+            clear();
+            binary = true;
+            cache = binaryLexer;
+            binaryLexer.clear();
+            if (hi - bytesPtr < Integer.BYTES) {
+                return -1;
+            }
+            final int frameLen = Unsafe.getUnsafe().getInt(bytesPtr);
+            long p = bytesPtr + Integer.BYTES;
+            if (frameLen < 0) {
+                // frame boundaries are lost, nothing that follows can be trusted
+                errorPosition = 0;
+                errorCode = LineProtoParser.ERROR_EXPECTED;
+                return LineTcpBinaryProtocol.BROKEN_STREAM;
+            }
+            final long frameHi = p + frameLen;
+            if (frameHi > hi) {
+                return -1;
+            }
+            size = frameHi - bytesPtr;
+
+            try {
+                measurementNameAddress = parseBinaryString(p, frameHi, false);
+                p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xFFFF);
+
+                final int nTags = parseBinaryCount(p++, frameHi);
+                for (int i = 0; i < nTags; i++) {
+                    addresses.add(parseBinaryString(p, frameHi, false));
+                    p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xFFFF);
+                    addresses.add(parseBinaryString(p, frameHi, false));
+                    p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xFFFF);
+                    valueTypes.add(ColumnType.SYMBOL);
+                    decodedValues.add(0);
+                }
+
+                final int nFields = parseBinaryCount(p++, frameHi);
+                if (nFields == 0) {
+                    errorPosition = (int) (p - bytesPtr);
+                    errorCode = LineProtoParser.ERROR_EMPTY;
+                    return frameHi;
+                }
+                firstFieldIndex = nTags;
+                for (int i = 0; i < nFields; i++) {
+                    addresses.add(parseBinaryString(p, frameHi, false));
+                    p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xFFFF);
+                    final byte type = (byte) parseBinaryCount(p++, frameHi);
+                    switch (type) {
+                        case LineTcpBinaryProtocol.TYPE_LONG:
+                            checkBinaryBounds(p, Long.BYTES, frameHi);
+                            addBinaryValue(ColumnType.LONG, Unsafe.getUnsafe().getLong(p));
+                            p += Long.BYTES;
+                            break;
+                        case LineTcpBinaryProtocol.TYPE_DOUBLE:
+                            checkBinaryBounds(p, Double.BYTES, frameHi);
+                            addBinaryValue(ColumnType.DOUBLE, Unsafe.getUnsafe().getLong(p));
+                            p += Double.BYTES;
+                            break;
+                        case LineTcpBinaryProtocol.TYPE_BOOLEAN:
+                            addBinaryValue(ColumnType.BOOLEAN, parseBinaryCount(p++, frameHi) != 0 ? 1 : 0);
+                            break;
+                        case LineTcpBinaryProtocol.TYPE_STRING:
+                            addresses.add(parseBinaryString(p, frameHi, true));
+                            p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xFFFF);
+                            valueTypes.add(ColumnType.STRING);
+                            decodedValues.add(0);
+                            break;
+                        default:
+                            throw LineProtoException.INSTANCE;
+                    }
+                }
+
+                checkBinaryBounds(p, Long.BYTES, frameHi);
+                final long binaryTimestamp = Unsafe.getUnsafe().getLong(p);
+                p += Long.BYTES;
+                if (p != frameHi) {
+                    throw LineProtoException.INSTANCE;
+                }
+                timestamp = binaryTimestamp == LineTcpBinaryProtocol.NO_TIMESTAMP ? clock.getTicks() : timestampAdapter.getMicros(binaryTimestamp);
+            } catch (LineProtoException e) {
+                errorPosition = (int) (p - bytesPtr);
+                if (errorCode == 0) {
+                    errorCode = LineProtoParser.ERROR_EXPECTED;
+                }
+            }
+            return frameHi;
+        }
+
+        private void addBinaryValue(int columnType, long value) {
+            addresses.add(0);
+            valueTypes.add(columnType + DECODED_VALUE_FLAG);
+            decodedValues.add(value);
+        }
+
+        private static void checkBinaryBounds(long p, int len, long hi) {
+            if (p + len > hi) {
+                throw LineProtoException.INSTANCE;
+            }
+        }
+
+        private static int parseBinaryCount(long p, long hi) {
+            checkBinaryBounds(p, Byte.BYTES, hi);
+            return Unsafe.getUnsafe().getByte(p) & 0xFF;
+        }
+
+        private long parseBinaryString(long p, long hi, boolean quoted) {
+            checkBinaryBounds(p, Short.BYTES, hi);
+            final long lo = p + Short.BYTES;
+            final int len = Unsafe.getUnsafe().getShort(p) & 0xFFFF;
+            checkBinaryBounds(lo, len, hi);
+            final long address = binaryLexer.decodeUtf8(lo, lo + len, quoted);
+            if (address == -1) {
+                errorCode = LineProtoParser.ERROR_ENCODING;
+                throw LineProtoException.INSTANCE;
+            }
+            return address;
+        }
+
         long parseLine(long bytesPtr, long hi) {
             clear();
+            binary = false;
+            cache = textCache;
             long recvBufLineNext = lexer.parseLine(bytesPtr, hi);
             if (recvBufLineNext != -1) {
+                size = recvBufLineNext - bytesPtr;
                 if (isSuccess() && firstFieldIndex == -1) {
                     errorPosition = (int) (recvBufLineNext - bytesPtr);
                     errorCode = LineProtoParser.ERROR_EMPTY;
@@ -469,6 +714,10 @@ class LineTcpMeasurementScheduler implements Closeable {
                 if (isSuccess() && timestampAddress == 0) {
                     timestamp = clock.getTicks();
                 }
+
+                if (isSuccess()) {
+                    decodeValues();
+                }
             }
             return recvBufLineNext;
         }
@@ -478,12 +727,24 @@ class LineTcpMeasurementScheduler implements Closeable {
         private final String tableName;
         private int threadId;
         private int nUpdates; // Number of updates since the last load rebalance
+        // Time spent by writer threads processing events of the table, only written by the thread owning the table
+        private volatile long processingNanos;
+        private long processingNanosAtLastRebalance;
 
         private TableUpdateDetails(String tableName, int threadId) {
             super();
             this.tableName = tableName;
             this.threadId = threadId;
         }
+
+        private long getLoad() {
+            return processingNanos - processingNanosAtLastRebalance;
+        }
+
+        private void resetLoad() {
+            nUpdates = 0;
+            processingNanosAtLastRebalance = processingNanos;
+        }
     }
 
     private class WriterJob implements Job {
@@ -495,6 +756,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
         private final String jobName;
         private long lastMaintenanceJobMillis = 0;
+        private long maintenanceIntervalInMs = maintenanceJobHysteresisInMs;
 
         private WriterJob(int id, Sequence sequence) {
             super();
@@ -530,14 +792,20 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         private void doMaintenance(boolean busy) {
             long millis = milliClock.getTicks();
-            if (busy && (millis - lastMaintenanceJobMillis) < maintenanceJobHysteresisInMs) {
+            if (busy && (millis - lastMaintenanceJobMillis) < maintenanceIntervalInMs) {
                 return;
             }
 
             lastMaintenanceJobMillis = millis;
             ObjList<CharSequence> tableNames = parserCache.keys();
             for (int n = 0, sz = tableNames.size(); n < sz; n++) {
-                parserCache.get(tableNames.get(n)).doMaintenance();
+                final Parser parser = parserCache.get(tableNames.get(n));
+                if (busy) {
+                    // while queue is busy only tables that ran out of commit lag are committed
+                    parser.doMaintenance(millis);
+                } else {
+                    parser.doMaintenance();
+                }
             }
         }
 
@@ -554,7 +822,9 @@ class LineTcpMeasurementScheduler implements Closeable {
                 final LineTcpMeasurementEvent event = queue.get(cursor);
                 boolean eventProcessed;
                 if (event.threadId == id) {
+                    final long startNanos = nanoClock.getTicks();
                     processNextEvent(event);
+                    event.tableUpdateDetails.processingNanos += nanoClock.getTicks() - startNanos;
                     eventProcessed = true;
                 } else {
                     if (event.isRebalanceEvent()) {
@@ -584,6 +854,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     parser.processFirstEvent(engine, securityContext, event);
                     LOG.info().$("created parser [jobName=").$(jobName).$(" table=").$(event.getTableName()).$(']').$();
                     parserCache.putAt(index, Chars.toString(event.getTableName()), parser);
+                    updateMaintenanceInterval();
                 }
             } catch (CairoException ex) {
                 LOG.error()
@@ -597,10 +868,21 @@ class LineTcpMeasurementScheduler implements Closeable {
 
                 if (index < 0) {
                     parserCache.removeAt(index);
+                    updateMaintenanceInterval();
                 }
             }
         }
 
+        private void updateMaintenanceInterval() {
+            // tables can move to other threads, interval follows the tables this thread currently owns
+            long interval = maintenanceJobHysteresisInMs;
+            ObjList<CharSequence> tableNames = parserCache.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                interval = Math.min(interval, parserCache.get(tableNames.get(n)).commitLagInMs);
+            }
+            maintenanceIntervalInMs = interval;
+        }
+
         private boolean processRebalance(LineTcpMeasurementEvent event) {
             if (event.rebalanceToThreadId == id) {
                 // This thread is now a declared owner of the table, but it can only become actual
@@ -622,6 +904,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     LOG.info().$("rebalance cycle, old thread finished [threadId=").$(id).$(", table=").$(event.rebalanceTableName).$(']').$();
                     Misc.free(parserCache.valueAt(index));
                     parserCache.removeAt(index);
+                    updateMaintenanceInterval();
                     event.rebalanceReleasedByFromThread = true;
                 }
             }
@@ -634,6 +917,11 @@ class LineTcpMeasurementScheduler implements Closeable {
             private final IntList colIndexMappings = new IntList();
             private TableWriter writer;
             private int nUncommitted = 0;
+            private long uncommittedBytes = 0;
+            private long firstUncommittedMillis;
+            private long commitLagInMs;
+            private long rowsPerCommit = maxUncommittedRows;
+            private double rowRatePerMs = 0;
 
             private transient int nMeasurementValues;
             private transient boolean error;
@@ -672,8 +960,14 @@ class LineTcpMeasurementScheduler implements Closeable {
                     for (int i = 0; i < nMeasurementValues; i++) {
                         final int columnType = colTypes.getQuick(i);
                         final int columnIndex = colIndexMappings.getQuick(i);
-                        final CharSequence value = event.getValue(i);
-                        CairoLineProtoParserSupport.putValue(row, columnType, columnIndex, value, LOG);
+                        if (!event.isValueDecoded(i) || !putDecodedValue(row, columnType, columnIndex, event, i)) {
+                            if (event.isBinary() && event.isValueDecoded(i)) {
+                                // binary values have no text to fall back to
+                                LOG.info().$("cast error [value=").$(event.getLongValue(i)).$(", toType=").$(ColumnType.nameOf(columnType)).$(']').$();
+                                throw BadCastException.INSTANCE;
+                            }
+                            CairoLineProtoParserSupport.putValue(row, columnType, columnIndex, event.getValue(i), LOG);
+                        }
                     }
                     row.append();
                 } catch (NumericException | BadCastException ex) {
@@ -694,22 +988,68 @@ class LineTcpMeasurementScheduler implements Closeable {
                     }
                     return;
                 }
-                nUncommitted++;
-                if (nUncommitted > maxUncommittedRows) {
-                    commit();
+                final long millis = milliClock.getTicks();
+                if (nUncommitted++ == 0) {
+                    firstUncommittedMillis = millis;
+                }
+                uncommittedBytes += event.getSize();
+                if (nUncommitted > rowsPerCommit || uncommittedBytes >= maxUncommittedBytes || millis - firstUncommittedMillis >= commitLagInMs) {
+                    commit(millis);
                 }
             }
 
-            private void commit() {
+            private boolean putDecodedValue(Row row, int columnType, int columnIndex, LineTcpMeasurementEvent event, int i) {
+                switch (columnType) {
+                    case ColumnType.LONG:
+                        row.putLong(columnIndex, event.getLongValue(i));
+                        return true;
+                    case ColumnType.TIMESTAMP:
+                        row.putTimestamp(columnIndex, event.getLongValue(i));
+                        return true;
+                    case ColumnType.SHORT:
+                        final long value = event.getLongValue(i);
+                        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                            return false;
+                        }
+                        row.putShort(columnIndex, (short) value);
+                        return true;
+                    case ColumnType.DOUBLE:
+                        row.putDouble(columnIndex, event.getDoubleValue(i));
+                        return true;
+                    case ColumnType.BOOLEAN:
+                        row.putBool(columnIndex, event.getLongValue(i) == 1);
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+
+            private void commit(long millis) {
                 writer.commit();
+                if (commitRateAdaptive) {
+                    final double rate = (double) nUncommitted / (millis - firstUncommittedMillis + 1);
+                    rowRatePerMs = rowRatePerMs == 0 ? rate : rowRatePerMs + ROW_RATE_SMOOTHING * (rate - rowRatePerMs);
+                    rowsPerCommit = Math.max(maxUncommittedRows, (long) (rowRatePerMs * commitLagInMs));
+                }
                 nUncommitted = 0;
+                uncommittedBytes = 0;
             }
 
             void doMaintenance() {
                 if (nUncommitted == 0) {
                     return;
                 }
-                commit();
+                commit(milliClock.getTicks());
+            }
+
+            void doMaintenance(long millis) {
+                if (nUncommitted > 0 && millis - firstUncommittedMillis >= commitLagInMs) {
+                    commit(millis);
+                }
+            }
+
+            private void ofTable(CharSequence tableName) {
+                commitLagInMs = lineConfiguration.getCommitLagInMs(tableName);
             }
 
             private int getColumnType(int i) {
@@ -745,13 +1085,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
             private void parseTypes(LineTcpMeasurementEvent event) {
                 for (int n = 0; n < nMeasurementValues; n++) {
-                    int colType;
-                    if (n < event.getFirstFieldIndex()) {
-                        colType = ColumnType.SYMBOL;
-                    } else {
-                        colType = CairoLineProtoParserSupport.getValueType(event.getValue(n));
-                    }
-                    colTypes.setQuick(n, colType);
+                    colTypes.setQuick(n, event.getValueType(n));
                 }
             }
 
@@ -773,6 +1107,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             private void processFirstEvent(CairoEngine engine, CairoSecurityContext securityContext, LineTcpMeasurementEvent event) {
                 sqlExecutionContext.storeTelemetry(Telemetry.SYSTEM_ILP_RESERVE_WRITER, Telemetry.ORIGIN_ILP_TCP);
                 assert null == writer;
+                ofTable(event.getTableName());
                 int status = engine.getStatus(securityContext, path, event.getTableName(), 0, event.getTableName().length());
                 if (status == TableUtils.TABLE_EXISTS) {
                     writer = engine.getWriter(securityContext, event.getTableName());
@@ -843,7 +1178,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
             @Override
             public int getPartitionBy() {
-                return PartitionBy.NONE;
+                return defaultPartitionBy;
             }
 
             @Override
@@ -64,6 +64,44 @@ public interface LineTcpReceiverConfiguration {
     int getMaxUncommittedRows();
 
     long getMaintenanceJobHysteresisInMs();
+
+    /**
+     * Maximum time rows of a table can stay uncommitted once they have been received.
+     *
+     * @return commit lag in milliseconds
+     */
+    long getCommitLagInMs();
+
+    /**
+     * Commit lag of given table, tables without an explicit override use {@link #getCommitLagInMs()}.
+     *
+     * @param tableName name of the table rows are written to
+     * @return commit lag in milliseconds
+     */
+    long getCommitLagInMs(CharSequence tableName);
+
+    /**
+     * Uncommitted rows are committed once size of measurements they were parsed from reaches this limit.
+     *
+     * @return maximum size of uncommitted measurements in bytes
+     */
+    long getMaxUncommittedBytes();
+
+    /**
+     * When enabled number of rows between commits grows from {@link #getMaxUncommittedRows()} with observed row rate
+     * of the table, so that busy tables commit about once per commit lag rather than every few rows.
+     *
+     * @return true when commit batch size adapts to row rate
+     */
+    boolean isCommitRateAdaptive();
     
     String getAuthDbPath();
+
+    /**
+     * Partitioning of tables created automatically from line protocol measurements. Out-of-order
+     * rows can only be merged into partitioned tables.
+     *
+     * @return one of {@link io.questdb.cairo.PartitionBy} constants
+     */
+    int getDefaultPartitionBy();
 }
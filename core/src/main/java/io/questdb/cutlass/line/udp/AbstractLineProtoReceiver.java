@@ -34,8 +34,11 @@ import io.questdb.mp.SynchronizedJob;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.NetworkError;
 import io.questdb.network.NetworkFacade;
+import io.questdb.std.CharSequenceIntHashMap;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -53,14 +56,31 @@ public abstract class AbstractLineProtoReceiver extends SynchronizedJob implemen
     protected int commitRate;
     protected long totalCount = 0;
     protected final int commitMode;
+    private final LineUdpTableRouter router;
+    private final int receiverId;
+    // table owners resolved by this receiver, ownership does not change once assigned
+    private final CharSequenceIntHashMap owners = new CharSequenceIntHashMap();
+    private final StringSink tableName = new StringSink();
 
     public AbstractLineProtoReceiver(
             LineUdpReceiverConfiguration configuration,
             CairoEngine engine,
             WorkerPool workerPool
+    ) {
+        this(configuration, engine, workerPool, null, 0);
+    }
+
+    public AbstractLineProtoReceiver(
+            LineUdpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool workerPool,
+            LineUdpTableRouter router,
+            int receiverId
     ) {
         this.configuration = configuration;
         this.commitMode = configuration.getCommitMode();
+        this.router = router;
+        this.receiverId = receiverId;
         nf = configuration.getNetworkFacade();
         fd = nf.socketUdp();
         if (fd < 0) {
@@ -70,6 +90,10 @@ public abstract class AbstractLineProtoReceiver extends SynchronizedJob implemen
         }
 
         try {
+            if (router != null && nf.setReusePort(fd) != 0) {
+                throw NetworkError.instance(nf.errno()).put("cannot set SO_REUSEPORT [fd=").put(fd).put(']');
+            }
+
             // when listening for multicast packets bind address must be 0
             bind(configuration);
             this.commitRate = configuration.getCommitRate();
@@ -102,6 +126,7 @@ public abstract class AbstractLineProtoReceiver extends SynchronizedJob implemen
                 LOG.info().$("closed [fd=").$(fd).$(']').$();
             }
             if (parser != null) {
+                drain();
                 parser.commitAll(commitMode);
                 parser.close();
             }
@@ -111,6 +136,122 @@ public abstract class AbstractLineProtoReceiver extends SynchronizedJob implemen
         }
     }
 
+    /**
+     * Parses lines forwarded by other receivers to tables owned by this receiver.
+     *
+     * @return true when at least one message was parsed
+     */
+    protected boolean drain() {
+        if (router != null) {
+            final int count = router.drain(receiverId, lexer);
+            totalCount += count;
+            return count > 0;
+        }
+        return false;
+    }
+
+    /**
+     * Parses datagram of complete lines. When receivers are sharded lines are split into runs
+     * that target the same receiver, runs owned by this receiver are parsed here and the rest are
+     * forwarded to their owners.
+     */
+    protected void parse(long lo, long hi) {
+        if (router == null) {
+            lexer.parse(lo, hi);
+            lexer.parseLast();
+            return;
+        }
+
+        long runLo = lo;
+        int runOwner = -1;
+        long p = lo;
+        while (p < hi) {
+            final long lineHi = lineEnd(p, hi);
+            final int owner = ownerOf(p, lineHi);
+            if (owner != runOwner) {
+                if (runOwner != -1) {
+                    dispatch(runOwner, runLo, p);
+                }
+                runOwner = owner;
+                runLo = p;
+            }
+            p = lineHi;
+        }
+
+        if (runOwner != -1) {
+            dispatch(runOwner, runLo, hi);
+        }
+    }
+
+    private static long lineEnd(long lo, long hi) {
+        boolean escape = false;
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (escape) {
+                escape = false;
+            } else if (b == '\\') {
+                escape = true;
+            } else if (b == '\n' || b == '\r') {
+                return p + 1;
+            }
+        }
+        return hi;
+    }
+
+    private void dispatch(int owner, long lo, long hi) {
+        if (owner == receiverId) {
+            lexer.parse(lo, hi);
+            lexer.parseLast();
+            return;
+        }
+
+        while (!router.forward(owner, lo, hi)) {
+            if (router.isHalted()) {
+                LOG.info().$("dropped lines on shutdown [owner=").$(owner).$(']').$();
+                return;
+            }
+            // owner may be waiting on our inbox in turn
+            drain();
+        }
+    }
+
+    private int ownerOf(long lo, long hi) {
+        // measurement name is everything up to first unescaped and unquoted comma or space,
+        // escape characters are dropped the same way lexer drops them
+        tableName.clear();
+        boolean escape = false;
+        boolean unquoted = true;
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (escape) {
+                escape = false;
+            } else if (b == '\\') {
+                escape = true;
+                continue;
+            } else if (b == '"') {
+                unquoted = !unquoted;
+            } else if (unquoted && (b == ',' || b == ' ')) {
+                break;
+            } else if (b == '\n' || b == '\r') {
+                break;
+            }
+            tableName.put((char) b);
+        }
+
+        if (tableName.length() == 0) {
+            // blank line or malformed measurement, lexer will deal with it locally
+            return receiverId;
+        }
+
+        final int index = owners.keyIndex(tableName);
+        if (index < 0) {
+            return owners.valueAt(index);
+        }
+        final int owner = router.ownerOf(tableName, receiverId);
+        owners.putAt(index, tableName, owner);
+        return owner;
+    }
+
     protected void halt() {
         if (running.compareAndSet(true, false)) {
             started.await();
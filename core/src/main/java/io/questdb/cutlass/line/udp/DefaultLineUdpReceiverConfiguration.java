@@ -80,6 +80,11 @@ public class DefaultLineUdpReceiverConfiguration implements LineUdpReceiverConfi
         return -1;
     }
 
+    @Override
+    public int getReceiverCount() {
+        return 1;
+    }
+
     @Override
     public CairoSecurityContext getCairoSecurityContext() {
         return AllowAllCairoSecurityContext.INSTANCE;
@@ -37,7 +37,17 @@ public class LineProtoReceiver extends AbstractLineProtoReceiver {
             CairoEngine engine,
             WorkerPool workerPool
     ) {
-        super(configuration, engine, workerPool);
+        this(configuration, engine, workerPool, null, 0);
+    }
+
+    public LineProtoReceiver(
+            LineUdpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool workerPool,
+            LineUdpTableRouter router,
+            int receiverId
+    ) {
+        super(configuration, engine, workerPool, router, receiverId);
         this.buf = Unsafe.malloc(this.bufLen = configuration.getMsgBufferSize());
         start();
     }
@@ -53,11 +63,10 @@ public class LineProtoReceiver extends AbstractLineProtoReceiver {
 
     @Override
     protected boolean runSerially() {
-        boolean ran = false;
+        boolean ran = drain();
         int count;
         while ((count = nf.recv(fd, buf, bufLen)) > 0) {
-            lexer.parse(buf, buf + count);
-            lexer.parseLast();
+            parse(buf, buf + count);
 
             totalCount++;
 
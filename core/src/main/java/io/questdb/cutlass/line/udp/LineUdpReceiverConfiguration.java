@@ -48,6 +48,12 @@ public interface LineUdpReceiverConfiguration {
 
     int getReceiveBufferSize();
 
+    /**
+     * Number of receivers sharing the UDP port via SO_REUSEPORT. Each table is owned
+     * by exactly one receiver, lines for tables owned by other receivers are forwarded to them.
+     */
+    int getReceiverCount();
+
     CairoSecurityContext getCairoSecurityContext();
 
     boolean isEnabled();
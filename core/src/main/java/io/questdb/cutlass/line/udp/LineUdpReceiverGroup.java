@@ -0,0 +1,114 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.udp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Set of UDP receivers sharing the same port via SO_REUSEPORT. Kernel spreads datagrams
+ * between receivers and {@link LineUdpTableRouter} makes sure each table is written by
+ * one receiver only.
+ */
+public class LineUdpReceiverGroup implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LineUdpReceiverGroup.class);
+    private final ObjList<AbstractLineProtoReceiver> receivers = new ObjList<>();
+    private final LineUdpTableRouter router;
+
+    public LineUdpReceiverGroup(
+            LineUdpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool workerPool,
+            ReceiverFactory factory
+    ) {
+        final int receiverCount = getReceiverCount(configuration, workerPool);
+        if (receiverCount > 1) {
+            router = new LineUdpTableRouter(receiverCount, configuration.getMsgBufferSize());
+        } else {
+            router = null;
+        }
+
+        try {
+            for (int i = 0; i < receiverCount; i++) {
+                receivers.add(factory.create(configuration, engine, workerPool, router, i));
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (router != null) {
+            // stop receivers from waiting on each other's inboxes before stopping their threads
+            router.halt();
+        }
+        for (int i = 0, n = receivers.size(); i < n; i++) {
+            receivers.getQuick(i).halt();
+        }
+        Misc.freeObjList(receivers);
+        receivers.clear();
+        Misc.free(router);
+    }
+
+    public int getReceiverCount() {
+        return receivers.size();
+    }
+
+    private static int getReceiverCount(LineUdpReceiverConfiguration configuration, WorkerPool workerPool) {
+        int receiverCount = Math.max(1, configuration.getReceiverCount());
+        if (receiverCount > 1 && !configuration.isUnicast()) {
+            // every socket in SO_REUSEPORT group receives its own copy of multicast datagram
+            LOG.info().$("multicast uses single receiver [receiverCount=").$(receiverCount).$(']').$();
+            return 1;
+        }
+        if (!configuration.ownThread() && receiverCount > workerPool.getWorkerCount()) {
+            // receivers forwarding to each other must be able to run at the same time
+            LOG.info().$("receiver count is limited by worker count [receiverCount=").$(receiverCount)
+                    .$(", workerCount=").$(workerPool.getWorkerCount())
+                    .$(']').$();
+            return workerPool.getWorkerCount();
+        }
+        return receiverCount;
+    }
+
+    @FunctionalInterface
+    public interface ReceiverFactory {
+        AbstractLineProtoReceiver create(
+                LineUdpReceiverConfiguration configuration,
+                CairoEngine engine,
+                WorkerPool workerPool,
+                LineUdpTableRouter router,
+                int receiverId
+        );
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.udp;
+
+import io.questdb.cutlass.line.LineProtoLexer;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.CharSequenceIntHashMap;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Shares table ownership between UDP receivers bound to the same port. SO_REUSEPORT spreads
+ * datagrams across receivers by source address, so lines for the same table can arrive at any
+ * receiver. Table writers are exclusive, hence each table is assigned to exactly one receiver and
+ * other receivers forward lines for that table into owner's inbox.
+ */
+public class LineUdpTableRouter implements Closeable {
+    private static final int INBOX_CAPACITY = 256;
+    private final CharSequenceIntHashMap owners = new CharSequenceIntHashMap();
+    private final int[] tableCounts;
+    private final ObjList<Inbox> inboxes = new ObjList<>();
+    private volatile boolean halted = false;
+
+    public LineUdpTableRouter(int receiverCount, int msgBufferSize) {
+        this.tableCounts = new int[receiverCount];
+        for (int i = 0; i < receiverCount; i++) {
+            inboxes.add(new Inbox(msgBufferSize));
+        }
+    }
+
+    @Override
+    public void close() {
+        halt();
+        Misc.freeObjList(inboxes);
+        inboxes.clear();
+    }
+
+    /**
+     * Drains lines forwarded to receiver into receiver's own lexer.
+     *
+     * @param receiverId receiver that owns the inbox
+     * @param lexer      lexer of the receiver, must not be mid-line
+     * @return number of forwarded messages parsed
+     */
+    public int drain(int receiverId, LineProtoLexer lexer) {
+        final Inbox inbox = inboxes.getQuick(receiverId);
+        int count = 0;
+        long cursor;
+        while ((cursor = inbox.subSeq.next()) > -1) {
+            final Message message = inbox.queue.get(cursor);
+            lexer.parse(message.buf, message.buf + message.len);
+            lexer.parseLast();
+            inbox.subSeq.done(cursor);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Publishes complete lines to the inbox of the receiver that owns their table.
+     *
+     * @return false when inbox is full and caller should retry
+     */
+    public boolean forward(int owner, long lo, long hi) {
+        final Inbox inbox = inboxes.getQuick(owner);
+        long cursor;
+        do {
+            cursor = inbox.pubSeq.next();
+        } while (cursor == -2);
+
+        if (cursor < 0) {
+            return false;
+        }
+
+        final Message message = inbox.queue.get(cursor);
+        message.len = (int) (hi - lo);
+        assert message.len <= inbox.msgBufferSize;
+        Unsafe.getUnsafe().copyMemory(lo, message.buf, message.len);
+        inbox.pubSeq.done(cursor);
+        return true;
+    }
+
+    public int getReceiverCount() {
+        return tableCounts.length;
+    }
+
+    public void halt() {
+        halted = true;
+    }
+
+    public boolean isHalted() {
+        return halted;
+    }
+
+    /**
+     * Resolves receiver owning the table. Tables that have not been seen before are assigned
+     * to the receiver owning the least tables, ties are resolved in favour of the receiver that
+     * has seen the table first to avoid forwarding.
+     */
+    public synchronized int ownerOf(CharSequence tableName, int receiverId) {
+        final int index = owners.keyIndex(tableName);
+        if (index < 0) {
+            return owners.valueAt(index);
+        }
+
+        int owner = receiverId;
+        for (int i = 0, n = tableCounts.length; i < n; i++) {
+            if (tableCounts[i] < tableCounts[owner]) {
+                owner = i;
+            }
+        }
+        tableCounts[owner]++;
+        owners.putAt(index, tableName, owner);
+        return owner;
+    }
+
+    private static class Inbox implements Closeable {
+        private final int msgBufferSize;
+        private final RingQueue<Message> queue;
+        private final MPSequence pubSeq = new MPSequence(INBOX_CAPACITY);
+        private final SCSequence subSeq = new SCSequence();
+
+        private Inbox(int msgBufferSize) {
+            this.msgBufferSize = msgBufferSize;
+            this.queue = new RingQueue<>(() -> new Message(msgBufferSize), INBOX_CAPACITY);
+            pubSeq.then(subSeq).then(pubSeq);
+        }
+
+        @Override
+        public void close() {
+            for (int i = 0; i < INBOX_CAPACITY; i++) {
+                Misc.free(queue.get(i));
+            }
+        }
+    }
+
+    private static class Message implements Closeable {
+        private final int size;
+        private long buf;
+        private int len;
+
+        private Message(int size) {
+            this.size = size;
+            this.buf = Unsafe.malloc(size);
+        }
+
+        @Override
+        public void close() {
+            if (buf != 0) {
+                Unsafe.free(buf, size);
+                buf = 0;
+            }
+        }
+    }
+}
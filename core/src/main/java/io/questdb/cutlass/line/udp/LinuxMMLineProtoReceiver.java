@@ -37,7 +37,17 @@ public class LinuxMMLineProtoReceiver extends AbstractLineProtoReceiver {
             CairoEngine engine,
             WorkerPool workerPool
     ) {
-        super(configuration, engine, workerPool);
+        this(configuration, engine, workerPool, null, 0);
+    }
+
+    public LinuxMMLineProtoReceiver(
+            LineUdpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool workerPool,
+            LineUdpTableRouter router,
+            int receiverId
+    ) {
+        super(configuration, engine, workerPool, router, receiverId);
         this.msgCount = configuration.getMsgCount();
         msgVec = nf.msgHeaders(configuration.getMsgBufferSize(), msgCount);
         start();
@@ -54,14 +64,13 @@ public class LinuxMMLineProtoReceiver extends AbstractLineProtoReceiver {
 
     @Override
     protected boolean runSerially() {
-        boolean ran = false;
+        boolean ran = drain();
         int count;
         while ((count = nf.recvmmsg(fd, msgVec, msgCount)) > 0) {
             long p = msgVec;
             for (int i = 0; i < count; i++) {
                 long buf = nf.getMMsgBuf(p);
-                lexer.parse(buf, buf + nf.getMMsgBufLen(p));
-                lexer.parseLast();
+                parse(buf, buf + nf.getMMsgBufLen(p));
                 p += Net.MMSGHDR_SIZE;
             }
 
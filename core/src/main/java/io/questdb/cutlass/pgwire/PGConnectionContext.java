@@ -128,8 +128,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private RecordCursor currentCursor = null;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
-    // the rationale is to be able to return "selectAndTypes" instance to thread-local
-    // cache, which is "typesAndSelectCache". We typically do this after query results are
+    // the rationale is to be able to return "selectAndTypes" instance to cache shared
+    // by workers, which is "typesAndSelectCache". We typically do this after query results are
     // served to client or query errored out due to network issues
     private TypesAndSelect typesAndSelect = null;
     private TypesAndInsert typesAndInsert = null;
@@ -144,8 +144,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private boolean isEmptyQuery;
     private int transactionState = NO_TRANSACTION;
     private NamedStatementWrapper wrapper;
-    private AssociativeCache<TypesAndSelect> typesAndSelectCache;
-    private WeakAutoClosableObjectPool<TypesAndSelect> typesAndSelectPool;
+    private ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
     // this is a reference to types either from the context or named statement, where it is provided
     private IntList activeBindVariableTypes;
     private boolean sendParameterDescription;
@@ -310,13 +309,11 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
-            @Transient WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool,
+            @Transient ConcurrentAssociativeCache<TypesAndSelect> selectAndTypesCache,
             int operation
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, BadProtocolException {
 
         this.typesAndSelectCache = selectAndTypesCache;
-        this.typesAndSelectPool = selectAndTypesPool;
 
         if (bufferRemainingSize > 0) {
             doSend(bufferRemainingOffset, bufferRemainingSize);
@@ -944,7 +941,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
             switch (cc.getType()) {
                 case CompiledQuery.SELECT:
-                    typesAndSelect = typesAndSelectPool.pop();
+                    typesAndSelect = new TypesAndSelect();
                     typesAndSelect.of(cc.getRecordCursorFactory(), bindVariableService);
                     queryTag = TAG_SELECT;
                     LOG.debug().$("cache select [sql=").$(queryText).$(", thread=").$(Thread.currentThread().getId()).$(']').$();
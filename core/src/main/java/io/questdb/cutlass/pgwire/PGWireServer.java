@@ -34,6 +34,7 @@ import io.questdb.mp.EagerThreadSetup;
 import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.*;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.ThreadLocal;
 import io.questdb.std.WeakObjectPool;
@@ -46,6 +47,7 @@ public class PGWireServer implements Closeable {
     private final IODispatcher<PGConnectionContext> dispatcher;
     private final PGConnectionContextFactory contextFactory;
     private final WorkerPool workerPool;
+    private final ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
 
     public PGWireServer(
             PGWireConfiguration configuration,
@@ -63,8 +65,16 @@ public class PGWireServer implements Closeable {
 
         workerPool.assign(dispatcher);
 
+        // select factories are shared by workers, one segment per worker keeps capacity of the cache
+        // same as it was when every worker had cache of its own
+        this.typesAndSelectCache = new ConcurrentAssociativeCache<>(
+                workerPool.getWorkerCount(),
+                configuration.getFactoryCacheColumnCount(),
+                configuration.getFactoryCacheRowCount()
+        );
+
         for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
-            final PGJobContext jobContext = new PGJobContext(configuration, engine, messageBus, functionFactoryCache);
+            final PGJobContext jobContext = new PGJobContext(engine, messageBus, functionFactoryCache, typesAndSelectCache);
             workerPool.assign(i, new Job() {
                 private final IORequestProcessor<PGConnectionContext> processor = (operation, context) -> {
                     try {
@@ -126,6 +136,7 @@ public class PGWireServer implements Closeable {
         }
         Misc.free(contextFactory);
         Misc.free(dispatcher);
+        Misc.free(typesAndSelectCache);
     }
 
     private static class PGConnectionContextFactory implements IOContextFactory<PGConnectionContext>, Closeable, EagerThreadSetup {
@@ -27,13 +27,16 @@ package io.questdb.cutlass.pgwire;
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.std.Misc;
-import io.questdb.std.WeakAutoClosableObjectPool;
 
+/**
+ * Select factory and types of its bind variables. Instances live in query cache shared by all workers
+ * and may be freed by any of them, therefore they are not pooled.
+ */
 public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
     private RecordCursorFactory factory;
 
-    public TypesAndSelect(WeakAutoClosableObjectPool<TypesAndSelect> parentPool) {
-        super(parentPool);
+    public TypesAndSelect() {
+        super(null);
     }
 
     @Override
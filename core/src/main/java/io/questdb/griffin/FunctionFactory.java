@@ -67,6 +67,22 @@ public interface FunctionFactory {
 
     default boolean isCursor() { return false; }
 
+    /**
+     * Non-deterministic functions, such as now() or rnd_int(), may return different values when
+     * the same query runs over the same data again. Results of queries using them cannot be cached.
+     *
+     * @return true when function values depend on anything but its arguments
+     */
+    default boolean isNonDeterministic() { return false; }
+
+    /**
+     * Analytic factories are only looked up for the function call of "over" clause, which
+     * allows names such as "sum" to be shared with group-by factories.
+     *
+     * @return true when factory creates {@link io.questdb.griffin.engine.analytic.AnalyticFunction}
+     */
+    default boolean isAnalytic() { return false; }
+
     Function newInstance(
             @Transient ObjList<Function> args,
             int position,
@@ -37,6 +37,7 @@ public class FunctionFactoryCache {
     private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> factories = new CharSequenceObjHashMap<>();
     private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> booleanFactories = new CharSequenceObjHashMap<>();
     private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> commutativeBooleanFactories = new CharSequenceObjHashMap<>();
+    private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> analyticFactories = new CharSequenceObjHashMap<>();
     private final CharSequenceHashSet groupByFunctionNames = new CharSequenceHashSet();
     private final CharSequenceHashSet cursorFunctionNames = new CharSequenceHashSet();
 
@@ -48,6 +49,10 @@ public class FunctionFactoryCache {
                 try {
                     final FunctionFactoryDescriptor descriptor = new FunctionFactoryDescriptor(factory);
                     final String name = descriptor.getName();
+                    if (factory.isAnalytic()) {
+                        addFactoryToList(analyticFactories, name, descriptor);
+                        continue;
+                    }
                     addFactoryToList(factories, name, descriptor);
 
                     // Add != counterparts to equality function factories
@@ -81,6 +86,10 @@ public class FunctionFactoryCache {
         }
     }
 
+    public ObjList<FunctionFactoryDescriptor> getAnalyticOverloadList(CharSequence token) {
+        return analyticFactories.get(token);
+    }
+
     public ObjList<FunctionFactoryDescriptor> getOverloadList(CharSequence token) {
         return factories.get(token);
     }
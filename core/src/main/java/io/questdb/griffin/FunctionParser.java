@@ -27,6 +27,7 @@ package io.questdb.griffin;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
@@ -61,6 +62,8 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
     private RecordMetadata metadata;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
+    private boolean nonDeterministicFunctionUsed;
+    private ExpressionNode analyticNode;
 
     public FunctionParser(CairoConfiguration configuration, FunctionFactoryCache functionFactoryCache) {
         this.configuration = configuration;
@@ -168,6 +171,21 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         return functionFactoryCache;
     }
 
+    /**
+     * Resets per-compilation state, see {@link #isNonDeterministicFunctionUsed()}.
+     */
+    public void clear() {
+        nonDeterministicFunctionUsed = false;
+    }
+
+    /**
+     * @return true when function of a {@link FunctionFactory#isNonDeterministic() non-deterministic} factory
+     * was created since last {@link #clear()}
+     */
+    public boolean isNonDeterministicFunctionUsed() {
+        return nonDeterministicFunctionUsed;
+    }
+
     public boolean isCursor(CharSequence token) {
         return functionFactoryCache.isCursor(token);
     }
@@ -249,6 +267,35 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         }
     }
 
+    /**
+     * Creates analytic function instance. Top level function call of the node is resolved against
+     * analytic function factories, whereas its arguments are resolved as in {@link #parseFunction}.
+     *
+     * @param node             analytic function call
+     * @param metadata         metadata for resolving types of columns
+     * @param executionContext provides analytic context, which must be configured prior to this call
+     * @return analytic function instance
+     * @throws SqlException when function cannot be created
+     */
+    public AnalyticFunction parseAnalyticFunction(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode prevAnalyticNode = this.analyticNode;
+        this.analyticNode = node;
+        try {
+            final Function function = parseFunction(node, metadata, executionContext);
+            if (function instanceof AnalyticFunction) {
+                return (AnalyticFunction) function;
+            }
+            Misc.free(function);
+            throw SqlException.$(node.position, "non-analytic function called in analytic context");
+        } finally {
+            this.analyticNode = prevAnalyticNode;
+        }
+    }
+
     public void setSqlCodeGenerator(SqlCodeGenerator sqlCodeGenerator) {
         this.sqlCodeGenerator = sqlCodeGenerator;
     }
@@ -364,6 +411,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
                 args.setQuick(1, tmp);
             }
             function = factory.newInstance(args, position, configuration, sqlExecutionContext);
+            nonDeterministicFunctionUsed |= factory.isNonDeterministic();
         } catch (SqlException e) {
             throw e;
         } catch (Throwable e) {
@@ -454,7 +502,9 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
     }
 
     private Function createFunction(ExpressionNode node, @Transient ObjList<Function> args) throws SqlException {
-        final ObjList<FunctionFactoryDescriptor> overload = functionFactoryCache.getOverloadList(node.token);
+        final ObjList<FunctionFactoryDescriptor> overload = node == analyticNode
+                ? functionFactoryCache.getAnalyticOverloadList(node.token)
+                : functionFactoryCache.getOverloadList(node.token);
         boolean isNegated = functionFactoryCache.isNegated(node.token);
         boolean isFlipped = functionFactoryCache.isFlipped(node.token);
         if (overload == null) {
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.CairoSecurityContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Keeps materialized views up to date with their base tables. Views are taken from the registry of
+ * the engine, views created before startup are registered by scanning database root for tables that
+ * carry view definition file. View is refreshed once its base table commits new transaction, under
+ * security context of the view owner. Refresh itself is incremental, it aggregates rows appended since
+ * previous refresh and recomputes buckets base table has received late rows for. Refresh can take a
+ * while, job is meant to run on a dedicated worker rather than on the shared pool.
+ */
+public class MaterializedViewRefreshJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MaterializedViewRefreshJob.class);
+    // view can only be created with write permission, which is what views found on disk are refreshed with
+    private static final CairoSecurityContext RESTORED_OWNER_SECURITY_CONTEXT = new CairoSecurityContextImpl(true);
+    private final CairoEngine engine;
+    private final MaterializedViewRegistry registry;
+    private final MillisecondClock clock;
+    private final long refreshInterval;
+    private final SqlCompiler compiler;
+    private final SqlExecutionContextImpl executionContext;
+    private final ObjList<MaterializedView> views = new ObjList<>();
+    private final Path path = new Path();
+    private long lastRefreshTime = Long.MIN_VALUE;
+
+    public MaterializedViewRefreshJob(CairoEngine engine, @Nullable FunctionFactoryCache functionFactoryCache) {
+        this.engine = engine;
+        this.registry = engine.getMaterializedViewRegistry();
+        final CairoConfiguration configuration = engine.getConfiguration();
+        this.clock = configuration.getMillisecondClock();
+        this.refreshInterval = configuration.getMaterializedViewRefreshInterval();
+        this.compiler = new SqlCompiler(engine, engine.getMessageBus(), functionFactoryCache);
+        this.executionContext = new SqlExecutionContextImpl(engine, 1, engine.getMessageBus());
+        registerViews(configuration);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiler);
+        Misc.free(path);
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long now = clock.getTicks();
+        if (lastRefreshTime != Long.MIN_VALUE && now - lastRefreshTime < refreshInterval) {
+            return false;
+        }
+        lastRefreshTime = now;
+
+        registry.getViews(views);
+        boolean useful = false;
+        for (int i = 0, n = views.size(); i < n; i++) {
+            final MaterializedView view = views.getQuick(i);
+            final CairoSecurityContext securityContext = view.getOwnerSecurityContext();
+            if (engine.getStatus(securityContext, path, view.getName()) != TableUtils.TABLE_EXISTS) {
+                // view has been removed behind the back of the engine
+                registry.remove(view.getName());
+                continue;
+            }
+
+            try {
+                final long baseTxn;
+                try (TableReader reader = engine.getReader(securityContext, view.getBaseTableName())) {
+                    baseTxn = reader.getTxn();
+                }
+                if (baseTxn != view.getBaseTxn()) {
+                    executionContext.with(securityContext, null, null);
+                    compiler.refreshMaterializedView(view, executionContext);
+                    useful = true;
+                }
+            } catch (SqlException e) {
+                LOG.error().$("could not refresh materialized view, view is no longer refreshed [name=").utf8(view.getName())
+                        .$(", error=").$(e.getFlyweightMessage())
+                        .$(']').$();
+                registry.remove(view.getName());
+            } catch (CairoException e) {
+                // base table or view is busy or unavailable, try again later
+                LOG.info().$("could not refresh materialized view [name=").utf8(view.getName())
+                        .$(", error=").$(e.getFlyweightMessage())
+                        .$(", errno=").$(e.getErrno())
+                        .$(']').$();
+            }
+        }
+        views.clear();
+        return useful;
+    }
+
+    private void registerViews(CairoConfiguration configuration) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final NativeLPSZ nativeLPSZ = new NativeLPSZ();
+        final int rootLen = configuration.getRoot().length();
+        ff.iterateDir(path.of(configuration.getRoot()).$(), (file, type) -> {
+            nativeLPSZ.of(file);
+            if (type == Files.DT_DIR && nativeLPSZ.charAt(0) != '.') {
+                path.trimTo(rootLen).concat(nativeLPSZ).concat(TableUtils.MATERIALIZED_VIEW_FILE_NAME).$();
+                if (ff.exists(path)) {
+                    try (OnePageMemory mem = new OnePageMemory(ff, path, ff.length(path))) {
+                        final CharSequence baseTableName = mem.getStr(Long.BYTES);
+                        final long sqlOffset = Long.BYTES + VirtualMemory.getStorageLength(baseTableName);
+                        registry.registerIfAbsent(new MaterializedView(
+                                Chars.toString(nativeLPSZ),
+                                Chars.toString(baseTableName),
+                                Chars.toString(mem.getStr2(sqlOffset)),
+                                RESTORED_OWNER_SECURITY_CONTEXT,
+                                mem.getLong(0)
+                        ));
+                    } catch (CairoException e) {
+                        LOG.error().$("could not read materialized view definition [path=").$(path)
+                                .$(", error=").$(e.getFlyweightMessage())
+                                .$(", errno=").$(e.getErrno())
+                                .$(']').$();
+                    }
+                }
+                path.trimTo(rootLen).$();
+            }
+        });
+    }
+}
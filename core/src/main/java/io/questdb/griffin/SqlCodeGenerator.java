@@ -33,13 +33,18 @@ import io.questdb.griffin.engine.LimitRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
+import io.questdb.griffin.engine.analytic.StreamingAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.bool.FilterCompiler;
+import io.questdb.griffin.engine.functions.bool.SymbolKeyFilterFunction;
 import io.questdb.griffin.engine.functions.constants.LongConstant;
 import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -81,6 +86,7 @@ public class SqlCodeGenerator implements Mutable {
     private final ListColumnFilter listColumnFilterB = new ListColumnFilter();
     private final CairoConfiguration configuration;
     private final RecordComparatorCompiler recordComparatorCompiler;
+    private final FilterCompiler filterCompiler;
     private final IntHashSet intHashSet = new IntHashSet();
     private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
@@ -96,6 +102,7 @@ public class SqlCodeGenerator implements Mutable {
     private final ObjList<VectorAggregateFunctionConstructor> tempVecConstructors = new ObjList<>();
     private final IntList tempVecConstructorArgIndexes = new IntList();
     private final IntList tempKeyKinds = new IntList();
+    private final IntList tempKeyTypes = new IntList();
     private final ObjObjHashMap<IntList, ObjList<AnalyticFunction>> grouppedAnalytic = new ObjObjHashMap<>();
     private boolean fullFatJoins = false;
 
@@ -108,6 +115,7 @@ public class SqlCodeGenerator implements Mutable {
         this.configuration = configuration;
         this.functionParser = functionParser;
         this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
+        this.filterCompiler = new FilterCompiler(asm);
     }
 
     @Override
@@ -119,7 +127,17 @@ public class SqlCodeGenerator implements Mutable {
     public Function compileFilter(ExpressionNode expr, RecordMetadata metadata, SqlExecutionContext executionContext) throws SqlException {
         final Function filter = functionParser.parseFunction(expr, metadata, executionContext);
         if (filter.getType() == ColumnType.BOOLEAN) {
-            return filter;
+            if (filter.isConstant()) {
+                return filter;
+            }
+            Function f = filter;
+            if (configuration.isSqlSymbolKeyFilterEnabled()) {
+                f = SymbolKeyFilterFunction.rewrite(f, configuration, executionContext);
+            }
+            if (configuration.isSqlJitFilterEnabled()) {
+                return filterCompiler.compile(expr, f, metadata);
+            }
+            return f;
         }
         Misc.free(filter);
         throw SqlException.$(expr.position, "boolean expression expected");
@@ -165,6 +183,89 @@ public class SqlCodeGenerator implements Mutable {
         );
     }
 
+    private static boolean isFixedWidthOrderBy(RecordMetadata metadata, IntList orderByColumns) {
+        for (int i = 0, n = orderByColumns.size(); i < n; i++) {
+            final int index = orderByColumns.getQuick(i);
+            switch (metadata.getColumnType(index > 0 ? index - 1 : -index - 1)) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getAnalyticFrameLo(AnalyticColumn ac) throws SqlException {
+        final ExpressionNode frameLo = ac.getFrameLo();
+        if (frameLo == null) {
+            // unbounded preceding
+            return Long.MAX_VALUE;
+        }
+
+        final CharSequence tok = frameLo.token;
+        final int len = tok.length();
+        try {
+            if (ac.getFramingMode() == AnalyticColumn.FRAMING_RANGE && Chars.isQuoted(tok) && len > 3) {
+                // interval such as '10m', '1h' or '5s'
+                final long n = Numbers.parseLong(tok, 1, len - 2);
+                switch (tok.charAt(len - 2)) {
+                    case 'T':
+                        return n * Timestamps.MILLI_MICROS;
+                    case 's':
+                        return n * Timestamps.SECOND_MICROS;
+                    case 'm':
+                        return n * Timestamps.MINUTE_MICROS;
+                    case 'h':
+                        return n * Timestamps.HOUR_MICROS;
+                    case 'd':
+                        return n * Timestamps.DAY_MICROS;
+                    default:
+                        throw SqlException.$(frameLo.position + len - 2, "unsupported interval qualifier");
+                }
+            }
+            final long n = Numbers.parseLong(tok);
+            if (n > -1) {
+                return n;
+            }
+        } catch (NumericException ignore) {
+        }
+
+        if (ac.getFramingMode() == AnalyticColumn.FRAMING_RANGE) {
+            throw SqlException.$(frameLo.position, "non-negative number of microseconds or interval expected");
+        }
+        throw SqlException.$(frameLo.position, "non-negative number of rows expected");
+    }
+
+    // rows reach analytic function in ascending order of designated timestamp when either
+    // the function is ordered by this timestamp or it is not ordered and base cursor has this order
+    private static boolean isOrderedByTimestamp(AnalyticColumn ac, RecordMetadata baseMetadata) {
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        if (timestampIndex == -1) {
+            return false;
+        }
+
+        final ObjList<ExpressionNode> orderBy = ac.getOrderBy();
+        switch (orderBy.size()) {
+            case 0:
+                return true;
+            case 1:
+                return ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING
+                        && Chars.equalsIgnoreCase(orderBy.getQuick(0).token, baseMetadata.getColumnName(timestampIndex));
+            default:
+                return false;
+        }
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -218,19 +319,21 @@ public class SqlCodeGenerator implements Mutable {
                 if (checkLiterals) {
                     final int columnIndex = metadata.getColumnIndex(ast.token);
                     final int type = metadata.getColumnType(columnIndex);
-                    if (type == ColumnType.INT) {
-                        tempKeyIndexesInBase.add(columnIndex);
-                        tempKeyIndex.add(i);
-                        arrayColumnTypes.add(ColumnType.INT);
-                        tempKeyKinds.add(GKK_VANILLA_INT);
-                    } else if (type == ColumnType.SYMBOL) {
-                        tempKeyIndexesInBase.add(columnIndex);
-                        tempKeyIndex.add(i);
-                        tempSymbolSkewIndexes.extendAndSet(i, columnIndex);
-                        arrayColumnTypes.add(ColumnType.SYMBOL);
-                        tempKeyKinds.add(GKK_VANILLA_INT);
-                    } else {
-                        return false;
+                    switch (type) {
+                        case ColumnType.SYMBOL:
+                            tempSymbolSkewIndexes.extendAndSet(i, columnIndex);
+                            // fall through
+                        case ColumnType.INT:
+                        case ColumnType.LONG:
+                        case ColumnType.DATE:
+                        case ColumnType.TIMESTAMP:
+                            tempKeyIndexesInBase.add(columnIndex);
+                            tempKeyIndex.add(i);
+                            tempKeyTypes.add(type);
+                            tempKeyKinds.add(GKK_VANILLA_INT);
+                            break;
+                        default:
+                            return false;
                     }
                 }
             } else {
@@ -270,6 +373,7 @@ public class SqlCodeGenerator implements Mutable {
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
+        final int slaveSymbolColumnIndex = getIndexedSymbolJoinKey(slave.getMetadata());
         return new AsOfJoinLightRecordCursorFactory(
                 configuration,
                 metadata,
@@ -279,7 +383,9 @@ public class SqlCodeGenerator implements Mutable {
                 valueTypes,
                 masterKeySink,
                 slaveKeySink,
-                columnSplit
+                columnSplit,
+                slaveSymbolColumnIndex == -1 ? -1 : listColumnFilterB.getColumnIndexFactored(0),
+                slaveSymbolColumnIndex
         );
     }
 
@@ -451,7 +557,8 @@ public class SqlCodeGenerator implements Mutable {
             RecordMetadata metadata,
             RecordCursorFactory master,
             RecordCursorFactory slave,
-            int joinType
+            int joinType,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -485,7 +592,41 @@ public class SqlCodeGenerator implements Mutable {
         valueTypes.add(ColumnType.LONG);
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+            if (configuration.isSqlMergeJoinEnabled() && isTimestampJoin(masterMetadata, slaveMetadata)) {
+                return new MergeJoinLightRecordCursorFactory(
+                        configuration,
+                        metadata,
+                        master,
+                        slave,
+                        keyTypes,
+                        valueTypes,
+                        masterKeySink,
+                        slaveKeySink,
+                        masterMetadata.getColumnCount(),
+                        joinType == QueryModel.JOIN_OUTER
+                );
+            }
+
             if (joinType == QueryModel.JOIN_INNER) {
+                final int workerCount = executionContext.getWorkerCount();
+                if (workerCount > 1
+                        && master.supportPageFrameCursor()
+                        && slave.supportPageFrameCursor()
+                        && executionContext.getMessageBus() != null
+                        && configuration.isSqlParallelHashJoinEnabled()) {
+                    return new ParallelHashJoinLightRecordCursorFactory(
+                            configuration,
+                            metadata,
+                            master,
+                            slave,
+                            keyTypes,
+                            valueTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            workerCount + 1
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -600,6 +741,7 @@ public class SqlCodeGenerator implements Mutable {
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
+        final int slaveSymbolColumnIndex = getIndexedSymbolJoinKey(slave.getMetadata());
         return new LtJoinLightRecordCursorFactory(
                 configuration,
                 metadata,
@@ -609,7 +751,9 @@ public class SqlCodeGenerator implements Mutable {
                 valueTypes,
                 masterKeySink,
                 slaveKeySink,
-                columnSplit
+                columnSplit,
+                slaveSymbolColumnIndex == -1 ? -1 : listColumnFilterB.getColumnIndexFactored(0),
+                slaveSymbolColumnIndex
         );
     }
 
@@ -640,6 +784,93 @@ public class SqlCodeGenerator implements Mutable {
         );
     }
 
+    /**
+     * Slave symbol column of the join key, when the key is a single symbol column indexed in the slave table.
+     * ASOF and LT joins find latest slave row of such key via symbol index instead of scanning slave.
+     *
+     * @param slaveMetadata slave metadata
+     * @return slave column index or -1
+     */
+    private int getIndexedSymbolJoinKey(RecordMetadata slaveMetadata) {
+        if (listColumnFilterA.getColumnCount() == 1) {
+            final int columnIndex = listColumnFilterA.getColumnIndexFactored(0);
+            if (slaveMetadata.getColumnType(columnIndex) == ColumnType.SYMBOL && slaveMetadata.isColumnIndexed(columnIndex)) {
+                return columnIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Join key pairs designated timestamps of master and slave. Both sides are then ordered by
+     * the key, which makes merge join possible.
+     */
+    private boolean isTimestampJoin(RecordMetadata masterMetadata, RecordMetadata slaveMetadata) {
+        final int masterTimestampIndex = masterMetadata.getTimestampIndex();
+        final int slaveTimestampIndex = slaveMetadata.getTimestampIndex();
+        if (masterTimestampIndex == -1 || slaveTimestampIndex == -1) {
+            return false;
+        }
+        for (int i = 0, n = listColumnFilterA.getColumnCount(); i < n; i++) {
+            if (listColumnFilterA.getColumnIndexFactored(i) == slaveTimestampIndex
+                    && listColumnFilterB.getColumnIndexFactored(i) == masterTimestampIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private GenericRecordMetadata createVectorAggregateMetadata(ObjList<QueryColumn> columns, RecordMetadata metadata, int workerCount) {
+        GenericRecordMetadata meta = new GenericRecordMetadata();
+
+        // start with keys
+        for (int i = 0, n = tempKeyIndex.size(); i < n; i++) {
+            final int indexInThis = tempKeyIndex.getQuick(i);
+            final int indexInBase = tempKeyIndexesInBase.getQuick(i);
+            final int type = tempKeyTypes.getQuick(i);
+
+            if (type == ColumnType.SYMBOL) {
+                meta.add(
+                        indexInThis,
+                        new TableColumnMetadata(
+                                Chars.toString(columns.getQuick(indexInThis).getName())
+                                , type
+                                , false
+                                , 0
+                                , metadata.isSymbolTableStatic(indexInBase),
+                                null
+                        )
+                );
+            } else {
+                meta.add(
+                        indexInThis,
+                        new TableColumnMetadata(
+                                Chars.toString(columns.getQuick(indexInThis).getName()),
+                                type,
+                                null
+                        )
+                );
+            }
+        }
+
+        // add aggregates
+        for (int i = 0, n = tempVecConstructors.size(); i < n; i++) {
+            VectorAggregateFunctionConstructor constructor = tempVecConstructors.getQuick(i);
+            int indexInBase = tempVecConstructorArgIndexes.getQuick(i);
+            int indexInThis = tempAggIndex.getQuick(i);
+            VectorAggregateFunction vaf = constructor.create(0, tempKeyKinds.size() == 0 ? 0 : tempKeyKinds.getQuick(0), indexInBase, workerCount);
+            tempVaf.add(vaf);
+            meta.add(indexInThis,
+                    new TableColumnMetadata(
+                            Chars.toString(columns.getQuick(indexInThis).getName()),
+                            vaf.getType(),
+                            null
+                    )
+            );
+        }
+        return meta;
+    }
+
     RecordCursorFactory generate(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return generateQuery(model, executionContext, true);
     }
@@ -662,6 +893,27 @@ public class SqlCodeGenerator implements Mutable {
                 return new EmptyTableRecordCursorFactory(factory.getMetadata());
             }
         }
+
+        final int workerCount = executionContext.getWorkerCount();
+        if (workerCount > 1
+                && factory instanceof DataFrameRecordCursorFactory
+                && factory.supportPageFrameCursor()
+                && executionContext.getMessageBus() != null
+                && configuration.isSqlParallelFilterEnabled()) {
+            // filter functions are stateful, every worker and the query thread get a copy of their own
+            final ObjList<Function> filters = new ObjList<>(workerCount + 1);
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    filters.add(compileFilter(filter, factory.getMetadata(), executionContext));
+                }
+            } catch (Throwable e) {
+                Misc.freeObjList(filters);
+                Misc.free(f);
+                throw e;
+            }
+            filters.add(f);
+            return new ParallelFilteredRecordCursorFactory(factory, filters);
+        }
         return new FilteredRecordCursorFactory(factory, f);
     }
 
@@ -853,7 +1105,8 @@ public class SqlCodeGenerator implements Mutable {
                                     createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                     master,
                                     slave,
-                                    joinType
+                                    joinType,
+                                    executionContext
                             );
                             masterAlias = null;
                             break;
@@ -1103,7 +1356,11 @@ public class SqlCodeGenerator implements Mutable {
         return generateSubQuery(model, executionContext);
     }
 
-    private RecordCursorFactory generateOrderBy(RecordCursorFactory recordCursorFactory, QueryModel model) throws SqlException {
+    private RecordCursorFactory generateOrderBy(
+            RecordCursorFactory recordCursorFactory,
+            QueryModel model,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
         if (recordCursorFactory.followedOrderByAdvice()) {
             return recordCursorFactory;
         }
@@ -1168,6 +1425,25 @@ public class SqlCodeGenerator implements Mutable {
                 orderedMetadata = GenericRecordMetadata.copyOfSansTimestamp(metadata);
 
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
+                    final long limit = getOrderByLimit(model, executionContext);
+                    if (limit > -1 && isFixedWidthOrderBy(metadata, listColumnFilterA)) {
+                        // LIMIT is still applied on top, we only avoid sorting
+                        // rows that cannot make it into the result
+                        return new LimitedSizeSortedLightRecordCursorFactory(
+                                orderedMetadata,
+                                recordCursorFactory,
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                limit
+                        );
+                    }
+                    if (configuration.isSqlRadixSortEnabled() && RadixSortedLightRecordCursorFactory.isSupported(metadata, listColumnFilterA)) {
+                        return new RadixSortedLightRecordCursorFactory(
+                                configuration,
+                                orderedMetadata,
+                                recordCursorFactory,
+                                listColumnFilterA
+                        );
+                    }
                     return new SortedLightRecordCursorFactory(
                             configuration,
                             orderedMetadata,
@@ -1223,7 +1499,8 @@ public class SqlCodeGenerator implements Mutable {
                                 model,
                                 executionContext
                         ),
-                        model
+                        model,
+                        executionContext
                 ),
                 model,
                 executionContext
@@ -1249,6 +1526,13 @@ public class SqlCodeGenerator implements Mutable {
 
             final int fillCount = sampleByFill.size();
             try {
+                if (fillCount == 0 || fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "none")) {
+                    final RecordCursorFactory vectorFactory = generateSampleByVector(model, factory, timestampSampler, timestampIndex, executionContext);
+                    if (vectorFactory != null) {
+                        return vectorFactory;
+                    }
+                }
+
                 keyTypes.clear();
                 valueTypes.clear();
                 listColumnFilterA.clear();
@@ -1328,6 +1612,27 @@ public class SqlCodeGenerator implements Mutable {
 
                 if (fillCount == 0 || fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "none")) {
 
+                    if (executionContext.getWorkerCount() > 1
+                            && factory.supportPageFrameCursor()
+                            && executionContext.getMessageBus() != null
+                            && configuration.isSqlParallelSampleByEnabled()
+                            && GroupByUtils.isMergeable(groupByFunctions)) {
+                        return new ParallelSampleByRecordCursorFactory(
+                                configuration,
+                                factory,
+                                timestampSampler,
+                                listColumnFilterA,
+                                asm,
+                                keyTypes,
+                                valueTypes,
+                                groupByMetadata,
+                                prepareThreadGroupByFunctions(model, metadata, groupByFunctions, recordFunctions, executionContext, true),
+                                recordFunctions,
+                                timestampIndex,
+                                model.getSampleByOrigin()
+                        );
+                    }
+
                     if (keyTypes.getColumnCount() == 0) {
                         // this sample by is not keyed
                         return new SampleByFillNoneNotKeyedRecordCursorFactory(
@@ -1337,7 +1642,8 @@ public class SqlCodeGenerator implements Mutable {
                                 groupByFunctions,
                                 recordFunctions,
                                 valueTypes.getColumnCount(),
-                                timestampIndex
+                                timestampIndex,
+                                model.getSampleByOrigin()
                         );
                     }
 
@@ -1352,7 +1658,8 @@ public class SqlCodeGenerator implements Mutable {
                             asm,
                             keyTypes,
                             valueTypes,
-                            timestampIndex
+                            timestampIndex,
+                            model.getSampleByOrigin()
                     );
                 }
 
@@ -1422,6 +1729,79 @@ public class SqlCodeGenerator implements Mutable {
         }
     }
 
+    /**
+     * SAMPLE BY without fill is GROUP BY on designated timestamp bucket and other keys. Rosti kernels
+     * aggregate it as long as all functions have vectorized equivalents and designated timestamp is
+     * selected, the timestamp key is encoded into its bucket.
+     *
+     * @return vectorized factory or null when query is not eligible, base factory is not released either way
+     */
+    @Nullable
+    private RecordCursorFactory generateSampleByVector(
+            QueryModel model,
+            RecordCursorFactory factory,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (!factory.supportPageFrameCursor() || !configuration.isSqlVectorSampleByEnabled()) {
+            return null;
+        }
+
+        tempKeyIndexesInBase.clear();
+        tempKeyIndex.clear();
+        arrayColumnTypes.clear();
+        tempKeyKinds.clear();
+        tempKeyTypes.clear();
+
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final RecordMetadata metadata = factory.getMetadata();
+        if (!assembleKeysAndFunctionReferences(columns, metadata, true)) {
+            return null;
+        }
+
+        // designated timestamp is the key that gets sampled, it has to be selected once
+        int sampledKeyIndex = -1;
+        for (int i = 0, n = tempKeyIndexesInBase.size(); i < n; i++) {
+            if (tempKeyIndexesInBase.getQuick(i) == timestampIndex) {
+                if (sampledKeyIndex != -1) {
+                    return null;
+                }
+                sampledKeyIndex = i;
+            }
+        }
+        if (sampledKeyIndex == -1) {
+            return null;
+        }
+
+        final GenericRecordMetadata meta = createVectorAggregateMetadata(columns, metadata, executionContext.getWorkerCount());
+        meta.setTimestampIndex(tempKeyIndex.getQuick(sampledKeyIndex));
+
+        // timestamp key is never INT, keys are always encoded
+        arrayColumnTypes.add(ColumnType.INT);
+        for (int i = 0, n = tempVaf.size(); i < n; i++) {
+            tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
+        }
+
+        GroupByUtils.validateGroupByColumns(model, tempKeyIndexesInBase.size());
+
+        return new GroupByRecordCursorFactory(
+                configuration,
+                factory,
+                meta,
+                arrayColumnTypes,
+                executionContext.getWorkerCount(),
+                tempVaf,
+                tempKeyIndexesInBase,
+                tempKeyIndex,
+                tempKeyTypes,
+                tempSymbolSkewIndexes,
+                timestampSampler,
+                sampledKeyIndex,
+                model.getSampleByOrigin()
+        );
+    }
+
     private RecordCursorFactory generateSelect(
             QueryModel model,
             SqlExecutionContext executionContext,
@@ -1450,6 +1830,23 @@ public class SqlCodeGenerator implements Mutable {
 
     private RecordCursorFactory generateSelectAnalytic(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory base = generateSubQuery(model, executionContext);
+        try {
+            final RecordCursorFactory factory = generateStreamingAnalytic(model, base, executionContext);
+            if (factory != null) {
+                return factory;
+            }
+            return generateCachedAnalytic(model, base, executionContext);
+        } catch (SqlException | CairoException e) {
+            Misc.free(base);
+            throw e;
+        }
+    }
+
+    private RecordCursorFactory generateCachedAnalytic(
+            QueryModel model,
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
         final RecordMetadata baseMetadata = base.getMetadata();
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
@@ -1517,61 +1914,15 @@ public class SqlCodeGenerator implements Mutable {
             final QueryColumn qc = columns.getQuick(i);
             if (qc instanceof AnalyticColumn) {
                 final AnalyticColumn ac = (AnalyticColumn) qc;
-                final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
-                    throw SqlException.$(ast.position, "Too many arguments");
-                }
-
-                ObjList<Function> partitionBy = null;
-                int psz = ac.getPartitionBy().size();
-                if (psz > 0) {
-                    partitionBy = new ObjList<>(psz);
-                    for (int j = 0; j < psz; j++) {
-                        partitionBy.add(
-                                functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
-                        );
-                    }
-                }
-
-                final VirtualRecord partitionByRecord;
-                final RecordSink partitionBySink;
-
-                if (partitionBy != null) {
-                    partitionByRecord = new VirtualRecord(partitionBy);
-                    keyTypes.clear();
-                    final int partitionByCount = partitionBy.size();
-
-                    for (int j = 0; j < partitionByCount; j++) {
-                        keyTypes.add(partitionBy.getQuick(j).getType());
-                    }
-                    entityColumnFilter.of(partitionByCount);
-                    // create sink
-                    partitionBySink = RecordSinkFactory.getInstance(
-                            asm,
-                            keyTypes,
-                            entityColumnFilter,
-                            false
-                    );
-                } else {
-                    partitionByRecord = null;
-                    partitionBySink = null;
-                }
-
-
                 final int osz = ac.getOrderBy().size();
-                executionContext.configureAnalyticContext(
-                        partitionByRecord,
-                        partitionBySink,
-                        keyTypes,
-                        osz > 0,
-                        base.recordCursorSupportsRandomAccess()
+                final AnalyticFunction analyticFunction = parseAnalyticFunction(
+                        ac,
+                        chainMetadata,
+                        isOrderedByTimestamp(ac, baseMetadata) ? chainMetadata.getColumnIndexQuiet(baseMetadata.getColumnName(baseMetadata.getTimestampIndex())) : -1,
+                        base.recordCursorSupportsRandomAccess(),
+                        executionContext
                 );
 
-                final Function f = functionParser.parseFunction(ac.getAst(), baseMetadata, executionContext);
-                // todo: throw an error when non-analytic function is called in analytic context
-                assert f instanceof AnalyticFunction;
-                AnalyticFunction analyticFunction = (AnalyticFunction) f;
-
                 // analyze order by clause on the current model and optimise out
                 // order by on analytic function if it matches the one on the model
                 final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
@@ -1655,6 +2006,129 @@ public class SqlCodeGenerator implements Mutable {
         );
     }
 
+    private RecordCursorFactory generateStreamingAnalytic(
+            QueryModel model,
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final int columnCount = columns.size();
+
+        // analytic functions can stream over base cursor only when they
+        // are happy with the order of base cursor
+        for (int i = 0; i < columnCount; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc instanceof AnalyticColumn && ((AnalyticColumn) qc).getOrderBy().size() > 0 && !isOrderedByTimestamp((AnalyticColumn) qc, baseMetadata)) {
+                return null;
+            }
+        }
+
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        final ObjList<Function> functions = new ObjList<>(columnCount);
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticFunction analyticFunction = parseAnalyticFunction(
+                            (AnalyticColumn) qc,
+                            baseMetadata,
+                            timestampIndex,
+                            base.recordCursorSupportsRandomAccess(),
+                            executionContext
+                    );
+                    functions.add(analyticFunction);
+                    if (analyticFunction.getPassCount() != AnalyticFunction.STREAM) {
+                        // function needs to see records it has not reached yet,
+                        // this has to be done by cached factory
+                        Misc.freeObjList(functions);
+                        return null;
+                    }
+                    analyticFunctions.add(analyticFunction);
+                    metadata.add(new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            analyticFunction.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
+                } else {
+                    final ExpressionNode ast = qc.getAst();
+                    final int columnIndex = baseMetadata.getColumnIndex(ast.token);
+                    functions.add(FunctionParser.createColumn(ast.position, ast.token, baseMetadata));
+                    metadata.add(BaseRecordMetadata.copyOf(baseMetadata, columnIndex));
+                    if (columnIndex == timestampIndex) {
+                        metadata.setTimestampIndex(i);
+                    }
+                }
+            }
+        } catch (SqlException | CairoException e) {
+            Misc.freeObjList(functions);
+            throw e;
+        }
+
+        return new StreamingAnalyticRecordCursorFactory(metadata, base, functions, analyticFunctions);
+    }
+
+    private AnalyticFunction parseAnalyticFunction(
+            AnalyticColumn ac,
+            RecordMetadata metadata,
+            int timestampIndex,
+            boolean baseSupportsRandomAccess,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        ObjList<Function> partitionBy = null;
+        int psz = ac.getPartitionBy().size();
+        if (psz > 0) {
+            partitionBy = new ObjList<>(psz);
+            for (int j = 0; j < psz; j++) {
+                partitionBy.add(
+                        functionParser.parseFunction(ac.getPartitionBy().getQuick(j), metadata, executionContext)
+                );
+            }
+        }
+
+        final VirtualRecord partitionByRecord;
+        final RecordSink partitionBySink;
+
+        if (partitionBy != null) {
+            partitionByRecord = new VirtualRecord(partitionBy);
+            keyTypes.clear();
+            final int partitionByCount = partitionBy.size();
+
+            for (int j = 0; j < partitionByCount; j++) {
+                keyTypes.add(partitionBy.getQuick(j).getType());
+            }
+            entityColumnFilter.of(partitionByCount);
+            // create sink
+            partitionBySink = RecordSinkFactory.getInstance(
+                    asm,
+                    keyTypes,
+                    entityColumnFilter,
+                    false
+            );
+        } else {
+            partitionByRecord = null;
+            partitionBySink = null;
+        }
+
+        executionContext.configureAnalyticContext(
+                partitionByRecord,
+                partitionBySink,
+                keyTypes,
+                ac.getOrderBy().size() > 0,
+                baseSupportsRandomAccess,
+                ac.getFramingMode(),
+                getAnalyticFrameLo(ac),
+                timestampIndex
+        );
+
+        return functionParser.parseAnalyticFunction(ac.getAst(), metadata, executionContext);
+    }
+
     private RecordCursorFactory generateSelectChoose(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
         final RecordMetadata metadata = factory.getMetadata();
@@ -1816,6 +2290,7 @@ public class SqlCodeGenerator implements Mutable {
             tempKeyIndex.clear();
             arrayColumnTypes.clear();
             tempKeyKinds.clear();
+            tempKeyTypes.clear();
 
             boolean pageFramingSupported = false;
             boolean specialCaseKeys = false;
@@ -1848,7 +2323,7 @@ public class SqlCodeGenerator implements Mutable {
                                 tempKeyIndex.add(i);
                                 // storage dimension for Rosti is INT when we use hour(). This function produces INT.
                                 tempKeyKinds.add(GKK_HOUR_INT);
-                                arrayColumnTypes.add(ColumnType.INT);
+                                tempKeyTypes.add(ColumnType.INT);
                             } else {
                                 // there is something else here, fallback to default implementation
                                 pageFramingSupported = false;
@@ -1871,53 +2346,7 @@ public class SqlCodeGenerator implements Mutable {
             // inspect model for possibility of vector aggregate intrinsics
             if (pageFramingSupported && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)) {
                 // create metadata from everything we've gathered
-                GenericRecordMetadata meta = new GenericRecordMetadata();
-
-                // start with keys
-                for (int i = 0, n = tempKeyIndex.size(); i < n; i++) {
-                    final int indexInThis = tempKeyIndex.getQuick(i);
-                    final int indexInBase = tempKeyIndexesInBase.getQuick(i);
-                    final int type = arrayColumnTypes.getColumnType(i);
-
-                    if (type == ColumnType.SYMBOL) {
-                        meta.add(
-                                indexInThis,
-                                new TableColumnMetadata(
-                                        Chars.toString(columns.getQuick(indexInThis).getName())
-                                        , type
-                                        , false
-                                        , 0
-                                        , metadata.isSymbolTableStatic(indexInBase),
-                                        null
-                                )
-                        );
-                    } else {
-                        meta.add(
-                                indexInThis,
-                                new TableColumnMetadata(
-                                        Chars.toString(columns.getQuick(indexInThis).getName()),
-                                        type,
-                                        null
-                                )
-                        );
-                    }
-                }
-
-                // add aggregates
-                for (int i = 0, n = tempVecConstructors.size(); i < n; i++) {
-                    VectorAggregateFunctionConstructor constructor = tempVecConstructors.getQuick(i);
-                    int indexInBase = tempVecConstructorArgIndexes.getQuick(i);
-                    int indexInThis = tempAggIndex.getQuick(i);
-                    VectorAggregateFunction vaf = constructor.create(0, tempKeyKinds.size() == 0 ? 0 : tempKeyKinds.getQuick(0), indexInBase, executionContext.getWorkerCount());
-                    tempVaf.add(vaf);
-                    meta.add(indexInThis,
-                            new TableColumnMetadata(
-                                    Chars.toString(columns.getQuick(indexInThis).getName()),
-                                    vaf.getType(),
-                                    null
-                            )
-                    );
-                }
+                final GenericRecordMetadata meta = createVectorAggregateMetadata(columns, metadata, executionContext.getWorkerCount());
 
                 if (tempKeyIndexesInBase.size() == 0) {
                     return new GroupByNotKeyedVectorRecordCursorFactory(
@@ -1928,25 +2357,33 @@ public class SqlCodeGenerator implements Mutable {
                     );
                 }
 
-                if (tempKeyIndexesInBase.size() == 1) {
-                    for (int i = 0, n = tempVaf.size(); i < n; i++) {
-                        tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
-                    }
-
-                    GroupByUtils.validateGroupByColumns(model, 1);
+                // Rosti is keyed by single INT or SYMBOL, other keys are encoded into INT
+                final int keyCount = tempKeyIndexesInBase.size();
+                final int rostiKeyType = tempKeyTypes.getQuick(0);
+                if (keyCount == 1 && (rostiKeyType == ColumnType.INT || rostiKeyType == ColumnType.SYMBOL)) {
+                    arrayColumnTypes.add(rostiKeyType);
+                } else {
+                    arrayColumnTypes.add(ColumnType.INT);
+                }
 
-                    return new GroupByRecordCursorFactory(
-                            configuration,
-                            factory,
-                            meta,
-                            arrayColumnTypes,
-                            executionContext.getWorkerCount(),
-                            tempVaf,
-                            tempKeyIndexesInBase.getQuick(0),
-                            tempKeyIndex.getQuick(0),
-                            tempSymbolSkewIndexes
-                    );
+                for (int i = 0, n = tempVaf.size(); i < n; i++) {
+                    tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
                 }
+
+                GroupByUtils.validateGroupByColumns(model, keyCount);
+
+                return new GroupByRecordCursorFactory(
+                        configuration,
+                        factory,
+                        meta,
+                        arrayColumnTypes,
+                        executionContext.getWorkerCount(),
+                        tempVaf,
+                        tempKeyIndexesInBase,
+                        tempKeyIndex,
+                        tempKeyTypes,
+                        tempSymbolSkewIndexes
+                );
             }
 
             if (specialCaseKeys) {
@@ -2002,6 +2439,26 @@ public class SqlCodeGenerator implements Mutable {
                 );
             }
 
+            final int workerCount = executionContext.getWorkerCount();
+            // filter over page frames is evaluated by group-by threads as they aggregate
+            if (workerCount > 1
+                    && (factory.supportPageFrameCursor() || factory instanceof ParallelFilteredRecordCursorFactory)
+                    && executionContext.getMessageBus() != null
+                    && configuration.isSqlParallelGroupByEnabled()
+                    && GroupByUtils.isMergeable(groupByFunctions)) {
+                return new ParallelGroupByRecordCursorFactory(
+                        configuration,
+                        factory,
+                        listColumnFilterA,
+                        asm,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        prepareThreadGroupByFunctions(model, metadata, groupByFunctions, recordFunctions, executionContext, false),
+                        recordFunctions
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     configuration,
                     factory,
@@ -2020,6 +2477,46 @@ public class SqlCodeGenerator implements Mutable {
         }
     }
 
+    private ObjList<ObjList<GroupByFunction>> prepareThreadGroupByFunctions(
+            QueryModel model,
+            RecordMetadata metadata,
+            ObjList<GroupByFunction> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            SqlExecutionContext executionContext,
+            boolean sampleBy
+    ) throws SqlException {
+        // group-by functions are stateful, every worker and the query thread get a copy of their own
+        final int workerCount = executionContext.getWorkerCount();
+        final ObjList<ObjList<GroupByFunction>> threadGroupByFunctions = new ObjList<>(workerCount + 1);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                final ObjList<GroupByFunction> functions = new ObjList<>(groupByFunctions.size());
+                threadGroupByFunctions.add(functions);
+                arrayColumnTypes.clear();
+                if (sampleBy) {
+                    // value layout must match, the first value is reserved for timestamp
+                    arrayColumnTypes.add(ColumnType.TIMESTAMP);
+                }
+                GroupByUtils.prepareGroupByFunctions(
+                        model,
+                        metadata,
+                        functionParser,
+                        executionContext,
+                        functions,
+                        arrayColumnTypes
+                );
+            }
+        } catch (Throwable e) {
+            for (int i = 0, n = threadGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(threadGroupByFunctions.getQuick(i));
+            }
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        }
+        threadGroupByFunctions.add(groupByFunctions);
+        return threadGroupByFunctions;
+    }
+
     private RecordCursorFactory generateSelectVirtual(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
 
@@ -2331,6 +2828,10 @@ public class SqlCodeGenerator implements Mutable {
                     intervalHitsOnlyOnePartition = false;
                 }
 
+                if (intrinsicModel.filter != null && configuration.isSqlPartitionPruningEnabled()) {
+                    dfcFactory = PartitionPruningDataFrameCursorFactory.of(dfcFactory, intrinsicModel.filter, readerMeta);
+                }
+
                 if (intrinsicModel.keyColumn != null) {
                     // existence of column would have been already validated
                     final int keyColumnIndex = reader.getMetadata().getColumnIndexQuiet(intrinsicModel.keyColumn);
@@ -2615,6 +3116,33 @@ public class SqlCodeGenerator implements Mutable {
         return unionFactory;
     }
 
+    private long getConstantLimit(ExpressionNode node, SqlExecutionContext executionContext) throws SqlException {
+        final Function function = functionParser.parseFunction(node, EmptyRecordMetadata.INSTANCE, executionContext);
+        try {
+            if (function.isConstant() && !limitTypes.excludes(function.getType())) {
+                return Math.max(-1, function.getLong(null));
+            }
+            return -1;
+        } finally {
+            Misc.free(function);
+        }
+    }
+
+    // Number of leading rows of the sort order that LIMIT can return or -1 when
+    // the limit is not a non-negative constant, such as "last N rows" or bind variable
+    private long getOrderByLimit(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode limitLo = model.getLimitLo();
+        final ExpressionNode limitHi = model.getLimitHi();
+        if (limitLo == null && limitHi == null) {
+            return -1;
+        }
+        final long lo = limitLo == null ? 0 : getConstantLimit(limitLo, executionContext);
+        if (lo < 0) {
+            return -1;
+        }
+        return limitHi == null ? lo : getConstantLimit(limitHi, executionContext);
+    }
+
     private int getTimestampIndex(QueryModel model, RecordCursorFactory factory) throws SqlException {
         final RecordMetadata metadata = factory.getMetadata();
         try {
@@ -33,6 +33,8 @@ import io.questdb.cutlass.text.TextLoader;
 import io.questdb.griffin.engine.functions.catalogue.ShowSearchPathCursorFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowStandardConformingStringsCursorFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowTransactionIsolationLevelCursorFactory;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.engine.table.ShowColumnsRecordCursorFactory;
 import io.questdb.griffin.engine.table.TableListRecordCursorFactory;
 import io.questdb.griffin.model.*;
@@ -40,6 +42,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.str.NativeLPSZ;
 import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
@@ -250,6 +253,17 @@ public class SqlCompiler implements Closeable {
         return functionParser.getFunctionFactoryCache();
     }
 
+    /**
+     * Tables read by the last compiled SELECT, see {@link SqlOptimiser#getTablesRead()}.
+     * The list is reused by the next compilation.
+     *
+     * @return table names or null when the set of tables cannot be established or
+     * when query uses non-deterministic functions, its result then depends on more than these tables
+     */
+    public ObjList<CharSequence> getTablesRead() {
+        return functionParser.isNonDeterministicFunctionUsed() ? null : optimiser.getTablesRead();
+    }
+
     // Creates data type converter.
     // INT and LONG NaN values are cast to their representation rather than Double or Float NaN.
     private static RecordToRowCopier assembleRecordToRowCopier(BytecodeAssembler asm, ColumnTypes from, RecordMetadata to, ColumnFilter toColumnFilter) {
@@ -1200,6 +1214,7 @@ public class SqlCompiler implements Closeable {
         queryModelPool.clear();
         optimiser.clear();
         parser.clear();
+        functionParser.clear();
     }
 
     private void cloneMetaData(CharSequence tableName, CharSequence backupRoot, int mkDirMode, TableReader reader) {
@@ -1384,6 +1399,106 @@ public class SqlCompiler implements Closeable {
         writer.commit();
     }
 
+    private void createMaterializedView(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
+        final QueryModel queryModel = model.getQueryModel();
+        try (final RecordCursorFactory factory = generate(queryModel, executionContext)) {
+            final RecordMetadata metadata = factory.getMetadata();
+            if (metadata.getTimestampIndex() == -1) {
+                throw SqlException.$(model.getName().position, "materialized view query must select timestamp");
+            }
+            typeCast.clear();
+            validateTableModelAndCreateTypeCast(model, metadata, typeCast);
+            engine.createTable(
+                    executionContext.getCairoSecurityContext(),
+                    mem,
+                    path,
+                    tableStructureAdapter.of(model, metadata, typeCast)
+            );
+        }
+
+        // view definition lives next to table metadata, which keeps view
+        // consistent with table on rename and drop
+        path.of(configuration.getRoot()).concat(model.getName().token).concat(TableUtils.MATERIALIZED_VIEW_FILE_NAME).$();
+        try {
+            mem.of(ff, path, ff.getPageSize());
+            // partition table version of base table the view is consistent with, it is unknown until view is refreshed
+            mem.putLong(-1);
+            mem.putStr(GenericLexer.unquote(getBaseTableName(queryModel)));
+            mem.putStr(model.getMaterializedViewSql());
+        } finally {
+            mem.close();
+        }
+    }
+
+    /**
+     * Discards buckets of the view starting with the one low watermark falls into. View table cannot drop
+     * rows in place, buckets that precede the discarded ones are staged in memory while the view is
+     * truncated and then appended back.
+     *
+     * @return timestamp of the first discarded bucket or Long.MIN_VALUE when all buckets have been discarded
+     */
+    private long discardMaterializedBuckets(TableWriter writer, CharSequence viewName, long lowWatermark, CairoSecurityContext securityContext) {
+        final RecordMetadata metadata = writer.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        final int timestampIndex = metadata.getTimestampIndex();
+        // symbols are staged as strings, truncate clears symbol tables of the view
+        final GenericRecordMetadata stagedMetadata = new GenericRecordMetadata();
+        for (int i = 0; i < columnCount; i++) {
+            final int type = metadata.getColumnType(i);
+            stagedMetadata.add(new TableColumnMetadata(
+                    Chars.toString(metadata.getColumnName(i)),
+                    type == ColumnType.SYMBOL ? ColumnType.STRING : type,
+                    null
+            ));
+        }
+        entityColumnFilter.of(columnCount);
+        final RecordSink sink = RecordSinkFactory.getInstance(asm, metadata, entityColumnFilter, true);
+        try (RecordChain chain = new RecordChain(stagedMetadata, sink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages())) {
+            long lo = Long.MIN_VALUE;
+            try (TableReader reader = engine.getReader(securityContext, viewName)) {
+                final RecordCursor cursor = reader.getCursor();
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    final long timestamp = record.getTimestamp(timestampIndex);
+                    if (timestamp > lowWatermark) {
+                        break;
+                    }
+                    lo = timestamp;
+                }
+
+                cursor.toTop();
+                long offset = -1;
+                while (cursor.hasNext() && record.getTimestamp(timestampIndex) < lo) {
+                    offset = chain.put(record, offset);
+                }
+            }
+
+            writer.truncate();
+            if (lo != Long.MIN_VALUE) {
+                final RecordToRowCopier copier = assembleRecordToRowCopier(asm, stagedMetadata, metadata, entityColumnFilter);
+                final Record record = chain.getRecord();
+                chain.toTop();
+                while (chain.hasNext()) {
+                    TableWriter.Row row = writer.newRow(record.getTimestamp(timestampIndex));
+                    copier.copy(record, row);
+                    row.append();
+                }
+            }
+            return lo;
+        }
+    }
+
+    private void onMaterializedViewRefreshed(MaterializedView view, long baseTxn, long basePartitionTableVersion) {
+        if (basePartitionTableVersion != view.getBasePartitionTableVersion()) {
+            // view survives restart knowing which base table changes it is consistent with
+            path.of(configuration.getRoot()).concat(view.getName()).concat(TableUtils.MATERIALIZED_VIEW_FILE_NAME).$();
+            try (ReadWriteMemory viewMem = new ReadWriteMemory(ff, path, ff.getPageSize())) {
+                viewMem.putLong(0, basePartitionTableVersion);
+            }
+        }
+        view.onRefreshed(baseTxn, basePartitionTableVersion);
+    }
+
     private CompiledQuery createTable(final ExecutionModel model, SqlExecutionContext executionContext) throws SqlException {
         final CreateTableModel createTableModel = (CreateTableModel) model;
         final ExpressionNode name = createTableModel.getName();
@@ -1406,6 +1521,8 @@ public class SqlCompiler implements Closeable {
                 try {
                     if (createTableModel.getQueryModel() == null) {
                         engine.createTable(executionContext.getCairoSecurityContext(), mem, path, createTableModel);
+                    } else if (createTableModel.getMaterializedViewSql() != null) {
+                        createMaterializedView(createTableModel, executionContext);
                     } else {
                         writer = createTableFromCursor(createTableModel, executionContext);
                     }
@@ -1420,6 +1537,19 @@ public class SqlCompiler implements Closeable {
             throw SqlException.$(name.position, "cannot acquire table lock");
         }
 
+        final CharSequence viewSql = createTableModel.getMaterializedViewSql();
+        if (viewSql != null) {
+            // populate view with buckets base table has already completed,
+            // refresh job takes over from here
+            final MaterializedView view = engine.getMaterializedViewRegistry().register(new MaterializedView(
+                    Chars.toString(name.token),
+                    Chars.toString(GenericLexer.unquote(getBaseTableName(createTableModel.getQueryModel()))),
+                    Chars.toString(viewSql),
+                    executionContext.getCairoSecurityContext(),
+                    -1
+            ));
+            refreshMaterializedView(view, executionContext);
+        }
         return compiledQuery.ofCreateTable();
     }
 
@@ -1560,6 +1690,13 @@ public class SqlCompiler implements Closeable {
         return codeGenerator.generate(queryModel, executionContext);
     }
 
+    private static CharSequence getBaseTableName(QueryModel model) {
+        while (model.getTableName() == null) {
+            model = model.getNestedModel();
+        }
+        return model.getTableName().token;
+    }
+
     private CompiledQuery insert(ExecutionModel executionModel, SqlExecutionContext executionContext) throws SqlException {
         final InsertModel model = (InsertModel) executionModel;
         final ExpressionNode name = model.getTableName();
@@ -1767,6 +1904,26 @@ public class SqlCompiler implements Closeable {
         return model;
     }
 
+    private ExpressionNode nextBinaryNode(CharSequence token, ExpressionNode lhs, ExpressionNode rhs) {
+        final ExpressionNode node = sqlNodePool.next().of(ExpressionNode.OPERATION, token, 0, 0);
+        node.paramCount = 2;
+        node.lhs = lhs;
+        node.rhs = rhs;
+        return node;
+    }
+
+    private ExpressionNode nextTimestampPredicate(CharSequence timestampName, long lo) {
+        final CharacterStoreEntry entry = characterStore.newEntry();
+        entry.put('\'');
+        TimestampFormatUtils.appendDateTimeUSec(entry, lo);
+        entry.put('\'');
+        return nextBinaryNode(
+                ">=",
+                sqlNodePool.next().of(ExpressionNode.LITERAL, timestampName, 0, 0),
+                sqlNodePool.next().of(ExpressionNode.CONSTANT, entry.toImmutable(), 0, 0)
+        );
+    }
+
     private boolean removeTableDirectory(CreateTableModel model) {
         if (engine.removeDirectory(path, model.getName().token)) {
             return true;
@@ -1810,6 +1967,110 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofRepair();
     }
 
+    /**
+     * Appends SAMPLE BY buckets base table has completed since the view was last refreshed. Bucket
+     * is complete once base table has a row past its end. View query is re-run with designated timestamp
+     * restricted to rows after the last materialized bucket and with buckets aligned to those already in
+     * the view, so refresh reads only base table rows that have not been aggregated yet. When base table
+     * has received rows out of order since the last refresh, buckets are recomputed starting with the one
+     * the earliest of these rows belongs to. View is rebuilt when base table no longer reaches past its
+     * last bucket, e.g. after base table has been truncated, or when view cannot tell which of its
+     * buckets base table changes have affected.
+     *
+     * @param view             view to refresh
+     * @param executionContext provides security context for base table and view access
+     * @throws SqlException when view query no longer compiles against base table
+     */
+    void refreshMaterializedView(MaterializedView view, SqlExecutionContext executionContext) throws SqlException {
+        clear();
+        lexer.of(view.getSql());
+        final QueryModel model = (QueryModel) parser.parse(lexer, executionContext);
+        // table, filter and sample by are on the model of "from" clause
+        final QueryModel tableModel = model.getNestedModel();
+        final ExpressionNode sampleBy = tableModel.getSampleBy();
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+        final CairoSecurityContext securityContext = executionContext.getCairoSecurityContext();
+        final CharSequence viewName = view.getName();
+
+        try (
+                TableReader baseReader = engine.getReader(securityContext, GenericLexer.unquote(tableModel.getTableName().token));
+                TableWriter writer = engine.getWriter(securityContext, viewName)
+        ) {
+            final long baseTxn = baseReader.getTxn();
+            final long basePartitionTableVersion = baseReader.getPartitionTableVersion();
+            final long baseMaxTimestamp = baseReader.getMaxTimestamp();
+            final long viewMaxTimestamp = writer.getMaxTimestamp();
+            long lo = Long.MIN_VALUE;
+            if (viewMaxTimestamp != Long.MIN_VALUE) {
+                final long viewHi = sampler.nextTimestamp(viewMaxTimestamp);
+                final long o3LowWatermark = view.getO3LowWatermark(basePartitionTableVersion);
+                if (baseMaxTimestamp < viewHi || o3LowWatermark == Long.MIN_VALUE) {
+                    // base table no longer has rows view has aggregated
+                    // or it has changed in a way view cannot follow
+                    LOG.info().$("rebuilding materialized view [name=").utf8(viewName).$(']').$();
+                    writer.truncate();
+                } else if (o3LowWatermark < viewHi) {
+                    // late rows have landed in buckets view has already materialized
+                    LOG.info().$("recomputing materialized view [name=").utf8(viewName).$(", from=").$ts(o3LowWatermark).$(']').$();
+                    lo = discardMaterializedBuckets(writer, viewName, o3LowWatermark, securityContext);
+                } else {
+                    lo = viewHi;
+                    if (baseMaxTimestamp < sampler.nextTimestamp(lo)) {
+                        // bucket that follows the view is still open
+                        onMaterializedViewRefreshed(view, baseTxn, basePartitionTableVersion);
+                        return;
+                    }
+                }
+            }
+
+            if (baseMaxTimestamp == Long.MIN_VALUE) {
+                onMaterializedViewRefreshed(view, baseTxn, basePartitionTableVersion);
+                return;
+            }
+
+            if (lo != Long.MIN_VALUE) {
+                final RecordMetadata baseMetadata = baseReader.getMetadata();
+                final ExpressionNode range = nextTimestampPredicate(baseMetadata.getColumnName(baseMetadata.getTimestampIndex()), lo);
+                final ExpressionNode where = tableModel.getWhereClause();
+                tableModel.setWhereClause(where == null ? range : nextBinaryNode("and", where, range));
+            }
+
+            QueryModel sampleByModel = optimiser.optimise(model, executionContext);
+            final QueryModel topModel = sampleByModel;
+            while (sampleByModel.getSampleBy() == null) {
+                sampleByModel = sampleByModel.getNestedModel();
+            }
+            // keep buckets on the grid of the view, sample by would otherwise align them to the first new row
+            sampleByModel.setSampleByOrigin(lo);
+
+            try (
+                    RecordCursorFactory factory = generate(topModel, executionContext);
+                    RecordCursor cursor = factory.getCursor(executionContext)
+            ) {
+                final RecordMetadata writerMetadata = writer.getMetadata();
+                final int timestampIndex = writerMetadata.getTimestampIndex();
+                entityColumnFilter.of(writerMetadata.getColumnCount());
+                final RecordToRowCopier copier = assembleRecordToRowCopier(asm, factory.getMetadata(), writerMetadata, entityColumnFilter);
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    final long timestamp = record.getTimestamp(timestampIndex);
+                    if (sampler.nextTimestamp(timestamp) > baseMaxTimestamp) {
+                        // buckets come in timestamp order, this and the rest are still open
+                        break;
+                    }
+                    TableWriter.Row row = writer.newRow(timestamp);
+                    copier.copy(record, row);
+                    row.append();
+                }
+                writer.commit();
+            } catch (CairoException e) {
+                writer.rollback();
+                throw e;
+            }
+            onMaterializedViewRefreshed(view, baseTxn, basePartitionTableVersion);
+        }
+    }
+
     void setFullSatJoins(boolean value) {
         codeGenerator.setFullFatJoins(value);
     }
@@ -100,7 +100,9 @@ class SqlOptimiser {
     private final ObjList<ExpressionNode> orderByAdvice = new ObjList<>();
     private final LowerCaseCharSequenceObjHashMap<QueryColumn> tmpCursorAliases = new LowerCaseCharSequenceObjHashMap<>();
     private final ObjList<Function> functionsInFlight = new ObjList<>();
+    private final ObjList<CharSequence> tablesRead = new ObjList<>();
     private int defaultAliasCount = 0;
+    private boolean tableFunctionRead;
     private ObjList<JoinContext> emittedJoinClauses;
 
     SqlOptimiser(
@@ -620,6 +622,27 @@ class SqlOptimiser {
         clausesToSteal.clear();
         tmpCursorAliases.clear();
         functionsInFlight.clear();
+        tablesRead.clear();
+        tableFunctionRead = false;
+    }
+
+    /**
+     * Names of tables enumerated by the last {@link #optimise(QueryModel, SqlExecutionContext)} call.
+     *
+     * @return list of table names or null when query does not read tables or reads
+     * via table function, in which case data it produces cannot be tracked by table transactions
+     */
+    ObjList<CharSequence> getTablesRead() {
+        return tableFunctionRead || tablesRead.size() == 0 ? null : tablesRead;
+    }
+
+    private void addTableRead(CharSequence tableName) {
+        for (int i = 0, n = tablesRead.size(); i < n; i++) {
+            if (Chars.equals(tablesRead.getQuick(i), tableName)) {
+                return;
+            }
+        }
+        tablesRead.add(Chars.toString(tableName));
     }
 
     private void collectAlias(QueryModel parent, int modelIndex, QueryModel model) throws SqlException {
@@ -1787,6 +1810,7 @@ class SqlOptimiser {
         )) {
             model.setTableVersion(r.getVersion());
             copyColumnsFromMetadata(model, r.getMetadata());
+            addTableRead(tableLookupSequence);
         } catch (EntryLockedException e) {
             throw SqlException.position(tableNamePosition).put("table is locked: ").put(tableLookupSequence);
         } catch (CairoException e) {
@@ -2076,6 +2100,7 @@ class SqlOptimiser {
 
     private void parseFunctionAndEnumerateColumns(@NotNull QueryModel model, @NotNull SqlExecutionContext executionContext) throws SqlException {
         assert model.getTableNameFunction() == null;
+        tableFunctionRead = true;
         final Function function = functionParser.parseFunction(model.getTableName(), AnyRecordMetadata.INSTANCE, executionContext);
         if (function.getType() != ColumnType.CURSOR) {
             throw SqlException.$(model.getTableName().position, "function must return CURSOR");
@@ -116,6 +116,19 @@ public final class SqlParser {
         }
     }
 
+    private void addCreateTableColumns(CreateTableModel model, QueryModel queryModel) {
+        ObjList<QueryColumn> columns = queryModel.getBottomUpColumns();
+        assert columns.size() > 0;
+
+        // we do not know types of columns at this stage
+        // compiler must put table together using query metadata.
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            model.addColumn(columns.getQuick(i).getName(), -1, configuration.getDefaultSymbolCapacity());
+        }
+
+        model.setQueryModel(queryModel);
+    }
+
     private void assertNotDot(GenericLexer lexer, CharSequence tok) throws SqlException {
         if (Chars.indexOf(tok, '.') != -1) {
             throw SqlException.$(lexer.lastTokenPosition(), "'.' is not allowed here");
@@ -315,6 +328,38 @@ public final class SqlParser {
         return model;
     }
 
+    // parses frame clause of analytic function, such as:
+    // rows between 10 preceding and current row
+    // range '1h' preceding
+    private CharSequence parseAnalyticFrame(GenericLexer lexer, AnalyticColumn col, CharSequence tok) throws SqlException {
+        final int framingMode = isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE;
+        tok = tok(lexer, "'between', 'unbounded', 'current' or constant");
+        final boolean between = isBetweenKeyword(tok);
+        if (between) {
+            tok = tok(lexer, "'unbounded', 'current' or constant");
+        }
+
+        final ExpressionNode frameLo;
+        if (isUnboundedKeyword(tok)) {
+            expectTok(lexer, "preceding");
+            frameLo = null;
+        } else if (isCurrentKeyword(tok)) {
+            frameLo = expressionNodePool.next().of(ExpressionNode.CONSTANT, "0", 0, lexer.lastTokenPosition());
+            expectTok(lexer, "row");
+        } else {
+            frameLo = expressionNodePool.next().of(ExpressionNode.CONSTANT, GenericLexer.immutableOf(tok), 0, lexer.lastTokenPosition());
+            expectTok(lexer, "preceding");
+        }
+
+        if (between) {
+            expectTok(lexer, "and");
+            expectTok(lexer, "current");
+            expectTok(lexer, "row");
+        }
+        col.setFrame(framingMode, frameLo);
+        return tok(lexer, "')'");
+    }
+
     private QueryModel parseAsSubQueryAndExpectClosingBrace(GenericLexer lexer, LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses) throws SqlException {
         final QueryModel model = parseAsSubQuery(lexer, withClauses);
         expectTok(lexer, ')');
@@ -354,8 +399,46 @@ public final class SqlParser {
         throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
     }
 
+    private ExecutionModel parseCreateMaterializedView(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
+        final CreateTableModel model = createTableModelPool.next();
+        final CharSequence viewName = tok(lexer, "view name");
+        model.setName(nextLiteral(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(viewName), lexer.lastTokenPosition()), lexer.lastTokenPosition()));
+        expectTok(lexer, "as");
+        expectTok(lexer, '(');
+
+        final int queryLo = lexer.getPosition();
+        final QueryModel queryModel = parseDml(lexer, null);
+        validateMaterializedViewQuery(queryModel, queryLo);
+        expectTok(lexer, ')');
+        model.setMaterializedViewSql(lexer.immutableBetween(queryLo, lexer.lastTokenPosition()));
+        addCreateTableColumns(model, optimiser.optimise(queryModel, executionContext));
+
+        CharSequence tok = optTok(lexer);
+        ExpressionNode partitionBy = parseCreateTablePartition(lexer, tok);
+        if (partitionBy != null) {
+            if (PartitionBy.fromString(partitionBy.token) == -1) {
+                throw SqlException.$(partitionBy.position, "'NONE', 'DAY', 'MONTH' or 'YEAR' expected");
+            }
+            model.setPartitionBy(partitionBy);
+            tok = optTok(lexer);
+        }
+
+        if (tok == null || Chars.equals(tok, ';')) {
+            return model;
+        }
+        throw errUnexpected(lexer, tok);
+    }
+
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
-        expectTok(lexer, "table");
+        final CharSequence tok = optTok(lexer);
+        if (tok != null && isMaterializedKeyword(tok)) {
+            expectTok(lexer, "view");
+            return parseCreateMaterializedView(lexer, executionContext);
+        }
+        if (tok == null) {
+            throw SqlException.position(lexer.getPosition()).put("'table' expected");
+        }
+        expectTok(lexer, tok, "table");
         return parseCreateTable(lexer, executionContext);
     }
 
@@ -423,17 +506,7 @@ public final class SqlParser {
 
     private void parseCreateTableAsSelect(GenericLexer lexer, CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
         expectTok(lexer, '(');
-        QueryModel queryModel = optimiser.optimise(parseDml(lexer, null), executionContext);
-        ObjList<QueryColumn> columns = queryModel.getBottomUpColumns();
-        assert columns.size() > 0;
-
-        // we do not know types of columns at this stage
-        // compiler must put table together using query metadata.
-        for (int i = 0, n = columns.size(); i < n; i++) {
-            model.addColumn(columns.getQuick(i).getName(), -1, configuration.getDefaultSymbolCapacity());
-        }
-
-        model.setQueryModel(queryModel);
+        addCreateTableColumns(model, optimiser.optimise(parseDml(lexer, null), executionContext));
         expectTok(lexer, ')');
     }
 
@@ -1172,6 +1245,10 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    tok = parseAnalyticFrame(lexer, (AnalyticColumn) col, tok);
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
@@ -1521,6 +1598,34 @@ public final class SqlParser {
         }
     }
 
+    private void validateMaterializedViewQuery(QueryModel model, int position) throws SqlException {
+        // view is refreshed by re-running its query over the rows appended since
+        // the last refresh, which is only valid for a plain SAMPLE BY over one table
+        final QueryModel nested = model.getNestedModel();
+        if (nested == null || nested.getSampleBy() == null) {
+            throw SqlException.$(position, "SAMPLE BY query expected");
+        }
+
+        if (nested.getTableName() == null
+                || nested.getTableName().type != ExpressionNode.LITERAL
+                || nested.getJoinModels().size() > 1
+                || model.getUnionModel() != null) {
+            throw SqlException.$(position, "materialized view must select from a single table");
+        }
+
+        if (nested.getTimestamp() != null) {
+            throw SqlException.$(nested.getTimestamp().position, "materialized view must sample by designated timestamp");
+        }
+
+        if (nested.getSampleByFill().size() > 0) {
+            throw SqlException.$(nested.getSampleByFill().getQuick(0).position, "FILL is not supported by materialized view");
+        }
+
+        if (nested.getLatestBy().size() > 0 || nested.getOrderBy().size() > 0 || model.getLimitLo() != null) {
+            throw SqlException.$(position, "LATEST BY, ORDER BY and LIMIT are not supported by materialized view");
+        }
+    }
+
     static {
         tableAliasStop.add("where");
         tableAliasStop.add("latest");
@@ -38,4 +38,21 @@ public interface AnalyticContext {
     boolean isOrdered();
 
     boolean baseSupportsRandomAccess();
+
+    /**
+     * @return one of {@link io.questdb.griffin.model.AnalyticColumn} framing modes
+     */
+    int getFramingMode();
+
+    /**
+     * @return number of rows or interval in microseconds the frame starts at before
+     * current row, or Long.MAX_VALUE when frame is unbounded
+     */
+    long getFrameLo();
+
+    /**
+     * @return index of designated timestamp column the records are ordered by, or -1 when
+     * records are not ordered by designated timestamp
+     */
+    int getTimestampIndex();
 }
@@ -33,11 +33,27 @@ public interface AnalyticFunction extends Function {
     int TWO_PASS = 2;
     int THREE_PASS = 3;
 
+    /**
+     * Computes function value for the current record of a cursor, which is already in the order
+     * the function requires. Value is then available via the respective getter. Only
+     * functions that return {@link #STREAM} from {@link #getPassCount()} support this method.
+     *
+     * @param record current record
+     */
+    void computeNext(Record record);
+
+    /**
+     * @return {@link #STREAM} when function value can be computed in a single forward pass over ordered
+     * records, {@link #TWO_PASS} when {@link #pass2(Record, long, AnalyticSPI)} has to be called after all
+     * records went through {@link #pass1(Record, long, AnalyticSPI)}
+     */
+    int getPassCount();
+
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
 
-    void pass2(Record record);
+    void pass2(Record record, long recordOffset, AnalyticSPI spi);
 
     void reset();
 
@@ -45,6 +45,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
     @Nullable private final ObjList<AnalyticFunction> unorderedFunctions;
     private final ObjList<AnalyticFunction> allFunctions;
+    private final ObjList<AnalyticFunction> twoPassFunctions;
     private final ObjList<RecordComparator> comparators;
     private final GenericRecordMetadata metadata;
     private final Record recordChainRecord;
@@ -93,6 +94,14 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             allFunctions.addAll(unorderedFunctions);
         }
 
+        this.twoPassFunctions = new ObjList<>();
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final AnalyticFunction f = allFunctions.getQuick(i);
+            if (f.getPassCount() == AnalyticFunction.TWO_PASS) {
+                twoPassFunctions.add(f);
+            }
+        }
+
         // create our metadata and also flatten functions for our record representation
         this.metadata = metadata;
         this.recordChainRecord = recordChain.getRecord();
@@ -168,6 +177,20 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             }
         }
 
+        // run pass2 for functions, which need to see all records before they can produce value
+        final int twoPassCount = twoPassFunctions.size();
+        if (twoPassCount > 0) {
+            for (int j = 0; j < twoPassCount; j++) {
+                twoPassFunctions.getQuick(j).preparePass2(recordChain);
+            }
+            recordChain.toTop();
+            while (recordChain.hasNext()) {
+                for (int j = 0; j < twoPassCount; j++) {
+                    twoPassFunctions.getQuick(j).pass2(recordChainRecord, recordChainRecord.getRowId(), recordChain);
+                }
+            }
+        }
+
         recordChain.toTop();
         return recordChain;
     }
@@ -53,6 +53,23 @@ public interface GroupByFunction extends Function {
         return true;
     }
 
+    default boolean isMergeable() {
+        return false;
+    }
+
+    /**
+     * Combines partial aggregate held in srcValue into destValue. Both values are laid out by
+     * {@link #pushValueTypes(ArrayColumnTypes)} of the same function, partial aggregates are produced
+     * by copies of this function that each saw a disjoint subset of rows. Functions that implement
+     * this method must also return true from {@link #isMergeable()}.
+     *
+     * @param destValue value to merge into
+     * @param srcValue  value to merge from, it is not modified
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.Unsafe;
+
+/**
+ * Aggregate over analytic frame. Depending on "over" clause the frame is:
+ * <ul>
+ * <li>whole partition, when there is neither "order by" nor frame clause, value is written out on pass2</li>
+ * <li>all rows from start of partition up to current row</li>
+ * <li>N rows preceding current row, values are kept in per-partition ring buffer of N+1 entries</li>
+ * <li>interval preceding timestamp of current row, ring buffer holds rows within this interval</li>
+ * </ul>
+ * Frames of last two kinds only buffer as many rows as they span, so memory is bounded by the frame size.
+ */
+abstract class AbstractAggregateDoubleAnalyticFunction extends AbstractDoubleAnalyticFunction {
+    private static final int FRAME_PARTITION = 0;
+    private static final int FRAME_RUNNING = 1;
+    private static final int FRAME_ROWS = 2;
+    private static final int FRAME_RANGE = 3;
+    private final int framing;
+    private final long frameLo;
+    private final int timestampIndex;
+    private final int rowIndex;
+    private final int ringIndex;
+
+    AbstractAggregateDoubleAnalyticFunction(
+            int position,
+            Function arg,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            ArrayColumnTypes stateTypes
+    ) throws SqlException {
+        super(position, arg, configuration, analyticContext, addFrameTypes(stateTypes));
+        this.framing = getFraming(analyticContext, position);
+        this.frameLo = analyticContext.getFrameLo();
+        this.timestampIndex = analyticContext.getTimestampIndex();
+        this.ringIndex = stateTypes.getColumnCount() - AnalyticRingBuffer.VALUE_COUNT;
+        this.rowIndex = ringIndex - 1;
+    }
+
+    @Override
+    public int getPassCount() {
+        return framing == FRAME_PARTITION ? TWO_PASS : STREAM;
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, getColumnIndex()), getValue(findState(record)));
+    }
+
+    private static ArrayColumnTypes addFrameTypes(ArrayColumnTypes stateTypes) {
+        stateTypes.add(ColumnType.LONG);
+        AnalyticRingBuffer.addValueTypes(stateTypes);
+        return stateTypes;
+    }
+
+    private static int getFraming(AnalyticContext analyticContext, int position) throws SqlException {
+        switch (analyticContext.getFramingMode()) {
+            case AnalyticColumn.FRAMING_NONE:
+                return analyticContext.isOrdered() ? FRAME_RUNNING : FRAME_PARTITION;
+            case AnalyticColumn.FRAMING_ROWS:
+                return analyticContext.getFrameLo() == Long.MAX_VALUE ? FRAME_RUNNING : FRAME_ROWS;
+            default:
+                if (analyticContext.getFrameLo() == Long.MAX_VALUE) {
+                    return FRAME_RUNNING;
+                }
+                if (analyticContext.getTimestampIndex() == -1) {
+                    throw SqlException.$(position, "RANGE frame requires ordering by designated timestamp");
+                }
+                return FRAME_RANGE;
+        }
+    }
+
+    @Override
+    protected double computeNext(MapValue state, Record record) {
+        final double value = arg.getDouble(record);
+        if (isFramed()) {
+            final long position;
+            if (framing == FRAME_RANGE) {
+                position = record.getTimestamp(timestampIndex);
+            } else {
+                position = state.getLong(rowIndex);
+                state.putLong(rowIndex, position + 1);
+            }
+
+            if (!Double.isNaN(value)) {
+                while (AnalyticRingBuffer.size(state, ringIndex) > 0
+                        && dominates(AnalyticRingBuffer.getValue(state, ringIndex, AnalyticRingBuffer.size(state, ringIndex) - 1), value)) {
+                    AnalyticRingBuffer.removeLast(state, ringIndex);
+                }
+                AnalyticRingBuffer.addLast(state, ringIndex, position, value);
+                onAdd(state, value);
+            }
+
+            while (AnalyticRingBuffer.size(state, ringIndex) > 0
+                    && position - AnalyticRingBuffer.getPosition(state, ringIndex, 0) > frameLo) {
+                onRemove(state, AnalyticRingBuffer.getValue(state, ringIndex, 0));
+                AnalyticRingBuffer.removeFirst(state, ringIndex);
+            }
+        } else if (!Double.isNaN(value)) {
+            onAdd(state, value);
+        }
+        return getValue(state);
+    }
+
+    /**
+     * Values, which are dominated by newer value, can never become value of the frame and
+     * are removed from the end of frame buffer. This keeps buffer monotonic for min and max.
+     *
+     * @param value existing value at the end of frame buffer
+     * @param next  value that is about to be added to the frame
+     * @return true when existing value can be discarded
+     */
+    protected boolean dominates(double value, double next) {
+        return false;
+    }
+
+    @Override
+    protected void freeState(MapValue state) {
+        AnalyticRingBuffer.free(state, ringIndex);
+    }
+
+    protected double getFirstFrameValue(MapValue state) {
+        return AnalyticRingBuffer.size(state, ringIndex) > 0 ? AnalyticRingBuffer.getValue(state, ringIndex, 0) : Double.NaN;
+    }
+
+    protected abstract double getValue(MapValue state);
+
+    @Override
+    protected void initState(MapValue state) {
+        initValues(state);
+        state.putLong(rowIndex, 0);
+        AnalyticRingBuffer.init(state, ringIndex);
+    }
+
+    protected abstract void initValues(MapValue state);
+
+    protected boolean isFramed() {
+        return framing == FRAME_ROWS || framing == FRAME_RANGE;
+    }
+
+    protected abstract void onAdd(MapValue state, double value);
+
+    protected void onRemove(MapValue state, double value) {
+    }
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Analytic function of double argument, which keeps its state per partition. When there is no
+ * "partition by" clause the state is a single value rather than a map.
+ */
+abstract class AbstractDoubleAnalyticFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Closeable {
+    protected final Function arg;
+    @Nullable
+    private final Map map;
+    @Nullable
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final SimpleMapValue simpleValue;
+    private boolean simpleValueNew = true;
+    private int columnIndex;
+    private double value;
+
+    AbstractDoubleAnalyticFunction(
+            int position,
+            Function arg,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            ColumnTypes stateTypes
+    ) {
+        super(position);
+        this.arg = arg;
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), stateTypes);
+            this.partitionBySink = analyticContext.getPartitionBySink();
+            this.simpleValue = null;
+        } else {
+            this.map = null;
+            this.partitionBySink = null;
+            this.simpleValue = new SimpleMapValue(stateTypes.getColumnCount());
+        }
+    }
+
+    @Override
+    public void close() {
+        freeStates();
+        Misc.free(map);
+        Misc.free(arg);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        value = computeNext(findState(record), record);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return value;
+    }
+
+    @Override
+    public int getPassCount() {
+        return STREAM;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        arg.init(symbolTableSource, executionContext);
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        computeNext(record);
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reset() {
+        freeStates();
+        if (map != null) {
+            map.clear();
+        }
+        simpleValueNew = true;
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public boolean supportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toTop() {
+        reset();
+    }
+
+    protected abstract double computeNext(MapValue state, Record record);
+
+    protected MapValue findState(Record record) {
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            final MapValue state = key.createValue();
+            if (state.isNew()) {
+                initState(state);
+            }
+            return state;
+        }
+
+        if (simpleValueNew) {
+            initState(simpleValue);
+            simpleValueNew = false;
+        }
+        return simpleValue;
+    }
+
+    protected void freeState(MapValue state) {
+    }
+
+    protected int getColumnIndex() {
+        return columnIndex;
+    }
+
+    protected abstract void initState(MapValue state);
+
+    private void freeStates() {
+        if (map != null) {
+            final RecordCursor cursor = map.getCursor();
+            final MapRecord record = (MapRecord) cursor.getRecord();
+            while (cursor.hasNext()) {
+                freeState(record.getValue());
+            }
+        } else if (!simpleValueNew) {
+            freeState(simpleValue);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.std.Unsafe;
+
+/**
+ * Ring buffer of (position, value) entries that analytic functions keep for each partition.
+ * Buffer is native memory, its address, capacity, head and size are stored in four consecutive
+ * long columns of the partition map value, starting at the given index. Position is either row
+ * number within partition or timestamp, depending on the frame type. Buffer grows when it is full,
+ * which keeps its memory bounded by the frame size.
+ */
+final class AnalyticRingBuffer {
+    static final int VALUE_COUNT = 4;
+    private static final int ENTRY_SIZE = 16;
+    private static final long MIN_CAPACITY = 16;
+
+    private AnalyticRingBuffer() {
+    }
+
+    static void addLast(MapValue state, int index, long position, double value) {
+        long address = state.getLong(index);
+        long capacity = state.getLong(index + 1);
+        final long head = state.getLong(index + 2);
+        final long size = state.getLong(index + 3);
+        if (size == capacity) {
+            if (capacity == 0) {
+                capacity = MIN_CAPACITY;
+                address = Unsafe.malloc(capacity * ENTRY_SIZE);
+            } else {
+                address = Unsafe.realloc(address, capacity * ENTRY_SIZE, capacity * 2 * ENTRY_SIZE);
+                // entries that wrapped around the end of old buffer have to move past its old end
+                if (head > 0) {
+                    Unsafe.getUnsafe().copyMemory(address, address + capacity * ENTRY_SIZE, head * ENTRY_SIZE);
+                }
+                capacity *= 2;
+            }
+            state.putLong(index, address);
+            state.putLong(index + 1, capacity);
+        }
+        final long p = address + ((head + size) % capacity) * ENTRY_SIZE;
+        Unsafe.getUnsafe().putLong(p, position);
+        Unsafe.getUnsafe().putDouble(p + 8, value);
+        state.putLong(index + 3, size + 1);
+    }
+
+    static void addValueTypes(ArrayColumnTypes types) {
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            types.add(ColumnType.LONG);
+        }
+    }
+
+    static void free(MapValue state, int index) {
+        final long address = state.getLong(index);
+        if (address != 0) {
+            Unsafe.free(address, state.getLong(index + 1) * ENTRY_SIZE);
+        }
+        init(state, index);
+    }
+
+    static long getPosition(MapValue state, int index, long i) {
+        return Unsafe.getUnsafe().getLong(entryAddress(state, index, i));
+    }
+
+    static double getValue(MapValue state, int index, long i) {
+        return Unsafe.getUnsafe().getDouble(entryAddress(state, index, i) + 8);
+    }
+
+    static void init(MapValue state, int index) {
+        state.putLong(index, 0);
+        state.putLong(index + 1, 0);
+        state.putLong(index + 2, 0);
+        state.putLong(index + 3, 0);
+    }
+
+    static void removeFirst(MapValue state, int index) {
+        state.putLong(index + 2, (state.getLong(index + 2) + 1) % state.getLong(index + 1));
+        state.putLong(index + 3, state.getLong(index + 3) - 1);
+    }
+
+    static void removeLast(MapValue state, int index) {
+        state.putLong(index + 3, state.getLong(index + 3) - 1);
+    }
+
+    static long size(MapValue state, int index) {
+        return state.getLong(index + 3);
+    }
+
+    private static long entryAddress(MapValue state, int index, long i) {
+        return state.getLong(index) + ((state.getLong(index + 2) + i) % state.getLong(index + 1)) * ENTRY_SIZE;
+    }
+}
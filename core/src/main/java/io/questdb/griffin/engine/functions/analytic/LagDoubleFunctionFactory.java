@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.ObjList;
+
+public class LagDoubleFunctionFactory implements FunctionFactory {
+
+    static Function newInstance(
+            int position,
+            Function arg,
+            int offset,
+            int offsetPosition,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext
+    ) throws SqlException {
+        if (offset < 0) {
+            throw SqlException.$(offsetPosition, "offset must be non-negative");
+        }
+        return new LagDoubleFunction(position, arg, offset, configuration, analyticContext);
+    }
+
+    @Override
+    public String getSignature() {
+        return "lag(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return newInstance(position, args.getQuick(0), 1, position, configuration, sqlExecutionContext.getAnalyticContext());
+    }
+
+    private static class LagDoubleFunction extends AbstractDoubleAnalyticFunction {
+        private final int offset;
+
+        public LagDoubleFunction(int position, Function arg, int offset, CairoConfiguration configuration, AnalyticContext analyticContext) {
+            // partition keeps values of "offset" preceding rows
+            super(position, arg, configuration, analyticContext, newStateTypes());
+            this.offset = offset;
+        }
+
+        private static ArrayColumnTypes newStateTypes() {
+            final ArrayColumnTypes types = new ArrayColumnTypes();
+            AnalyticRingBuffer.addValueTypes(types);
+            return types;
+        }
+
+        @Override
+        protected double computeNext(MapValue state, Record record) {
+            final double value = arg.getDouble(record);
+            if (offset == 0) {
+                return value;
+            }
+            final long size = AnalyticRingBuffer.size(state, 0);
+            final double result;
+            if (size == offset) {
+                result = AnalyticRingBuffer.getValue(state, 0, 0);
+                AnalyticRingBuffer.removeFirst(state, 0);
+            } else {
+                result = Double.NaN;
+            }
+            AnalyticRingBuffer.addLast(state, 0, 0, value);
+            return result;
+        }
+
+        @Override
+        protected void freeState(MapValue state) {
+            AnalyticRingBuffer.free(state, 0);
+        }
+
+        @Override
+        protected void initState(MapValue state) {
+            AnalyticRingBuffer.init(state, 0);
+        }
+    }
+}
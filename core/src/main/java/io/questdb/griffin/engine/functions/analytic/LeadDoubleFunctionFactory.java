@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class LeadDoubleFunctionFactory implements FunctionFactory {
+
+    static Function newInstance(
+            int position,
+            Function arg,
+            int offset,
+            int offsetPosition,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext
+    ) throws SqlException {
+        if (offset < 0) {
+            throw SqlException.$(offsetPosition, "offset must be non-negative");
+        }
+        return new LeadDoubleFunction(position, arg, offset, configuration, analyticContext);
+    }
+
+    @Override
+    public String getSignature() {
+        return "lead(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return newInstance(position, args.getQuick(0), 1, position, configuration, sqlExecutionContext.getAnalyticContext());
+    }
+
+    /**
+     * Value of lead() is not known until "offset" rows of the partition follow current row, which
+     * is why this function cannot stream. Instead, pass1 writes the value of current row into
+     * the row "offset" rows back, partition keeps record offsets of these pending rows.
+     */
+    private static class LeadDoubleFunction extends AbstractDoubleAnalyticFunction {
+        private final int offset;
+
+        public LeadDoubleFunction(int position, Function arg, int offset, CairoConfiguration configuration, AnalyticContext analyticContext) {
+            super(position, arg, configuration, analyticContext, newStateTypes());
+            this.offset = offset;
+        }
+
+        private static ArrayColumnTypes newStateTypes() {
+            final ArrayColumnTypes types = new ArrayColumnTypes();
+            AnalyticRingBuffer.addValueTypes(types);
+            return types;
+        }
+
+        @Override
+        public int getPassCount() {
+            return TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            final double value = arg.getDouble(record);
+            final int columnIndex = getColumnIndex();
+            if (offset == 0) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+                return;
+            }
+
+            final MapValue state = findState(record);
+            // stays null unless there are enough rows after this one
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), Double.NaN);
+            if (AnalyticRingBuffer.size(state, 0) == offset) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(AnalyticRingBuffer.getPosition(state, 0, 0), columnIndex), value);
+                AnalyticRingBuffer.removeFirst(state, 0);
+            }
+            AnalyticRingBuffer.addLast(state, 0, recordOffset, 0);
+        }
+
+        @Override
+        protected double computeNext(MapValue state, Record record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void freeState(MapValue state) {
+            AnalyticRingBuffer.free(state, 0);
+        }
+
+        @Override
+        protected void initState(MapValue state) {
+            AnalyticRingBuffer.init(state, 0);
+        }
+    }
+}
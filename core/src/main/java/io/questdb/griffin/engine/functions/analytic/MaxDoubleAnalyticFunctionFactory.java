@@ -0,0 +1,86 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.ObjList;
+
+public class MaxDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "max(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return new MaxDoubleAnalyticFunction(position, args.getQuick(0), configuration, sqlExecutionContext.getAnalyticContext());
+    }
+
+    private static class MaxDoubleAnalyticFunction extends AbstractAggregateDoubleAnalyticFunction {
+
+        public MaxDoubleAnalyticFunction(int position, Function arg, CairoConfiguration configuration, AnalyticContext analyticContext) throws SqlException {
+            // max of all values, which is used when frame is not bounded
+            super(position, arg, configuration, analyticContext, new ArrayColumnTypes().add(ColumnType.DOUBLE));
+        }
+
+        @Override
+        protected boolean dominates(double value, double next) {
+            return value <= next;
+        }
+
+        @Override
+        protected double getValue(MapValue state) {
+            // frame buffer is monotonic, its first value is max of the frame
+            return isFramed() ? getFirstFrameValue(state) : state.getDouble(0);
+        }
+
+        @Override
+        protected void initValues(MapValue state) {
+            state.putDouble(0, Double.NaN);
+        }
+
+        @Override
+        protected void onAdd(MapValue state, double value) {
+            final double max = state.getDouble(0);
+            if (Double.isNaN(max) || value > max) {
+                state.putDouble(0, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.ObjList;
+
+public class SumDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "sum(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return new SumDoubleAnalyticFunction(position, args.getQuick(0), configuration, sqlExecutionContext.getAnalyticContext());
+    }
+
+    private static class SumDoubleAnalyticFunction extends AbstractAggregateDoubleAnalyticFunction {
+
+        public SumDoubleAnalyticFunction(int position, Function arg, CairoConfiguration configuration, AnalyticContext analyticContext) throws SqlException {
+            // sum and count of values in the frame
+            super(position, arg, configuration, analyticContext, new ArrayColumnTypes().add(ColumnType.DOUBLE).add(ColumnType.LONG));
+        }
+
+        @Override
+        protected double getValue(MapValue state) {
+            final long count = state.getLong(1);
+            return count == 0 ? Double.NaN : state.getDouble(0);
+        }
+
+        @Override
+        protected void initValues(MapValue state) {
+            state.putDouble(0, 0);
+            state.putLong(1, 0);
+        }
+
+        @Override
+        protected void onAdd(MapValue state, double value) {
+            state.addDouble(0, value);
+            state.addLong(1, 1);
+        }
+
+        @Override
+        protected void onRemove(MapValue state, double value) {
+            state.addDouble(0, -value);
+            state.addLong(1, -1);
+        }
+    }
+}
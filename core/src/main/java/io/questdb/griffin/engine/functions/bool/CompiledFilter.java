@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+/**
+ * Base class for filters generated by {@link FilterCompiler}. Generated class implements
+ * {@link #getBool(io.questdb.cairo.sql.Record)} and calls static methods of this class for
+ * arithmetic and comparisons. Static methods replicate semantics of respective function
+ * factories, including handling of nulls.
+ * <p>
+ * Parts of the filter that could not be compiled are evaluated by original functions, which
+ * generated code accesses via {@link #functions} array.
+ */
+public abstract class CompiledFilter extends BooleanFunction {
+    protected Function[] functions;
+    private Function filter;
+
+    public CompiledFilter() {
+        super(0);
+    }
+
+    public static double addDouble(double l, double r) {
+        return l + r;
+    }
+
+    public static int addInt(int l, int r) {
+        if (l == Numbers.INT_NaN || r == Numbers.INT_NaN) {
+            return Numbers.INT_NaN;
+        }
+        return l + r;
+    }
+
+    public static long addLong(long l, long r) {
+        if (l == Numbers.LONG_NaN || r == Numbers.LONG_NaN) {
+            return Numbers.LONG_NaN;
+        }
+        return l + r;
+    }
+
+    public static boolean eqDouble(double l, double r) {
+        return l != l && r != r || Math.abs(l - r) < 0.0000000001;
+    }
+
+    public static boolean eqInt(int l, int r) {
+        return l == r;
+    }
+
+    public static boolean eqLong(long l, long r) {
+        return l == r;
+    }
+
+    public static boolean geDouble(double l, double r) {
+        return l >= r;
+    }
+
+    public static boolean ltDouble(double l, double r) {
+        return l < r;
+    }
+
+    public static double mulDouble(double l, double r) {
+        return l * r;
+    }
+
+    public static int mulInt(int l, int r) {
+        return l * r;
+    }
+
+    public static long mulLong(long l, long r) {
+        return l * r;
+    }
+
+    public static double subDouble(double l, double r) {
+        return l - r;
+    }
+
+    public static int subInt(int l, int r) {
+        if (l == Numbers.INT_NaN || r == Numbers.INT_NaN) {
+            return Numbers.INT_NaN;
+        }
+        return l - r;
+    }
+
+    public static long subLong(long l, long r) {
+        if (l == Numbers.LONG_NaN || r == Numbers.LONG_NaN) {
+            return Numbers.LONG_NaN;
+        }
+        return l - r;
+    }
+
+    @Override
+    public void close() {
+        // cursors close their filter while the factory still owns it, keep the tree reachable
+        filter.close();
+    }
+
+    @Override
+    public int getPosition() {
+        return filter.getPosition();
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        filter.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void toTop() {
+        filter.toTop();
+    }
+
+    void of(Function filter, ObjList<Function> functions) {
+        this.filter = filter;
+        this.functions = new Function[functions.size()];
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            this.functions[i] = functions.getQuick(i);
+        }
+    }
+}
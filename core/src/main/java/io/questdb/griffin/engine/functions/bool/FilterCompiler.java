@@ -0,0 +1,726 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.eq.EqDoubleFunctionFactory;
+import io.questdb.griffin.engine.functions.eq.EqIntFunctionFactory;
+import io.questdb.griffin.engine.functions.eq.EqLongFunctionFactory;
+import io.questdb.griffin.engine.functions.lt.LtDoubleVVFunctionFactory;
+import io.questdb.griffin.engine.functions.math.*;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.ex.BytecodeException;
+
+/**
+ * Compiles filter function tree into bytecode of single {@link CompiledFilter} method. Logical
+ * operators, comparisons and arithmetic on fixed-width values are translated into branches and
+ * static calls. Columns are read from the record directly by their index. Sub-trees that cannot
+ * be compiled are evaluated by original functions.
+ * <p>
+ * Compilation is a two-step process. First we walk expression and function trees in parallel,
+ * add constants and method references to the pool and record intermediate representation of
+ * the filter in prefix order. Once the pool is complete, method code is generated from the
+ * intermediate representation.
+ */
+public class FilterCompiler {
+    private static final Log LOG = LogFactory.getLog(FilterCompiler.class);
+    // jump offsets in generated code are 16-bit, leave large filters to interpreter
+    private static final int MAX_IR_SIZE = 4096;
+
+    private static final int OP_AND = 1;
+    private static final int OP_OR = 2;
+    private static final int OP_NOT = 3;
+    private static final int OP_EQ_INT = 4;
+    private static final int OP_EQ_LONG = 5;
+    private static final int OP_EQ_DOUBLE = 6;
+    private static final int OP_NE_INT = 7;
+    private static final int OP_NE_LONG = 8;
+    private static final int OP_NE_DOUBLE = 9;
+    private static final int OP_LT_DOUBLE = 10;
+    private static final int OP_GE_DOUBLE = 11;
+    private static final int OP_ADD_INT = 12;
+    private static final int OP_ADD_LONG = 13;
+    private static final int OP_ADD_DOUBLE = 14;
+    private static final int OP_SUB_INT = 15;
+    private static final int OP_SUB_LONG = 16;
+    private static final int OP_SUB_DOUBLE = 17;
+    private static final int OP_MUL_INT = 18;
+    private static final int OP_MUL_LONG = 19;
+    private static final int OP_MUL_DOUBLE = 20;
+
+    // intermediate representation
+    private static final int IR_AND = 1;
+    private static final int IR_OR = 2;
+    private static final int IR_NOT = 3;
+    // IR_CALL, method index, arg count, args...
+    private static final int IR_CALL = 4;
+    // IR_COLUMN, record getter index, column index
+    private static final int IR_COLUMN = 5;
+    // IR_FUNCTION, function getter index, index in functions array
+    private static final int IR_FUNCTION = 6;
+    private static final int IR_ICONST = 7;
+    private static final int IR_LDC2 = 8;
+    private static final int IR_LDC2_L2I = 9;
+    private static final int IR_I2L = 10;
+    private static final int IR_I2D = 11;
+    private static final int IR_F2D = 12;
+
+    private static final ObjIntHashMap<Class<?>> factoryOps = new ObjIntHashMap<>();
+
+    private final BytecodeAssembler asm;
+    private final IntList ir = new IntList();
+    private final ObjList<Function> functions = new ObjList<>();
+    private final CharSequenceIntHashMap methodMap = new CharSequenceIntHashMap();
+    private final ObjList<IntList> branchLists = new ObjList<>();
+    private final IntList frameOffsets = new IntList();
+    private RecordMetadata metadata;
+    private int recordClassIndex;
+    private int functionClassIndex;
+    private int filterClassIndex;
+    private int numbersClassIndex;
+    private int functionsFieldIndex;
+
+    public FilterCompiler(BytecodeAssembler asm) {
+        this.asm = asm;
+    }
+
+    /**
+     * Compiles filter function. Filter is returned as is when its top level operation is not
+     * supported by compiler.
+     *
+     * @param node     filter expression, filter function has been created from
+     * @param filter   boolean filter function, ownership passes to compiled filter
+     * @param metadata metadata of records filter is applied to
+     * @return compiled filter or original function
+     */
+    public Function compile(ExpressionNode node, Function filter, RecordMetadata metadata) {
+        switch (getOp(node, filter)) {
+            case OP_AND:
+            case OP_OR:
+            case OP_NOT:
+            case OP_EQ_INT:
+            case OP_EQ_LONG:
+            case OP_EQ_DOUBLE:
+            case OP_NE_INT:
+            case OP_NE_LONG:
+            case OP_NE_DOUBLE:
+            case OP_LT_DOUBLE:
+            case OP_GE_DOUBLE:
+                break;
+            default:
+                return filter;
+        }
+
+        this.metadata = metadata;
+        ir.clear();
+        functions.clear();
+        methodMap.clear();
+        try {
+            asm.init(CompiledFilter.class);
+            asm.setupPool();
+            final int stackMapTableIndex = asm.poolUtf8("StackMapTable");
+            final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/griffin/engine/functions/bool/filter"));
+            filterClassIndex = asm.poolClass(CompiledFilter.class);
+            recordClassIndex = asm.poolClass(Record.class);
+            functionClassIndex = asm.poolClass(Function.class);
+            numbersClassIndex = asm.poolClass(Numbers.class);
+            final int superConstructorIndex = asm.poolMethod(filterClassIndex, "<init>", "()V");
+            // field is referenced via generated class, verifier cannot load it by name
+            // to check that it is a subclass of the class declaring the field
+            functionsFieldIndex = asm.poolField(
+                    thisClassIndex,
+                    asm.poolNameAndType(asm.poolUtf8("functions"), asm.poolUtf8("[Lio/questdb/cairo/sql/Function;"))
+            );
+            final int getBoolNameIndex = asm.poolUtf8("getBool");
+            final int getBoolDescIndex = asm.poolUtf8("(Lio/questdb/cairo/sql/Record;)Z");
+            final int maxStack = analyseCondition(node, filter);
+            if (ir.size() > MAX_IR_SIZE) {
+                return filter;
+            }
+
+            asm.finishPool();
+            asm.defineClass(thisClassIndex, filterClassIndex);
+            // interfaces
+            asm.interfaceCount(0);
+            // fields
+            asm.fieldCount(0);
+            asm.methodCount(2);
+            asm.defineDefaultConstructor(superConstructorIndex);
+            instrumentGetBoolMethod(stackMapTableIndex, getBoolNameIndex, getBoolDescIndex, maxStack);
+            // class attribute count
+            asm.putShort(0);
+
+            final CompiledFilter compiledFilter = asm.newInstance();
+            compiledFilter.of(filter, functions);
+            return compiledFilter;
+        } catch (BytecodeException e) {
+            LOG.error().$("could not compile filter, it will be interpreted").$();
+            return filter;
+        } finally {
+            functions.clear();
+            this.metadata = null;
+        }
+    }
+
+    private static boolean isBinary(ExpressionNode node, Function function) {
+        return node.paramCount == 2 && function instanceof BinaryFunction;
+    }
+
+    private static boolean isConvertible(int fromType, int toType) {
+        // these are conversions functions of fixed-width types perform in their getters
+        switch (toType) {
+            case ColumnType.BOOLEAN:
+                return fromType == ColumnType.BOOLEAN;
+            case ColumnType.INT:
+                return fromType == ColumnType.BYTE || fromType == ColumnType.SHORT || fromType == ColumnType.INT;
+            case ColumnType.LONG:
+                switch (fromType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                    case ColumnType.INT:
+                    case ColumnType.LONG:
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                        return true;
+                    default:
+                        return false;
+                }
+            case ColumnType.DOUBLE:
+                switch (fromType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                    case ColumnType.INT:
+                    case ColumnType.LONG:
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                    case ColumnType.FLOAT:
+                    case ColumnType.DOUBLE:
+                        return true;
+                    default:
+                        return false;
+                }
+            default:
+                return false;
+        }
+    }
+
+    // comparison functions are created with swapped arguments for '>' and '<='
+    private static ExpressionNode leftNode(ExpressionNode node) {
+        return isFlipped(node) ? node.rhs : node.lhs;
+    }
+
+    private static boolean isFlipped(ExpressionNode node) {
+        return Chars.equals(node.token, '>') || Chars.equals(node.token, "<=");
+    }
+
+    private static ExpressionNode rightNode(ExpressionNode node) {
+        return isFlipped(node) ? node.lhs : node.rhs;
+    }
+
+    private static int widthOf(int type) {
+        switch (type) {
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private static int getOp(ExpressionNode node, Function function) {
+        final Class<?> factoryClass = function.getClass().getEnclosingClass();
+        if (factoryClass == null) {
+            return -1;
+        }
+        final int op = factoryOps.get(factoryClass);
+        switch (op) {
+            case OP_AND:
+            case OP_OR:
+                return isBinary(node, function) ? op : -1;
+            case OP_NOT:
+                return node.paramCount == 1 && function instanceof UnaryFunction ? op : -1;
+            case OP_EQ_INT:
+            case OP_EQ_LONG:
+            case OP_EQ_DOUBLE:
+                if (isBinary(node, function)) {
+                    if (Chars.equals(node.token, '=')) {
+                        return op;
+                    }
+                    if (Chars.equals(node.token, "!=") || Chars.equals(node.token, "<>")) {
+                        return op - OP_EQ_INT + OP_NE_INT;
+                    }
+                }
+                return -1;
+            case OP_LT_DOUBLE:
+                if (isBinary(node, function)) {
+                    if (Chars.equals(node.token, '<') || Chars.equals(node.token, '>')) {
+                        return OP_LT_DOUBLE;
+                    }
+                    if (Chars.equals(node.token, ">=") || Chars.equals(node.token, "<=")) {
+                        return OP_GE_DOUBLE;
+                    }
+                }
+                return -1;
+            case OP_ADD_INT:
+            case OP_ADD_LONG:
+            case OP_ADD_DOUBLE:
+                return isBinary(node, function) && Chars.equals(node.token, '+') ? op : -1;
+            case OP_SUB_INT:
+            case OP_SUB_LONG:
+            case OP_SUB_DOUBLE:
+                return isBinary(node, function) && Chars.equals(node.token, '-') ? op : -1;
+            case OP_MUL_INT:
+            case OP_MUL_LONG:
+            case OP_MUL_DOUBLE:
+                return isBinary(node, function) && Chars.equals(node.token, '*') ? op : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private int analyseBinary(
+            ExpressionNode node,
+            Function function,
+            int type,
+            int opType,
+            int argType,
+            String methodName,
+            String methodDesc
+    ) {
+        final BinaryFunction binaryFunction = (BinaryFunction) function;
+        analyseConversion(opType, type);
+        ir.add(IR_CALL);
+        ir.add(poolMethod(filterClassIndex, methodName, methodDesc));
+        ir.add(2);
+        final int leftStack = analyseValue(leftNode(node), binaryFunction.getLeft(), argType);
+        final int rightStack = analyseValue(rightNode(node), binaryFunction.getRight(), argType);
+        final int argWidth = widthOf(argType);
+        return Math.max(Math.max(leftStack, argWidth + rightStack), Math.max(2 * argWidth, widthOf(type)));
+    }
+
+    private int analyseCondition(ExpressionNode node, Function function) {
+        switch (getOp(node, function)) {
+            case OP_AND:
+                ir.add(IR_AND);
+                return analyseConditions(node, (BinaryFunction) function);
+            case OP_OR:
+                ir.add(IR_OR);
+                return analyseConditions(node, (BinaryFunction) function);
+            case OP_NOT:
+                ir.add(IR_NOT);
+                return analyseCondition(node.rhs, ((UnaryFunction) function).getArg());
+            case OP_NE_INT:
+                ir.add(IR_NOT);
+                return analyseBinary(node, function, ColumnType.BOOLEAN, ColumnType.BOOLEAN, ColumnType.INT, "eqInt", "(II)Z");
+            case OP_NE_LONG:
+                ir.add(IR_NOT);
+                return analyseBinary(node, function, ColumnType.BOOLEAN, ColumnType.BOOLEAN, ColumnType.LONG, "eqLong", "(JJ)Z");
+            case OP_NE_DOUBLE:
+                ir.add(IR_NOT);
+                return analyseBinary(node, function, ColumnType.BOOLEAN, ColumnType.BOOLEAN, ColumnType.DOUBLE, "eqDouble", "(DD)Z");
+            default:
+                return analyseValue(node, function, ColumnType.BOOLEAN);
+        }
+    }
+
+    private int analyseConditions(ExpressionNode node, BinaryFunction function) {
+        return Math.max(
+                analyseCondition(node.lhs, function.getLeft()),
+                analyseCondition(node.rhs, function.getRight())
+        );
+    }
+
+    private int analyseConstant(Function function, int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                ir.add(IR_ICONST);
+                ir.add(function.getBool(null) ? 1 : 0);
+                return 1;
+            case ColumnType.INT:
+                final int value = function.getInt(null);
+                if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                    ir.add(IR_ICONST);
+                    ir.add(value);
+                } else {
+                    ir.add(IR_LDC2_L2I);
+                    ir.add(asm.poolLongConst(value));
+                }
+                return 2;
+            case ColumnType.LONG:
+                ir.add(IR_LDC2);
+                ir.add(asm.poolLongConst(function.getLong(null)));
+                return 2;
+            default:
+                ir.add(IR_LDC2);
+                ir.add(asm.poolDoubleConst(function.getDouble(null)));
+                return 2;
+        }
+    }
+
+    private void analyseConversion(int fromType, int toType) {
+        switch (toType) {
+            case ColumnType.LONG:
+                switch (fromType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                        ir.add(IR_I2L);
+                        break;
+                    case ColumnType.INT:
+                        ir.add(IR_CALL);
+                        ir.add(poolMethod(numbersClassIndex, "intToLong", "(I)J"));
+                        ir.add(1);
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            case ColumnType.DOUBLE:
+                switch (fromType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                        ir.add(IR_I2D);
+                        break;
+                    case ColumnType.INT:
+                        ir.add(IR_CALL);
+                        ir.add(poolMethod(numbersClassIndex, "intToDouble", "(I)D"));
+                        ir.add(1);
+                        break;
+                    case ColumnType.LONG:
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                        ir.add(IR_CALL);
+                        ir.add(poolMethod(numbersClassIndex, "longToDouble", "(J)D"));
+                        ir.add(1);
+                        break;
+                    case ColumnType.FLOAT:
+                        ir.add(IR_F2D);
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private int analyseValue(ExpressionNode node, Function function, int type) {
+        final int functionType = function.getType();
+        if (isConvertible(functionType, type)) {
+            if (function.isConstant()) {
+                return analyseConstant(function, type);
+            }
+
+            if (node.type == ExpressionNode.LITERAL) {
+                final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+                if (columnIndex > -1 && metadata.getColumnType(columnIndex) == functionType) {
+                    analyseConversion(functionType, type);
+                    ir.add(IR_COLUMN);
+                    ir.add(poolRecordGetter(functionType));
+                    ir.add(columnIndex);
+                    return 2;
+                }
+            }
+
+            switch (getOp(node, function)) {
+                case OP_EQ_INT:
+                    return analyseBinary(node, function, type, ColumnType.BOOLEAN, ColumnType.INT, "eqInt", "(II)Z");
+                case OP_EQ_LONG:
+                    return analyseBinary(node, function, type, ColumnType.BOOLEAN, ColumnType.LONG, "eqLong", "(JJ)Z");
+                case OP_EQ_DOUBLE:
+                    return analyseBinary(node, function, type, ColumnType.BOOLEAN, ColumnType.DOUBLE, "eqDouble", "(DD)Z");
+                case OP_LT_DOUBLE:
+                    return analyseBinary(node, function, type, ColumnType.BOOLEAN, ColumnType.DOUBLE, "ltDouble", "(DD)Z");
+                case OP_GE_DOUBLE:
+                    return analyseBinary(node, function, type, ColumnType.BOOLEAN, ColumnType.DOUBLE, "geDouble", "(DD)Z");
+                case OP_ADD_INT:
+                    return analyseBinary(node, function, type, ColumnType.INT, ColumnType.INT, "addInt", "(II)I");
+                case OP_ADD_LONG:
+                    return analyseBinary(node, function, type, ColumnType.LONG, ColumnType.LONG, "addLong", "(JJ)J");
+                case OP_ADD_DOUBLE:
+                    return analyseBinary(node, function, type, ColumnType.DOUBLE, ColumnType.DOUBLE, "addDouble", "(DD)D");
+                case OP_SUB_INT:
+                    return analyseBinary(node, function, type, ColumnType.INT, ColumnType.INT, "subInt", "(II)I");
+                case OP_SUB_LONG:
+                    return analyseBinary(node, function, type, ColumnType.LONG, ColumnType.LONG, "subLong", "(JJ)J");
+                case OP_SUB_DOUBLE:
+                    return analyseBinary(node, function, type, ColumnType.DOUBLE, ColumnType.DOUBLE, "subDouble", "(DD)D");
+                case OP_MUL_INT:
+                    return analyseBinary(node, function, type, ColumnType.INT, ColumnType.INT, "mulInt", "(II)I");
+                case OP_MUL_LONG:
+                    return analyseBinary(node, function, type, ColumnType.LONG, ColumnType.LONG, "mulLong", "(JJ)J");
+                case OP_MUL_DOUBLE:
+                    return analyseBinary(node, function, type, ColumnType.DOUBLE, ColumnType.DOUBLE, "mulDouble", "(DD)D");
+                default:
+                    break;
+            }
+        }
+
+        // evaluate sub-tree by its function
+        ir.add(IR_FUNCTION);
+        ir.add(poolFunctionGetter(type));
+        ir.add(functions.size());
+        functions.add(function);
+        return 2;
+    }
+
+    private IntList branchList(int depth) {
+        while (branchLists.size() <= depth) {
+            branchLists.add(new IntList());
+        }
+        final IntList branches = branchLists.getQuick(depth);
+        branches.clear();
+        return branches;
+    }
+
+    /*
+     * Generates code that jumps when condition at "pc" evaluates to "jumpIf" and falls through otherwise.
+     * Operand stack is empty at every branch target, so that all stack map frames are the same as
+     * method entry frame.
+     */
+    private int emitCondition(int pc, boolean jumpIf, IntList branches, int depth) {
+        final IntList localBranches;
+        switch (ir.getQuick(pc)) {
+            case IR_AND:
+                if (!jumpIf) {
+                    pc = emitCondition(pc + 1, false, branches, depth);
+                    return emitCondition(pc, false, branches, depth);
+                }
+                localBranches = branchList(depth);
+                pc = emitCondition(pc + 1, false, localBranches, depth + 1);
+                pc = emitCondition(pc, true, branches, depth + 1);
+                setJumps(localBranches);
+                return pc;
+            case IR_OR:
+                if (jumpIf) {
+                    pc = emitCondition(pc + 1, true, branches, depth);
+                    return emitCondition(pc, true, branches, depth);
+                }
+                localBranches = branchList(depth);
+                pc = emitCondition(pc + 1, true, localBranches, depth + 1);
+                pc = emitCondition(pc, false, branches, depth + 1);
+                setJumps(localBranches);
+                return pc;
+            case IR_NOT:
+                return emitCondition(pc + 1, !jumpIf, branches, depth);
+            default:
+                pc = emitValue(pc);
+                branches.add(jumpIf ? asm.ifne() : asm.ifeq());
+                return pc;
+        }
+    }
+
+    private int emitValue(int pc) {
+        switch (ir.getQuick(pc)) {
+            case IR_CALL:
+                final int methodIndex = ir.getQuick(pc + 1);
+                final int argCount = ir.getQuick(pc + 2);
+                pc += 3;
+                for (int i = 0; i < argCount; i++) {
+                    pc = emitValue(pc);
+                }
+                asm.invokeStatic(methodIndex);
+                return pc;
+            case IR_COLUMN:
+                asm.aload(1);
+                asm.iconst(ir.getQuick(pc + 2));
+                asm.invokeInterface(ir.getQuick(pc + 1), 1);
+                return pc + 3;
+            case IR_FUNCTION:
+                asm.aload(0);
+                asm.getfield(functionsFieldIndex);
+                asm.iconst(ir.getQuick(pc + 2));
+                asm.aaload();
+                asm.aload(1);
+                asm.invokeInterface(ir.getQuick(pc + 1), 1);
+                return pc + 3;
+            case IR_ICONST:
+                asm.iconst(ir.getQuick(pc + 1));
+                return pc + 2;
+            case IR_LDC2:
+                asm.ldc2_w(ir.getQuick(pc + 1));
+                return pc + 2;
+            case IR_LDC2_L2I:
+                asm.ldc2_w(ir.getQuick(pc + 1));
+                asm.l2i();
+                return pc + 2;
+            case IR_I2L:
+                pc = emitValue(pc + 1);
+                asm.i2l();
+                return pc;
+            case IR_I2D:
+                pc = emitValue(pc + 1);
+                asm.i2d();
+                return pc;
+            case IR_F2D:
+                pc = emitValue(pc + 1);
+                asm.f2d();
+                return pc;
+            default:
+                throw new AssertionError("unexpected instruction: " + ir.getQuick(pc));
+        }
+    }
+
+    /*
+     * getBool(Record)
+     *
+     * Method evaluates condition with jumps to "false" label when condition is not met
+     * and falls through to "true" otherwise:
+     *
+     * <condition code>
+     * iconst_1
+     * ireturn
+     * false:
+     * iconst_0
+     * ireturn
+     */
+    private void instrumentGetBoolMethod(int stackMapTableIndex, int nameIndex, int descIndex, int maxStack) {
+        frameOffsets.clear();
+        asm.startMethod(nameIndex, descIndex, maxStack, 2);
+        final IntList falseBranches = branchList(0);
+        emitCondition(0, false, falseBranches, 1);
+        asm.iconst(1);
+        asm.ireturn();
+        setJumps(falseBranches);
+        asm.iconst(0);
+        asm.ireturn();
+        asm.endMethodCode();
+
+        // exceptions
+        asm.putShort(0);
+        // attributes: 1 - StackMapTable
+        asm.putShort(1);
+        // all branch targets have the same frame as method entry; targets
+        // were recorded in order of code generation, remove duplicates
+        int frameCount = 0;
+        for (int i = 0, n = frameOffsets.size(); i < n; i++) {
+            if (i == 0 || frameOffsets.getQuick(i) != frameOffsets.getQuick(i - 1)) {
+                frameOffsets.setQuick(frameCount++, frameOffsets.getQuick(i));
+            }
+        }
+        asm.startStackMapTables(stackMapTableIndex, frameCount);
+        int lastOffset = -1;
+        for (int i = 0; i < frameCount; i++) {
+            final int offset = frameOffsets.getQuick(i);
+            asm.same_frame(offset - lastOffset - 1);
+            lastOffset = offset;
+        }
+        asm.endStackMapTables();
+        asm.endMethod();
+    }
+
+    private int poolFunctionGetter(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                return poolMethod(functionClassIndex, "getBool", "(Lio/questdb/cairo/sql/Record;)Z");
+            case ColumnType.INT:
+                return poolMethod(functionClassIndex, "getInt", "(Lio/questdb/cairo/sql/Record;)I");
+            case ColumnType.LONG:
+                return poolMethod(functionClassIndex, "getLong", "(Lio/questdb/cairo/sql/Record;)J");
+            default:
+                return poolMethod(functionClassIndex, "getDouble", "(Lio/questdb/cairo/sql/Record;)D");
+        }
+    }
+
+    private int poolMethod(int classIndex, String name, String desc) {
+        // record and function getters share names, descriptor tells them apart
+        final String key = name + desc;
+        final int keyIndex = methodMap.keyIndex(key);
+        if (keyIndex < 0) {
+            return methodMap.valueAt(keyIndex);
+        }
+        final int index;
+        if (classIndex == recordClassIndex || classIndex == functionClassIndex) {
+            index = asm.poolInterfaceMethod(classIndex, name, desc);
+        } else {
+            index = asm.poolMethod(classIndex, name, desc);
+        }
+        methodMap.putAt(keyIndex, key, index);
+        return index;
+    }
+
+    private int poolRecordGetter(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                return poolMethod(recordClassIndex, "getBool", "(I)Z");
+            case ColumnType.BYTE:
+                return poolMethod(recordClassIndex, "getByte", "(I)B");
+            case ColumnType.SHORT:
+                return poolMethod(recordClassIndex, "getShort", "(I)S");
+            case ColumnType.INT:
+                return poolMethod(recordClassIndex, "getInt", "(I)I");
+            case ColumnType.LONG:
+                return poolMethod(recordClassIndex, "getLong", "(I)J");
+            case ColumnType.DATE:
+                return poolMethod(recordClassIndex, "getDate", "(I)J");
+            case ColumnType.TIMESTAMP:
+                return poolMethod(recordClassIndex, "getTimestamp", "(I)J");
+            case ColumnType.FLOAT:
+                return poolMethod(recordClassIndex, "getFloat", "(I)F");
+            default:
+                return poolMethod(recordClassIndex, "getDouble", "(I)D");
+        }
+    }
+
+    private void setJumps(IntList branches) {
+        final int n = branches.size();
+        if (n > 0) {
+            final int target = asm.position();
+            for (int i = 0; i < n; i++) {
+                asm.setJmp(branches.getQuick(i), target);
+            }
+            frameOffsets.add(target - asm.getCodeStart());
+        }
+    }
+
+    static {
+        factoryOps.put(AndFunctionFactory.class, OP_AND);
+        factoryOps.put(OrFunctionFactory.class, OP_OR);
+        factoryOps.put(NotFunctionFactory.class, OP_NOT);
+        factoryOps.put(EqIntFunctionFactory.class, OP_EQ_INT);
+        factoryOps.put(EqLongFunctionFactory.class, OP_EQ_LONG);
+        factoryOps.put(EqDoubleFunctionFactory.class, OP_EQ_DOUBLE);
+        factoryOps.put(LtDoubleVVFunctionFactory.class, OP_LT_DOUBLE);
+        factoryOps.put(AddIntFunctionFactory.class, OP_ADD_INT);
+        factoryOps.put(AddLongFunctionFactory.class, OP_ADD_LONG);
+        factoryOps.put(AddDoubleFunctionFactory.class, OP_ADD_DOUBLE);
+        factoryOps.put(SubIntFunctionFactory.class, OP_SUB_INT);
+        factoryOps.put(SubLongFunctionFactory.class, OP_SUB_LONG);
+        factoryOps.put(SubDoubleFunctionFactory.class, OP_SUB_DOUBLE);
+        factoryOps.put(MulIntFunctionFactory.class, OP_MUL_INT);
+        factoryOps.put(MulLongFunctionFactory.class, OP_MUL_LONG);
+        factoryOps.put(MulDoubleFunctionFactory.class, OP_MUL_DOUBLE);
+    }
+}
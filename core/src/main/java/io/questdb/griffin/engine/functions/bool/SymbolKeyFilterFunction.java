@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.*;
+import io.questdb.griffin.engine.functions.columns.SymbolColumn;
+import io.questdb.griffin.engine.functions.eq.EqSymCharFunctionFactory;
+import io.questdb.griffin.engine.functions.eq.EqSymStrFunctionFactory;
+import io.questdb.std.IntHashSet;
+import io.questdb.std.ObjList;
+
+/**
+ * Evaluates predicate that depends on single symbol column once per symbol key instead of once per row.
+ * When column has static symbol table, the set of keys predicate holds for is built at init and row is
+ * tested by looking up its key in the set. Otherwise predicate is evaluated for every row as usual.
+ */
+public class SymbolKeyFilterFunction extends BooleanFunction implements UnaryFunction {
+    private static final int DEPENDS_ON_NOTHING = -1;
+    private static final int DEPENDS_ON_MANY = -2;
+    private static final AndFunctionFactory AND_FACTORY = new AndFunctionFactory();
+    private static final OrFunctionFactory OR_FACTORY = new OrFunctionFactory();
+    private static final NotFunctionFactory NOT_FACTORY = new NotFunctionFactory();
+    private final Function arg;
+    private final int columnIndex;
+    private final IntHashSet keys = new IntHashSet();
+    private final KeyRecord keyRecord = new KeyRecord();
+    private boolean keyed;
+
+    public SymbolKeyFilterFunction(Function arg, int columnIndex) {
+        super(arg.getPosition());
+        this.arg = arg;
+        this.columnIndex = columnIndex;
+    }
+
+    /**
+     * Replaces sub-trees of filter that depend on single symbol column with functions
+     * that evaluate them per symbol key. AND, OR and NOT are rebuilt with their own factories, so that
+     * filter compiler recognises them as before. Functions filter is made of are reused as is.
+     *
+     * @param filter           boolean filter function
+     * @param configuration    configuration AND, OR and NOT are created with
+     * @param executionContext execution context AND, OR and NOT are created with
+     * @return filter function, which is the same instance when there is nothing to replace
+     */
+    public static Function rewrite(Function filter, CairoConfiguration configuration, SqlExecutionContext executionContext) {
+        if (isKeyAware(filter)) {
+            // predicate already works with symbol keys
+            return filter;
+        }
+
+        final int columnIndex = dependency(filter);
+        if (columnIndex > -1) {
+            return new SymbolKeyFilterFunction(filter, columnIndex);
+        }
+
+        final Class<?> factoryClass = filter.getClass().getEnclosingClass();
+        if (factoryClass == AndFunctionFactory.class || factoryClass == OrFunctionFactory.class) {
+            final BinaryFunction function = (BinaryFunction) filter;
+            final Function left = rewrite(function.getLeft(), configuration, executionContext);
+            final Function right = rewrite(function.getRight(), configuration, executionContext);
+            if (left == function.getLeft() && right == function.getRight()) {
+                return filter;
+            }
+            final ObjList<Function> args = new ObjList<>(2);
+            args.add(left);
+            args.add(right);
+            return factoryClass == AndFunctionFactory.class
+                    ? AND_FACTORY.newInstance(args, filter.getPosition(), configuration, executionContext)
+                    : OR_FACTORY.newInstance(args, filter.getPosition(), configuration, executionContext);
+        }
+
+        if (factoryClass == NotFunctionFactory.class) {
+            final Function arg = ((UnaryFunction) filter).getArg();
+            final Function rewritten = rewrite(arg, configuration, executionContext);
+            if (rewritten == arg) {
+                return filter;
+            }
+            final ObjList<Function> args = new ObjList<>(1);
+            args.add(rewritten);
+            return NOT_FACTORY.newInstance(args, filter.getPosition(), configuration, executionContext);
+        }
+        return filter;
+    }
+
+    private static int dependency(Function function) {
+        if (function.isConstant()) {
+            return DEPENDS_ON_NOTHING;
+        }
+
+        if (function instanceof SymbolColumn) {
+            return ((SymbolColumn) function).getColumnIndex();
+        }
+
+        int columnIndex = DEPENDS_ON_NOTHING;
+        if (function instanceof UnaryFunction) {
+            columnIndex = dependency(((UnaryFunction) function).getArg());
+        } else if (function instanceof BinaryFunction) {
+            final BinaryFunction f = (BinaryFunction) function;
+            columnIndex = merge(dependency(f.getLeft()), dependency(f.getRight()));
+        } else if (function instanceof TernaryFunction) {
+            final TernaryFunction f = (TernaryFunction) function;
+            columnIndex = merge(merge(dependency(f.getLeft()), dependency(f.getCenter())), dependency(f.getRight()));
+        } else if (function instanceof MultiArgFunction) {
+            final ObjList<Function> args = ((MultiArgFunction) function).getArgs();
+            for (int i = 0, n = args.size(); i < n && columnIndex != DEPENDS_ON_MANY; i++) {
+                columnIndex = merge(columnIndex, dependency(args.getQuick(i)));
+            }
+        } else {
+            // columns other than symbol, cursors and anything we cannot see through
+            return DEPENDS_ON_MANY;
+        }
+
+        // function that is not constant while its arguments are, such as random value
+        // generator, clock or bind variable, cannot be evaluated ahead of rows
+        return columnIndex == DEPENDS_ON_NOTHING ? DEPENDS_ON_MANY : columnIndex;
+    }
+
+    private static boolean isKeyAware(Function function) {
+        if (function instanceof SymbolColumn || function.isConstant()) {
+            return true;
+        }
+        final Class<?> factoryClass = function.getClass().getEnclosingClass();
+        if (factoryClass == EqSymStrFunctionFactory.class
+                || factoryClass == EqSymCharFunctionFactory.class
+                || factoryClass == InSymbolFunctionFactory.class) {
+            return true;
+        }
+        if (factoryClass == AndFunctionFactory.class || factoryClass == OrFunctionFactory.class) {
+            final BinaryFunction f = (BinaryFunction) function;
+            return isKeyAware(f.getLeft()) && isKeyAware(f.getRight());
+        }
+        if (factoryClass == NotFunctionFactory.class) {
+            return isKeyAware(((UnaryFunction) function).getArg());
+        }
+        return false;
+    }
+
+    private static int merge(int left, int right) {
+        if (left == DEPENDS_ON_NOTHING) {
+            return right;
+        }
+        if (right == DEPENDS_ON_NOTHING || left == right) {
+            return left;
+        }
+        return DEPENDS_ON_MANY;
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        if (keyed) {
+            return keys.contains(rec.getInt(columnIndex));
+        }
+        return arg.getBool(rec);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        arg.init(symbolTableSource, executionContext);
+        final SymbolTable symbolTable = symbolTableSource.getSymbolTable(columnIndex);
+        keyed = symbolTable instanceof StaticSymbolTable;
+        if (keyed) {
+            keys.clear();
+            keyRecord.symbolTable = symbolTable;
+            keyRecord.key = SymbolTable.VALUE_IS_NULL;
+            if (arg.getBool(keyRecord)) {
+                keys.add(SymbolTable.VALUE_IS_NULL);
+            }
+            for (int key = 0, n = ((StaticSymbolTable) symbolTable).size(); key < n; key++) {
+                keyRecord.key = key;
+                if (arg.getBool(keyRecord)) {
+                    keys.add(key);
+                }
+            }
+            keyRecord.symbolTable = null;
+        }
+    }
+
+    /**
+     * Record that presents symbol key to predicate as value of the column predicate depends on.
+     */
+    private class KeyRecord implements Record {
+        private SymbolTable symbolTable;
+        private int key;
+
+        @Override
+        public int getInt(int col) {
+            assert col == columnIndex;
+            return key;
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            assert col == columnIndex;
+            return symbolTable.valueOf(key);
+        }
+    }
+}
@@ -40,6 +40,11 @@ public class NowFunctionFactory implements FunctionFactory {
         return "now()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(position, configuration.getMicrosecondClock());
@@ -39,6 +39,11 @@ public class SysdateFunctionFactory implements FunctionFactory {
         return "sysdate()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(position, configuration.getMillisecondClock());
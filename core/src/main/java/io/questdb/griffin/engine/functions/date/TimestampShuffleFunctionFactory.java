@@ -42,6 +42,11 @@ public class TimestampShuffleFunctionFactory implements FunctionFactory {
         return "timestamp_shuffle(nn)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final long start = args.getQuick(0).getTimestamp(null);
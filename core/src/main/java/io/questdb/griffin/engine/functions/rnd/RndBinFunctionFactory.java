@@ -41,6 +41,11 @@ public class RndBinFunctionFactory implements FunctionFactory {
         return "rnd_bin()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new FixLenFunction(position);
@@ -41,6 +41,11 @@ public class RndByteFunctionFactory implements FunctionFactory {
         return "rnd_byte()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
 
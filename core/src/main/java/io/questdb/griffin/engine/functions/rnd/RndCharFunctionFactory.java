@@ -41,6 +41,11 @@ public class RndCharFunctionFactory implements FunctionFactory {
         return "rnd_char()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position);
@@ -42,6 +42,11 @@ public class RndDateCCCFunctionFactory implements FunctionFactory {
         return "rnd_date(mmi)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         final long lo = args.getQuick(0).getDate(null);
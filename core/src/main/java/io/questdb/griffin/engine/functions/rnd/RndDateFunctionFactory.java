@@ -40,6 +40,11 @@ public class RndDateFunctionFactory implements FunctionFactory {
         return "rnd_date()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(position);
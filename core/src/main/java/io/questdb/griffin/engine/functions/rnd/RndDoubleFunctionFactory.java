@@ -41,6 +41,11 @@ public class RndDoubleFunctionFactory implements FunctionFactory {
         return "rnd_double()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position);
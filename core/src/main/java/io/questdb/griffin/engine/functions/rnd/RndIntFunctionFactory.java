@@ -41,6 +41,11 @@ public class RndIntFunctionFactory implements FunctionFactory {
         return "rnd_int()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position);
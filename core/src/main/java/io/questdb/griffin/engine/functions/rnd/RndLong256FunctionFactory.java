@@ -42,6 +42,11 @@ public class RndLong256FunctionFactory implements FunctionFactory {
         return "rnd_long256()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position);
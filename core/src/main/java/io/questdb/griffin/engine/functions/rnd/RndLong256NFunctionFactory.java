@@ -42,6 +42,11 @@ public class RndLong256NFunctionFactory implements FunctionFactory {
         return "rnd_long256(i)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position, args.getQuick(0).getInt(null));
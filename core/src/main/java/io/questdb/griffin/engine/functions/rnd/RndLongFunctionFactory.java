@@ -41,6 +41,11 @@ public class RndLongFunctionFactory implements FunctionFactory {
         return "rnd_long()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position);
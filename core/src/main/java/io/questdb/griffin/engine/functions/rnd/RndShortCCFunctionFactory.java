@@ -42,6 +42,11 @@ public class RndShortCCFunctionFactory implements FunctionFactory {
         return "rnd_short(ii)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
 
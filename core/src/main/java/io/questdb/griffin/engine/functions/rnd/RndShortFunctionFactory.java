@@ -41,6 +41,11 @@ public class RndShortFunctionFactory implements FunctionFactory {
         return "rnd_short()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RndFunction(position);
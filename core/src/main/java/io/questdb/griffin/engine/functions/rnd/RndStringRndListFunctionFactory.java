@@ -42,6 +42,11 @@ public class RndStringRndListFunctionFactory implements FunctionFactory {
         return "rnd_str(iiii)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
 
@@ -42,6 +42,11 @@ public class RndSymbolListFunctionFactory implements FunctionFactory {
         return "rnd_symbol(V)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         final ObjList<String> symbols = new ObjList<>(args.size());
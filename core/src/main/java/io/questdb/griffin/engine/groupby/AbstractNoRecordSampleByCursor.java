@@ -29,6 +29,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
 
 public abstract class AbstractNoRecordSampleByCursor implements DelegatingRecordCursor, NoRandomAccessRecordCursor {
@@ -36,6 +37,7 @@ public abstract class AbstractNoRecordSampleByCursor implements DelegatingRecord
     protected final int timestampIndex;
     protected final ObjList<GroupByFunction> groupByFunctions;
     private final ObjList<Function> recordFunctions;
+    private final long origin;
     protected Record baseRecord;
     protected long lastTimestamp;
     protected long nextTimestamp;
@@ -49,6 +51,17 @@ public abstract class AbstractNoRecordSampleByCursor implements DelegatingRecord
             TimestampSampler timestampSampler,
             ObjList<GroupByFunction> groupByFunctions
     ) {
+        this(recordFunctions, timestampIndex, timestampSampler, groupByFunctions, Numbers.LONG_NaN);
+    }
+
+    public AbstractNoRecordSampleByCursor(
+            ObjList<Function> recordFunctions,
+            int timestampIndex, // index of timestamp column in base cursor
+            TimestampSampler timestampSampler,
+            ObjList<GroupByFunction> groupByFunctions,
+            long origin // timestamp buckets are aligned to, NaN aligns buckets to the first row
+    ) {
+        this.origin = origin;
         this.timestampIndex = timestampIndex;
         this.timestampSampler = timestampSampler;
         this.recordFunctions = recordFunctions;
@@ -87,8 +100,9 @@ public abstract class AbstractNoRecordSampleByCursor implements DelegatingRecord
         this.base = base;
         this.baseRecord = base.getRecord();
         final long timestamp = baseRecord.getTimestamp(timestampIndex);
-        this.nextTimestamp = timestampSampler.round(timestamp);
-        this.baselineOffset = timestamp - nextTimestamp;
+        final long alignTo = origin == Numbers.LONG_NaN ? timestamp : origin;
+        this.baselineOffset = alignTo - timestampSampler.round(alignTo);
+        this.nextTimestamp = timestampSampler.round(timestamp - baselineOffset);
         this.lastTimestamp = this.nextTimestamp;
         interruptor = executionContext.getSqlExecutionInterruptor();
     }
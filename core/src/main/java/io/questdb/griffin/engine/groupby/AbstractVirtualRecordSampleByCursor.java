@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.VirtualRecord;
 import io.questdb.cairo.sql.VirtualRecordNoRowid;
 import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
 
 public abstract class AbstractVirtualRecordSampleByCursor extends AbstractNoRecordSampleByCursor {
@@ -40,7 +41,17 @@ public abstract class AbstractVirtualRecordSampleByCursor extends AbstractNoReco
             TimestampSampler timestampSampler,
             ObjList<GroupByFunction> groupByFunctions
     ) {
-        super(recordFunctions, timestampIndex, timestampSampler, groupByFunctions);
+        this(recordFunctions, timestampIndex, timestampSampler, groupByFunctions, Numbers.LONG_NaN);
+    }
+
+    public AbstractVirtualRecordSampleByCursor(
+            ObjList<Function> recordFunctions,
+            int timestampIndex, // index of timestamp column in base cursor
+            TimestampSampler timestampSampler,
+            ObjList<GroupByFunction> groupByFunctions,
+            long origin
+    ) {
+        super(recordFunctions, timestampIndex, timestampSampler, groupByFunctions, origin);
         this.record = new VirtualRecordNoRowid(recordFunctions);
         for (int i = 0, n = recordFunctions.size(); i < n; i++) {
             Function f = recordFunctions.getQuick(i);
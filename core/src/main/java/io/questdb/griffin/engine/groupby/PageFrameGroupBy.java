@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.griffin.engine.table.SerialSymbolTable;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Group-by state confined to one thread. Each worker thread, and the thread that owns the cursor,
+ * aggregates page frames into its own partial map using its own copy of group-by functions.
+ * Partial maps are merged by hash partition, so that threads never write to the same map.
+ */
+class PageFrameGroupBy implements SymbolTableSource, FastMap.MergeFunction, Closeable {
+    private final FastMap map;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    // rows that do not pass filter are skipped, filter is owned by the factory it was borrowed from
+    private final Function filter;
+    private final PageFrameRecord record = new PageFrameRecord();
+    private final ObjList<SymbolTable> symbolTables = new ObjList<>();
+    private final ObjList<SerialSymbolTable> symbolTablePool = new ObjList<>();
+    // SAMPLE BY state, when sampler is set rows are keyed by their timestamp bucket as well
+    private TimestampSampler timestampSampler;
+    private int timestampIndex;
+    private long baselineOffset;
+
+    PageFrameGroupBy(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes keyTypes,
+            @Transient ColumnTypes valueTypes,
+            ObjList<GroupByFunction> groupByFunctions,
+            RecordSink mapSink,
+            @Nullable Function filter
+    ) {
+        this.map = createMap(configuration, keyTypes, valueTypes);
+        this.groupByFunctions = groupByFunctions;
+        this.mapSink = mapSink;
+        this.filter = filter;
+    }
+
+    static FastMap createMap(CairoConfiguration configuration, ColumnTypes keyTypes, ColumnTypes valueTypes) {
+        return new FastMap(
+                configuration.getSqlMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+    }
+
+    @Override
+    public void close() {
+        map.close();
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return symbolTables.getQuick(columnIndex);
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            groupByFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+
+    void aggregate(PageFrameGroupByEntry entry) {
+        final long rowCount = entry.getRowCount();
+        final int n = groupByFunctions.size();
+        record.of(entry.getPageAddresses(), entry.getPartitionIndex(), entry.getPartitionLo(), symbolTables);
+        if (timestampSampler != null) {
+            aggregateSampled(rowCount, n);
+            return;
+        }
+        for (long row = 0; row < rowCount; row++) {
+            record.setRow(row);
+            if (filter != null && !filter.getBool(record)) {
+                continue;
+            }
+            final MapKey key = map.withKey();
+            mapSink.copy(record, key);
+            GroupByUtils.updateFunctions(groupByFunctions, n, key.createValue(), record);
+        }
+    }
+
+    private void aggregateSampled(long rowCount, int n) {
+        // timestamps are ascending within a frame, bucket is recomputed only when it is crossed
+        long bucketLo = Long.MAX_VALUE;
+        long bucketHi = Long.MIN_VALUE;
+        for (long row = 0; row < rowCount; row++) {
+            record.setRow(row);
+            final long timestamp = record.getTimestamp(timestampIndex);
+            if (timestamp < bucketLo || timestamp >= bucketHi) {
+                bucketLo = timestampSampler.round(timestamp - baselineOffset) + baselineOffset;
+                bucketHi = timestampSampler.nextTimestamp(bucketLo - baselineOffset) + baselineOffset;
+            }
+            final MapKey key = map.withKey();
+            mapSink.copy(record, key);
+            key.putTimestamp(bucketLo);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                // the first value is reserved for bucket timestamp, same as in serial SAMPLE BY
+                value.putTimestamp(0, bucketLo);
+            }
+            GroupByUtils.updateFunctions(groupByFunctions, n, value, record);
+        }
+    }
+
+    FastMap getMap() {
+        return map;
+    }
+
+    void merge(ObjList<PageFrameGroupBy> groupBys, FastMap partitionMap, int partition) {
+        final int partitionCount = groupBys.size();
+        for (int i = 0; i < partitionCount; i++) {
+            partitionMap.merge(groupBys.getQuick(i).map, partition, partitionCount, this);
+        }
+    }
+
+    void of(PageFrameCursor pageFrameCursor, int columnCount, SqlExecutionContext executionContext) {
+        map.clear();
+        symbolTables.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final SymbolTable symbolTable = pageFrameCursor.getSymbolMapReader(i);
+            if (symbolTable == null) {
+                symbolTables.add(null);
+            } else {
+                SerialSymbolTable serialSymbolTable = symbolTablePool.getQuiet(i);
+                if (serialSymbolTable == null) {
+                    symbolTablePool.extendAndSet(i, serialSymbolTable = new SerialSymbolTable());
+                }
+                symbolTables.add(serialSymbolTable.of((StaticSymbolTable) symbolTable));
+            }
+        }
+        Function.init(groupByFunctions, this, executionContext);
+        if (filter != null) {
+            filter.init(this, executionContext);
+            filter.toTop();
+        }
+    }
+
+    void ofSampler(TimestampSampler timestampSampler, int timestampIndex) {
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    void setBaselineOffset(long baselineOffset) {
+        this.baselineOffset = baselineOffset;
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.LongList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Unit of parallel group-by work. Entry either aggregates single page frame into the partial map of
+ * the thread that picked it up, or merges one hash partition of all partial maps into the partition map.
+ * Entry owns a copy of frame page addresses, because page frame instance is reused by the cursor that
+ * produced it.
+ */
+public class PageFrameGroupByEntry implements Mutable {
+    private static final Log LOG = LogFactory.getLog(PageFrameGroupByEntry.class);
+    private static final long TARGET_SEQUENCE_OFFSET;
+
+    static {
+        TARGET_SEQUENCE_OFFSET = Unsafe.getFieldOffset(PageFrameGroupByEntry.class, "targetSequence");
+    }
+
+    private final LongList pageAddresses = new LongList();
+    private ObjList<PageFrameGroupBy> groupBys;
+    private CountDownLatchSPI doneLatch;
+    private int partitionIndex;
+    private long partitionLo;
+    private long partitionHi;
+    // map partition this entry merges, -1 when entry aggregates page frame
+    private int mapPartition;
+    private FastMap partitionMap;
+    private long srcSequence;
+    // to "lock" the entry thread must successfully CAS targetSequence form "srcSequence" value
+    // to "srcSequence+1". Executing thread must not be changing value of "srcSequence"
+    @SuppressWarnings({"FieldCanBeLocal", "unused", "FieldMayBeFinal"})
+    private volatile long targetSequence = 0;
+    private volatile boolean failed;
+
+    @Override
+    public void clear() {
+        // group-by list is not released, stale queue items may still reference this entry,
+        // they will fail to lock it but need the list to be there
+        this.partitionMap = null;
+    }
+
+    public boolean run(int workerId) {
+        // the last group-by belongs to the thread that owns the cursor, workers
+        // outside of the range query has been compiled for leave this entry to the owner
+        return workerId < groupBys.size() - 1 && run(groupBys.getQuick(workerId));
+    }
+
+    LongList getPageAddresses() {
+        return pageAddresses;
+    }
+
+    int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    long getPartitionLo() {
+        return partitionLo;
+    }
+
+    long getRowCount() {
+        return partitionHi - partitionLo;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(PageFrame frame, int columnCount, ObjList<PageFrameGroupBy> groupBys, CountDownLatchSPI doneLatch) {
+        this.pageAddresses.clear();
+        for (int i = 0; i < columnCount; i++) {
+            this.pageAddresses.add(frame.getPageAddress(i));
+        }
+        this.partitionIndex = frame.getPartitionIndex();
+        this.partitionLo = frame.getPartitionLo();
+        this.partitionHi = frame.getPartitionHi();
+        this.mapPartition = -1;
+        this.partitionMap = null;
+        arm(groupBys, doneLatch);
+    }
+
+    void of(int mapPartition, FastMap partitionMap, ObjList<PageFrameGroupBy> groupBys, CountDownLatchSPI doneLatch) {
+        this.partitionIndex = -1;
+        this.mapPartition = mapPartition;
+        this.partitionMap = partitionMap;
+        arm(groupBys, doneLatch);
+    }
+
+    boolean reclaim() {
+        return run(groupBys.getQuick(groupBys.size() - 1));
+    }
+
+    private void arm(ObjList<PageFrameGroupBy> groupBys, CountDownLatchSPI doneLatch) {
+        this.groupBys = groupBys;
+        this.doneLatch = doneLatch;
+        this.failed = false;
+        // sequence advances by two so that stale queue item cannot
+        // lock the entry before "targetSequence" is re-armed
+        this.srcSequence = targetSequence + 1;
+        this.targetSequence = srcSequence;
+    }
+
+    private boolean run(PageFrameGroupBy groupBy) {
+        if (Unsafe.cas(this, TARGET_SEQUENCE_OFFSET, srcSequence, srcSequence + 1)) {
+            try {
+                if (mapPartition == -1) {
+                    groupBy.aggregate(this);
+                } else {
+                    groupBy.merge(groupBys, partitionMap, mapPartition);
+                }
+            } catch (Throwable e) {
+                failed = true;
+                LOG.error().$("group by failed [partitionIndex=").$(partitionIndex).$(", mapPartition=").$(mapPartition).$(", ex=").$(e).$(']').$();
+            } finally {
+                doneLatch.countDown();
+            }
+            return true;
+        }
+        return false;
+    }
+}
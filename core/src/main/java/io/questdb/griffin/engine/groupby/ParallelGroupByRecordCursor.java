@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.FastMapConcatCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.ObjectPool;
+import io.questdb.tasks.PageFrameGroupByTask;
+
+/**
+ * Aggregation runs in two phases before the cursor is returned. First, page frames are published to
+ * the worker pool in batches and every thread aggregates frames it picks up into its own partial map.
+ * Second, partial maps are merged by key hash into one map per partition, each partition is merged
+ * by a single thread. Partitions have no keys in common, the cursor iterates them one after another.
+ */
+class ParallelGroupByRecordCursor extends AbstractVirtualFunctionRecordCursor {
+    private static final Log LOG = LogFactory.getLog(ParallelGroupByRecordCursor.class);
+    private final ObjList<PageFrameGroupBy> groupBys;
+    private final ObjList<FastMap> partitionMaps;
+    private final ObjList<FastMap> resultMaps = new ObjList<>();
+    private final ObjList<Function> recordFunctions;
+    private final int columnCount;
+    private final int batchSize;
+    private final ObjectPool<PageFrameGroupByEntry> entryPool;
+    private final ObjList<PageFrameGroupByEntry> activeEntries;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final FastMapConcatCursor mapCursor = new FastMapConcatCursor();
+    private PageFrameCursor pageFrameCursor;
+    private RingQueue<PageFrameGroupByTask> queue;
+    private Sequence pubSeq;
+
+    ParallelGroupByRecordCursor(
+            ObjList<PageFrameGroupBy> groupBys,
+            ObjList<FastMap> partitionMaps,
+            ObjList<Function> recordFunctions,
+            int columnCount
+    ) {
+        super(recordFunctions, true);
+        this.groupBys = groupBys;
+        this.partitionMaps = partitionMaps;
+        this.recordFunctions = recordFunctions;
+        this.columnCount = columnCount;
+        // two frames per thread gives threads that finish early something else to do
+        this.batchSize = groupBys.size() * 2;
+        this.entryPool = new ObjectPool<>(PageFrameGroupByEntry::new, batchSize);
+        this.activeEntries = new ObjList<>(batchSize);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        pageFrameCursor = Misc.free(pageFrameCursor);
+    }
+
+    private void aggregate(SqlExecutionContext executionContext) {
+        PageFrame frame;
+        while (true) {
+            clearBatch();
+            while (activeEntries.size() < batchSize && (frame = pageFrameCursor.next()) != null) {
+                final PageFrameGroupByEntry entry = entryPool.next();
+                entry.of(frame, columnCount, groupBys, doneLatch);
+                publish(entry);
+            }
+            if (!awaitBatch()) {
+                break;
+            }
+            // workers are done with the batch, it is safe to bail out
+            executionContext.getSqlExecutionInterruptor().checkInterrupted();
+        }
+    }
+
+    private boolean awaitBatch() {
+        final int entryCount = activeEntries.size();
+        if (entryCount == 0) {
+            return false;
+        }
+
+        // start at the back to reduce chance of clashing with workers
+        int reclaimed = 0;
+        for (int i = entryCount - 1; i > -1 && doneLatch.getCount() > -entryCount; i--) {
+            if (activeEntries.getQuick(i).reclaim()) {
+                reclaimed++;
+            }
+        }
+        doneLatch.await(entryCount);
+
+        LOG.debug().$("group by batch done [entries=").$(entryCount).$(", reclaimed=").$(reclaimed).$(']').$();
+
+        for (int i = 0; i < entryCount; i++) {
+            if (activeEntries.getQuick(i).isFailed()) {
+                throw CairoException.instance(0).put("could not aggregate page frame [partitionIndex=").put(activeEntries.getQuick(i).getPartitionIndex()).put(']');
+            }
+        }
+        return true;
+    }
+
+    private void clearBatch() {
+        activeEntries.clear();
+        entryPool.clear();
+        doneLatch.reset();
+    }
+
+    private void merge() {
+        resultMaps.clear();
+        int nonEmptyIndex = -1;
+        for (int i = 0, n = groupBys.size(); i < n; i++) {
+            if (groupBys.getQuick(i).getMap().size() > 0) {
+                if (nonEmptyIndex != -1) {
+                    nonEmptyIndex = -2;
+                    break;
+                }
+                nonEmptyIndex = i;
+            }
+        }
+
+        switch (nonEmptyIndex) {
+            case -1:
+                // empty result, maps have identical layout, any one of them will do
+                resultMaps.add(partitionMaps.getQuick(0));
+                break;
+            case -2:
+                clearBatch();
+                for (int i = 0, n = partitionMaps.size(); i < n; i++) {
+                    final PageFrameGroupByEntry entry = entryPool.next();
+                    entry.of(i, partitionMaps.getQuick(i), groupBys, doneLatch);
+                    publish(entry);
+                    resultMaps.add(partitionMaps.getQuick(i));
+                }
+                awaitBatch();
+                break;
+            default:
+                // only one thread has done any work, its map is the result
+                resultMaps.add(groupBys.getQuick(nonEmptyIndex).getMap());
+                break;
+        }
+    }
+
+    private void publish(PageFrameGroupByEntry entry) {
+        activeEntries.add(entry);
+        final long seq = pubSeq.next();
+        if (seq < 0) {
+            // queue is full, do the work on this thread
+            entry.reclaim();
+        } else {
+            queue.get(seq).entry = entry;
+            pubSeq.done(seq);
+        }
+    }
+
+    RecordCursor toResultCursor(FastMapConcatCursor mapCursor) {
+        return mapCursor;
+    }
+
+    void of(PageFrameCursor pageFrameCursor, MessageBus bus, SqlExecutionContext executionContext) {
+        if (this.pageFrameCursor != pageFrameCursor) {
+            close();
+            this.pageFrameCursor = pageFrameCursor;
+        }
+        this.queue = bus.getPageFrameGroupByQueue();
+        this.pubSeq = bus.getPageFrameGroupByPubSequence();
+        for (int i = 0, n = groupBys.size(); i < n; i++) {
+            groupBys.getQuick(i).of(pageFrameCursor, columnCount, executionContext);
+        }
+        for (int i = 0, n = partitionMaps.size(); i < n; i++) {
+            partitionMaps.getQuick(i).clear();
+        }
+
+        aggregate(executionContext);
+        merge();
+
+        of(toResultCursor(mapCursor.of(resultMaps)));
+        // init all record function for this cursor, in case functions require metadata and/or symbol tables
+        Function.init(recordFunctions, pageFrameCursor::getSymbolMapReader, executionContext);
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.ParallelFilteredRecordCursorFactory;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keyed group-by over page frames of the base factory on the shared worker pool. There has to be one
+ * list of group-by functions for each worker and one more for the thread executing the query, in this
+ * order. The last list is the one referenced by record functions. All functions must be mergeable.
+ * <p>
+ * Base factory is either the one that supports page frames, or parallel filter over such factory.
+ * Filter is not run as a separate step then, every thread evaluates its own copy of the filter while it
+ * aggregates frames of the filter's base.
+ * <p>
+ * Keys are copied from page frame records, which have fixed-width columns only. Queries keyed by
+ * strings or by expressions computed over table columns use serial group-by.
+ */
+public class ParallelGroupByRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    // factory page frames are read from, it is owned by base
+    private final RecordCursorFactory frameFactory;
+    private final ObjList<PageFrameGroupBy> groupBys;
+    private final ObjList<FastMap> partitionMaps;
+    private final ObjList<ObjList<GroupByFunction>> workerGroupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final ParallelGroupByRecordCursor cursor;
+    private final RecordMetadata metadata;
+
+    public ParallelGroupByRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            RecordMetadata groupByMetadata,
+            @Transient ObjList<ObjList<GroupByFunction>> groupByFunctions,
+            ObjList<Function> recordFunctions
+    ) {
+        final int threadCount = groupByFunctions.size();
+        final ParallelFilteredRecordCursorFactory filtered = base instanceof ParallelFilteredRecordCursorFactory ? (ParallelFilteredRecordCursorFactory) base : null;
+        assert filtered != null ? filtered.getFilterCount() == threadCount : base.supportPageFrameCursor();
+        this.base = base;
+        this.frameFactory = filtered != null ? filtered.getBaseFactory() : base;
+        this.metadata = groupByMetadata;
+        this.recordFunctions = recordFunctions;
+        this.workerGroupByFunctions = new ObjList<>(threadCount - 1);
+        for (int i = 0; i < threadCount - 1; i++) {
+            workerGroupByFunctions.add(groupByFunctions.getQuick(i));
+        }
+        this.groupBys = new ObjList<>(threadCount);
+        this.partitionMaps = new ObjList<>(threadCount);
+        try {
+            // sink is stateless and is shared by all threads
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            for (int i = 0; i < threadCount; i++) {
+                groupBys.add(new PageFrameGroupBy(configuration, keyTypes, valueTypes, groupByFunctions.getQuick(i), mapSink, filtered != null ? filtered.getFilter(i) : null));
+                partitionMaps.add(PageFrameGroupBy.createMap(configuration, keyTypes, valueTypes));
+            }
+            this.cursor = new ParallelGroupByRecordCursor(groupBys, partitionMaps, recordFunctions, base.getMetadata().getColumnCount());
+        } catch (CairoException e) {
+            freeFunctionsAndMaps();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        freeFunctionsAndMaps();
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final MessageBus bus = executionContext.getMessageBus();
+        assert bus != null;
+        final PageFrameCursor pageFrameCursor = frameFactory.getPageFrameCursor(executionContext);
+        try {
+            cursor.of(pageFrameCursor, bus, executionContext);
+            return cursor;
+        } catch (CairoException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    private void freeFunctionsAndMaps() {
+        Misc.freeObjList(recordFunctions);
+        for (int i = 0, n = workerGroupByFunctions.size(); i < n; i++) {
+            Misc.freeObjList(workerGroupByFunctions.getQuick(i));
+        }
+        Misc.freeObjList(groupBys);
+        Misc.freeObjList(partitionMaps);
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.FastMapConcatCursor;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+
+/**
+ * SAMPLE BY without fill on the shared worker pool. Rows are keyed by their timestamp bucket in addition
+ * to SAMPLE BY keys, which turns sampling into keyed group-by that frames can be aggregated for in any
+ * order. Buckets are aligned before the first frame is published, so that all threads agree on bucket
+ * boundaries. Merged entries are streamed in the order of bucket timestamps.
+ */
+class ParallelSampleByRecordCursor extends ParallelGroupByRecordCursor {
+    private final ObjList<PageFrameGroupBy> groupBys;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private final long origin;
+    // pairs of bucket timestamp and map entry address
+    private final DirectLongList index;
+    private final BucketCursor bucketCursor = new BucketCursor();
+
+    ParallelSampleByRecordCursor(
+            ObjList<PageFrameGroupBy> groupBys,
+            ObjList<FastMap> partitionMaps,
+            ObjList<Function> recordFunctions,
+            int columnCount,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            long origin,
+            DirectLongList index
+    ) {
+        super(groupBys, partitionMaps, recordFunctions, columnCount);
+        this.groupBys = groupBys;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+        this.origin = origin;
+        this.index = index;
+        for (int i = 0, n = groupBys.size(); i < n; i++) {
+            groupBys.getQuick(i).ofSampler(timestampSampler, timestampIndex);
+        }
+    }
+
+    @Override
+    void of(PageFrameCursor pageFrameCursor, MessageBus bus, SqlExecutionContext executionContext) {
+        final long baselineOffset = getBaselineOffset(pageFrameCursor);
+        for (int i = 0, n = groupBys.size(); i < n; i++) {
+            groupBys.getQuick(i).setBaselineOffset(baselineOffset);
+        }
+        super.of(pageFrameCursor, bus, executionContext);
+    }
+
+    @Override
+    RecordCursor toResultCursor(FastMapConcatCursor mapCursor) {
+        index.setPos(0);
+        final MapRecord record = mapCursor.getRecord();
+        long count = 0;
+        while (mapCursor.hasNext()) {
+            // sign bit is flipped, index is sorted as unsigned
+            index.add(record.getTimestamp(0) ^ Long.MIN_VALUE);
+            index.add(record.getRowId());
+            count++;
+        }
+        Vect.sortLongIndexAscInPlace(index.getAddress(), count);
+        return bucketCursor.of(mapCursor, count);
+    }
+
+    private long getBaselineOffset(PageFrameCursor pageFrameCursor) {
+        long alignTo = origin;
+        if (alignTo == Numbers.LONG_NaN) {
+            // same as serial SAMPLE BY buckets are aligned to the first row
+            PageFrame frame;
+            while ((frame = pageFrameCursor.next()) != null) {
+                if (frame.getPartitionHi() > frame.getPartitionLo()) {
+                    alignTo = Unsafe.getUnsafe().getLong(frame.getPageAddress(timestampIndex));
+                    break;
+                }
+            }
+            pageFrameCursor.toTop();
+            if (alignTo == Numbers.LONG_NaN) {
+                // there are no rows, offset does not matter
+                return 0;
+            }
+        }
+        return alignTo - timestampSampler.round(alignTo);
+    }
+
+    private class BucketCursor implements RecordCursor {
+        private FastMapConcatCursor mapCursor;
+        private long count;
+        private long current;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return mapCursor.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return mapCursor.getRecordB();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (current < count) {
+                mapCursor.recordAt(mapCursor.getRecord(), index.get(current * 2 + 1));
+                current++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            mapCursor.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return count;
+        }
+
+        @Override
+        public void toTop() {
+            current = 0;
+        }
+
+        private BucketCursor of(FastMapConcatCursor mapCursor, long count) {
+            this.mapCursor = mapCursor;
+            this.count = count;
+            this.current = 0;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * SAMPLE BY FILL(NONE) over page frames of the base factory on the shared worker pool. Lists of group-by
+ * functions are organised the same way as for {@link ParallelGroupByRecordCursorFactory}. Map keys are
+ * SAMPLE BY keys followed by bucket timestamp, the first map value is bucket timestamp as well.
+ */
+public class ParallelSampleByRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<PageFrameGroupBy> groupBys;
+    private final ObjList<FastMap> partitionMaps;
+    private final ObjList<ObjList<GroupByFunction>> workerGroupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final DirectLongList index;
+    private final ParallelSampleByRecordCursor cursor;
+    private final RecordMetadata metadata;
+
+    public ParallelSampleByRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            @NotNull TimestampSampler timestampSampler,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            RecordMetadata groupByMetadata,
+            @Transient ObjList<ObjList<GroupByFunction>> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            int timestampIndex,
+            long origin
+    ) {
+        assert base.supportPageFrameCursor();
+        final int threadCount = groupByFunctions.size();
+        this.base = base;
+        this.metadata = groupByMetadata;
+        this.recordFunctions = recordFunctions;
+        // timestamp columns are left for the cursor to fill in, here the cursor is the map
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, new TimestampColumn(0, 0));
+            }
+        }
+        this.workerGroupByFunctions = new ObjList<>(threadCount - 1);
+        for (int i = 0; i < threadCount - 1; i++) {
+            workerGroupByFunctions.add(groupByFunctions.getQuick(i));
+        }
+        final ArrayColumnTypes bucketKeyTypes = new ArrayColumnTypes();
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            bucketKeyTypes.add(keyTypes.getColumnType(i));
+        }
+        bucketKeyTypes.add(ColumnType.TIMESTAMP);
+        this.groupBys = new ObjList<>(threadCount);
+        this.partitionMaps = new ObjList<>(threadCount);
+        this.index = new DirectLongList(configuration.getSqlMapKeyCapacity() * 2L);
+        try {
+            // sink is stateless and is shared by all threads
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            for (int i = 0; i < threadCount; i++) {
+                groupBys.add(new PageFrameGroupBy(configuration, bucketKeyTypes, valueTypes, groupByFunctions.getQuick(i), mapSink, null));
+                partitionMaps.add(PageFrameGroupBy.createMap(configuration, bucketKeyTypes, valueTypes));
+            }
+            this.cursor = new ParallelSampleByRecordCursor(
+                    groupBys,
+                    partitionMaps,
+                    recordFunctions,
+                    base.getMetadata().getColumnCount(),
+                    timestampSampler,
+                    timestampIndex,
+                    origin,
+                    index
+            );
+        } catch (CairoException e) {
+            freeFunctionsAndMaps();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        freeFunctionsAndMaps();
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final MessageBus bus = executionContext.getMessageBus();
+        assert bus != null;
+        final PageFrameCursor pageFrameCursor = base.getPageFrameCursor(executionContext);
+        try {
+            cursor.of(pageFrameCursor, bus, executionContext);
+            return cursor;
+        } catch (CairoException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    private void freeFunctionsAndMaps() {
+        Misc.freeObjList(recordFunctions);
+        for (int i = 0, n = workerGroupByFunctions.size(); i < n; i++) {
+            Misc.freeObjList(workerGroupByFunctions.getQuick(i));
+        }
+        Misc.freeObjList(groupBys);
+        Misc.freeObjList(partitionMaps);
+        Misc.free(index);
+    }
+}
@@ -36,9 +36,10 @@ class SampleByFillNoneNotKeyedRecordCursor extends AbstractVirtualRecordSampleBy
             ObjList<GroupByFunction> groupByFunctions,
             ObjList<Function> recordFunctions,
             int timestampIndex, // index of timestamp column in base cursor
-            TimestampSampler timestampSampler
+            TimestampSampler timestampSampler,
+            long origin
     ) {
-        super(recordFunctions, timestampIndex, timestampSampler, groupByFunctions);
+        super(recordFunctions, timestampIndex, timestampSampler, groupByFunctions, origin);
         this.simpleMapValue = simpleMapValue;
         this.record.of(simpleMapValue);
     }
@@ -83,7 +84,7 @@ class SampleByFillNoneNotKeyedRecordCursor extends AbstractVirtualRecordSampleBy
         super.toTop();
         if (base.hasNext()) {
             baseRecord = base.getRecord();
-            this.nextTimestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
+            this.nextTimestamp = getBaseRecordTimestamp();
             this.lastTimestamp = this.nextTimestamp;
         }
     }
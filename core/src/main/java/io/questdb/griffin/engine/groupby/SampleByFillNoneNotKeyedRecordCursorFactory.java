@@ -49,7 +49,8 @@ public class SampleByFillNoneNotKeyedRecordCursorFactory implements RecordCursor
             ObjList<GroupByFunction> groupByFunctions,
             ObjList<Function> recordFunctions,
             int valueCount,
-            int timestampIndex
+            int timestampIndex,
+            long origin
     ) {
         final SimpleMapValue simpleMapValue = new SimpleMapValue(valueCount);
         this.recordFunctions = recordFunctions;
@@ -62,7 +63,8 @@ public class SampleByFillNoneNotKeyedRecordCursorFactory implements RecordCursor
                     groupByFunctions,
                     recordFunctions,
                     timestampIndex,
-                    timestampSampler
+                    timestampSampler,
+                    origin
             );
         } catch (CairoException e) {
             Misc.freeObjList(recordFunctions);
@@ -43,9 +43,10 @@ class SampleByFillNoneRecordCursor extends AbstractVirtualRecordSampleByCursor {
             ObjList<GroupByFunction> groupByFunctions,
             ObjList<Function> recordFunctions,
             int timestampIndex, // index of timestamp column in base cursor
-            TimestampSampler timestampSampler
+            TimestampSampler timestampSampler,
+            long origin
     ) {
-        super(recordFunctions, timestampIndex, timestampSampler, groupByFunctions);
+        super(recordFunctions, timestampIndex, timestampSampler, groupByFunctions, origin);
         this.map = map;
         this.keyMapSink = keyMapSink;
         this.record.of(map.getRecord());
@@ -62,7 +63,7 @@ class SampleByFillNoneRecordCursor extends AbstractVirtualRecordSampleByCursor {
         super.toTop();
         if (base.hasNext()) {
             baseRecord = base.getRecord();
-            this.nextTimestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
+            this.nextTimestamp = getBaseRecordTimestamp();
             this.lastTimestamp = this.nextTimestamp;
             map.clear();
         }
@@ -58,7 +58,8 @@ public class SampleByFillNoneRecordCursorFactory implements RecordCursorFactory
             @Transient @NotNull BytecodeAssembler asm,
             @Transient @NotNull ArrayColumnTypes keyTypes,
             @Transient @NotNull ArrayColumnTypes valueTypes,
-            int timestampIndex
+            int timestampIndex,
+            long origin
     ) {
         this.recordFunctions = recordFunctions;
         // sink will be storing record columns to map key
@@ -74,7 +75,8 @@ public class SampleByFillNoneRecordCursorFactory implements RecordCursorFactory
                     groupByFunctions,
                     this.recordFunctions,
                     timestampIndex,
-                    timestampSampler
+                    timestampSampler,
+                    origin
             );
         } catch (CairoException e) {
             Misc.free(map);
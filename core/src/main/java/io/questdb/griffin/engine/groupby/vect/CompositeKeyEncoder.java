@@ -0,0 +1,329 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Reduces composite keys and keys of types other than INT and SYMBOL to the single INT
+ * key Rosti maps are built on. Every page frame is encoded into its own buffer, which
+ * aggregate tasks read in place of the key column. Buffer is released as soon as every
+ * task of its frame has run, the rest are released when query is done or fails.
+ * <p>
+ * Keys made of symbols only are packed arithmetically as long as product of symbol
+ * table sizes fits INT. Other keys are given dense ids in order of appearance. Either
+ * way encoded value 0 stands for the key where every column is null.
+ * <p>
+ * For SAMPLE BY one of the keys is designated timestamp, its values are replaced with
+ * their bucket. Ids are assigned in order of appearance and frames arrive in timestamp
+ * order, therefore ordering by id orders keys by bucket.
+ */
+class CompositeKeyEncoder implements Closeable {
+    private final int keyCount;
+    private final int[] keyColumnIndexes;
+    private final int[] keyTypes;
+    private final long[] keyAddresses;
+    private final int[] multipliers;
+    private final int[] radixes;
+    private final boolean symbolsOnly;
+    private final LongList buffers = new LongList();
+    // key values by id, "keyCount" values per id
+    private final LongList keys = new LongList();
+    private Map dictionary;
+    private boolean packed;
+    private long rowCount;
+    private int sampledKeyIndex = -1;
+    private TimestampSampler timestampSampler;
+    private long sampleByOrigin;
+    private long baselineOffset;
+    private long bucketLo;
+    private long bucketHi;
+
+    CompositeKeyEncoder(CairoConfiguration configuration, @Transient IntList keyColumnIndexes, @Transient IntList keyTypes) {
+        this.keyCount = keyColumnIndexes.size();
+        this.keyColumnIndexes = new int[keyCount];
+        this.keyTypes = new int[keyCount];
+        this.keyAddresses = new long[keyCount];
+        this.multipliers = new int[keyCount];
+        this.radixes = new int[keyCount];
+
+        final ArrayColumnTypes mapKeyTypes = new ArrayColumnTypes();
+        boolean symbolsOnly = true;
+        for (int i = 0; i < keyCount; i++) {
+            final int type = keyTypes.getQuick(i);
+            this.keyColumnIndexes[i] = keyColumnIndexes.getQuick(i);
+            this.keyTypes[i] = type;
+            symbolsOnly &= type == ColumnType.SYMBOL;
+            mapKeyTypes.add(isIntKey(type) ? ColumnType.INT : ColumnType.LONG);
+        }
+        this.symbolsOnly = symbolsOnly;
+        this.dictionary = MapFactory.createMap(configuration, mapKeyTypes, new ArrayColumnTypes().add(ColumnType.INT));
+    }
+
+    static boolean isIntKey(int type) {
+        return type == ColumnType.INT || type == ColumnType.SYMBOL;
+    }
+
+    @Override
+    public void close() {
+        releaseBuffers();
+        dictionary = Misc.free(dictionary);
+    }
+
+    int decodeInt(int key, int keyIndex) {
+        if (packed) {
+            final int value = (key / multipliers[keyIndex]) % radixes[keyIndex];
+            return value == 0 ? SymbolTable.VALUE_IS_NULL : value - 1;
+        }
+        return (int) keys.getQuick(key * keyCount + keyIndex);
+    }
+
+    long decodeLong(int key, int keyIndex) {
+        return keys.getQuick(key * keyCount + keyIndex);
+    }
+
+    /**
+     * Encodes keys of the frame.
+     *
+     * @param frame page frame to encode
+     * @return address of INT key buffer, which has {@link #getRowCount()} entries, or 0 when
+     * the frame does not have any of the key columns
+     */
+    long encode(PageFrame frame) {
+        rowCount = -1;
+        for (int i = 0; i < keyCount; i++) {
+            final long address = frame.getPageAddress(keyColumnIndexes[i]);
+            keyAddresses[i] = address;
+            if (address != 0 && rowCount == -1) {
+                rowCount = frame.getPageSize(keyColumnIndexes[i]) >>> ColumnType.pow2SizeOf(keyTypes[i]);
+            }
+        }
+
+        if (rowCount == -1) {
+            return 0;
+        }
+
+        final long size = rowCount * Integer.BYTES;
+        // packed keys are accumulated column by column and have to start at 0
+        final long pKeys = packed ? Unsafe.calloc(size) : Unsafe.malloc(size);
+        buffers.add(pKeys);
+        buffers.add(size);
+
+        if (packed) {
+            pack(pKeys);
+        } else {
+            assignIds(pKeys);
+        }
+        return pKeys;
+    }
+
+    /**
+     * @return number of distinct keys encoded since {@link #of(PageFrameCursor)}, keys are
+     * numbered from 0 to this value exclusive. Packed keys are not counted.
+     */
+    int getKeyCount() {
+        return (int) dictionary.size();
+    }
+
+    /**
+     * @return true when keys are packed arithmetically rather than given dense ids
+     */
+    boolean isPacked() {
+        return packed;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    void of(PageFrameCursor cursor) {
+        releaseBuffers();
+        if (timestampSampler != null) {
+            baselineOffset = getBaselineOffset(cursor);
+            bucketLo = Long.MAX_VALUE;
+            bucketHi = Long.MIN_VALUE;
+        }
+        packed = symbolsOnly && computeRadixes(cursor);
+        keys.clear();
+        dictionary.clear();
+        if (!packed) {
+            // reserve id 0 for all-null key
+            final MapKey key = dictionary.withKey();
+            for (int i = 0; i < keyCount; i++) {
+                if (isIntKey(keyTypes[i])) {
+                    key.putInt(Numbers.INT_NaN);
+                    keys.add(Numbers.INT_NaN);
+                } else {
+                    key.putLong(Numbers.LONG_NaN);
+                    keys.add(Numbers.LONG_NaN);
+                }
+            }
+            key.createValue().putInt(0, 0);
+        }
+    }
+
+    /**
+     * Makes timestamp key sampled.
+     *
+     * @param keyIndex       index of designated timestamp among keys
+     * @param sampler        sampler that defines buckets
+     * @param sampleByOrigin timestamp buckets are aligned to, NaN aligns buckets to the first row
+     */
+    void ofSampler(int keyIndex, TimestampSampler sampler, long sampleByOrigin) {
+        assert keyTypes[keyIndex] == ColumnType.TIMESTAMP;
+        this.sampledKeyIndex = keyIndex;
+        this.timestampSampler = sampler;
+        this.sampleByOrigin = sampleByOrigin;
+    }
+
+    void releaseBuffer(long pKeys) {
+        // buffers are released roughly in order of allocation, oldest one is found first
+        for (int i = 0, n = buffers.size(); i < n; i += 2) {
+            if (buffers.getQuick(i) == pKeys) {
+                Unsafe.free(pKeys, buffers.getQuick(i + 1));
+                buffers.removeIndex(i + 1);
+                buffers.removeIndex(i);
+                return;
+            }
+        }
+        assert false;
+    }
+
+    void releaseBuffers() {
+        for (int i = 0, n = buffers.size(); i < n; i += 2) {
+            Unsafe.free(buffers.getQuick(i), buffers.getQuick(i + 1));
+        }
+        buffers.clear();
+    }
+
+    private void assignIds(long pKeys) {
+        for (long row = 0; row < rowCount; row++) {
+            final MapKey key = dictionary.withKey();
+            for (int i = 0; i < keyCount; i++) {
+                final long address = keyAddresses[i];
+                if (isIntKey(keyTypes[i])) {
+                    key.putInt(address == 0 ? Numbers.INT_NaN : Unsafe.getUnsafe().getInt(address + row * Integer.BYTES));
+                } else {
+                    key.putLong(getLong(i, address, row));
+                }
+            }
+
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                final int id = (int) (dictionary.size() - 1);
+                value.putInt(0, id);
+                // map key is written already, re-read values from columns to remember them
+                for (int i = 0; i < keyCount; i++) {
+                    final long address = keyAddresses[i];
+                    if (isIntKey(keyTypes[i])) {
+                        keys.add(address == 0 ? Numbers.INT_NaN : Unsafe.getUnsafe().getInt(address + row * Integer.BYTES));
+                    } else {
+                        keys.add(getLong(i, address, row));
+                    }
+                }
+                Unsafe.getUnsafe().putInt(pKeys + row * Integer.BYTES, id);
+            } else {
+                Unsafe.getUnsafe().putInt(pKeys + row * Integer.BYTES, value.getInt(0));
+            }
+        }
+    }
+
+    private boolean computeRadixes(PageFrameCursor cursor) {
+        long multiplier = 1;
+        for (int i = keyCount - 1; i > -1; i--) {
+            // symbol keys are shifted by one to make room for null
+            final int radix = cursor.getSymbolMapReader(keyColumnIndexes[i]).size() + 1;
+            multipliers[i] = (int) multiplier;
+            radixes[i] = radix;
+            multiplier *= radix;
+            if (multiplier > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long getBaselineOffset(PageFrameCursor cursor) {
+        long alignTo = sampleByOrigin;
+        if (alignTo == Numbers.LONG_NaN) {
+            // same as serial SAMPLE BY buckets are aligned to the first row
+            final int timestampIndex = keyColumnIndexes[sampledKeyIndex];
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                if (frame.getPageSize(timestampIndex) > 0) {
+                    alignTo = Unsafe.getUnsafe().getLong(frame.getPageAddress(timestampIndex));
+                    break;
+                }
+            }
+            cursor.toTop();
+            if (alignTo == Numbers.LONG_NaN) {
+                return 0;
+            }
+        }
+        return alignTo - timestampSampler.round(alignTo);
+    }
+
+    private long getLong(int keyIndex, long address, long row) {
+        if (address == 0) {
+            return Numbers.LONG_NaN;
+        }
+        final long value = Unsafe.getUnsafe().getLong(address + row * Long.BYTES);
+        if (keyIndex == sampledKeyIndex && (value < bucketLo || value >= bucketHi)) {
+            // timestamps ascend, bucket boundaries are recomputed only when they are crossed
+            bucketLo = timestampSampler.round(value - baselineOffset) + baselineOffset;
+            bucketHi = timestampSampler.nextTimestamp(bucketLo - baselineOffset) + baselineOffset;
+        }
+        return keyIndex == sampledKeyIndex ? bucketLo : value;
+    }
+
+    private void pack(long pKeys) {
+        for (int i = 0; i < keyCount; i++) {
+            final long address = keyAddresses[i];
+            if (address != 0) {
+                final int multiplier = multipliers[i];
+                for (long row = 0; row < rowCount; row++) {
+                    final int symbol = Unsafe.getUnsafe().getInt(address + row * Integer.BYTES);
+                    if (symbol != SymbolTable.VALUE_IS_NULL) {
+                        final long p = pKeys + row * Integer.BYTES;
+                        Unsafe.getUnsafe().putInt(p, Unsafe.getUnsafe().getInt(p) + (symbol + 1) * multiplier);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -25,11 +25,13 @@
 package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.MessageBus;
+import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.RingQueue;
@@ -39,6 +41,7 @@ import io.questdb.mp.Worker;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.tasks.VectorAggregateTask;
+import org.jetbrains.annotations.Nullable;
 
 public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
@@ -54,6 +57,13 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
     private final long[] pRosti;
     private final int keyColumnIndex;
     private final RostiRecordCursor cursor;
+    private final CompositeKeyEncoder keyEncoder;
+    private final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
+    // (key buffer address, number of active entries once frame is queued) pairs of encoded frames
+    private final LongList encodedFrames = new LongList();
+    private int encodedFramesPos;
+    // leading active entries known to be done
+    private int doneEntryCount;
 
     public GroupByRecordCursorFactory(
             CairoConfiguration configuration,
@@ -62,15 +72,56 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             @Transient ColumnTypes columnTypes,
             int workerCount,
             @Transient ObjList<VectorAggregateFunction> vafList,
-            int keyColumnIndexInBase,
-            int keyColumnIndexInThisCursor,
+            @Transient IntList keyColumnIndexesInBase,
+            @Transient IntList keyColumnIndexesInThisCursor,
+            @Transient IntList keyTypes,
             @Transient IntList symbolTableSkewIndex
     ) {
+        this(
+                configuration,
+                base,
+                metadata,
+                columnTypes,
+                workerCount,
+                vafList,
+                keyColumnIndexesInBase,
+                keyColumnIndexesInThisCursor,
+                keyTypes,
+                symbolTableSkewIndex,
+                null,
+                -1,
+                Numbers.LONG_NaN
+        );
+    }
+
+    /**
+     * Creates SAMPLE BY factory when sampler is not null. Designated timestamp has to be one of the keys, its values
+     * are replaced with their bucket, and cursor returns rows in the order of buckets.
+     *
+     * @param timestampSampler sampler that defines buckets, or null for GROUP BY
+     * @param sampledKeyIndex  index of designated timestamp among keys
+     * @param sampleByOrigin   timestamp buckets are aligned to, NaN aligns buckets to the first row
+     */
+    public GroupByRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            RecordMetadata metadata,
+            @Transient ColumnTypes columnTypes,
+            int workerCount,
+            @Transient ObjList<VectorAggregateFunction> vafList,
+            @Transient IntList keyColumnIndexesInBase,
+            @Transient IntList keyColumnIndexesInThisCursor,
+            @Transient IntList keyTypes,
+            @Transient IntList symbolTableSkewIndex,
+            @Nullable TimestampSampler timestampSampler,
+            int sampledKeyIndex,
+            long sampleByOrigin
+    ) {
 
         this.entryPool = new ObjectPool<>(VectorAggregateEntry::new, configuration.getGroupByPoolCapacity());
         this.activeEntries = new ObjList<>(configuration.getGroupByPoolCapacity());
         // columnTypes and functions must align in the following way:
-        // columnTypes[0] is the type of key, for now single key is supported
+        // columnTypes[0] is the type of key, composite keys are encoded into single INT
         // functions.size = columnTypes.size - 1, functions do not have instance for key, only for values
         // functions[0].type == columnTypes[1]
         // ...
@@ -78,79 +129,64 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
         this.base = base;
         this.metadata = metadata;
-        // first column is INT or SYMBOL
+        final int keyCount = keyColumnIndexesInBase.size();
+        if (keyCount == 1 && CompositeKeyEncoder.isIntKey(keyTypes.getQuick(0))) {
+            // single INT or SYMBOL key, Rosti reads it straight from the column
+            this.keyEncoder = null;
+        } else {
+            this.keyEncoder = new CompositeKeyEncoder(configuration, keyColumnIndexesInBase, keyTypes);
+            if (timestampSampler != null) {
+                keyEncoder.ofSampler(sampledKeyIndex, timestampSampler, sampleByOrigin);
+            }
+        }
+        for (int i = 0, n = columnTypes.getColumnCount(); i < n; i++) {
+            this.columnTypes.add(columnTypes.getColumnType(i));
+        }
         this.pRosti = new long[workerCount];
         final int vafCount = vafList.size();
         this.vafList = new ObjList<>(vafCount);
+        this.vafList.addAll(vafList);
         for (int i = 0; i < workerCount; i++) {
-            pRosti[i] = Rosti.alloc(columnTypes, configuration.getGroupByMapCapacity());
-
-            // todo: init key to null value
-
-            // remember, single key for now
-            switch (columnTypes.getColumnType(0)) {
-                case ColumnType.INT:
-                    Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pRosti[i], 0), Numbers.INT_NaN);
-                    break;
-                case ColumnType.SYMBOL:
-                    Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pRosti[i], 0), SymbolTable.VALUE_IS_NULL);
-                    break;
-                default:
-            }
-
-            // configure map with default values
-            // when our execution order is sum(x) then min(y) over the same map
-            // min(y) may not find any new keys slots(they will be created by first pass with sum(x))
-            // for aggregation function to continue, such slots have to be initialized to the
-            // appropriate value for the function.
-            for (int j = 0; j < vafCount; j++) {
-                vafList.getQuick(j).initRosti(pRosti[i]);
-            }
+            pRosti[i] = allocRosti(configuration.getGroupByMapCapacity());
         }
 
         // all maps are the same at this point
-        // check where our keys are and pull them to front
+        // keys and aggregates are interleaved in this cursor, all keys share the offset of the
+        // single Rosti key and aggregates follow in the order of their value offsets
         final long pRosti = this.pRosti[0];
         final long columnOffsets = Rosti.getValueOffsets(pRosti);
+        final int columnCount = keyCount + vafCount;
 
-        // skew logic assumes single key, for multiple keys skew would be different
-
-        final IntList columnSkewIndex = new IntList();
-        // key is in the middle, shift aggregates before the key one position left
-        addOffsets(columnSkewIndex, vafList, 0, keyColumnIndexInThisCursor, columnOffsets);
-
-        // this is offset of the key column
-        columnSkewIndex.add(0);
+        final IntList keyIndexes = new IntList(columnCount);
+        keyIndexes.setAll(columnCount, -1);
+        for (int i = 0; i < keyCount; i++) {
+            keyIndexes.setQuick(keyColumnIndexesInThisCursor.getQuick(i), i);
+        }
 
-        // add remaining aggregate columns as is
-        addOffsets(columnSkewIndex, vafList, keyColumnIndexInThisCursor, vafCount, columnOffsets);
+        final IntList columnSkewIndex = new IntList(columnCount);
+        for (int i = 0, vafIndex = 0; i < columnCount; i++) {
+            if (keyIndexes.getQuick(i) > -1) {
+                columnSkewIndex.add(0);
+            } else {
+                columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(vafIndex++).getValueOffset() * Integer.BYTES));
+            }
+        }
 
-        this.vafList.addAll(vafList);
-        this.keyColumnIndex = keyColumnIndexInBase;
+        this.keyColumnIndex = keyColumnIndexesInBase.getQuick(0);
+        final IntList symbolSkew;
         if (symbolTableSkewIndex.size() > 0) {
-            final IntList symbolSkew = new IntList(symbolTableSkewIndex.size());
+            symbolSkew = new IntList(symbolTableSkewIndex.size());
             symbolSkew.addAll(symbolTableSkewIndex);
-            this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, symbolSkew);
         } else {
-            this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, null);
-        }
-    }
-
-    private static void addOffsets(
-            IntList columnSkewIndex,
-            @Transient ObjList<VectorAggregateFunction> vafList,
-            int start,
-            int end,
-            long columnOffsets
-    ) {
-        for (int i = start; i < end; i++) {
-            columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(i).getValueOffset() * Integer.BYTES));
+            symbolSkew = null;
         }
+        this.cursor = new RostiRecordCursor(columnSkewIndex, symbolSkew, keyEncoder, keyIndexes, timestampSampler != null);
     }
 
     @Override
     public void close() {
         Misc.freeObjList(vafList);
+        Misc.free(keyEncoder);
         for (int i = 0, n = pRosti.length; i < n; i++) {
             Rosti.free(pRosti[i]);
         }
@@ -196,47 +232,87 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             workerId = 0;
         }
 
-        PageFrame frame;
-        while ((frame = cursor.next()) != null) {
-            final long keyAddress = frame.getPageAddress(keyColumnIndex);
-            for (int i = 0; i < vafCount; i++) {
-                final VectorAggregateFunction vaf = vafList.getQuick(i);
-                // when column index = -1 we assume that vector function does not have value
-                // argument and it can only derive count via memory size
-                final int columnIndex = vaf.getColumnIndex();
-                final long valueAddress;
-                final long valueAddressSize;
-
-                if (columnIndex > -1) {
-                    valueAddress = frame.getPageAddress(columnIndex);
-                    valueAddressSize = frame.getPageSize(columnIndex);
+        encodedFrames.clear();
+        encodedFramesPos = 0;
+        doneEntryCount = 0;
+        try {
+            if (keyEncoder != null) {
+                keyEncoder.of(cursor);
+            }
+
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                final long keyAddress;
+                final long keySize;
+                if (keyEncoder == null) {
+                    keyAddress = frame.getPageAddress(keyColumnIndex);
+                    keySize = frame.getPageSize(keyColumnIndex);
                 } else {
-                    valueAddress = 0;
-                    valueAddressSize = frame.getPageSize(keyColumnIndex);
+                    // encoding runs on this thread, tasks of frames published earlier
+                    // are being aggregated in the meantime
+                    releaseAggregatedFrames();
+                    keyAddress = keyEncoder.encode(frame);
+                    keySize = keyAddress == 0 ? 0 : keyEncoder.getRowCount() * Integer.BYTES;
+                    if (!keyEncoder.isPacked() && keyEncoder.getKeyCount() > Rosti.getGrowthLimit(pRosti[0])) {
+                        // Rosti would have to resize while aggregating this frame and native resize
+                        // does not carry slot initial values over, grow maps up front instead
+                        reclaimed = GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG);
+                        growRosti(keyEncoder.getKeyCount());
+                    }
                 }
-                long seq = pubSeq.next();
-                if (seq < 0) {
-                    if (keyAddress == 0) {
-                        vaf.aggregate(valueAddress, valueAddressSize, workerId);
+                for (int i = 0; i < vafCount; i++) {
+                    final VectorAggregateFunction vaf = vafList.getQuick(i);
+                    // when column index = -1 we assume that vector function does not have value
+                    // argument and it can only derive count via memory size
+                    final int columnIndex = vaf.getColumnIndex();
+                    final long valueAddress;
+                    final long valueAddressSize;
+
+                    if (columnIndex > -1) {
+                        valueAddress = frame.getPageAddress(columnIndex);
+                        valueAddressSize = frame.getPageSize(columnIndex);
                     } else {
-                        vaf.aggregate(pRosti[workerId], keyAddress, valueAddress, valueAddressSize, workerId);
+                        valueAddress = 0;
+                        valueAddressSize = keySize;
                     }
-                    ownCount++;
-                } else {
-                    if (keyAddress != 0 || valueAddress != 0) {
-                        final VectorAggregateEntry entry = entryPool.next();
+                    long seq = pubSeq.next();
+                    if (seq < 0) {
                         if (keyAddress == 0) {
-                            entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, doneLatch);
+                            vaf.aggregate(valueAddress, valueAddressSize, workerId);
                         } else {
-                            entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, doneLatch);
+                            vaf.aggregate(pRosti[workerId], keyAddress, valueAddress, valueAddressSize, workerId);
+                        }
+                        ownCount++;
+                    } else {
+                        if (keyAddress != 0 || valueAddress != 0) {
+                            final VectorAggregateEntry entry = entryPool.next();
+                            if (keyAddress == 0) {
+                                entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, doneLatch);
+                            } else {
+                                entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, doneLatch);
+                            }
+                            activeEntries.add(entry);
+                            queue.get(seq).entry = entry;
+                            pubSeq.done(seq);
                         }
-                        activeEntries.add(entry);
-                        queue.get(seq).entry = entry;
-                        pubSeq.done(seq);
                     }
+                    total++;
+                }
+
+                if (keyAddress != 0 && keyEncoder != null) {
+                    // key buffer is freed once every task of the frame has run
+                    encodedFrames.add(keyAddress);
+                    encodedFrames.add(activeEntries.size());
                 }
-                total++;
             }
+        } catch (Throwable e) {
+            // tasks published so far read key buffers, they have to finish before buffers are freed
+            GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG);
+            if (keyEncoder != null) {
+                keyEncoder.releaseBuffers();
+            }
+            Misc.free(cursor);
+            throw e;
         }
 
         // all done? great start consuming the queue we just published
@@ -246,6 +322,9 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
         // start at the back to reduce chance of clashing
         reclaimed = GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG);
+        if (keyEncoder != null) {
+            keyEncoder.releaseBuffers();
+        }
         long pRosti0 = pRosti[0];
 
         if (pRosti.length > 1) {
@@ -266,7 +345,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
         LOG.info().$("done [total=").$(total).$(", ownCount=").$(ownCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
 
-        return this.cursor.of(cursor);
+        return this.cursor.of(cursor, pRosti0);
     }
 
     @Override
@@ -279,11 +358,76 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         return true;
     }
 
+    /**
+     * Frees key buffers of leading frames whose tasks have all run. Tasks are checked in the order
+     * they were queued, a task that is still running holds back buffers of later frames too.
+     */
+    private void releaseAggregatedFrames() {
+        while (doneEntryCount < activeEntries.size() && activeEntries.getQuick(doneEntryCount).isDone()) {
+            doneEntryCount++;
+        }
+        while (encodedFramesPos < encodedFrames.size() && encodedFrames.getQuick(encodedFramesPos + 1) <= doneEntryCount) {
+            keyEncoder.releaseBuffer(encodedFrames.getQuick(encodedFramesPos));
+            encodedFramesPos += 2;
+        }
+    }
+
+    private long allocRosti(long capacity) {
+        final long pRosti = Rosti.alloc(columnTypes, capacity);
+        if (keyEncoder != null) {
+            // encoded key of all-null columns
+            Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pRosti, 0), 0);
+        } else {
+            switch (columnTypes.getColumnType(0)) {
+                case ColumnType.INT:
+                    Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pRosti, 0), Numbers.INT_NaN);
+                    break;
+                case ColumnType.SYMBOL:
+                    Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pRosti, 0), SymbolTable.VALUE_IS_NULL);
+                    break;
+                default:
+            }
+        }
+
+        // configure map with default values
+        // when our execution order is sum(x) then min(y) over the same map
+        // min(y) may not find any new keys slots(they will be created by first pass with sum(x))
+        // for aggregation function to continue, such slots have to be initialized to the
+        // appropriate value for the function.
+        for (int j = 0, n = vafList.size(); j < n; j++) {
+            vafList.getQuick(j).initRosti(pRosti);
+        }
+        return pRosti;
+    }
+
+    /**
+     * Replaces every map with one that holds twice the key count without resizing.
+     * Aggregated values are carried over by merge into the empty map.
+     * Must be called when no tasks are in flight.
+     */
+    private void growRosti(long keyCount) {
+        for (int i = 0, n = pRosti.length; i < n; i++) {
+            final long pOld = pRosti[i];
+            final long pNew = allocRosti(keyCount * 2);
+            for (int j = 0, m = vafList.size(); j < m; j++) {
+                vafList.getQuick(j).merge(pNew, pOld);
+            }
+            pRosti[i] = pNew;
+            Rosti.free(pOld);
+        }
+        LOG.info().$("grown maps [keyCount=").$(keyCount).$(", capacity=").$(Rosti.getCapacity(pRosti[0])).$(']').$();
+    }
+
     private static class RostiRecordCursor implements RecordCursor {
         private final RostiRecord record;
-        private final long pRosti;
+        private long pRosti;
         private final IntList symbolTableSkewIndex;
         private final IntList columnSkewIndex;
+        private final CompositeKeyEncoder keyEncoder;
+        private final IntList keyIndexes;
+        // when set rows are returned in the order of encoded keys
+        private final boolean ordered;
+        private final LongList slotsByKey = new LongList();
         private RostiRecord recordB;
         private long ctrlStart;
         private long ctrl;
@@ -291,18 +435,42 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         private long shift;
         private long size;
         private long count;
+        private int keyPosition;
         private PageFrameCursor parent;
 
-        public RostiRecordCursor(long pRosti, IntList columnSkewIndex, IntList symbolTableSkewIndex) {
-            this.pRosti = pRosti;
+        public RostiRecordCursor(
+                IntList columnSkewIndex,
+                IntList symbolTableSkewIndex,
+                CompositeKeyEncoder keyEncoder,
+                IntList keyIndexes,
+                boolean ordered
+        ) {
             this.record = new RostiRecord();
             this.symbolTableSkewIndex = symbolTableSkewIndex;
             this.columnSkewIndex = columnSkewIndex;
+            this.keyEncoder = keyEncoder;
+            this.keyIndexes = keyIndexes;
+            this.ordered = ordered;
         }
 
-        public RostiRecordCursor of(PageFrameCursor parent) {
+        public RostiRecordCursor of(PageFrameCursor parent, long pRosti) {
             this.parent = parent;
+            this.pRosti = pRosti;
             this.toTop();
+            if (ordered) {
+                // encoded keys are dense, slot addresses are placed at key positions and
+                // positions of keys that never occurred stay 0
+                slotsByKey.setAll(keyEncoder.getKeyCount(), 0);
+                while (count < size) {
+                    if ((Unsafe.getUnsafe().getByte(ctrl) & 0x80) == 0) {
+                        final long pRow = slots + ((ctrl - ctrlStart) << shift);
+                        slotsByKey.setQuick(Unsafe.getUnsafe().getInt(pRow), pRow);
+                        count++;
+                    }
+                    ctrl++;
+                }
+                this.toTop();
+            }
             return this;
         }
 
@@ -318,6 +486,17 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
         @Override
         public boolean hasNext() {
+            if (ordered) {
+                while (count < size) {
+                    final long pRow = slotsByKey.getQuick(keyPosition++);
+                    if (pRow != 0) {
+                        count++;
+                        record.of(pRow);
+                        return true;
+                    }
+                }
+                return false;
+            }
             while (count < size) {
                 byte b = Unsafe.getUnsafe().getByte(ctrl);
                 if ((b & 0x80) != 0) {
@@ -353,6 +532,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             this.size = Rosti.getSize(pRosti);
             this.shift = Rosti.getSlotShift(pRosti);
             this.count = 0;
+            this.keyPosition = 0;
         }
 
         @Override
@@ -418,11 +598,24 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
             @Override
             public int getInt(int col) {
-                return Unsafe.getUnsafe().getInt(getValueOffset(col));
+                final int value = Unsafe.getUnsafe().getInt(getValueOffset(col));
+                if (keyEncoder != null) {
+                    final int keyIndex = keyIndexes.getQuick(col);
+                    if (keyIndex > -1) {
+                        return keyEncoder.decodeInt(value, keyIndex);
+                    }
+                }
+                return value;
             }
 
             @Override
             public long getLong(int col) {
+                if (keyEncoder != null) {
+                    final int keyIndex = keyIndexes.getQuick(col);
+                    if (keyIndex > -1) {
+                        return keyEncoder.decodeLong(Unsafe.getUnsafe().getInt(getValueOffset(col)), keyIndex);
+                    }
+                }
                 return Unsafe.getUnsafe().getLong(getValueOffset(col));
             }
 
@@ -47,6 +47,7 @@ public class VectorAggregateEntry implements Mutable {
     @SuppressWarnings({"FieldCanBeLocal", "unused"})
     private int targetSequence;
     private CountDownLatchSPI doneLatch;
+    private volatile boolean done;
 
     void of(
             int sequence,
@@ -65,6 +66,11 @@ public class VectorAggregateEntry implements Mutable {
         this.srcSequence = sequence;
         this.targetSequence = sequence;
         this.doneLatch = doneLatch;
+        this.done = false;
+    }
+
+    public boolean isDone() {
+        return done;
     }
 
     public boolean tryLock() {
@@ -78,6 +84,7 @@ public class VectorAggregateEntry implements Mutable {
             } else {
                 func.aggregate(valueAddress, valueCount, workerId);
             }
+            done = true;
             doneLatch.countDown();
             return true;
         }
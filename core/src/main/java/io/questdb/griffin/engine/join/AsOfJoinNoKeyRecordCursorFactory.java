@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
 
 public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory masterFactory;
@@ -78,6 +79,7 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
         private final int columnSplit;
         private final int masterTimestampIndex;
         private final int slaveTimestampIndex;
+        private final TimeFrameSeeker seeker = new TimeFrameSeeker();
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
         private Record masterRecord;
@@ -85,6 +87,7 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
         private Record slaveRecA;
         private long slaveTimestamp = Long.MIN_VALUE;
         private long latestSlaveRowID = Long.MIN_VALUE;
+        private boolean seek;
 
         public AsOfLightJoinRecordCursor(
                 int columnSplit,
@@ -123,6 +126,10 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
             if (masterCursor.hasNext()) {
                 // great, we have a record no matter what
                 final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (seek) {
+                    seekSlave(seeker.findLatest(masterTimestamp));
+                    return true;
+                }
                 if (masterTimestamp < slaveTimestamp) {
                     return true;
                 }
@@ -148,6 +155,15 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
             }
         }
 
+        private void seekSlave(long rowId) {
+            if (rowId != Numbers.LONG_NaN) {
+                record.hasSlave(true);
+                slaveCursor.recordAt(slaveRecB, rowId);
+            } else {
+                record.hasSlave(false);
+            }
+        }
+
         private void positionSlaveRecB() {
             if (this.latestSlaveRowID != Long.MIN_VALUE) {
                 record.hasSlave(true);
@@ -194,6 +210,7 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
             record.hasSlave(false);
             masterCursor.toTop();
             slaveCursor.toTop();
+            seeker.toTop();
         }
 
         @Override
@@ -211,6 +228,7 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
             this.slaveRecB = slaveCursor.getRecordB();
             record.of(masterRecord, slaveRecB);
             record.hasSlave(false);
+            seek = seeker.of(slaveCursor, -1);
         }
     }
 }
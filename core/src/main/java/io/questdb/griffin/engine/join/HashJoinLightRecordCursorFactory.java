@@ -32,10 +32,14 @@ import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 
 public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final int MAX_SPILL_PARTITIONS = 64 * 1024;
+    // number of sub-partitions partition is split into when its slave rows do not fit in memory
+    private static final int SPLIT_FACTOR = 4;
     private final Map joinKeyMap;
     private final LongChain slaveChain;
     private final RecordCursorFactory masterFactory;
@@ -43,6 +47,11 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     private final RecordSink masterKeySink;
     private final RecordSink slaveKeySink;
     private final HashJoinRecordCursor cursor;
+    // all three are null when join cannot spill to disk
+    private final HashPartitionedRowIds masterRowIds;
+    private final HashPartitionedRowIds slaveRowIds;
+    private final SpilledJoinMatches matches;
+    private final KeyHasher keyHasher = new KeyHasher();
 
     public HashJoinLightRecordCursorFactory(
             CairoConfiguration configuration,
@@ -63,6 +72,15 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
         this.masterKeySink = masterKeySink;
         this.slaveKeySink = slaveKeySink;
+        if (configuration.isSqlHashJoinSpillEnabled() && masterFactory.recordCursorSupportsRandomAccess()) {
+            this.masterRowIds = new HashPartitionedRowIds(configuration, true);
+            this.slaveRowIds = new HashPartitionedRowIds(configuration, false);
+            this.matches = new SpilledJoinMatches(configuration);
+        } else {
+            this.masterRowIds = null;
+            this.slaveRowIds = null;
+            this.matches = null;
+        }
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
     }
 
@@ -70,6 +88,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        Misc.free(masterRowIds);
+        Misc.free(slaveRowIds);
+        Misc.free(matches);
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -77,14 +98,29 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        final int partitionCount;
         try {
-            buildMapOfSlaveRecords(slaveCursor, executionContext.getSqlExecutionInterruptor());
+            partitionCount = buildMapOfSlaveRecords(slaveCursor, interruptor);
         } catch (CairoException e) {
+            clearSpill();
             slaveCursor.close();
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        if (partitionCount > 0) {
+            try {
+                partitionMasterRecords(masterCursor, interruptor, partitionCount);
+                joinPartitions(masterCursor, slaveCursor, interruptor, partitionCount);
+            } catch (CairoException e) {
+                clearSpill();
+                masterCursor.close();
+                slaveCursor.close();
+                throw e;
+            }
+        }
+        cursor.of(masterCursor, slaveCursor, partitionCount);
         return cursor;
     }
 
@@ -93,25 +129,167 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+    /**
+     * Builds map of slave records. When map or chain run out of memory and join is allowed to spill,
+     * slave row ids are written to disk grouped by hash partition instead.
+     *
+     * @return number of hash partitions slave records are spilled to, 0 when all records are in memory
+     */
+    private int buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
         slaveChain.clear();
         joinKeyMap.clear();
         final Record record = slaveCursor.getRecord();
+        long rowCount = 0;
         while (slaveCursor.hasNext()) {
             interruptor.checkInterrupted();
+            try {
+                putSlaveRecord(record);
+            } catch (LimitOverflowException e) {
+                if (slaveRowIds == null || rowCount == 0) {
+                    throw e;
+                }
+                return partitionSlaveRecords(slaveCursor, interruptor, rowCount);
+            }
+            rowCount++;
+        }
+        return 0;
+    }
+
+    private void clearSpill() {
+        if (slaveRowIds != null) {
+            slaveRowIds.clear();
+            masterRowIds.clear();
+            matches.clear();
+        }
+    }
+
+    /**
+     * Joins spilled rows partition by partition and stores slave row ids matched by
+     * each master row. Master cursor is left at the top to emit rows in its own order.
+     */
+    private void joinPartitions(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionInterruptor interruptor, int partitionCount) {
+        matches.of(masterRowIds.getRowCount());
+        for (int partition = 0; partition < partitionCount; partition++) {
+            joinPartition(masterCursor, slaveCursor, interruptor, partition, partitionCount, partition, partitionCount);
+        }
+        matches.seal();
+        slaveChain.clear();
+        joinKeyMap.clear();
+        masterCursor.toTop();
+    }
+
+    /**
+     * Joins rows of spill partition that fall into given sub-partition. Sub-partitions of finer
+     * split nest in partitions of coarser one, which makes the whole partition a sub-partition of itself.
+     * When slave rows of sub-partition do not fit in memory it is split further, only sub-partition
+     * of single key that does not fit is an error.
+     */
+    private void joinPartition(
+            RecordCursor masterCursor,
+            RecordCursor slaveCursor,
+            SqlExecutionInterruptor interruptor,
+            int partition,
+            int partitionCount,
+            int subPartition,
+            int subPartitionCount
+    ) {
+        final boolean filter = subPartitionCount != partitionCount;
+        slaveChain.clear();
+        joinKeyMap.clear();
+        final Record slaveRecord = slaveCursor.getRecord();
+        try {
+            for (long i = slaveRowIds.getPartitionLo(partition), hi = slaveRowIds.getPartitionHi(partition); i < hi; i++) {
+                interruptor.checkInterrupted();
+                slaveCursor.recordAt(slaveRecord, slaveRowIds.getRowId(i));
+                if (filter && HashPartitionedRowIds.partitionOf(keyHasher.hash(slaveRecord, slaveKeySink), subPartitionCount) != subPartition) {
+                    continue;
+                }
+                putSlaveRecord(slaveRecord);
+            }
+        } catch (LimitOverflowException e) {
+            if (joinKeyMap.size() < 2 || subPartitionCount > Integer.MAX_VALUE / SPLIT_FACTOR) {
+                throw e;
+            }
+            for (int i = 0; i < SPLIT_FACTOR; i++) {
+                joinPartition(
+                        masterCursor,
+                        slaveCursor,
+                        interruptor,
+                        partition,
+                        partitionCount,
+                        subPartition * SPLIT_FACTOR + i,
+                        subPartitionCount * SPLIT_FACTOR
+                );
+            }
+            return;
+        }
+
+        final Record masterRecord = masterCursor.getRecordB();
+        for (long i = masterRowIds.getPartitionLo(partition), hi = masterRowIds.getPartitionHi(partition); i < hi; i++) {
+            interruptor.checkInterrupted();
+            masterCursor.recordAt(masterRecord, masterRowIds.getRowId(i));
+            if (filter && HashPartitionedRowIds.partitionOf(keyHasher.hash(masterRecord, masterKeySink), subPartitionCount) != subPartition) {
+                continue;
+            }
             MapKey key = joinKeyMap.withKey();
-            key.put(record, slaveKeySink);
-            MapValue value = key.createValue();
-            if (value.isNew()) {
-                final long offset = slaveChain.put(record.getRowId(), -1);
-                value.putLong(0, offset);
-                value.putLong(1, offset);
-            } else {
-                value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
+            key.put(masterRecord, masterKeySink);
+            MapValue value = key.findValue();
+            if (value != null) {
+                final long head = value.getLong(0);
+                long count = 0;
+                LongChain.TreeCursor chainCursor = slaveChain.getCursor(head);
+                while (chainCursor.hasNext()) {
+                    chainCursor.next();
+                    count++;
+                }
+                matches.put(masterRowIds.getOrdinal(i), slaveChain.getCursor(head), count);
             }
         }
     }
 
+    private void partitionMasterRecords(RecordCursor masterCursor, SqlExecutionInterruptor interruptor, int partitionCount) {
+        masterRowIds.clear();
+        final Record record = masterCursor.getRecord();
+        while (masterCursor.hasNext()) {
+            interruptor.checkInterrupted();
+            masterRowIds.add(keyHasher.hash(record, masterKeySink), record.getRowId());
+        }
+        masterRowIds.partition(partitionCount);
+    }
+
+    private int partitionSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor, long fittingRowCount) {
+        slaveChain.clear();
+        joinKeyMap.clear();
+        slaveRowIds.clear();
+        slaveCursor.toTop();
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            interruptor.checkInterrupted();
+            slaveRowIds.add(keyHasher.hash(record, slaveKeySink), record.getRowId());
+        }
+        // aim for partitions of quarter the size of what fitted in memory,
+        // which leaves room for uneven distribution of keys
+        final int partitionCount = (int) Math.min(
+                4 * ((slaveRowIds.getRowCount() + fittingRowCount - 1) / fittingRowCount),
+                MAX_SPILL_PARTITIONS
+        );
+        slaveRowIds.partition(partitionCount);
+        return partitionCount;
+    }
+
+    private void putSlaveRecord(Record record) {
+        MapKey key = joinKeyMap.withKey();
+        key.put(record, slaveKeySink);
+        MapValue value = key.createValue();
+        if (value.isNew()) {
+            final long offset = slaveChain.put(record.getRowId(), -1);
+            value.putLong(0, offset);
+            value.putLong(1, offset);
+        } else {
+            value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
+        }
+    }
+
     private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
         private final JoinRecord record;
         private final LongChain slaveChain;
@@ -122,6 +300,10 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         private Record masterRecord;
         private LongChain.TreeCursor slaveChainCursor;
         private Record slaveRecord;
+        private boolean spilled;
+        private long masterOrdinal;
+        private long matchOffset;
+        private long matchHi;
 
         public HashJoinRecordCursor(
                 int columnSplit,
@@ -136,6 +318,10 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public void close() {
+            if (spilled) {
+                clearSpill();
+                spilled = false;
+            }
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
         }
@@ -162,6 +348,8 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         public void toTop() {
             masterCursor.toTop();
             slaveChainCursor = null;
+            masterOrdinal = 0;
+            matchOffset = matchHi = 0;
         }
 
         @Override
@@ -171,29 +359,59 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                 return true;
             }
 
+            if (spilled) {
+                return nextSpilled();
+            }
+
             while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterKeySink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChainCursor = slaveChain.getCursor(value.getLong(0));
-                    // we know cursor has values
-                    // advance to get first value
-                    slaveChainCursor.hasNext();
-                    slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                if (findSlaveChain()) {
                     return true;
                 }
             }
             return false;
         }
 
-        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+        private boolean findSlaveChain() {
+            MapKey key = joinKeyMap.withKey();
+            key.put(masterRecord, masterKeySink);
+            MapValue value = key.findValue();
+            if (value != null) {
+                slaveChainCursor = slaveChain.getCursor(value.getLong(0));
+                // we know cursor has values
+                // advance to get first value
+                slaveChainCursor.hasNext();
+                slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                return true;
+            }
+            return false;
+        }
+
+        private boolean nextSpilled() {
+            while (matchOffset == matchHi) {
+                if (!masterCursor.hasNext()) {
+                    return false;
+                }
+                final long offset = matches.getMatchOffset(masterOrdinal++);
+                if (offset != -1) {
+                    matchOffset = offset + Long.BYTES;
+                    matchHi = matchOffset + matches.getLong(offset) * Long.BYTES;
+                }
+            }
+            slaveCursor.recordAt(slaveRecord, matches.getLong(matchOffset));
+            matchOffset += Long.BYTES;
+            return true;
+        }
+
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor, int partitionCount) {
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
             this.masterRecord = masterCursor.getRecord();
             this.slaveRecord = slaveCursor.getRecordB();
+            this.spilled = partitionCount > 0;
             record.of(masterRecord, slaveRecord);
             slaveChainCursor = null;
+            masterOrdinal = 0;
+            matchOffset = matchHi = 0;
         }
     }
 }
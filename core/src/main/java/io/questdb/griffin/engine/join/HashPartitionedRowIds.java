@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AppendMemory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.SpillFiles;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Row ids of one side of hash join, grouped by partition of their key hash. Row ids are
+ * appended to temporary file under spill root together with key hash, then scattered
+ * into memory mapped file where rows of each partition are contiguous. Rows keep the order
+ * they were added in within partition and can optionally carry that order as ordinal.
+ */
+class HashPartitionedRowIds implements Mutable, Closeable {
+    private static final Log LOG = LogFactory.getLog(HashPartitionedRowIds.class);
+    private final CairoConfiguration configuration;
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final long pageSize;
+    private final Path path = new Path();
+    private final AppendMemory hashMem = new AppendMemory();
+    // index of first row id of each partition followed by total row count
+    private final LongList partitionOffsets = new LongList();
+    private final LongList scatterOffsets = new LongList();
+    private final int entryShift;
+    private long fileId = -1;
+    private long rowCount = 0;
+    private long rowIdFd = -1;
+    private long rowIdAddress = 0;
+    private long rowIdSize = 0;
+
+    HashPartitionedRowIds(CairoConfiguration configuration, boolean withOrdinals) {
+        this.entryShift = withOrdinals ? 4 : 3;
+        this.configuration = configuration;
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getSqlSpillRoot();
+        this.pageSize = ff.getMapPageSize();
+    }
+
+    static int partitionOf(long hash, int partitionCount) {
+        return (int) (((hash >>> 32) * partitionCount) >>> 32);
+    }
+
+    void add(long hash, long rowId) {
+        if (fileId == -1) {
+            fileId = SpillFiles.nextFileId(configuration, path);
+            hashMem.of(ff, hashFile(), pageSize);
+        }
+        hashMem.putLong(hash);
+        hashMem.putLong(rowId);
+        rowCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (fileId != -1) {
+            hashMem.close(false);
+            remove(hashFile());
+            if (rowIdAddress != 0) {
+                ff.munmap(rowIdAddress, rowIdSize);
+                rowIdAddress = 0;
+            }
+            if (rowIdFd != -1) {
+                ff.close(rowIdFd);
+                rowIdFd = -1;
+                remove(rowIdFile());
+            }
+            fileId = -1;
+        }
+        rowCount = 0;
+        partitionOffsets.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    long getPartitionHi(int partition) {
+        return partitionOffsets.getQuick(partition + 1);
+    }
+
+    long getPartitionLo(int partition) {
+        return partitionOffsets.getQuick(partition);
+    }
+
+    /**
+     * @return position in which row was added, available when row ids are created with ordinals
+     */
+    long getOrdinal(long index) {
+        return Unsafe.getUnsafe().getLong(rowIdAddress + (index << entryShift) + Long.BYTES);
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    long getRowId(long index) {
+        return Unsafe.getUnsafe().getLong(rowIdAddress + (index << entryShift));
+    }
+
+    void partition(int partitionCount) {
+        partitionOffsets.setAll(partitionCount + 1, 0);
+        if (rowCount == 0) {
+            return;
+        }
+
+        final long hashSize = hashMem.getAppendOffset();
+        hashMem.close(true);
+        final long hashFd = ff.openRO(hashFile());
+        if (hashFd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open ").put(path);
+        }
+        try {
+            final long hashAddress = ff.mmap(hashFd, hashSize, 0, Files.MAP_RO);
+            if (hashAddress == FilesFacade.MAP_FAILED) {
+                throw CairoException.instance(ff.errno()).put("could not mmap ").put(path);
+            }
+            try {
+                final long hashLimit = hashAddress + hashSize;
+                for (long p = hashAddress; p < hashLimit; p += 2 * Long.BYTES) {
+                    partitionOffsets.increment(partitionOf(Unsafe.getUnsafe().getLong(p), partitionCount) + 1);
+                }
+                for (int i = 1; i <= partitionCount; i++) {
+                    partitionOffsets.setQuick(i, partitionOffsets.getQuick(i) + partitionOffsets.getQuick(i - 1));
+                }
+
+                rowIdSize = rowCount << entryShift;
+                rowIdFd = ff.openRW(rowIdFile());
+                if (rowIdFd == -1) {
+                    throw CairoException.instance(ff.errno()).put("could not open ").put(path);
+                }
+                if (!ff.truncate(rowIdFd, rowIdSize)) {
+                    throw CairoException.instance(ff.errno()).put("could not resize ").put(path).put(" to ").put(rowIdSize);
+                }
+                rowIdAddress = ff.mmap(rowIdFd, rowIdSize, 0, Files.MAP_RW);
+                if (rowIdAddress == FilesFacade.MAP_FAILED) {
+                    rowIdAddress = 0;
+                    throw CairoException.instance(ff.errno()).put("could not mmap ").put(path);
+                }
+
+                scatterOffsets.clear();
+                scatterOffsets.add(partitionOffsets);
+                for (long p = hashAddress; p < hashLimit; p += 2 * Long.BYTES) {
+                    final int partition = partitionOf(Unsafe.getUnsafe().getLong(p), partitionCount);
+                    final long index = scatterOffsets.getQuick(partition);
+                    scatterOffsets.setQuick(partition, index + 1);
+                    final long entry = rowIdAddress + (index << entryShift);
+                    Unsafe.getUnsafe().putLong(entry, Unsafe.getUnsafe().getLong(p + Long.BYTES));
+                    if (entryShift > 3) {
+                        Unsafe.getUnsafe().putLong(entry + Long.BYTES, (p - hashAddress) >>> 4);
+                    }
+                }
+            } finally {
+                ff.munmap(hashAddress, hashSize);
+            }
+        } finally {
+            ff.close(hashFd);
+            remove(hashFile());
+        }
+    }
+
+    private LPSZ hashFile() {
+        return path.of(root).concat("join.").put(fileId).put(".hash").$();
+    }
+
+    private void remove(LPSZ file) {
+        if (ff.exists(file) && !ff.remove(file)) {
+            LOG.error().$("could not remove [file=").$(file).$(", errno=").$(ff.errno()).$(']').$();
+        }
+    }
+
+    private LPSZ rowIdFile() {
+        return path.of(root).concat("join.").put(fileId).put(".rows").$();
+    }
+}
@@ -54,6 +54,16 @@ public class LongChain implements Closeable, Mutable {
         return cursor;
     }
 
+    /**
+     * Creates cursor that is not shared with other users of this chain. Threads that read
+     * the chain at the same time must use cursors of their own.
+     *
+     * @return new cursor over this chain
+     */
+    public TreeCursor newCursor() {
+        return new TreeCursor();
+    }
+
     public long put(long value, long parentOffset) {
         final long appendOffset = valueChain.getAppendOffset();
         if (parentOffset != -1) {
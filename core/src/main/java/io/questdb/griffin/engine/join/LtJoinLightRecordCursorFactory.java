@@ -55,7 +55,11 @@ public class LtJoinLightRecordCursorFactory extends AbstractRecordCursorFactory
             @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
             RecordSink masterKeySink,
             RecordSink slaveKeySink,
-            int columnSplit) {
+            int columnSplit,
+            // symbol key columns when join key is a single symbol, indexed in slave table; -1 otherwise
+            int masterSymbolColumnIndex,
+            int slaveSymbolColumnIndex
+    ) {
         super(metadata);
         this.masterFactory = masterFactory;
         this.slaveFactory = slaveFactory;
@@ -67,7 +71,9 @@ public class LtJoinLightRecordCursorFactory extends AbstractRecordCursorFactory
                 joinKeyMap,
                 NullRecordFactory.getInstance(slaveFactory.getMetadata()),
                 masterFactory.getMetadata().getTimestampIndex(),
-                slaveFactory.getMetadata().getTimestampIndex()
+                slaveFactory.getMetadata().getTimestampIndex(),
+                masterSymbolColumnIndex,
+                slaveSymbolColumnIndex
         );
     }
 
@@ -99,25 +105,33 @@ public class LtJoinLightRecordCursorFactory extends AbstractRecordCursorFactory
         private final int columnSplit;
         private final int masterTimestampIndex;
         private final int slaveTimestampIndex;
+        private final int masterSymbolColumnIndex;
+        private final int slaveSymbolColumnIndex;
+        private final TimeFrameSeeker seeker = new TimeFrameSeeker();
         private Record slaveRecord;
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
         private Record masterRecord;
         private long slaveTimestamp = Long.MIN_VALUE;
         private long lastSlaveRowID = Long.MIN_VALUE;
+        private boolean seek;
 
         public LtJoinLightRecordCursor(
                 int columnSplit,
                 Map joinKeyMap,
                 Record nullRecord,
                 int masterTimestampIndex,
-                int slaveTimestampIndex
+                int slaveTimestampIndex,
+                int masterSymbolColumnIndex,
+                int slaveSymbolColumnIndex
         ) {
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
             this.joinKeyMap = joinKeyMap;
             this.columnSplit = columnSplit;
             this.masterTimestampIndex = masterTimestampIndex;
             this.slaveTimestampIndex = slaveTimestampIndex;
+            this.masterSymbolColumnIndex = masterSymbolColumnIndex;
+            this.slaveSymbolColumnIndex = slaveSymbolColumnIndex;
         }
 
         @Override
@@ -149,6 +163,16 @@ public class LtJoinLightRecordCursorFactory extends AbstractRecordCursorFactory
 
             if (masterCursor.hasNext()) {
                 final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (seek) {
+                    final long rowId = masterTimestamp == Numbers.LONG_NaN ? Numbers.LONG_NaN : seeker.findLatest(masterTimestamp - 1, masterRecord.getSym(masterSymbolColumnIndex));
+                    if (rowId != Numbers.LONG_NaN) {
+                        slaveCursor.recordAt(slaveRecord, rowId);
+                        record.hasSlave(true);
+                    } else {
+                        record.hasSlave(false);
+                    }
+                    return true;
+                }
                 MapKey key;
                 MapValue value;
                 long slaveTimestamp = this.slaveTimestamp;
@@ -201,6 +225,7 @@ public class LtJoinLightRecordCursorFactory extends AbstractRecordCursorFactory
             lastSlaveRowID = Long.MIN_VALUE;
             masterCursor.toTop();
             slaveCursor.toTop();
+            seeker.toTop();
         }
 
         void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
@@ -212,6 +237,7 @@ public class LtJoinLightRecordCursorFactory extends AbstractRecordCursorFactory
             this.masterRecord = masterCursor.getRecord();
             this.slaveRecord = slaveCursor.getRecordB();
             record.of(masterRecord, slaveRecord);
+            seek = slaveSymbolColumnIndex != -1 && seeker.of(slaveCursor, slaveSymbolColumnIndex);
         }
     }
 }
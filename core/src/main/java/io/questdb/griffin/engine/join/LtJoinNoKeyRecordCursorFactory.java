@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
 
 public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory masterFactory;
@@ -76,6 +77,7 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
         private final int columnSplit;
         private final int masterTimestampIndex;
         private final int slaveTimestampIndex;
+        private final TimeFrameSeeker seeker = new TimeFrameSeeker();
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
         private Record masterRecord;
@@ -83,6 +85,9 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
         private Record slaveRecA;
         private long slaveTimestamp = Long.MIN_VALUE;
         private long latestSlaveRowID = Long.MIN_VALUE;
+        private boolean slavePending;
+        private boolean slaveDone;
+        private boolean seek;
 
         public LtJoinNoKeyJoinRecordCursor(
                 int columnSplit,
@@ -119,6 +124,10 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
             if (masterCursor.hasNext()) {
                 // great, we have a record no matter what
                 final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (seek) {
+                    seekSlave(masterTimestamp == Numbers.LONG_NaN ? Numbers.LONG_NaN : seeker.findLatest(masterTimestamp - 1));
+                    return true;
+                }
                 nextSlave(masterTimestamp);
                 return true;
             }
@@ -126,50 +135,38 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
         }
 
         private void nextSlave(long masterTimestamp) {
-            long slaveTimestamp = this.slaveTimestamp;
-            positionSlaveRecB();
-            // check where this record falls
-            if (slaveTimestamp < masterTimestamp) {
-                overScrollSlave(masterTimestamp, slaveTimestamp);
-            }
-        }
-
-        private void positionSlaveRecB() {
-            if (this.latestSlaveRowID != Long.MIN_VALUE) {
-                record.hasSlave(true);
-                slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
-            }
-        }
-
-        private void slaveIsDone() {
-            positionSlaveRecB();
-            this.slaveTimestamp = Long.MAX_VALUE;
-        }
-
-        private void overScrollSlave(long masterTimestamp, long slaveTimestamp) {
-            latestSlaveRowID = slaveRecA.getRowId();
-            this.slaveTimestamp = slaveTimestamp;
+            if (masterTimestamp != Numbers.LONG_NaN) {
+                // advance slave while its rows are strictly before master, the same
+                // contract as seeker.findLatest(masterTimestamp - 1)
+                while (true) {
+                    if (!slavePending) {
+                        if (slaveDone || !slaveCursor.hasNext()) {
+                            slaveDone = true;
+                            break;
+                        }
+                        slaveTimestamp = slaveRecA.getTimestamp(slaveTimestampIndex);
+                        slavePending = true;
+                    }
 
-            // scroll slave down
-            while (true) {
-                if (slaveCursor.hasNext()) {
-                    slaveTimestamp = slaveRecA.getTimestamp(slaveTimestampIndex);
                     if (slaveTimestamp < masterTimestamp) {
-                        record.hasSlave(true);
-                        slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
                         latestSlaveRowID = slaveRecA.getRowId();
-                        this.slaveTimestamp = slaveTimestamp;
+                        slavePending = false;
                     } else {
-                        latestSlaveRowID = slaveRecA.getRowId();
-                        this.slaveTimestamp = slaveTimestamp;
                         break;
                     }
-                } else {
-                    record.hasSlave(true);
-                    slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
-                    this.slaveTimestamp = Long.MAX_VALUE;
-                    break;
                 }
+                seekSlave(latestSlaveRowID == Long.MIN_VALUE ? Numbers.LONG_NaN : latestSlaveRowID);
+            } else {
+                seekSlave(Numbers.LONG_NaN);
+            }
+        }
+
+        private void seekSlave(long rowId) {
+            if (rowId != Numbers.LONG_NaN) {
+                record.hasSlave(true);
+                slaveCursor.recordAt(slaveRecB, rowId);
+            } else {
+                record.hasSlave(false);
             }
         }
 
@@ -177,9 +174,12 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
         public void toTop() {
             slaveTimestamp = Long.MIN_VALUE;
             latestSlaveRowID = Long.MIN_VALUE;
+            slavePending = false;
+            slaveDone = false;
             record.hasSlave(false);
             masterCursor.toTop();
             slaveCursor.toTop();
+            seeker.toTop();
         }
 
         @Override
@@ -190,6 +190,8 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
         private void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
             slaveTimestamp = Long.MIN_VALUE;
             latestSlaveRowID = Long.MIN_VALUE;
+            slavePending = false;
+            slaveDone = false;
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
             this.masterRecord = masterCursor.getRecord();
@@ -197,6 +199,7 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
             this.slaveRecB = slaveCursor.getRecordB();
             record.of(masterRecord, slaveRecB);
             record.hasSlave(false);
+            seek = seeker.of(slaveCursor, -1);
         }
     }
 }
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+
+/**
+ * Equi-join of master and slave, join key of which includes designated timestamps of both.
+ * Both sides are ordered by their timestamps, which lets the join stream through them together.
+ * Only slave rows of the current master timestamp are kept in the hash map, so that memory
+ * is proportional to timestamp duplicates rather than to slave size. Remaining join keys,
+ * if any, are matched within these rows.
+ * <p>
+ * Join is inner or left outer, output follows master order.
+ */
+public class MergeJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final Map joinKeyMap;
+    private final LongChain slaveChain;
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final RecordSink masterKeySink;
+    private final RecordSink slaveKeySink;
+    private final MergeJoinRecordCursor cursor;
+
+    public MergeJoinLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient ColumnTypes joinColumnTypes,
+            @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            boolean outer
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
+        slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.cursor = new MergeJoinRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                masterFactory.getMetadata().getTimestampIndex(),
+                slaveFactory.getMetadata().getTimestampIndex(),
+                outer
+        );
+    }
+
+    @Override
+    public void close() {
+        joinKeyMap.close();
+        slaveChain.close();
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        RecordCursor masterCursor;
+        try {
+            masterCursor = masterFactory.getCursor(executionContext);
+        } catch (Throwable e) {
+            slaveCursor.close();
+            throw e;
+        }
+        cursor.of(masterCursor, slaveCursor, executionContext.getSqlExecutionInterruptor());
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private class MergeJoinRecordCursor implements NoRandomAccessRecordCursor {
+        private final OuterJoinRecord record;
+        private final int columnSplit;
+        private final int masterTimestampIndex;
+        private final int slaveTimestampIndex;
+        private final boolean outer;
+        private RecordCursor masterCursor;
+        private RecordCursor slaveCursor;
+        private Record masterRecord;
+        private Record slaveRecA;
+        private Record slaveRecB;
+        private LongChain.TreeCursor slaveChainCursor;
+        private SqlExecutionInterruptor interruptor;
+        // timestamp of slave rows in the map
+        private long groupTimestamp;
+        private boolean groupBuilt;
+        // slave record A holds row, which is yet to be added to the map
+        private boolean slaveHasRow;
+        private long slaveTimestamp;
+
+        public MergeJoinRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int slaveTimestampIndex,
+                boolean outer
+        ) {
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.columnSplit = columnSplit;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.slaveTimestampIndex = slaveTimestampIndex;
+            this.outer = outer;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            slaveCursor = Misc.free(slaveCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecB, slaveChainCursor.next());
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (!groupBuilt || masterTimestamp != groupTimestamp) {
+                    buildGroup(masterTimestamp);
+                }
+
+                if (joinKeyMap.size() > 0) {
+                    MapKey key = joinKeyMap.withKey();
+                    key.put(masterRecord, masterKeySink);
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        slaveChainCursor = slaveChain.getCursor(value.getLong(0));
+                        // we know cursor has values
+                        // advance to get first value
+                        slaveChainCursor.hasNext();
+                        slaveCursor.recordAt(slaveRecB, slaveChainCursor.next());
+                        record.hasSlave(true);
+                        return true;
+                    }
+                }
+
+                if (outer) {
+                    slaveChainCursor = null;
+                    record.hasSlave(false);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveCursor.toTop();
+            reset();
+        }
+
+        private void buildGroup(long masterTimestamp) {
+            if (joinKeyMap.size() > 0) {
+                joinKeyMap.clear();
+                slaveChain.clear();
+            }
+
+            // slave rows before master timestamp have no match
+            while (slaveHasRow && slaveTimestamp < masterTimestamp) {
+                interruptor.checkInterrupted();
+                nextSlave();
+            }
+
+            while (slaveHasRow && slaveTimestamp == masterTimestamp) {
+                interruptor.checkInterrupted();
+                putSlaveRecord(slaveRecA);
+                nextSlave();
+            }
+
+            groupTimestamp = masterTimestamp;
+            groupBuilt = true;
+        }
+
+        private void nextSlave() {
+            slaveHasRow = slaveCursor.hasNext();
+            if (slaveHasRow) {
+                slaveTimestamp = slaveRecA.getTimestamp(slaveTimestampIndex);
+            }
+        }
+
+        private void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.interruptor = interruptor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecA = slaveCursor.getRecord();
+            this.slaveRecB = slaveCursor.getRecordB();
+            record.of(masterRecord, slaveRecB);
+            reset();
+        }
+
+        private void putSlaveRecord(Record record) {
+            MapKey key = joinKeyMap.withKey();
+            key.put(record, slaveKeySink);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                final long offset = slaveChain.put(record.getRowId(), -1);
+                value.putLong(0, offset);
+                value.putLong(1, offset);
+            } else {
+                value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
+            }
+        }
+
+        private void reset() {
+            joinKeyMap.clear();
+            slaveChain.clear();
+            slaveChainCursor = null;
+            groupBuilt = false;
+            nextSlave();
+        }
+    }
+}
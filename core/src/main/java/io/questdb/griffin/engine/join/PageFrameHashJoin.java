@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.griffin.engine.table.SerialSymbolTable;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Hash join state confined to one thread. While the table is being built each thread adds slave
+ * page frames it picks up to its own map and chain. Probing threads look master keys up in maps of
+ * all threads, matching slave rows are referenced by page frame index and row within the frame.
+ */
+class PageFrameHashJoin implements Closeable {
+    private static final int FRAME_SHIFT = 40;
+    private static final long ROW_MASK = (1L << FRAME_SHIFT) - 1;
+    private final FastMap map;
+    private final LongChain chain;
+    private final FastMap.LookupKey lookupKey;
+    private final RecordSink masterKeySink;
+    private final RecordSink slaveKeySink;
+    private final PageFrameRecord masterRecord = new PageFrameRecord();
+    private final PageFrameRecord slaveRecord = new PageFrameRecord();
+    private final ObjList<SymbolTable> masterSymbolTables = new ObjList<>();
+    private final ObjList<SymbolTable> slaveSymbolTables = new ObjList<>();
+    private final ObjList<SerialSymbolTable> masterSymbolTablePool = new ObjList<>();
+    private final ObjList<SerialSymbolTable> slaveSymbolTablePool = new ObjList<>();
+    private final ObjList<FastMap> maps = new ObjList<>();
+    private final ObjList<LongChain.TreeCursor> chainCursors = new ObjList<>();
+    private final LongList slaveRefs = new LongList();
+
+    PageFrameHashJoin(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes keyTypes,
+            @Transient ColumnTypes valueTypes,
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink
+    ) {
+        this.map = new FastMap(
+                configuration.getSqlMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+        this.chain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+        this.lookupKey = map.newLookupKey();
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+    }
+
+    static long getFrameIndex(long slaveRef) {
+        return slaveRef >>> FRAME_SHIFT;
+    }
+
+    static long getRow(long slaveRef) {
+        return slaveRef & ROW_MASK;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(lookupKey);
+        map.close();
+        chain.close();
+    }
+
+    void build(PageFrameHashJoinEntry entry) {
+        final long rowCount = entry.getRowCount();
+        final long frameRef = (long) entry.getSlaveFrameIndex() << FRAME_SHIFT;
+        slaveRecord.of(entry.getPageAddresses(), entry.getPartitionIndex(), entry.getPartitionLo(), slaveSymbolTables);
+        for (long row = 0; row < rowCount; row++) {
+            slaveRecord.setRow(row);
+            final MapKey key = map.withKey();
+            key.put(slaveRecord, slaveKeySink);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                final long offset = chain.put(frameRef | row, -1);
+                value.putLong(0, offset);
+                value.putLong(1, offset);
+            } else {
+                value.putLong(1, chain.put(frameRef | row, value.getLong(1)));
+            }
+        }
+    }
+
+    void of(ObjList<PageFrameHashJoin> hashJoins) {
+        maps.clear();
+        chainCursors.clear();
+        for (int i = 0, n = hashJoins.size(); i < n; i++) {
+            final PageFrameHashJoin hashJoin = hashJoins.getQuick(i);
+            maps.add(hashJoin.map);
+            chainCursors.add(hashJoin.chain.newCursor());
+        }
+    }
+
+    void of(PageFrameCursor masterCursor, PageFrameCursor slaveCursor, int masterColumnCount, int slaveColumnCount) {
+        map.clear();
+        chain.clear();
+        initSymbolTables(masterCursor, masterColumnCount, masterSymbolTables, masterSymbolTablePool);
+        initSymbolTables(slaveCursor, slaveColumnCount, slaveSymbolTables, slaveSymbolTablePool);
+    }
+
+    /**
+     * Appends pairs of master row and slave reference to the list of matches of the entry. Slave rows
+     * of each master row are in the order of the slave table, same as in the single threaded join.
+     */
+    void probe(PageFrameHashJoinEntry entry) {
+        final long rowCount = entry.getRowCount();
+        final LongList matches = entry.getMatches();
+        masterRecord.of(entry.getPageAddresses(), entry.getPartitionIndex(), entry.getPartitionLo(), masterSymbolTables);
+        for (long row = 0; row < rowCount; row++) {
+            masterRecord.setRow(row);
+            lookupKey.init();
+            lookupKey.put(masterRecord, masterKeySink);
+            slaveRefs.clear();
+            for (int i = 0, n = maps.size(); i < n; i++) {
+                final MapValue value = lookupKey.findValue(maps.getQuick(i));
+                if (value != null) {
+                    final LongChain.TreeCursor cursor = chainCursors.getQuick(i);
+                    cursor.of(value.getLong(0));
+                    while (cursor.hasNext()) {
+                        slaveRefs.add(cursor.next());
+                    }
+                }
+            }
+
+            final int refCount = slaveRefs.size();
+            if (refCount > 1) {
+                // threads pick slave frames up in no particular order
+                slaveRefs.sort();
+            }
+            for (int i = 0; i < refCount; i++) {
+                matches.add(row);
+                matches.add(slaveRefs.getQuick(i));
+            }
+        }
+    }
+
+    private static void initSymbolTables(
+            PageFrameCursor pageFrameCursor,
+            int columnCount,
+            ObjList<SymbolTable> symbolTables,
+            ObjList<SerialSymbolTable> symbolTablePool
+    ) {
+        symbolTables.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final SymbolTable symbolTable = pageFrameCursor.getSymbolMapReader(i);
+            if (symbolTable == null) {
+                symbolTables.add(null);
+            } else {
+                SerialSymbolTable serialSymbolTable = symbolTablePool.getQuiet(i);
+                if (serialSymbolTable == null) {
+                    symbolTablePool.extendAndSet(i, serialSymbolTable = new SerialSymbolTable());
+                }
+                symbolTables.add(serialSymbolTable.of((StaticSymbolTable) symbolTable));
+            }
+        }
+    }
+}
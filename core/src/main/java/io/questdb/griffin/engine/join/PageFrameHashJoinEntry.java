@@ -0,0 +1,172 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.LongList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Unit of parallel hash join work. Entry either adds single slave page frame to the hash table of
+ * the thread that picked it up, or probes hash tables of all threads with rows of single master
+ * page frame and collects matching rows.
+ */
+public class PageFrameHashJoinEntry implements Mutable {
+    private static final Log LOG = LogFactory.getLog(PageFrameHashJoinEntry.class);
+    private static final long TARGET_SEQUENCE_OFFSET;
+
+    static {
+        TARGET_SEQUENCE_OFFSET = Unsafe.getFieldOffset(PageFrameHashJoinEntry.class, "targetSequence");
+    }
+
+    // pairs of master row within the frame and slave row reference
+    private final LongList matches = new LongList();
+    private final LongList ownPageAddresses = new LongList();
+    private LongList pageAddresses;
+    private ObjList<PageFrameHashJoin> hashJoins;
+    private CountDownLatchSPI doneLatch;
+    private int partitionIndex;
+    private long partitionLo;
+    private long partitionHi;
+    // index of slave frame this entry adds to hash table, -1 when entry probes master frame
+    private int slaveFrameIndex;
+    private long srcSequence;
+    // to "lock" the entry thread must successfully CAS targetSequence form "srcSequence" value
+    // to "srcSequence+1". Executing thread must not be changing value of "srcSequence"
+    @SuppressWarnings({"FieldCanBeLocal", "unused", "FieldMayBeFinal"})
+    private volatile long targetSequence = 0;
+    private volatile boolean failed;
+
+    @Override
+    public void clear() {
+        // hash join list is not released, stale queue items may still reference this entry,
+        // they will fail to lock it but need the list to be there
+        this.pageAddresses = null;
+        this.matches.clear();
+    }
+
+    public boolean run(int workerId) {
+        // the last hash join state belongs to the thread that owns the cursor, workers
+        // outside of the range query has been compiled for leave this entry to the owner
+        return workerId < hashJoins.size() - 1 && run(hashJoins.getQuick(workerId));
+    }
+
+    LongList getMatches() {
+        return matches;
+    }
+
+    LongList getPageAddresses() {
+        return pageAddresses;
+    }
+
+    int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    long getPartitionLo() {
+        return partitionLo;
+    }
+
+    long getRowCount() {
+        return partitionHi - partitionLo;
+    }
+
+    int getSlaveFrameIndex() {
+        return slaveFrameIndex;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(PageFrame frame, int columnCount, ObjList<PageFrameHashJoin> hashJoins, CountDownLatchSPI doneLatch) {
+        ownPageAddresses.clear();
+        for (int i = 0; i < columnCount; i++) {
+            ownPageAddresses.add(frame.getPageAddress(i));
+        }
+        this.pageAddresses = ownPageAddresses;
+        this.partitionIndex = frame.getPartitionIndex();
+        this.partitionLo = frame.getPartitionLo();
+        this.partitionHi = frame.getPartitionHi();
+        this.slaveFrameIndex = -1;
+        this.matches.clear();
+        arm(hashJoins, doneLatch);
+    }
+
+    void of(
+            int slaveFrameIndex,
+            LongList slavePageAddresses,
+            int partitionIndex,
+            long partitionLo,
+            long partitionHi,
+            ObjList<PageFrameHashJoin> hashJoins,
+            CountDownLatchSPI doneLatch
+    ) {
+        this.pageAddresses = slavePageAddresses;
+        this.partitionIndex = partitionIndex;
+        this.partitionLo = partitionLo;
+        this.partitionHi = partitionHi;
+        this.slaveFrameIndex = slaveFrameIndex;
+        arm(hashJoins, doneLatch);
+    }
+
+    boolean reclaim() {
+        return run(hashJoins.getQuick(hashJoins.size() - 1));
+    }
+
+    private void arm(ObjList<PageFrameHashJoin> hashJoins, CountDownLatchSPI doneLatch) {
+        this.hashJoins = hashJoins;
+        this.doneLatch = doneLatch;
+        this.failed = false;
+        // sequence advances by two so that stale queue item cannot
+        // lock the entry before "targetSequence" is re-armed
+        this.srcSequence = targetSequence + 1;
+        this.targetSequence = srcSequence;
+    }
+
+    private boolean run(PageFrameHashJoin hashJoin) {
+        if (Unsafe.cas(this, TARGET_SEQUENCE_OFFSET, srcSequence, srcSequence + 1)) {
+            try {
+                if (slaveFrameIndex == -1) {
+                    hashJoin.probe(this);
+                } else {
+                    hashJoin.build(this);
+                }
+            } catch (Throwable e) {
+                failed = true;
+                LOG.error().$("hash join failed [partitionIndex=").$(partitionIndex).$(", slaveFrameIndex=").$(slaveFrameIndex).$(", ex=").$(e).$(']').$();
+            } finally {
+                doneLatch.countDown();
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.PageFrameHashJoinTask;
+
+/**
+ * Hash table is built before the cursor is returned: slave page frames are published to the worker
+ * pool in batches and every thread adds frames it picks up to its own map. Master page frames are then
+ * probed one batch at a time as the cursor is iterated. Batch results are consumed in the order of master
+ * frames, which keeps the order of the single threaded join.
+ */
+class ParallelHashJoinLightRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(ParallelHashJoinLightRecordCursor.class);
+    private final ObjList<PageFrameHashJoin> hashJoins;
+    private final int columnSplit;
+    private final int masterColumnCount;
+    private final int slaveColumnCount;
+    private final int batchSize;
+    private final ObjectPool<PageFrameHashJoinEntry> entryPool;
+    private final ObjList<PageFrameHashJoinEntry> activeEntries;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final JoinRecord record;
+    private final PageFrameRecord masterRecord = new PageFrameRecord();
+    private final PageFrameRecord slaveRecord = new PageFrameRecord();
+    private final ObjList<SymbolTable> masterSymbolTables = new ObjList<>();
+    private final ObjList<SymbolTable> slaveSymbolTables = new ObjList<>();
+    // slave frames are referenced by index for as long as the cursor is open
+    private final ObjList<LongList> slaveFramePageAddresses = new ObjList<>();
+    private final IntList slaveFramePartitionIndexes = new IntList();
+    private final LongList slaveFramePartitionLos = new LongList();
+    private int slaveFrameCount;
+    private PageFrameCursor masterCursor;
+    private PageFrameCursor slaveCursor;
+    private RingQueue<PageFrameHashJoinTask> queue;
+    private Sequence pubSeq;
+    private SqlExecutionInterruptor interruptor;
+    private int entryIndex;
+    private LongList matches;
+    private int matchIndex;
+    private boolean masterExhausted;
+
+    ParallelHashJoinLightRecordCursor(
+            ObjList<PageFrameHashJoin> hashJoins,
+            int columnSplit,
+            int masterColumnCount,
+            int slaveColumnCount
+    ) {
+        this.hashJoins = hashJoins;
+        this.columnSplit = columnSplit;
+        this.masterColumnCount = masterColumnCount;
+        this.slaveColumnCount = slaveColumnCount;
+        // two frames per thread gives threads that finish early something else to do
+        this.batchSize = hashJoins.size() * 2;
+        this.entryPool = new ObjectPool<>(PageFrameHashJoinEntry::new, batchSize);
+        this.activeEntries = new ObjList<>(batchSize);
+        this.record = new JoinRecord(columnSplit);
+        this.record.of(masterRecord, slaveRecord);
+    }
+
+    @Override
+    public void close() {
+        masterCursor = Misc.free(masterCursor);
+        slaveCursor = Misc.free(slaveCursor);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return masterCursor.getSymbolMapReader(columnIndex);
+        }
+        return slaveCursor.getSymbolMapReader(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (matches != null && matchIndex < matches.size()) {
+                final long slaveRef = matches.getQuick(matchIndex + 1);
+                final int slaveFrameIndex = (int) PageFrameHashJoin.getFrameIndex(slaveRef);
+                masterRecord.setRow(matches.getQuick(matchIndex));
+                slaveRecord.of(
+                        slaveFramePageAddresses.getQuick(slaveFrameIndex),
+                        slaveFramePartitionIndexes.getQuick(slaveFrameIndex),
+                        slaveFramePartitionLos.getQuick(slaveFrameIndex),
+                        slaveSymbolTables
+                );
+                slaveRecord.setRow(PageFrameHashJoin.getRow(slaveRef));
+                matchIndex += 2;
+                return true;
+            }
+
+            if (++entryIndex < activeEntries.size()) {
+                final PageFrameHashJoinEntry entry = activeEntries.getQuick(entryIndex);
+                masterRecord.of(entry.getPageAddresses(), entry.getPartitionIndex(), entry.getPartitionLo(), masterSymbolTables);
+                matches = entry.getMatches();
+                matchIndex = 0;
+                continue;
+            }
+
+            if (!probeBatch()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        masterCursor.toTop();
+        resetProbe();
+    }
+
+    private boolean awaitBatch() {
+        final int entryCount = activeEntries.size();
+        if (entryCount == 0) {
+            return false;
+        }
+
+        // start at the back to reduce chance of clashing with workers
+        int reclaimed = 0;
+        for (int i = entryCount - 1; i > -1 && doneLatch.getCount() > -entryCount; i--) {
+            if (activeEntries.getQuick(i).reclaim()) {
+                reclaimed++;
+            }
+        }
+        doneLatch.await(entryCount);
+
+        LOG.debug().$("hash join batch done [entries=").$(entryCount).$(", reclaimed=").$(reclaimed).$(']').$();
+
+        for (int i = 0; i < entryCount; i++) {
+            final PageFrameHashJoinEntry entry = activeEntries.getQuick(i);
+            if (entry.isFailed()) {
+                throw CairoException.instance(0)
+                        .put("could not join page frame [partitionIndex=").put(entry.getPartitionIndex())
+                        .put(", slaveFrameIndex=").put(entry.getSlaveFrameIndex())
+                        .put(']');
+            }
+        }
+        return true;
+    }
+
+    private void buildHashTable() {
+        slaveFrameCount = 0;
+        slaveFramePartitionIndexes.clear();
+        slaveFramePartitionLos.clear();
+        PageFrame frame;
+        while (true) {
+            clearBatch();
+            while (activeEntries.size() < batchSize && (frame = slaveCursor.next()) != null) {
+                final int frameIndex = slaveFrameCount++;
+                LongList pageAddresses = slaveFramePageAddresses.getQuiet(frameIndex);
+                if (pageAddresses == null) {
+                    slaveFramePageAddresses.extendAndSet(frameIndex, pageAddresses = new LongList(slaveColumnCount));
+                }
+                pageAddresses.clear();
+                for (int i = 0; i < slaveColumnCount; i++) {
+                    pageAddresses.add(frame.getPageAddress(i));
+                }
+                slaveFramePartitionIndexes.add(frame.getPartitionIndex());
+                slaveFramePartitionLos.add(frame.getPartitionLo());
+
+                final PageFrameHashJoinEntry entry = entryPool.next();
+                entry.of(
+                        frameIndex,
+                        pageAddresses,
+                        frame.getPartitionIndex(),
+                        frame.getPartitionLo(),
+                        frame.getPartitionHi(),
+                        hashJoins,
+                        doneLatch
+                );
+                publish(entry);
+            }
+            if (!awaitBatch()) {
+                break;
+            }
+            // workers are done with the batch, it is safe to bail out
+            interruptor.checkInterrupted();
+        }
+    }
+
+    private void clearBatch() {
+        activeEntries.clear();
+        entryPool.clear();
+        doneLatch.reset();
+    }
+
+    private boolean probeBatch() {
+        if (masterExhausted) {
+            return false;
+        }
+        interruptor.checkInterrupted();
+        clearBatch();
+        PageFrame frame;
+        while (activeEntries.size() < batchSize && (frame = masterCursor.next()) != null) {
+            final PageFrameHashJoinEntry entry = entryPool.next();
+            entry.of(frame, masterColumnCount, hashJoins, doneLatch);
+            publish(entry);
+        }
+        entryIndex = -1;
+        matches = null;
+        if (activeEntries.size() < batchSize) {
+            masterExhausted = true;
+        }
+        return awaitBatch();
+    }
+
+    private void publish(PageFrameHashJoinEntry entry) {
+        activeEntries.add(entry);
+        final long seq = pubSeq.next();
+        if (seq < 0) {
+            // queue is full, do the work on this thread
+            entry.reclaim();
+        } else {
+            queue.get(seq).entry = entry;
+            pubSeq.done(seq);
+        }
+    }
+
+    private void resetProbe() {
+        clearBatch();
+        entryIndex = -1;
+        matches = null;
+        masterExhausted = false;
+    }
+
+    void of(PageFrameCursor masterCursor, PageFrameCursor slaveCursor, MessageBus bus, SqlExecutionInterruptor interruptor) {
+        if (this.masterCursor != masterCursor) {
+            Misc.free(this.masterCursor);
+            this.masterCursor = masterCursor;
+        }
+        if (this.slaveCursor != slaveCursor) {
+            Misc.free(this.slaveCursor);
+            this.slaveCursor = slaveCursor;
+        }
+        this.queue = bus.getPageFrameHashJoinQueue();
+        this.pubSeq = bus.getPageFrameHashJoinPubSequence();
+        this.interruptor = interruptor;
+        for (int i = 0, n = hashJoins.size(); i < n; i++) {
+            hashJoins.getQuick(i).of(masterCursor, slaveCursor, masterColumnCount, slaveColumnCount);
+        }
+        initSymbolTables(masterCursor, masterColumnCount, masterSymbolTables);
+        initSymbolTables(slaveCursor, slaveColumnCount, slaveSymbolTables);
+        buildHashTable();
+        resetProbe();
+    }
+
+    private static void initSymbolTables(PageFrameCursor pageFrameCursor, int columnCount, ObjList<SymbolTable> symbolTables) {
+        symbolTables.clear();
+        for (int i = 0; i < columnCount; i++) {
+            symbolTables.add(pageFrameCursor.getSymbolMapReader(i));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+
+/**
+ * Inner hash join of page frames of master and slave factories on the shared worker pool. There is
+ * one hash table per worker and one more for the thread executing the query, tables are built from
+ * disjoint sets of slave frames and are probed together. Unlike {@link HashJoinLightRecordCursorFactory}
+ * this join does not spill to disk, the hash tables of all threads must fit in memory.
+ */
+public class ParallelHashJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final ObjList<PageFrameHashJoin> hashJoins;
+    private final ParallelHashJoinLightRecordCursor cursor;
+
+    public ParallelHashJoinLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient ColumnTypes joinColumnTypes,
+            @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            int threadCount
+    ) {
+        super(metadata);
+        assert masterFactory.supportPageFrameCursor() && slaveFactory.supportPageFrameCursor();
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.hashJoins = new ObjList<>(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                hashJoins.add(new PageFrameHashJoin(configuration, joinColumnTypes, valueTypes, masterKeySink, slaveKeySink));
+            }
+        } catch (CairoException e) {
+            Misc.freeObjList(hashJoins);
+            throw e;
+        }
+        for (int i = 0; i < threadCount; i++) {
+            hashJoins.getQuick(i).of(hashJoins);
+        }
+        this.cursor = new ParallelHashJoinLightRecordCursor(
+                hashJoins,
+                columnSplit,
+                masterFactory.getMetadata().getColumnCount(),
+                slaveFactory.getMetadata().getColumnCount()
+        );
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(hashJoins);
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final MessageBus bus = executionContext.getMessageBus();
+        assert bus != null;
+        final PageFrameCursor slaveCursor = slaveFactory.getPageFrameCursor(executionContext);
+        final PageFrameCursor masterCursor;
+        try {
+            masterCursor = masterFactory.getPageFrameCursor(executionContext);
+        } catch (CairoException e) {
+            slaveCursor.close();
+            throw e;
+        }
+        try {
+            cursor.of(masterCursor, slaveCursor, bus, executionContext.getSqlExecutionInterruptor());
+            return cursor;
+        } catch (CairoException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+}
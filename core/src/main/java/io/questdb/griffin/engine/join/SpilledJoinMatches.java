@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AppendMemory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.SpillFiles;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Slave row ids matched by each master row of spilled hash join. Partitions are joined in
+ * hash order, matches are appended to temporary file and located via index addressed by
+ * master row ordinal, which lets join emit its output in master order.
+ */
+class SpilledJoinMatches implements Mutable, Closeable {
+    private static final Log LOG = LogFactory.getLog(SpilledJoinMatches.class);
+    private final CairoConfiguration configuration;
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final long pageSize;
+    private final Path path = new Path();
+    private final AppendMemory matchMem = new AppendMemory();
+    private long fileId = -1;
+    private long indexFd = -1;
+    private long indexAddress = 0;
+    private long indexSize = 0;
+    private long matchFd = -1;
+    private long matchAddress = 0;
+    private long matchSize = 0;
+
+    SpilledJoinMatches(CairoConfiguration configuration) {
+        this.configuration = configuration;
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getSqlSpillRoot();
+        this.pageSize = ff.getMapPageSize();
+    }
+
+    @Override
+    public void clear() {
+        if (fileId != -1) {
+            matchMem.close(false);
+            if (matchAddress != 0) {
+                ff.munmap(matchAddress, matchSize);
+                matchAddress = 0;
+            }
+            if (matchFd != -1) {
+                ff.close(matchFd);
+                matchFd = -1;
+            }
+            remove(matchFile());
+            if (indexAddress != 0) {
+                ff.munmap(indexAddress, indexSize);
+                indexAddress = 0;
+            }
+            if (indexFd != -1) {
+                ff.close(indexFd);
+                indexFd = -1;
+            }
+            remove(indexFile());
+            fileId = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    /**
+     * @return offset of match count of given master row, followed by slave row ids, or -1 when row has no matches
+     */
+    long getMatchOffset(long ordinal) {
+        return Unsafe.getUnsafe().getLong(indexAddress + ordinal * Long.BYTES);
+    }
+
+    long getLong(long offset) {
+        return Unsafe.getUnsafe().getLong(matchAddress + offset);
+    }
+
+    void of(long masterRowCount) {
+        clear();
+        if (masterRowCount == 0) {
+            return;
+        }
+        fileId = SpillFiles.nextFileId(configuration, path);
+        indexSize = masterRowCount * Long.BYTES;
+        indexFd = ff.openRW(indexFile());
+        if (indexFd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open ").put(path);
+        }
+        if (!ff.truncate(indexFd, indexSize)) {
+            throw CairoException.instance(ff.errno()).put("could not resize ").put(path).put(" to ").put(indexSize);
+        }
+        indexAddress = ff.mmap(indexFd, indexSize, 0, Files.MAP_RW);
+        if (indexAddress == FilesFacade.MAP_FAILED) {
+            indexAddress = 0;
+            throw CairoException.instance(ff.errno()).put("could not mmap ").put(path);
+        }
+        for (long p = indexAddress, hi = indexAddress + indexSize; p < hi; p += Long.BYTES) {
+            Unsafe.getUnsafe().putLong(p, -1);
+        }
+        matchMem.of(ff, matchFile(), pageSize);
+    }
+
+    void put(long ordinal, LongChain.TreeCursor slaveRowIds, long count) {
+        Unsafe.getUnsafe().putLong(indexAddress + ordinal * Long.BYTES, matchMem.getAppendOffset());
+        matchMem.putLong(count);
+        while (slaveRowIds.hasNext()) {
+            matchMem.putLong(slaveRowIds.next());
+        }
+    }
+
+    /**
+     * Maps appended matches for reading, no more matches can be put after this call.
+     */
+    void seal() {
+        if (fileId == -1) {
+            return;
+        }
+        matchSize = matchMem.getAppendOffset();
+        matchMem.close(true);
+        if (matchSize == 0) {
+            return;
+        }
+        matchFd = ff.openRO(matchFile());
+        if (matchFd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open ").put(path);
+        }
+        matchAddress = ff.mmap(matchFd, matchSize, 0, Files.MAP_RO);
+        if (matchAddress == FilesFacade.MAP_FAILED) {
+            matchAddress = 0;
+            throw CairoException.instance(ff.errno()).put("could not mmap ").put(path);
+        }
+    }
+
+    private LPSZ indexFile() {
+        return path.of(root).concat("join.").put(fileId).put(".idx").$();
+    }
+
+    private LPSZ matchFile() {
+        return path.of(root).concat("join.").put(fileId).put(".match").$();
+    }
+
+    private void remove(LPSZ file) {
+        if (ff.exists(file) && !ff.remove(file)) {
+            LOG.error().$("could not remove [file=").$(file).$(", errno=").$(ff.errno()).$(']').$();
+        }
+    }
+}
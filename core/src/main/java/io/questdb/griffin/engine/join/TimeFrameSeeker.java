@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.TimeFrameRecordCursor;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rows;
+
+/**
+ * Finds slave rows of ASOF and LT joins without scanning slave cursor. Latest row at or before
+ * given timestamp is found by binary search on designated timestamp of slave frames. Latest row of
+ * given symbol is then found by walking symbol index backwards from that row.
+ * <p>
+ * Master timestamps are expected to ascend, in which case search resumes from previously found row.
+ */
+class TimeFrameSeeker {
+    private final LongList frames = new LongList();
+    private TableReader reader;
+    private SymbolMapReader symbolMapReader;
+    private int timestampIndex;
+    private int keyColumnIndex;
+    private int frameCount;
+    private int frameIndex;
+    private long rowLo;
+    private long lastTimestamp;
+
+    /**
+     * Latest row, the timestamp of which is less or equal to the given one.
+     *
+     * @param timestamp timestamp, inclusive
+     * @return row id or Numbers.LONG_NaN when slave has no such row
+     */
+    long findLatest(long timestamp) {
+        if (frameCount == 0) {
+            return Numbers.LONG_NaN;
+        }
+
+        if (timestamp < lastTimestamp) {
+            rewind();
+        }
+        lastTimestamp = timestamp;
+
+        while (frameIndex + 1 < frameCount && getFirstTimestamp(frameIndex + 1) <= timestamp) {
+            frameIndex++;
+            rowLo = frames.getQuick(frameIndex * 3 + 1);
+        }
+
+        final int partitionIndex = (int) frames.getQuick(frameIndex * 3);
+        final long row = BinarySearch.find(
+                getTimestampColumn(partitionIndex),
+                timestamp,
+                rowLo,
+                frames.getQuick(frameIndex * 3 + 2) - 1,
+                BinarySearch.SCAN_DOWN
+        );
+
+        if (row < rowLo) {
+            // only first frame can start after the timestamp
+            return Numbers.LONG_NaN;
+        }
+        rowLo = row;
+        return Rows.toRowID(partitionIndex, row);
+    }
+
+    /**
+     * Latest row of the symbol, the timestamp of which is less or equal to the given one.
+     *
+     * @param timestamp timestamp, inclusive
+     * @param symbol    value of slave symbol column
+     * @return row id or Numbers.LONG_NaN when slave has no such row
+     */
+    long findLatest(long timestamp, CharSequence symbol) {
+        final int symbolKey = symbolMapReader.keyOf(symbol);
+        if (symbolKey == SymbolTable.VALUE_NOT_FOUND) {
+            return Numbers.LONG_NaN;
+        }
+
+        final long rowId = findLatest(timestamp);
+        if (rowId == Numbers.LONG_NaN) {
+            return Numbers.LONG_NaN;
+        }
+
+        final int indexKey = TableUtils.toIndexKey(symbolKey);
+        long rowHi = Rows.toLocalRowID(rowId);
+        for (int i = frameIndex; i > -1; i--) {
+            final int partitionIndex = (int) frames.getQuick(i * 3);
+            if (i < frameIndex) {
+                rowHi = frames.getQuick(i * 3 + 2) - 1;
+            }
+            final BitmapIndexReader indexReader = reader.getBitmapIndexReader(
+                    reader.getColumnBase(partitionIndex),
+                    keyColumnIndex,
+                    BitmapIndexReader.DIR_BACKWARD
+            );
+            final RowCursor cursor = indexReader.getCursor(true, indexKey, frames.getQuick(i * 3 + 1), rowHi);
+            if (cursor.hasNext()) {
+                return Rows.toRowID(partitionIndex, cursor.next());
+            }
+        }
+        return Numbers.LONG_NaN;
+    }
+
+    /**
+     * Prepares seeker for the slave cursor, which is left at the top.
+     *
+     * @param cursor         slave cursor
+     * @param keyColumnIndex index of slave symbol column when rows are to be found by symbol, -1 otherwise
+     * @return false when slave cursor cannot be searched and has to be scanned
+     */
+    boolean of(RecordCursor cursor, int keyColumnIndex) {
+        if (!(cursor instanceof TimeFrameRecordCursor)) {
+            return false;
+        }
+
+        final TimeFrameRecordCursor timeFrameCursor = (TimeFrameRecordCursor) cursor;
+        frames.clear();
+        if (!timeFrameCursor.collectFrames(frames)) {
+            return false;
+        }
+
+        reader = timeFrameCursor.getTableReader();
+        timestampIndex = reader.getMetadata().getTimestampIndex();
+        if (timestampIndex == -1) {
+            return false;
+        }
+
+        if (keyColumnIndex != -1) {
+            this.keyColumnIndex = timeFrameCursor.getReaderColumnIndex(keyColumnIndex);
+            if (!reader.getMetadata().isColumnIndexed(this.keyColumnIndex)) {
+                return false;
+            }
+            symbolMapReader = reader.getSymbolMapReader(this.keyColumnIndex);
+        }
+
+        frameCount = frames.size() / 3;
+        rewind();
+        return true;
+    }
+
+    void toTop() {
+        rewind();
+    }
+
+    private long getFirstTimestamp(int frameIndex) {
+        return getTimestampColumn((int) frames.getQuick(frameIndex * 3)).getLong(frames.getQuick(frameIndex * 3 + 1) * Long.BYTES);
+    }
+
+    private ReadOnlyColumn getTimestampColumn(int partitionIndex) {
+        return reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), timestampIndex));
+    }
+
+    private void rewind() {
+        frameIndex = 0;
+        rowLo = frameCount > 0 ? frames.getQuick(1) : 0;
+        lastTimestamp = Long.MIN_VALUE;
+    }
+}
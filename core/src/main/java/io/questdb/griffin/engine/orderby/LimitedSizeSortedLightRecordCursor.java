@@ -0,0 +1,200 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.DirectLongList;
+
+/**
+ * Keeps only the first "limit" rows of the sort order in a bounded max-heap of row ids,
+ * so that ORDER BY ... LIMIT N is a single scan with O(N) memory instead of a full sort.
+ * Heap entries are (rowId, sequence) pairs. Sequence breaks ties the same way {@link LongTreeChain}
+ * does, which is the later row first, so the output is identical to a full sort followed by limit.
+ * <p>
+ * Comparator caches the left record values in setLeft(), which lets heap compare two stored
+ * rows using the same placeholder record. This is only safe for fixed-width columns, and factory
+ * is not used for other key types.
+ */
+class LimitedSizeSortedLightRecordCursor implements DelegatingRecordCursor {
+    private final DirectLongList heap;
+    private final RecordComparator comparator;
+    private final long limit;
+    private RecordCursor base;
+    private Record baseRecord;
+    private Record placeHolderRecord;
+    private long heapSize;
+    private long index;
+
+    public LimitedSizeSortedLightRecordCursor(DirectLongList heap, RecordComparator comparator, long limit) {
+        this.heap = heap;
+        this.comparator = comparator;
+        this.limit = limit;
+    }
+
+    @Override
+    public void close() {
+        heap.setPos(0);
+        base.close();
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < heapSize) {
+            base.recordAt(baseRecord, rowIdAt(index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    @Override
+    public long size() {
+        return heapSize;
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        this.placeHolderRecord = base.getRecordB();
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+
+        heap.setPos(0);
+        heapSize = 0;
+        if (limit > 0) {
+            long sequence = 0;
+            while (base.hasNext()) {
+                interruptor.checkInterrupted();
+                if (heapSize < limit) {
+                    heap.add(baseRecord.getRowId());
+                    heap.add(sequence);
+                    siftUp(heapSize++);
+                } else {
+                    // heap top is the row that sorts last among those we kept; current
+                    // row replaces it when it sorts before or level with it, ties favour later rows
+                    comparator.setLeft(baseRecord);
+                    base.recordAt(placeHolderRecord, rowIdAt(0));
+                    if (comparator.compare(placeHolderRecord) <= 0) {
+                        heap.set(0, baseRecord.getRowId());
+                        heap.set(1, sequence);
+                        siftDown(0, heapSize);
+                    }
+                }
+                sequence++;
+            }
+
+            // heap sort leaves rows in output order
+            for (long n = heapSize - 1; n > 0; n--) {
+                swap(0, n);
+                siftDown(0, n);
+            }
+        }
+        index = 0;
+    }
+
+    private long rowIdAt(long i) {
+        return heap.get(i * 2);
+    }
+
+    private long sequenceAt(long i) {
+        return heap.get(i * 2 + 1);
+    }
+
+    // true when row "i" comes after row "j" in sort order
+    private boolean sortsAfter(long i, long j) {
+        base.recordAt(placeHolderRecord, rowIdAt(i));
+        comparator.setLeft(placeHolderRecord);
+        base.recordAt(placeHolderRecord, rowIdAt(j));
+        final int cmp = comparator.compare(placeHolderRecord);
+        return cmp > 0 || (cmp == 0 && sequenceAt(i) < sequenceAt(j));
+    }
+
+    private void siftDown(long i, long size) {
+        while (true) {
+            long child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && sortsAfter(child + 1, child)) {
+                child++;
+            }
+            if (!sortsAfter(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void siftUp(long i) {
+        while (i > 0) {
+            final long parent = (i - 1) / 2;
+            if (!sortsAfter(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void swap(long i, long j) {
+        final long rowId = rowIdAt(i);
+        final long sequence = sequenceAt(i);
+        heap.set(i * 2, rowIdAt(j));
+        heap.set(i * 2 + 1, sequenceAt(j));
+        heap.set(j * 2, rowId);
+        heap.set(j * 2 + 1, sequence);
+    }
+}
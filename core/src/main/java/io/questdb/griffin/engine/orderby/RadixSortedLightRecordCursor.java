@@ -0,0 +1,545 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Sorts row ids of base cursor by fixed-width keys using native LSD radix sort. Key columns are
+ * encoded into unsigned 64-bit values that preserve sort order, i.e. sign bit is flipped for signed integers,
+ * floating point values are bit-flipped and symbols are replaced with position of their value in sorted
+ * symbol table. Descending columns are inverted. Keys of several columns are packed into 64-bit words,
+ * most significant column first, and words are sorted one by one starting with the least significant.
+ * <p>
+ * Radix sort is stable. Rows are fed into it in reverse scan order, so that rows with equal keys
+ * come out later row first, the same as {@link LongTreeChain} returns them.
+ * <p>
+ * Row ids, key words and sort index take fixed number of bytes per row. They are charged against
+ * the same page limit as values of tree based sort. Once limit is breached, sort either fails or,
+ * when it is allowed to spill, writes sorted rows out as a run and starts over. Runs are merged
+ * by comparing records the same way their keys compare.
+ */
+class RadixSortedLightRecordCursor implements DelegatingRecordCursor {
+    // native sort switches to quick sort, which is not stable, below this size
+    private static final int NATIVE_SORT_THRESHOLD = 600;
+    private final int wordCount;
+    private final int[] columnIndexes;
+    private final int[] columnTypes;
+    private final int[] columnWords;
+    private final int[] columnShifts;
+    private final long[] columnMasks;
+    // rank of symbol value by "key + 1", zero rank is null
+    private final ObjList<IntList> symbolRanks = new ObjList<>();
+    // distinct values of symbol column laid out back to back, they are sorted by their ordinals
+    private final StringSink symbolValues = new StringSink();
+    private final IntList symbolValueOffsets = new IntList();
+    private final IntList symbolKeys = new IntList();
+    private final IntList symbolOrder = new IntList();
+    private boolean hasSymbols;
+    // row id of every base row in scan order
+    private final DirectLongList rowIds;
+    // encoded key words, "wordCount" per row
+    private final DirectLongList keys;
+    // (key word, row ordinal) pairs in the layout native radix sort expects
+    private final DirectLongList index;
+    private final long pageSize;
+    private final int maxPages;
+    private final long maxRowCount;
+    // null when sort is not allowed to spill to disk
+    private final SortRunFile runFile;
+    private final SortRunMerge merge;
+    private boolean merging;
+    private RecordCursor base;
+    private Record baseRecord;
+    private long rowCount;
+    private long current;
+
+    public RadixSortedLightRecordCursor(
+            RecordMetadata metadata,
+            IntList keyColumns,
+            DirectLongList rowIds,
+            DirectLongList keys,
+            DirectLongList index,
+            long pageSize,
+            int maxPages,
+            SortRunFile runFile
+    ) {
+        final int n = keyColumns.size();
+        this.columnIndexes = new int[n];
+        this.columnTypes = new int[n];
+        this.columnWords = new int[n];
+        this.columnShifts = new int[n];
+        this.columnMasks = new long[n];
+
+        int word = 0;
+        int bitsUsed = 0;
+        for (int i = 0; i < n; i++) {
+            final int filter = keyColumns.getQuick(i);
+            final int columnIndex = filter > 0 ? filter - 1 : -filter - 1;
+            final int type = metadata.getColumnType(columnIndex);
+            final int bits = getKeyBits(type);
+            if (bitsUsed + bits > Long.SIZE) {
+                word++;
+                bitsUsed = 0;
+            }
+            bitsUsed += bits;
+            columnIndexes[i] = columnIndex;
+            columnTypes[i] = type;
+            columnWords[i] = word;
+            columnShifts[i] = Long.SIZE - bitsUsed;
+            // descending order is achieved by inverting key bits
+            columnMasks[i] = filter > 0 ? 0 : (bits == Long.SIZE ? -1L : (1L << bits) - 1);
+            if (type == ColumnType.SYMBOL) {
+                symbolRanks.add(new IntList());
+                hasSymbols = true;
+            } else {
+                symbolRanks.add(null);
+            }
+        }
+        this.wordCount = word + 1;
+        this.rowIds = rowIds;
+        this.keys = keys;
+        this.index = index;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        // row id, key words and (key word, row ordinal) pair of sort index
+        this.maxRowCount = pageSize * maxPages / ((wordCount + 3) * Long.BYTES);
+        this.runFile = runFile;
+        this.merge = runFile != null ? new SortRunMerge(runFile, new KeyComparator()) : null;
+    }
+
+    static boolean isSupported(RecordMetadata metadata, IntList keyColumns) {
+        for (int i = 0, n = keyColumns.size(); i < n; i++) {
+            final int filter = keyColumns.getQuick(i);
+            final int columnIndex = filter > 0 ? filter - 1 : -filter - 1;
+            final int type = metadata.getColumnType(columnIndex);
+            if (getKeyBits(type) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        rowIds.setPos(0);
+        keys.setPos(0);
+        index.setPos(0);
+        if (runFile != null) {
+            runFile.clear();
+        }
+        merging = false;
+        base.close();
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (merging) {
+            return merge.hasNext();
+        }
+        if (current < rowCount) {
+            base.recordAt(baseRecord, rowIds.get(index.get(current++ * 2 + 1)));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        if (merging) {
+            merge.toTop();
+        } else {
+            current = 0;
+        }
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+
+        rowIds.setPos(0);
+        keys.setPos(0);
+        index.setPos(0);
+        clearSymbolRanks();
+        if (runFile != null) {
+            runFile.clear();
+        }
+        merging = false;
+        while (base.hasNext()) {
+            interruptor.checkInterrupted();
+            if (rowIds.size() == maxRowCount) {
+                if (runFile == null || maxRowCount == 0) {
+                    throw LimitOverflowException.instance().put("Maximum number of pages (").put(maxPages).put(") breached in RadixSort [pageSize=").put(pageSize).put(']');
+                }
+                // buffers are full, write sorted rows out as a run
+                // and start over with empty buffers
+                sortRows(base, interruptor);
+                spillRun();
+            }
+            rowIds.add(baseRecord.getRowId());
+            long key = 0;
+            int word = 0;
+            for (int i = 0, n = columnIndexes.length; i < n; i++) {
+                if (columnWords[i] != word) {
+                    keys.add(key);
+                    key = 0;
+                    word = columnWords[i];
+                }
+                key |= encode(baseRecord, i) << columnShifts[i];
+            }
+            keys.add(key);
+        }
+        sortRows(base, interruptor);
+
+        if (runFile != null && runFile.getRunCount() > 0) {
+            if (rowCount > 0) {
+                spillRun();
+            }
+            runFile.seal();
+            merging = true;
+            merge.of(base);
+        } else {
+            current = 0;
+        }
+    }
+
+    private static int getKeyBits(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                return 1;
+            case ColumnType.BYTE:
+                return Byte.SIZE;
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                return Short.SIZE;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+            case ColumnType.SYMBOL:
+                return Integer.SIZE;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return Long.SIZE;
+            default:
+                return -1;
+        }
+    }
+
+    private void clearSymbolRanks() {
+        for (int i = 0, n = columnIndexes.length; i < n; i++) {
+            final IntList ranks = symbolRanks.getQuick(i);
+            if (ranks != null) {
+                // gaps left by extendAndSet() must read as "not seen"
+                ranks.zero(0);
+                ranks.clear();
+            }
+        }
+    }
+
+    private long encode(Record record, int i) {
+        final int columnIndex = columnIndexes[i];
+        final long mask = columnMasks[i];
+        switch (columnTypes[i]) {
+            case ColumnType.BOOLEAN:
+                return (record.getBool(columnIndex) ? 1 : 0) ^ mask;
+            case ColumnType.BYTE:
+                return ((record.getByte(columnIndex) ^ Byte.MIN_VALUE) & 0xffL) ^ mask;
+            case ColumnType.SHORT:
+                return ((record.getShort(columnIndex) ^ Short.MIN_VALUE) & 0xffffL) ^ mask;
+            case ColumnType.CHAR:
+                return record.getChar(columnIndex) ^ mask;
+            case ColumnType.INT:
+                return ((record.getInt(columnIndex) ^ Integer.MIN_VALUE) & 0xffffffffL) ^ mask;
+            case ColumnType.LONG:
+                return (record.getLong(columnIndex) ^ Long.MIN_VALUE) ^ mask;
+            case ColumnType.DATE:
+                return (record.getDate(columnIndex) ^ Long.MIN_VALUE) ^ mask;
+            case ColumnType.TIMESTAMP:
+                return (record.getTimestamp(columnIndex) ^ Long.MIN_VALUE) ^ mask;
+            case ColumnType.FLOAT:
+                return encodeFloat(record.getFloat(columnIndex)) ^ mask;
+            case ColumnType.DOUBLE:
+                return encodeDouble(record.getDouble(columnIndex)) ^ mask;
+            default:
+                // SYMBOL, key is replaced with rank of its value once all keys are known
+                final int key = record.getInt(columnIndex);
+                if (key == SymbolTable.VALUE_IS_NULL) {
+                    return 0;
+                }
+                symbolRanks.getQuick(i).extendAndSet(key + 1, 1);
+                return key + 1;
+        }
+    }
+
+    // NaN is null, it goes first just like null values of other types
+    private static long encodeDouble(double value) {
+        if (value != value) {
+            return 0;
+        }
+        final long bits = Double.doubleToRawLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static long encodeFloat(float value) {
+        if (value != value) {
+            return 0;
+        }
+        final int bits = Float.floatToRawIntBits(value);
+        return (bits ^ ((bits >> 31) | Integer.MIN_VALUE)) & 0xffffffffL;
+    }
+
+    private void rankSymbols(RecordCursor base) {
+        for (int i = 0, n = columnIndexes.length; i < n; i++) {
+            final IntList ranks = symbolRanks.getQuick(i);
+            if (ranks == null) {
+                continue;
+            }
+
+            final SymbolTable symbolTable = base.getSymbolTable(columnIndexes[i]);
+            symbolKeys.clear();
+            symbolValues.clear();
+            symbolValueOffsets.clear();
+            symbolOrder.clear();
+            for (int k = 1, m = ranks.size(); k < m; k++) {
+                if (ranks.getQuick(k) != 0) {
+                    symbolOrder.add(symbolKeys.size());
+                    symbolKeys.add(k - 1);
+                    symbolValueOffsets.add(symbolValues.length());
+                    symbolValues.put(symbolTable.valueOf(k - 1));
+                }
+            }
+            symbolValueOffsets.add(symbolValues.length());
+
+            final int count = symbolKeys.size();
+            sortSymbols(0, count - 1);
+            int lastRank = 0;
+            for (int k = 0; k < count; k++) {
+                // equal values share rank, symbol table is not required to keep values unique
+                if (k == 0 || compareSymbols(symbolOrder.getQuick(k - 1), symbolOrder.getQuick(k)) != 0) {
+                    lastRank++;
+                }
+                ranks.setQuick(symbolKeys.getQuick(symbolOrder.getQuick(k)) + 1, lastRank);
+            }
+
+            final int word = columnWords[i];
+            final int shift = columnShifts[i];
+            final long mask = columnMasks[i];
+            for (long ordinal = 0; ordinal < rowCount; ordinal++) {
+                final long offset = ordinal * wordCount + word;
+                final long key = keys.get(offset);
+                final long rank = ranks.getQuick((int) ((key >>> shift) & 0xffffffffL));
+                keys.set(offset, (key & ~(0xffffffffL << shift)) | ((rank ^ mask) << shift));
+            }
+        }
+    }
+
+    private int compareSymbols(int l, int r) {
+        final int lLo = symbolValueOffsets.getQuick(l);
+        final int lLen = symbolValueOffsets.getQuick(l + 1) - lLo;
+        final int rLo = symbolValueOffsets.getQuick(r);
+        final int rLen = symbolValueOffsets.getQuick(r + 1) - rLo;
+        for (int i = 0, n = Math.min(lLen, rLen); i < n; i++) {
+            final int d = symbolValues.charAt(lLo + i) - symbolValues.charAt(rLo + i);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return lLen - rLen;
+    }
+
+    // sorts ordinals of symbol values in place, quick sort recurses into smaller half
+    private void sortSymbols(int lo, int hi) {
+        while (lo < hi) {
+            final int pivot = symbolOrder.getQuick((lo + hi) >>> 1);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (compareSymbols(symbolOrder.getQuick(i), pivot) < 0) {
+                    i++;
+                }
+                while (compareSymbols(symbolOrder.getQuick(j), pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    final int t = symbolOrder.getQuick(i);
+                    symbolOrder.setQuick(i++, symbolOrder.getQuick(j));
+                    symbolOrder.setQuick(j--, t);
+                }
+            }
+            if (j - lo < hi - i) {
+                sortSymbols(lo, j);
+                lo = i;
+            } else {
+                sortSymbols(i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private void sortRows(RecordCursor base, SqlExecutionInterruptor interruptor) {
+        rowCount = rowIds.size();
+
+        if (hasSymbols) {
+            rankSymbols(base);
+        }
+
+        if (rowCount > 0) {
+            final int lastWord = wordCount - 1;
+            for (long ordinal = rowCount - 1; ordinal > -1; ordinal--) {
+                index.add(keys.get(ordinal * wordCount + lastWord));
+                index.add(ordinal);
+            }
+            sort();
+
+            for (int word = lastWord - 1; word > -1; word--) {
+                interruptor.checkInterrupted();
+                for (long i = 0; i < rowCount; i++) {
+                    index.set(i * 2, keys.get(index.get(i * 2 + 1) * wordCount + word));
+                }
+                sort();
+            }
+        }
+    }
+
+    private void spillRun() {
+        for (long i = 0; i < rowCount; i++) {
+            runFile.append(rowIds.get(index.get(i * 2 + 1)));
+        }
+        runFile.endRun();
+        rowIds.setPos(0);
+        keys.setPos(0);
+        index.setPos(0);
+        clearSymbolRanks();
+        rowCount = 0;
+    }
+
+    private void sort() {
+        if (rowCount < NATIVE_SORT_THRESHOLD) {
+            // insertion sort is stable and cheap enough for small arrays
+            for (long i = 1; i < rowCount; i++) {
+                final long key = index.get(i * 2);
+                final long value = index.get(i * 2 + 1);
+                long j = i - 1;
+                while (j > -1 && Long.compareUnsigned(index.get(j * 2), key) > 0) {
+                    index.set(j * 2 + 2, index.get(j * 2));
+                    index.set(j * 2 + 3, index.get(j * 2 + 1));
+                    j--;
+                }
+                index.set(j * 2 + 2, key);
+                index.set(j * 2 + 3, value);
+            }
+        } else {
+            Vect.sortLongIndexAscInPlace(index.getAddress(), rowCount);
+        }
+    }
+
+    // orders records the same way their encoded keys are ordered, symbols
+    // are compared by value because ranks are only valid within one run
+    private class KeyComparator implements RecordComparator {
+        private final long[] leftKeys = new long[columnIndexes.length];
+        private final StringSink[] leftSymbols = new StringSink[columnIndexes.length];
+        private final boolean[] leftNulls = new boolean[columnIndexes.length];
+
+        private KeyComparator() {
+            for (int i = 0, n = columnIndexes.length; i < n; i++) {
+                if (columnTypes[i] == ColumnType.SYMBOL) {
+                    leftSymbols[i] = new StringSink();
+                }
+            }
+        }
+
+        @Override
+        public int compare(Record record) {
+            for (int i = 0, n = columnIndexes.length; i < n; i++) {
+                int cmp;
+                if (columnTypes[i] == ColumnType.SYMBOL) {
+                    final CharSequence value = record.getSym(columnIndexes[i]);
+                    cmp = Chars.compare(leftNulls[i] ? null : leftSymbols[i], value);
+                    if (columnMasks[i] != 0) {
+                        cmp = -cmp;
+                    }
+                } else {
+                    cmp = Long.compareUnsigned(leftKeys[i], encode(record, i));
+                }
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public void setLeft(Record record) {
+            for (int i = 0, n = columnIndexes.length; i < n; i++) {
+                if (columnTypes[i] == ColumnType.SYMBOL) {
+                    final CharSequence value = record.getSym(columnIndexes[i]);
+                    leftNulls[i] = value == null;
+                    leftSymbols[i].clear();
+                    if (value != null) {
+                        leftSymbols[i].put(value);
+                    }
+                } else {
+                    leftKeys[i] = encode(record, i);
+                }
+            }
+        }
+    }
+}
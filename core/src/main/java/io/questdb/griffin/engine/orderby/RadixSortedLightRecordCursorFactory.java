@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+
+public class RadixSortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final long INITIAL_CAPACITY = 1024;
+    private final RecordCursorFactory base;
+    private final DirectLongList rowIds;
+    private final DirectLongList keys;
+    private final DirectLongList index;
+    private final SortRunFile runFile;
+    private final RadixSortedLightRecordCursor cursor;
+
+    public RadixSortedLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            IntList keyColumns
+    ) {
+        super(metadata);
+        this.base = base;
+        this.rowIds = new DirectLongList(INITIAL_CAPACITY);
+        this.keys = new DirectLongList(INITIAL_CAPACITY);
+        this.index = new DirectLongList(INITIAL_CAPACITY * 2);
+        this.runFile = configuration.isSqlSortSpillEnabled() ? new SortRunFile(configuration) : null;
+        this.cursor = new RadixSortedLightRecordCursor(
+                base.getMetadata(),
+                keyColumns,
+                rowIds,
+                keys,
+                index,
+                configuration.getSqlSortLightValuePageSize(),
+                configuration.getSqlSortLightValueMaxPages(),
+                runFile
+        );
+    }
+
+    /**
+     * @param metadata   metadata of the cursor that is being sorted
+     * @param keyColumns 1-based indexes of key columns, negative index sorts column in descending order
+     * @return true when all keys are fixed-width values radix sort can order the same way as the
+     * record comparator does
+     */
+    public static boolean isSupported(RecordMetadata metadata, IntList keyColumns) {
+        return RadixSortedLightRecordCursor.isSupported(metadata, keyColumns);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+        Misc.free(rowIds);
+        Misc.free(keys);
+        Misc.free(index);
+        Misc.free(runFile);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (RuntimeException ex) {
+            baseCursor.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+}
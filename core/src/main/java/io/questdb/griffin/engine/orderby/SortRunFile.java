@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AppendMemory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ReadOnlyMemory;
+import io.questdb.cairo.SpillFiles;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Temporary file of sorted row id runs. Sort cursors append runs when they exceed
+ * their memory limits and, once sealed, read runs back via memory mapped file to merge them.
+ * File is created under spill root on first append and removed on clear.
+ */
+class SortRunFile implements Mutable, Closeable {
+    private static final Log LOG = LogFactory.getLog(SortRunFile.class);
+    private final CairoConfiguration configuration;
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final long pageSize;
+    private final Path path = new Path();
+    private final AppendMemory writer = new AppendMemory();
+    private final ReadOnlyMemory reader = new ReadOnlyMemory();
+    // pairs of [lo, hi) offsets of each run
+    private final LongList runs = new LongList();
+    private boolean open = false;
+    private long runLo = 0;
+
+    SortRunFile(CairoConfiguration configuration) {
+        this.configuration = configuration;
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getSqlSpillRoot();
+        this.pageSize = ff.getMapPageSize();
+    }
+
+    @Override
+    public void clear() {
+        runs.clear();
+        runLo = 0;
+        if (open) {
+            writer.close(false);
+            reader.close();
+            if (!ff.remove(path)) {
+                LOG.error().$("could not remove [file=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+            }
+            open = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    void append(long rowId) {
+        if (!open) {
+            final long fileId = SpillFiles.nextFileId(configuration, path);
+            path.of(root).concat("sort.").put(fileId).put(".tmp").$();
+            writer.of(ff, path, pageSize);
+            open = true;
+        }
+        writer.putLong(rowId);
+    }
+
+    void endRun() {
+        final long hi = writer.getAppendOffset();
+        runs.add(runLo);
+        runs.add(hi);
+        runLo = hi;
+    }
+
+    int getRunCount() {
+        return runs.size() / 2;
+    }
+
+    long getRunHi(int run) {
+        return runs.getQuick(run * 2 + 1);
+    }
+
+    long getRunLo(int run) {
+        return runs.getQuick(run * 2);
+    }
+
+    long getRowId(long offset) {
+        return reader.getLong(offset);
+    }
+
+    void seal() {
+        final long size = writer.getAppendOffset();
+        writer.close(true);
+        reader.of(ff, path, pageSize, size);
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+
+/**
+ * Merges sealed runs of {@link SortRunFile}. Run indexes are kept in min heap ordered by
+ * record at run head. Comparator must order records the same way runs were sorted.
+ */
+class SortRunMerge {
+    private final SortRunFile runFile;
+    private final RecordComparator comparator;
+    // read offsets of spilled runs
+    private final LongList runHeads = new LongList();
+    // min heap of spilled run indexes ordered by record at run head
+    private final IntList runHeap = new IntList();
+    private int runHeapSize;
+    private RecordCursor base;
+    private Record baseRecord;
+    private Record placeHolderRecord;
+
+    SortRunMerge(SortRunFile runFile, RecordComparator comparator) {
+        this.runFile = runFile;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Positions record of base cursor at the next row of merged runs.
+     *
+     * @return false when all runs are exhausted
+     */
+    boolean hasNext() {
+        if (runHeapSize == 0) {
+            return false;
+        }
+        final int run = runHeap.getQuick(0);
+        final long rowId = headRowId(run);
+        final long head = runHeads.getQuick(run) + Long.BYTES;
+        runHeads.setQuick(run, head);
+        if (head == runFile.getRunHi(run)) {
+            runHeap.setQuick(0, runHeap.getQuick(--runHeapSize));
+        }
+        siftDown(0);
+        // heap maintenance re-positions base record
+        base.recordAt(baseRecord, rowId);
+        return true;
+    }
+
+    void of(RecordCursor base) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        this.placeHolderRecord = base.getRecordB();
+        toTop();
+    }
+
+    void toTop() {
+        final int runCount = runFile.getRunCount();
+        runHeads.clear();
+        runHeap.clear();
+        runHeapSize = 0;
+        for (int i = 0; i < runCount; i++) {
+            runHeads.add(runFile.getRunLo(i));
+            runHeap.add(i);
+            siftUp(runHeapSize++);
+        }
+    }
+
+    private long headRowId(int run) {
+        return runFile.getRowId(runHeads.getQuick(run));
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= runHeapSize) {
+                return;
+            }
+            int first = left;
+            if (left + 1 < runHeapSize && sortsBefore(runHeap.getQuick(left + 1), runHeap.getQuick(left))) {
+                first = left + 1;
+            }
+            if (!sortsBefore(runHeap.getQuick(first), runHeap.getQuick(i))) {
+                return;
+            }
+            swap(i, first);
+            i = first;
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) / 2;
+            if (!sortsBefore(runHeap.getQuick(i), runHeap.getQuick(parent))) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private boolean sortsBefore(int runA, int runB) {
+        base.recordAt(baseRecord, headRowId(runA));
+        comparator.setLeft(baseRecord);
+        base.recordAt(placeHolderRecord, headRowId(runB));
+        final int cmp = comparator.compare(placeHolderRecord);
+        // sorts return equal records latest first,
+        // later runs hold later records
+        return cmp < 0 || (cmp == 0 && runA > runB);
+    }
+
+    private void swap(int i, int j) {
+        final int t = runHeap.getQuick(i);
+        runHeap.setQuick(i, runHeap.getQuick(j));
+        runHeap.setQuick(j, t);
+    }
+}
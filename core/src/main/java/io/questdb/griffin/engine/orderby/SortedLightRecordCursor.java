@@ -30,25 +30,37 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.RecordComparator;
 
 class SortedLightRecordCursor implements DelegatingRecordCursor {
     private final LongTreeChain chain;
     private final RecordComparator comparator;
     private final LongTreeChain.TreeCursor chainCursor;
+    // null when sort is not allowed to spill to disk
+    private final SortRunFile runFile;
+    private final SortRunMerge merge;
+    private boolean merging;
     private RecordCursor base;
     private Record baseRecord;
+    private Record placeHolderRecord;
 
-    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator) {
+    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator, SortRunFile runFile) {
         this.chain = chain;
         this.comparator = comparator;
         // assign it once, its the same instance anyway
         this.chainCursor = chain.getCursor();
+        this.runFile = runFile;
+        this.merge = runFile != null ? new SortRunMerge(runFile, comparator) : null;
     }
 
     @Override
     public void close() {
         chain.clear();
+        if (runFile != null) {
+            runFile.clear();
+        }
+        merging = false;
         base.close();
     }
 
@@ -69,6 +81,9 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public boolean hasNext() {
+        if (merging) {
+            return merge.hasNext();
+        }
         if (chainCursor.hasNext()) {
             base.recordAt(baseRecord, chainCursor.next());
             return true;
@@ -88,30 +103,75 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public void toTop() {
-        chainCursor.toTop();
+        if (merging) {
+            merge.toTop();
+        } else {
+            chainCursor.toTop();
+        }
     }
 
     @Override
     public void of(RecordCursor base, SqlExecutionContext executionContext) {
         this.base = base;
         this.baseRecord = base.getRecord();
-        final Record placeHolderRecord = base.getRecordB();
+        this.placeHolderRecord = base.getRecordB();
         SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
 
         chain.clear();
+        if (runFile != null) {
+            runFile.clear();
+        }
+        merging = false;
+        long runSize = 0;
         while (base.hasNext()) {
             interruptor.checkInterrupted();
             // Tree chain is liable to re-position record to
             // other rows to do record comparison. We must use our
             // own record instance in case base cursor keeps
             // state in the record it returns.
-            chain.put(
-                    baseRecord,
-                    base,
-                    placeHolderRecord,
-                    comparator
-            );
+            try {
+                chain.put(
+                        baseRecord,
+                        base,
+                        placeHolderRecord,
+                        comparator
+                );
+            } catch (LimitOverflowException e) {
+                if (runFile == null || runSize == 0) {
+                    throw e;
+                }
+                // tree is full, write its sorted content out as a run
+                // and start over with empty tree
+                spillRun();
+                runSize = 0;
+                chain.put(
+                        baseRecord,
+                        base,
+                        placeHolderRecord,
+                        comparator
+                );
+            }
+            runSize++;
         }
+
+        if (runFile != null && runFile.getRunCount() > 0) {
+            if (runSize > 0) {
+                spillRun();
+            }
+            runFile.seal();
+            merging = true;
+            merge.of(base);
+        } else {
+            chainCursor.toTop();
+        }
+    }
+
+    private void spillRun() {
         chainCursor.toTop();
+        while (chainCursor.hasNext()) {
+            runFile.append(chainCursor.next());
+        }
+        runFile.endRun();
+        chain.clear();
     }
 }
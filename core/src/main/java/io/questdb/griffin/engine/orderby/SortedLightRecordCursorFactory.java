@@ -31,11 +31,13 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.Misc;
 
 public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory base;
     private final LongTreeChain chain;
     private final SortedLightRecordCursor cursor;
+    private final SortRunFile runFile;
 
     public SortedLightRecordCursorFactory(
             CairoConfiguration configuration,
@@ -51,13 +53,15 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
                         .getSqlSortLightValuePageSize(),
                 configuration.getSqlSortLightValueMaxPages());
         this.base = base;
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        this.runFile = configuration.isSqlSortSpillEnabled() ? new SortRunFile(configuration) : null;
+        this.cursor = new SortedLightRecordCursor(chain, comparator, runFile);
     }
 
     @Override
     public void close() {
         base.close();
         chain.close();
+        Misc.free(runFile);
     }
 
     @Override
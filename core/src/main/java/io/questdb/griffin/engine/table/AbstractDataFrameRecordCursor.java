@@ -59,6 +59,10 @@ public abstract class AbstractDataFrameRecordCursor implements RecordCursor {
         return recordA;
     }
 
+    public int getReaderColumnIndex(int columnIndex) {
+        return columnIndexes.getQuick(columnIndex);
+    }
+
     @Override
     public SymbolTable getSymbolTable(int columnIndex) {
         return dataFrameCursor.getSymbolTable(columnIndexes.getQuick(columnIndex));
@@ -24,15 +24,17 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.function.BooleanSupplier;
 
-class DataFrameRecordCursor extends AbstractDataFrameRecordCursor {
+class DataFrameRecordCursor extends AbstractDataFrameRecordCursor implements TimeFrameRecordCursor {
     private final RowCursorFactory rowCursorFactory;
     private final boolean entityCursor;
     private RowCursor rowCursor;
@@ -54,6 +56,28 @@ class DataFrameRecordCursor extends AbstractDataFrameRecordCursor {
         this.filter = filter;
     }
 
+    @Override
+    public boolean collectFrames(LongList frames) {
+        if (!entityCursor || filter != null) {
+            return false;
+        }
+        DataFrame dataFrame;
+        while ((dataFrame = dataFrameCursor.next()) != null) {
+            if (dataFrame.getRowLo() < dataFrame.getRowHi()) {
+                frames.add(dataFrame.getPartitionIndex());
+                frames.add(dataFrame.getRowLo());
+                frames.add(dataFrame.getRowHi());
+            }
+        }
+        toTop();
+        return true;
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return dataFrameCursor.getTableReader();
+    }
+
     @Override
     public boolean hasNext() {
         try {
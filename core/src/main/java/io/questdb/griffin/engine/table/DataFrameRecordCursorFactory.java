@@ -124,6 +124,9 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         private TableReader reader;
         private int partitionIndex;
         private long partitionRemaining = 0L;
+        private long partitionRowLo;
+        private long frameRowLo;
+        private long frameRowHi;
         private DataFrameCursor dataFrameCursor;
 
         public TableReaderPageFrameCursor(IntList columnIndexes, IntList columnSizes) {
@@ -160,6 +163,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                 final long partitionHi = dataFrame.getRowHi();
 
                 this.partitionRemaining = partitionHi - partitionLo;
+                this.partitionRowLo = partitionLo;
 
                 if (partitionRemaining > 0) {
                     final int base = reader.getColumnBase(dataFrame.getPartitionIndex());
@@ -195,10 +199,11 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                                     long pageSize = col.getPageSize(page) >> columnSizes.getQuick(i);
                                     if (pageSize > loRemaining) {
                                         long addr = col.getPageAddress(page);
-                                        addr += partitionLo << columnSizes.getQuick(i);
+                                        addr += loRemaining << columnSizes.getQuick(i);
                                         columnPageNextAddress.setQuick(i, addr);
-                                        pageNRowsRemaining.setQuick(i, pageSize - partitionLo);
-                                        pages.setQuick(i, page);
+                                        pageNRowsRemaining.setQuick(i, pageSize - loRemaining);
+                                        // next page to map, once this one is exhausted
+                                        pages.setQuick(i, page + 1);
                                         break;
                                     }
                                     loRemaining -= pageSize;
@@ -239,12 +244,11 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
 
         private PageFrame computeFrame(long min) {
             for (int i = 0; i < columnCount; i++) {
-                final int columnIndex = columnIndexes.getQuick(i);
                 final long top = topsRemaining.getQuick(i);
                 if (top > 0) {
                     assert min <= top;
                     topsRemaining.setQuick(i, top - min);
-                    columnPageAddress.setQuick(columnIndex, 0);
+                    columnPageAddress.setQuick(i, 0);
                     pageSizes.setQuick(i, min);
                 } else {
                     long addr = columnPageNextAddress.getQuick(i);
@@ -261,6 +265,9 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                 }
             }
             partitionRemaining -= min;
+            frameRowLo = partitionRowLo;
+            frameRowHi = partitionRowLo + min;
+            partitionRowLo = frameRowHi;
             return frame;
         }
 
@@ -295,7 +302,8 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                     }
                 }
             }
-            return min;
+            // page may extend beyond the last row of data frame
+            return partitionRemaining > 0 ? Math.min(min, partitionRemaining) : Long.MAX_VALUE;
         }
 
         private class TableReaderPageFrame implements PageFrame {
@@ -309,6 +317,21 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
             public long getPageSize(int columnIndex) {
                 return pageSizes.getQuick(columnIndex);
             }
+
+            @Override
+            public int getPartitionIndex() {
+                return partitionIndex;
+            }
+
+            @Override
+            public long getPartitionLo() {
+                return frameRowLo;
+            }
+
+            @Override
+            public long getPartitionHi() {
+                return frameRowHi;
+            }
         }
     }
 
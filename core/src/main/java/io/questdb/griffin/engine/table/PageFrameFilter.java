@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Filter instance confined to one thread. Filter functions keep evaluation state, so each worker
+ * thread, and the thread that owns the cursor, evaluates its own copy of the filter against its own record.
+ * <p>
+ * Symbol table readers are shared by all copies and are not safe for concurrent access. Symbol lookups
+ * are serialised on the shared reader and values are copied into thread-confined sinks before they are
+ * handed to the filter.
+ */
+class PageFrameFilter implements SymbolTableSource, Closeable {
+    private final Function filter;
+    private final PageFrameRecord record = new PageFrameRecord();
+    private final ObjList<SymbolTable> symbolTables = new ObjList<>();
+    private final ObjList<SerialSymbolTable> symbolTablePool = new ObjList<>();
+
+    PageFrameFilter(Function filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public void close() {
+        filter.close();
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return symbolTables.getQuick(columnIndex);
+    }
+
+    Function getFilter() {
+        return filter;
+    }
+
+    void filter(PageFrameFilterEntry entry) {
+        final LongList rows = entry.getRows();
+        final long rowCount = entry.getRowCount();
+        record.of(entry.getPageAddresses(), entry.getPartitionIndex(), entry.getPartitionLo(), symbolTables);
+        for (long row = 0; row < rowCount; row++) {
+            record.setRow(row);
+            if (filter.getBool(record)) {
+                rows.add(row);
+            }
+        }
+    }
+
+    void of(PageFrameCursor pageFrameCursor, int columnCount, SqlExecutionContext executionContext) {
+        symbolTables.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final SymbolTable symbolTable = pageFrameCursor.getSymbolMapReader(i);
+            if (symbolTable == null) {
+                symbolTables.add(null);
+            } else {
+                SerialSymbolTable serialSymbolTable = symbolTablePool.getQuiet(i);
+                if (serialSymbolTable == null) {
+                    symbolTablePool.extendAndSet(i, serialSymbolTable = new SerialSymbolTable());
+                }
+                symbolTables.add(serialSymbolTable.of((StaticSymbolTable) symbolTable));
+            }
+        }
+        filter.init(this, executionContext);
+    }
+
+    void toTop() {
+        filter.toTop();
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.LongList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Filters single page frame. Entry owns a copy of frame page addresses, because page frame instance
+ * is reused by the cursor that produced it. Rows that match the filter are collected as frame-relative
+ * row numbers in ascending order.
+ */
+public class PageFrameFilterEntry implements Mutable {
+    private static final Log LOG = LogFactory.getLog(PageFrameFilterEntry.class);
+    private static final long TARGET_SEQUENCE_OFFSET;
+
+    static {
+        TARGET_SEQUENCE_OFFSET = Unsafe.getFieldOffset(PageFrameFilterEntry.class, "targetSequence");
+    }
+
+    private final LongList pageAddresses = new LongList();
+    private final LongList rows = new LongList();
+    private ObjList<PageFrameFilter> filters;
+    private CountDownLatchSPI doneLatch;
+    private int partitionIndex;
+    private long partitionLo;
+    private long partitionHi;
+    private long srcSequence;
+    // to "lock" the entry thread must successfully CAS targetSequence form "srcSequence" value
+    // to "srcSequence+1". Executing thread must not be changing value of "srcSequence"
+    @SuppressWarnings({"FieldCanBeLocal", "unused", "FieldMayBeFinal"})
+    private volatile long targetSequence = 0;
+    private volatile boolean failed;
+
+    @Override
+    public void clear() {
+        // filters are not released, stale queue items may still reference this entry,
+        // they will fail to lock it but need filters to be there
+        this.rows.clear();
+    }
+
+    public boolean run(int workerId) {
+        // the last filter belongs to the thread that owns the cursor, workers
+        // outside of the range query has been compiled for leave this frame to the owner
+        return workerId < filters.size() - 1 && run(filters.getQuick(workerId));
+    }
+
+    LongList getPageAddresses() {
+        return pageAddresses;
+    }
+
+    int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    long getPartitionLo() {
+        return partitionLo;
+    }
+
+    long getRowCount() {
+        return partitionHi - partitionLo;
+    }
+
+    LongList getRows() {
+        return rows;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(PageFrame frame, int columnCount, ObjList<PageFrameFilter> filters, CountDownLatchSPI doneLatch) {
+        this.pageAddresses.clear();
+        for (int i = 0; i < columnCount; i++) {
+            this.pageAddresses.add(frame.getPageAddress(i));
+        }
+        this.partitionIndex = frame.getPartitionIndex();
+        this.partitionLo = frame.getPartitionLo();
+        this.partitionHi = frame.getPartitionHi();
+        this.filters = filters;
+        this.doneLatch = doneLatch;
+        this.failed = false;
+        this.rows.clear();
+        // sequence advances by two so that stale queue item cannot
+        // lock the entry before "targetSequence" is re-armed
+        this.srcSequence = targetSequence + 1;
+        this.targetSequence = srcSequence;
+    }
+
+    boolean reclaim() {
+        return run(filters.getQuick(filters.size() - 1));
+    }
+
+    private boolean run(PageFrameFilter filter) {
+        if (Unsafe.cas(this, TARGET_SEQUENCE_OFFSET, srcSequence, srcSequence + 1)) {
+            try {
+                filter.filter(this);
+            } catch (Throwable e) {
+                failed = true;
+                LOG.error().$("filter failed [partitionIndex=").$(partitionIndex).$(", partitionLo=").$(partitionLo).$(", ex=").$(e).$(']').$();
+            } finally {
+                doneLatch.countDown();
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
+import io.questdb.std.Unsafe;
+
+/**
+ * Record over fixed-width columns of a page frame. Column values are read directly from page
+ * addresses, which makes instances of this record safe to use on threads other than the one that
+ * produced the page frame, as long as each thread uses its own record instance.
+ */
+public class PageFrameRecord implements Record {
+    private LongList pageAddresses;
+    private ObjList<? extends SymbolTable> symbolTables;
+    private int partitionIndex;
+    private long partitionLo;
+    private long row;
+
+    @Override
+    public boolean getBool(int col) {
+        return getByte(col) == 1;
+    }
+
+    @Override
+    public byte getByte(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? 0 : Unsafe.getUnsafe().getByte(address + row);
+    }
+
+    @Override
+    public char getChar(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? 0 : Unsafe.getUnsafe().getChar(address + (row << 1));
+    }
+
+    @Override
+    public long getDate(int col) {
+        return getLong(col);
+    }
+
+    @Override
+    public double getDouble(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? Double.NaN : Unsafe.getUnsafe().getDouble(address + (row << 3));
+    }
+
+    @Override
+    public float getFloat(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? Float.NaN : Unsafe.getUnsafe().getFloat(address + (row << 2));
+    }
+
+    @Override
+    public int getInt(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? Numbers.INT_NaN : Unsafe.getUnsafe().getInt(address + (row << 2));
+    }
+
+    @Override
+    public long getLong(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? Numbers.LONG_NaN : Unsafe.getUnsafe().getLong(address + (row << 3));
+    }
+
+    @Override
+    public long getRowId() {
+        return Rows.toRowID(partitionIndex, partitionLo + row);
+    }
+
+    @Override
+    public short getShort(int col) {
+        final long address = pageAddresses.getQuick(col);
+        return address == 0 ? 0 : Unsafe.getUnsafe().getShort(address + (row << 1));
+    }
+
+    @Override
+    public CharSequence getSym(int col) {
+        return symbolTables.getQuick(col).valueOf(getInt(col));
+    }
+
+    @Override
+    public long getTimestamp(int col) {
+        return getLong(col);
+    }
+
+    public void of(LongList pageAddresses, int partitionIndex, long partitionLo, ObjList<? extends SymbolTable> symbolTables) {
+        this.pageAddresses = pageAddresses;
+        this.partitionIndex = partitionIndex;
+        this.partitionLo = partitionLo;
+        this.symbolTables = symbolTables;
+        this.row = 0;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.ObjectPool;
+import io.questdb.tasks.PageFrameFilterTask;
+
+/**
+ * Page frames are filtered in batches. Cursor publishes a batch of frames to worker pool, filters
+ * frames nobody has picked up yet and waits for the batch to complete before returning matching
+ * rows in frame order. Workers are never active while rows of the batch are being consumed, which
+ * keeps symbol tables and filter state of the cursor free from concurrent access.
+ */
+class ParallelFilteredRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(ParallelFilteredRecordCursor.class);
+    private final ObjList<PageFrameFilter> filters;
+    private final int columnCount;
+    private final int batchSize;
+    private final ObjectPool<PageFrameFilterEntry> entryPool;
+    private final ObjList<PageFrameFilterEntry> activeEntries;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final PageFrameRecord record = new PageFrameRecord();
+    private final ObjList<SymbolTable> symbolTables = new ObjList<>();
+    private PageFrameCursor pageFrameCursor;
+    private RingQueue<PageFrameFilterTask> queue;
+    private Sequence pubSeq;
+    private PageFrameFilterEntry entry;
+    private LongList rows;
+    private int entryIndex;
+    private int rowIndex;
+
+    ParallelFilteredRecordCursor(ObjList<PageFrameFilter> filters, int columnCount) {
+        this.filters = filters;
+        this.columnCount = columnCount;
+        // two frames per thread gives threads that finish early something else to do
+        this.batchSize = filters.size() * 2;
+        this.entryPool = new ObjectPool<>(PageFrameFilterEntry::new, batchSize);
+        this.activeEntries = new ObjList<>(batchSize);
+    }
+
+    @Override
+    public void close() {
+        pageFrameCursor = Misc.free(pageFrameCursor);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return pageFrameCursor.getSymbolMapReader(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (rows != null && rowIndex < rows.size()) {
+                record.setRow(rows.getQuick(rowIndex++));
+                return true;
+            }
+
+            if (entryIndex < activeEntries.size()) {
+                entry = activeEntries.getQuick(entryIndex++);
+                record.of(entry.getPageAddresses(), entry.getPartitionIndex(), entry.getPartitionLo(), symbolTables);
+                rows = entry.getRows();
+                rowIndex = 0;
+                continue;
+            }
+
+            if (!filterNextBatch()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        pageFrameCursor.toTop();
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            filters.getQuick(i).toTop();
+        }
+        clearBatch();
+    }
+
+    private void clearBatch() {
+        activeEntries.clear();
+        entryPool.clear();
+        entry = null;
+        rows = null;
+        entryIndex = 0;
+        rowIndex = 0;
+    }
+
+    private boolean filterNextBatch() {
+        clearBatch();
+        doneLatch.reset();
+
+        int queuedCount = 0;
+        int ownCount = 0;
+        PageFrame frame;
+        while (activeEntries.size() < batchSize && (frame = pageFrameCursor.next()) != null) {
+            final PageFrameFilterEntry entry = entryPool.next();
+            entry.of(frame, columnCount, filters, doneLatch);
+            activeEntries.add(entry);
+
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                // queue is full, filter frame on this thread
+                entry.reclaim();
+                ownCount++;
+            } else {
+                queue.get(seq).entry = entry;
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+
+        final int entryCount = activeEntries.size();
+        if (entryCount == 0) {
+            return false;
+        }
+
+        // start at the back to reduce chance of clashing with workers
+        int reclaimed = 0;
+        for (int i = entryCount - 1; i > -1 && doneLatch.getCount() > -entryCount; i--) {
+            if (activeEntries.getQuick(i).reclaim()) {
+                reclaimed++;
+            }
+        }
+        doneLatch.await(entryCount);
+
+        LOG.debug().$("filtered [frames=").$(entryCount).$(", ownCount=").$(ownCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
+
+        for (int i = 0; i < entryCount; i++) {
+            if (activeEntries.getQuick(i).isFailed()) {
+                throw CairoException.instance(0).put("could not filter page frame [partitionIndex=").put(activeEntries.getQuick(i).getPartitionIndex()).put(']');
+            }
+        }
+        return true;
+    }
+
+    void of(PageFrameCursor pageFrameCursor, MessageBus bus, SqlExecutionContext executionContext) {
+        if (this.pageFrameCursor != pageFrameCursor) {
+            close();
+            this.pageFrameCursor = pageFrameCursor;
+        }
+        this.queue = bus.getPageFrameFilterQueue();
+        this.pubSeq = bus.getPageFrameFilterPubSequence();
+        symbolTables.clear();
+        for (int i = 0; i < columnCount; i++) {
+            symbolTables.add(pageFrameCursor.getSymbolMapReader(i));
+        }
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            filters.getQuick(i).of(pageFrameCursor, columnCount, executionContext);
+        }
+        clearBatch();
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+
+/**
+ * Filters page frames of the base factory on the shared worker pool. There has to be one filter
+ * instance for each worker and one more for the thread executing the query, in this order.
+ */
+public class ParallelFilteredRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<PageFrameFilter> filters;
+    private final ParallelFilteredRecordCursor cursor;
+
+    public ParallelFilteredRecordCursorFactory(
+            RecordCursorFactory base,
+            @Transient ObjList<Function> filters
+    ) {
+        assert base.supportPageFrameCursor();
+        this.base = base;
+        this.filters = new ObjList<>(filters.size());
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            this.filters.add(new PageFrameFilter(filters.getQuick(i)));
+        }
+        this.cursor = new ParallelFilteredRecordCursor(this.filters, base.getMetadata().getColumnCount());
+    }
+
+    @Override
+    public void close() {
+        base.close();
+        Misc.freeObjList(filters);
+    }
+
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    /**
+     * @param index index of worker, or worker count for the thread executing the query
+     * @return filter copy confined to the thread, it remains owned by this factory
+     */
+    public Function getFilter(int index) {
+        return filters.getQuick(index).getFilter();
+    }
+
+    public int getFilterCount() {
+        return filters.size();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final MessageBus bus = executionContext.getMessageBus();
+        assert bus != null;
+        cursor.of(base.getPageFrameCursor(executionContext), bus, executionContext);
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+}
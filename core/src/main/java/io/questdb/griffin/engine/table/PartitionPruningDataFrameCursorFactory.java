@@ -0,0 +1,341 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.ColumnStats;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Skips data frames of partitions, which column statistics prove to have no rows matching filter.
+ * Filter is still applied to rows of remaining frames. Only top level AND-ed comparisons of column
+ * with numeric constant are considered, e.g. "price > 100 and qty = 5".
+ */
+public class PartitionPruningDataFrameCursorFactory implements DataFrameCursorFactory {
+    private static final int OP_EQ = 0;
+    private static final int OP_LT = 1;
+    private static final int OP_LE = 2;
+    private static final int OP_GT = 3;
+    private static final int OP_GE = 4;
+    // tolerance of double equality function
+    private static final double EQ_TOLERANCE = 0.0000000001;
+    private final DataFrameCursorFactory base;
+    private final ObjList<Predicate> predicates;
+    private final PartitionPruningDataFrameCursor cursor = new PartitionPruningDataFrameCursor();
+
+    private PartitionPruningDataFrameCursorFactory(DataFrameCursorFactory base, ObjList<Predicate> predicates) {
+        this.base = base;
+        this.predicates = predicates;
+    }
+
+    /**
+     * Wraps data frame cursor factory when filter has predicates, which can rule partitions out.
+     *
+     * @param base     data frame cursor factory of table
+     * @param filter   filter that remains after intrinsic model extracted intervals and keys
+     * @param metadata table reader metadata
+     * @return either new factory or base factory when there is nothing to prune on
+     */
+    public static DataFrameCursorFactory of(DataFrameCursorFactory base, ExpressionNode filter, RecordMetadata metadata) {
+        final ObjList<Predicate> predicates = new ObjList<>();
+        collectPredicates(filter, metadata, predicates);
+        return predicates.size() > 0 ? new PartitionPruningDataFrameCursorFactory(base, predicates) : base;
+    }
+
+    @Override
+    public DataFrameCursor getCursor(CairoSecurityContext securityContext) {
+        return cursor.of(base.getCursor(securityContext));
+    }
+
+    private static void collectPredicates(ExpressionNode node, RecordMetadata metadata, ObjList<Predicate> sink) {
+        if (node == null || node.type != ExpressionNode.OPERATION) {
+            return;
+        }
+
+        if (SqlKeywords.isAndKeyword(node.token)) {
+            collectPredicates(node.lhs, metadata, sink);
+            collectPredicates(node.rhs, metadata, sink);
+            return;
+        }
+
+        if (node.paramCount != 2) {
+            return;
+        }
+
+        int op = toOp(node.token);
+        if (op == -1) {
+            return;
+        }
+
+        ExpressionNode column = node.lhs;
+        ExpressionNode constant = node.rhs;
+        if (column.type != ExpressionNode.LITERAL) {
+            column = node.rhs;
+            constant = node.lhs;
+            op = flip(op);
+        }
+
+        if (column.type != ExpressionNode.LITERAL) {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex == -1) {
+            return;
+        }
+
+        switch (metadata.getColumnType(columnIndex)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                break;
+            default:
+                // symbol and char columns are compared to their values rather than to numbers
+                return;
+        }
+
+        final Predicate predicate = new Predicate();
+        if (parseConstant(constant, predicate)) {
+            predicate.columnIndex = columnIndex;
+            predicate.op = op;
+            sink.add(predicate);
+        }
+    }
+
+    private static int flip(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    private static boolean parseConstant(ExpressionNode node, Predicate predicate) {
+        boolean negative = false;
+        if (node.type == ExpressionNode.OPERATION && node.paramCount == 1 && Chars.equals(node.token, '-')) {
+            negative = true;
+            node = node.rhs;
+        }
+
+        if (node == null || node.type != ExpressionNode.CONSTANT || SqlKeywords.isNullKeyword(node.token)) {
+            return false;
+        }
+
+        try {
+            final long value = Numbers.parseLong(node.token);
+            if (value == Numbers.LONG_NaN) {
+                return false;
+            }
+            predicate.integer = true;
+            predicate.longValue = negative ? -value : value;
+            predicate.doubleValue = predicate.longValue;
+            return true;
+        } catch (NumericException ignore) {
+        }
+
+        try {
+            final double value = Numbers.parseDouble(node.token);
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            predicate.integer = false;
+            predicate.doubleValue = negative ? -value : value;
+            return true;
+        } catch (NumericException ignore) {
+            return false;
+        }
+    }
+
+    private static int toOp(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return OP_EQ;
+        }
+        if (Chars.equals(token, '<')) {
+            return OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return OP_GE;
+        }
+        return -1;
+    }
+
+    // Semantics follow comparison functions. Equality of integer column and integer constant is exact,
+    // other comparisons are done on doubles. Nulls do not satisfy "=", "<" and ">", but they do
+    // satisfy "<=" and ">=", which are implemented as negation of ">" and "<" respectively.
+    private static boolean excludes(Predicate predicate, ColumnStats stats, int columnType) {
+        final boolean nullsMatch = predicate.op == OP_LE || predicate.op == OP_GE;
+        if (stats.getNullCount() > 0 && nullsMatch) {
+            return false;
+        }
+
+        if (stats.isAllNull()) {
+            return true;
+        }
+
+        if (predicate.op == OP_EQ && predicate.integer && !ColumnStats.isFloatingPoint(columnType)) {
+            final long value = predicate.longValue;
+            if (value == Numbers.INT_NaN && stats.getNullCount() > 0) {
+                // int null is stored as this very value
+                return false;
+            }
+            return value < stats.getMinLong() || value > stats.getMaxLong();
+        }
+
+        final double value = predicate.doubleValue;
+        final double min = stats.getMinDouble();
+        final double max = stats.getMaxDouble();
+        switch (predicate.op) {
+            case OP_EQ:
+                return value < min - EQ_TOLERANCE || value > max + EQ_TOLERANCE;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value;
+            case OP_GT:
+                return max <= value;
+            default:
+                return max < value;
+        }
+    }
+
+    private static class Predicate {
+        private int columnIndex;
+        private int op;
+        private boolean integer;
+        private long longValue;
+        private double doubleValue;
+    }
+
+    private class PartitionPruningDataFrameCursor implements DataFrameCursor {
+        private static final long NOT_CHECKED = -1;
+        private static final long NOT_EXCLUDED = -2;
+        private final ColumnStats stats = new ColumnStats();
+        // per partition, number of rows statistics have ruled out
+        private final LongList excludedRowCounts = new LongList();
+        private DataFrameCursor base;
+
+        @Override
+        public TableReader getTableReader() {
+            return base.getTableReader();
+        }
+
+        @Override
+        public boolean reload() {
+            excludedRowCounts.clear();
+            return base.reload();
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            DataFrame frame;
+            while ((frame = base.next()) != null) {
+                if (!isExcluded(frame.getPartitionIndex(), frame.getRowHi())) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            base = Misc.free(base);
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public SymbolMapReader getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        private boolean isExcluded(int partitionIndex, long rowHi) {
+            while (excludedRowCounts.size() <= partitionIndex) {
+                excludedRowCounts.add(NOT_CHECKED);
+            }
+            long excludedRowCount = excludedRowCounts.getQuick(partitionIndex);
+            if (excludedRowCount == NOT_CHECKED) {
+                excludedRowCount = checkPartition(partitionIndex);
+                excludedRowCounts.setQuick(partitionIndex, excludedRowCount);
+            }
+            // statistics must cover all rows of the frame, otherwise they prove nothing
+            return excludedRowCount >= rowHi;
+        }
+
+        private long checkPartition(int partitionIndex) {
+            final TableReader reader = base.getTableReader();
+            final RecordMetadata metadata = reader.getMetadata();
+            for (int i = 0, n = predicates.size(); i < n; i++) {
+                final Predicate predicate = predicates.getQuick(i);
+                if (reader.readColumnStats(partitionIndex, predicate.columnIndex, stats)
+                        && excludes(predicate, stats, metadata.getColumnType(predicate.columnIndex))) {
+                    return stats.getRowCount();
+                }
+            }
+            return NOT_EXCLUDED;
+        }
+
+        private PartitionPruningDataFrameCursor of(DataFrameCursor base) {
+            this.base = base;
+            excludedRowCounts.clear();
+            return this;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Symbol table view that serialises lookups on a symbol table shared by several threads. Values are copied
+ * into a sink owned by the view, therefore each thread must use its own view of the shared table.
+ */
+public class SerialSymbolTable implements StaticSymbolTable {
+    private final StringSink sink = new StringSink();
+    private StaticSymbolTable delegate;
+
+    @Override
+    public boolean containsNullValue() {
+        synchronized (delegate) {
+            return delegate.containsNullValue();
+        }
+    }
+
+    @Override
+    public int keyOf(CharSequence value) {
+        synchronized (delegate) {
+            return delegate.keyOf(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (delegate) {
+            return delegate.size();
+        }
+    }
+
+    @Override
+    public CharSequence valueOf(int key) {
+        synchronized (delegate) {
+            final CharSequence value = delegate.valueOf(key);
+            if (value == null) {
+                return null;
+            }
+            sink.clear();
+            sink.put(value);
+        }
+        return sink;
+    }
+
+    public SerialSymbolTable of(StaticSymbolTable delegate) {
+        this.delegate = delegate;
+        return this;
+    }
+}
@@ -30,9 +30,15 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public final static int FRAMING_NONE = 0;
+    public final static int FRAMING_ROWS = 1;
+    public final static int FRAMING_RANGE = 2;
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
+    private int framingMode = FRAMING_NONE;
+    // null when frame starts at unbounded preceding
+    private ExpressionNode frameLo;
 
     private AnalyticColumn() {
     }
@@ -48,6 +54,16 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_NONE;
+        frameLo = null;
+    }
+
+    public ExpressionNode getFrameLo() {
+        return frameLo;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
     }
 
     public ObjList<ExpressionNode> getPartitionBy() {
@@ -62,6 +78,11 @@ public final class AnalyticColumn extends QueryColumn {
         return orderByDirection;
     }
 
+    public void setFrame(int framingMode, ExpressionNode frameLo) {
+        this.framingMode = framingMode;
+        this.frameLo = frameLo;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
@@ -43,6 +43,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     private ExpressionNode timestamp;
     private ExpressionNode partitionBy;
     private boolean ignoreIfExists = false;
+    private CharSequence materializedViewSql;
 
     private CreateTableModel() {
     }
@@ -84,6 +85,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         columnNames.clear();
         columnNameIndexMap.clear();
         ignoreIfExists = false;
+        materializedViewSql = null;
     }
 
     public CharSequenceObjHashMap<ColumnCastModel> getColumnCastModels() {
@@ -161,6 +163,14 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return CREATE_TABLE;
     }
 
+    public CharSequence getMaterializedViewSql() {
+        return materializedViewSql;
+    }
+
+    public void setMaterializedViewSql(CharSequence materializedViewSql) {
+        this.materializedViewSql = materializedViewSql;
+    }
+
     public ExpressionNode getName() {
         return name;
     }
@@ -97,6 +97,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private ExpressionNode alias;
     private ExpressionNode timestamp;
     private ExpressionNode sampleBy;
+    private long sampleByOrigin = Numbers.LONG_NaN;
     private JoinContext context;
     private ExpressionNode joinCriteria;
     private int joinType;
@@ -249,6 +250,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
 
     public void clearSampleBy() {
         sampleBy = null;
+        sampleByOrigin = Numbers.LONG_NaN;
         sampleByFill.clear();
     }
 
@@ -513,6 +515,21 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.sampleBy = sampleBy;
     }
 
+    /**
+     * Timestamp SAMPLE BY buckets are aligned to. It is not part of SQL syntax, by default
+     * buckets are aligned to the first sampled row. Incremental materialized view refresh uses
+     * it to keep buckets of the new rows on the grid of the buckets it has already materialized.
+     *
+     * @return origin timestamp or Numbers.LONG_NaN
+     */
+    public long getSampleByOrigin() {
+        return sampleByOrigin;
+    }
+
+    public void setSampleByOrigin(long sampleByOrigin) {
+        this.sampleByOrigin = sampleByOrigin;
+    }
+
     public ObjList<ExpressionNode> getSampleByFill() {
         return sampleByFill;
     }
@@ -627,6 +644,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
 
     public void moveSampleByFrom(QueryModel model) {
         this.sampleBy = model.sampleBy;
+        this.sampleByOrigin = model.sampleByOrigin;
         this.sampleByFill.clear();
         this.sampleByFill.addAll(model.sampleByFill);
 
@@ -760,6 +778,21 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    if (ac.getFramingMode() != AnalyticColumn.FRAMING_NONE) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(ac.getFramingMode() == AnalyticColumn.FRAMING_ROWS ? "rows" : "range");
+                        sink.put(" between ");
+                        final ExpressionNode frameLo = ac.getFrameLo();
+                        if (frameLo == null) {
+                            sink.put("unbounded");
+                        } else {
+                            frameLo.toSink(sink);
+                        }
+                        sink.put(" preceding and current row");
+                    }
                     sink.put(')');
                 }
             } else {
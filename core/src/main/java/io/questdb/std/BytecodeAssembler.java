@@ -91,6 +91,10 @@ public class BytecodeAssembler {
         this.poolCount = 1;
     }
 
+    public void aaload() {
+        putByte(0x32);
+    }
+
     public void aload(int value) {
         optimisedIO(aload_0, aload_1, aload_2, aload_3, aload, value);
     }
@@ -270,6 +274,10 @@ public class BytecodeAssembler {
         return genericGoto(0xa0);
     }
 
+    public int ifeq() {
+        return genericGoto(0x99);
+    }
+
     public int ifne() {
         return genericGoto(0x9a);
     }
@@ -428,6 +436,14 @@ public class BytecodeAssembler {
         return classCache.valueAt(index);
     }
 
+    public int poolDoubleConst(double value) {
+        putByte(0x06);
+        putLong(Double.doubleToRawLongBits(value));
+        int index = poolCount;
+        poolCount += 2;
+        return index;
+    }
+
     public int poolField(int classIndex, int nameAndTypeIndex) {
         return poolRef(0x09, classIndex, nameAndTypeIndex);
     }
@@ -543,7 +559,7 @@ public class BytecodeAssembler {
     }
 
     public void putLong(long value) {
-        if (buf.remaining() < 4) {
+        if (buf.remaining() < 8) {
             resize();
         }
         buf.putLong(value);
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import java.io.Closeable;
+
+/**
+ * Associative cache that can be shared by threads. Keys are spread across segments, each segment is
+ * {@link AssociativeCache} guarded by its own lock, so that threads working with different keys
+ * rarely contend. Value is checked out of cache by {@link #poll(CharSequence)} and is returned
+ * by {@link #put(CharSequence, Object)}, which means value is used by one thread at a time.
+ */
+public class ConcurrentAssociativeCache<V> implements Closeable, Mutable {
+    private final AssociativeCache<V>[] segments;
+    private final int segmentMask;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentAssociativeCache(int segments, int blocks, int rows) {
+        final int segmentCount = Numbers.ceilPow2(Math.max(1, segments));
+        this.segments = new AssociativeCache[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new AssociativeCache<>(blocks, rows);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = segments.length; i < n; i++) {
+            final AssociativeCache<V> segment = segments[i];
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public V poll(CharSequence key) {
+        final AssociativeCache<V> segment = segmentOf(key);
+        synchronized (segment) {
+            return segment.poll(key);
+        }
+    }
+
+    /**
+     * Puts value in cache unless another thread has already put value under the same key,
+     * in which case incoming value is freed. Value that is evicted to make room is freed too.
+     *
+     * @param key   cache key, it is copied when stored
+     * @param value value to cache
+     */
+    public void put(CharSequence key, V value) {
+        final AssociativeCache<V> segment = segmentOf(key);
+        synchronized (segment) {
+            if (value == null || segment.peek(key) == null) {
+                segment.put(key, value);
+                return;
+            }
+        }
+        Misc.free(value);
+    }
+
+    private AssociativeCache<V> segmentOf(CharSequence key) {
+        // associative cache picks row with low bits of the same hash
+        return segments[(Hash.spread(Chars.hashCode(key)) >>> 16) & segmentMask];
+    }
+}
@@ -103,6 +103,10 @@ public class DirectLongList implements Mutable, Closeable {
         }
     }
 
+    public long getAddress() {
+        return start;
+    }
+
     public long get(long p) {
         return Unsafe.getUnsafe().getLong(start + (p << 3));
     }
@@ -183,6 +183,18 @@ public final class Rosti {
         return Unsafe.getUnsafe().getLong(pRosti + 2 * Long.BYTES);
     }
 
+    public static long getCapacity(long pRosti) {
+        return Unsafe.getUnsafe().getLong(pRosti + 3 * Long.BYTES);
+    }
+
+    /**
+     * @return number of keys map can hold before it has to resize
+     */
+    public static long getGrowthLimit(long pRosti) {
+        final long capacity = getCapacity(pRosti);
+        return capacity - capacity / 8;
+    }
+
     public static long getSlotShift(long pRosti) {
         return Unsafe.getUnsafe().getLong(pRosti + 5 * Long.BYTES);
     }
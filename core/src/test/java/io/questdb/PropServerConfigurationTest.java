@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.line.LineProtoHourTimestampAdapter;
@@ -95,6 +96,8 @@ public class PropServerConfigurationTest {
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().allowDeflateBeforeSend());
         Assert.assertEquals(16, configuration.getHttpServerConfiguration().getQueryCacheRows());
         Assert.assertEquals(4, configuration.getHttpServerConfiguration().getQueryCacheBlocks());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().isQueryResultCacheEnabled());
+        Assert.assertEquals(8 * 1024 * 1024, configuration.getHttpServerConfiguration().getQueryResultCacheSize());
 
         // this is going to need interesting validation logic
         // configuration path is expected to be relative and we need to check if absolute path is good
@@ -183,6 +186,20 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isOutOfOrderEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelSampleByEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlVectorSampleByEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlRadixSortEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlSortSpillEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlHashJoinSpillEnabled());
+        TestUtils.assertEquals(new File(new File(configPath, "db"), ".spill").getAbsolutePath(), configuration.getCairoConfiguration().getSqlSpillRoot());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlMergeJoinEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlPartitionPruningEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlSymbolKeyFilterEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlJitFilterEnabled());
         Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getAnalyticColumnPoolCapacity());
@@ -205,6 +222,7 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().isEnabled());
         Assert.assertEquals(-1, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
         Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().ownThread());
+        Assert.assertEquals(1, configuration.getLineUdpReceiverConfiguration().getReceiverCount());
 
         // statics
         Assert.assertSame(FilesFacadeImpl.INSTANCE, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getFilesFacade());
@@ -248,6 +266,11 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1.9, configuration.getLineTcpReceiverConfiguration().getMaxLoadRatio(), 0.001);
         Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedRows());
         Assert.assertEquals(250, configuration.getLineTcpReceiverConfiguration().getMaintenanceJobHysteresisInMs());
+        Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs());
+        Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs("trades"));
+        Assert.assertEquals(16 * 1024 * 1024, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedBytes());
+        Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isCommitRateAdaptive());
+        Assert.assertEquals(PartitionBy.DAY, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
 
         Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().getServerKeepAlive());
         Assert.assertEquals("HTTP/1.1 ", configuration.getHttpServerConfiguration().getHttpContextConfiguration().getHttpVersion());
@@ -429,6 +452,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals("index2.html", configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getIndexFileName());
             Assert.assertEquals(32, configuration.getHttpServerConfiguration().getQueryCacheRows());
             Assert.assertEquals(16, configuration.getHttpServerConfiguration().getQueryCacheBlocks());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().isQueryResultCacheEnabled());
+            Assert.assertEquals(4 * 1024 * 1024, configuration.getHttpServerConfiguration().getQueryResultCacheSize());
 
             Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
             Assert.assertEquals(50000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxQueryResponseRowLimit());
@@ -515,6 +540,20 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1028, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
             Assert.assertFalse(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isOutOfOrderEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelSampleByEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlVectorSampleByEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlRadixSortEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlSortSpillEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlHashJoinSpillEnabled());
+            TestUtils.assertEquals(new File(configPath, "spill").getAbsolutePath(), configuration.getCairoConfiguration().getSqlSpillRoot());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlMergeJoinEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlPartitionPruningEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlSymbolKeyFilterEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlJitFilterEnabled());
             Assert.assertEquals(8 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
             Assert.assertEquals(10_000, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
             Assert.assertEquals(16, configuration.getCairoConfiguration().getBindVariablePoolSize());
@@ -536,6 +575,7 @@ public class PropServerConfigurationTest {
             Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().isEnabled());
             Assert.assertEquals(2, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
             Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().ownThread());
+            Assert.assertEquals(4, configuration.getLineUdpReceiverConfiguration().getReceiverCount());
 
             // influxdb line TCP protocol
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
@@ -560,6 +600,14 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1.5, configuration.getLineTcpReceiverConfiguration().getMaxLoadRatio(), 0.001);
             Assert.assertEquals(100000, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedRows());
             Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaintenanceJobHysteresisInMs());
+            Assert.assertEquals(2000, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs());
+            Assert.assertEquals(100, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs("trades"));
+            Assert.assertEquals(5000, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs("quotes"));
+            Assert.assertEquals(100, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs("TRADES"));
+            Assert.assertEquals(2000, configuration.getLineTcpReceiverConfiguration().getCommitLagInMs("weather"));
+            Assert.assertEquals(4 * 1024 * 1024, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedBytes());
+            Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().isCommitRateAdaptive());
+            Assert.assertEquals(PartitionBy.MONTH, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
 
             Assert.assertTrue(configuration.getCairoConfiguration().getTelemetryConfiguration().getEnabled());
             Assert.assertEquals(512, configuration.getCairoConfiguration().getTelemetryConfiguration().getQueueCapacity());
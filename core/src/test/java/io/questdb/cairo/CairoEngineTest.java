@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.griffin.engine.table.LongTreeSet;
 import io.questdb.mp.Job;
 import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.LongList;
 import io.questdb.std.str.LPSZ;
@@ -420,6 +421,19 @@ public class CairoEngineTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSpillFilesRemovedOnStart() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final long fileId = SpillFiles.nextFileId(configuration, path);
+            path.of(configuration.getSqlSpillRoot()).concat("sort.").put(fileId).put(".tmp").$();
+            Assert.assertTrue(Files.touch(path));
+
+            try (CairoEngine ignored = new CairoEngine(configuration)) {
+                Assert.assertFalse(Files.exists(path.of(configuration.getSqlSpillRoot()).$()));
+            }
+        });
+    }
+
     @Test
     public void testWrongReaderVersion() throws Exception {
         createX();
@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -247,6 +248,52 @@ public class FastMapTest extends AbstractCairoTest {
         testAppendUnique(3);
     }
 
+    @Test
+    public void testLookupKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            Rnd rnd = new Rnd();
+            int N = 1000;
+            try (
+                    FastMap map1 = new FastMap(Numbers.SIZE_1MB, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 64, 0.5f, 10);
+                    FastMap map2 = new FastMap(Numbers.SIZE_1MB, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 64, 0.5f, 10);
+                    FastMap.LookupKey lookupKey = map1.newLookupKey()
+            ) {
+                ObjList<String> keys = new ObjList<>();
+                for (int i = 0; i < N; i++) {
+                    // long keys make lookup key grow its memory
+                    String s = rnd.nextChars(i % 2 == 0 ? 11 : 200).toString();
+                    keys.add(s);
+                    MapKey key = (i % 2 == 0 ? map1 : map2).withKey();
+                    key.putStr(s);
+                    key.createValue().putLong(0, i);
+                }
+
+                for (int i = 0; i < N; i++) {
+                    lookupKey.init();
+                    lookupKey.putStr(keys.getQuick(i));
+                    MapValue value1 = lookupKey.findValue(map1);
+                    MapValue value2 = lookupKey.findValue(map2);
+                    if (i % 2 == 0) {
+                        Assert.assertNotNull(value1);
+                        Assert.assertNull(value2);
+                        Assert.assertEquals(i, value1.getLong(0));
+                    } else {
+                        Assert.assertNull(value1);
+                        Assert.assertNotNull(value2);
+                        Assert.assertEquals(i, value2.getLong(0));
+                    }
+                }
+
+                lookupKey.init();
+                lookupKey.putStr("absent");
+                Assert.assertNull(lookupKey.findValue());
+                // lookup key does not touch map memory
+                Assert.assertEquals(N / 2, map1.size());
+                Assert.assertEquals(N / 2, map2.size());
+            }
+        });
+    }
+
     @Test(expected = LimitOverflowException.class)
     public void testMaxResizes() throws Exception {
         testAppendUnique(1);
@@ -288,6 +335,66 @@ public class FastMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testMergePartitions() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 1000;
+            final int partitionCount = 3;
+            final ObjList<FastMap> srcMaps = new ObjList<>();
+            final ObjList<FastMap> partitionMaps = new ObjList<>();
+            try {
+                for (int i = 0; i < 2; i++) {
+                    // small pages make merge resize destination maps
+                    srcMaps.add(new FastMap(64, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 16, 0.5f, Integer.MAX_VALUE));
+                }
+                for (int i = 0; i < partitionCount; i++) {
+                    partitionMaps.add(new FastMap(64, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 16, 0.5f, Integer.MAX_VALUE));
+                }
+
+                // first map has keys 0..N-1, second map has keys N/2..N+N/2-1, both with value of 1
+                for (int i = 0; i < N; i++) {
+                    for (int j = 0; j < 2; j++) {
+                        MapKey key = srcMaps.getQuick(j).withKey();
+                        key.putStr("k" + (i + j * N / 2));
+                        key.createValue().putLong(0, 1);
+                    }
+                }
+
+                for (int p = 0; p < partitionCount; p++) {
+                    for (int j = 0; j < 2; j++) {
+                        partitionMaps.getQuick(p).merge(srcMaps.getQuick(j), p, partitionCount, (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0)));
+                    }
+                }
+
+                long total = 0;
+                for (int p = 0; p < partitionCount; p++) {
+                    // every partition gets a share of keys
+                    Assert.assertTrue(partitionMaps.getQuick(p).size() > 0);
+                    total += partitionMaps.getQuick(p).size();
+                }
+                Assert.assertEquals(N + N / 2, total);
+
+                final FastMapConcatCursor cursor = new FastMapConcatCursor().of(partitionMaps);
+                Assert.assertEquals(N + N / 2, cursor.size());
+                final MapRecord record = cursor.getRecord();
+                final StringSink sink = new StringSink();
+                final IntHashSet seen = new IntHashSet();
+                while (cursor.hasNext()) {
+                    sink.clear();
+                    sink.put(record.getStr(1));
+                    final int k = Numbers.parseInt(sink, 1, sink.length());
+                    Assert.assertTrue(seen.add(k));
+                    final long expected = k >= N / 2 && k < N ? 2 : 1;
+                    Assert.assertEquals(expected, record.getValue().getLong(0));
+                }
+                Assert.assertEquals(N + N / 2, seen.size());
+            } finally {
+                Misc.freeObjList(srcMaps);
+                Misc.freeObjList(partitionMaps);
+            }
+        });
+    }
+
     @Test
     public void testConstructorRecovery() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
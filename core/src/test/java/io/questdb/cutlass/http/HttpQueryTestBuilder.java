@@ -57,6 +57,7 @@ public class HttpQueryTestBuilder {
     private TemporaryFolder temp;
     private HttpServerConfigurationBuilder serverConfigBuilder;
     private HttpRequestProcessorBuilder textImportProcessor;
+    private QueryResultCache queryResultCache;
 
     @FunctionalInterface
     public interface HttpClientCode {
@@ -70,6 +71,10 @@ public class HttpQueryTestBuilder {
         return this;
     }
 
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public int getWorkerCount() {
         return this.workerCount;
     }
@@ -169,6 +174,8 @@ public class HttpQueryTestBuilder {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
+                                httpServer.getQueryResultCache(),
                                 messageBus,
                                 workerPool.getWorkerCount()
                         );
@@ -186,6 +193,7 @@ public class HttpQueryTestBuilder {
                         return new TextQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 null,
                                 workerPool.getWorkerCount()
                         );
@@ -213,7 +221,7 @@ public class HttpQueryTestBuilder {
                 httpServer.bind(new HttpRequestProcessorFactory() {
                     @Override
                     public HttpRequestProcessor newInstance() {
-                        return new JsonQueryProcessor(httpConfiguration.getJsonQueryProcessorConfiguration(), engine, engine.getMessageBus(), 1);
+                        return new JsonQueryProcessor(httpConfiguration.getJsonQueryProcessorConfiguration(), engine, httpServer.getQueryCache(), httpServer.getQueryResultCache(), engine.getMessageBus(), 1);
                     }
 
                     @Override
@@ -222,7 +230,7 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
-                QueryCache.configure(httpConfiguration);
+                queryResultCache = httpServer.getQueryResultCache();
 
                 workerPool.start(LOG);
 
@@ -50,6 +50,7 @@ public class HttpServerConfigurationBuilder {
     private int rerunProcessingQueueSize = 4096;
     private int receiveBufferSize = 1024 * 1024;
     private long multipartIdleSpinCount = -1;
+    private long queryResultCacheSize = 0;
 
     public HttpServerConfigurationBuilder withNetwork(NetworkFacade nf) {
         this.nf = nf;
@@ -106,6 +107,11 @@ public class HttpServerConfigurationBuilder {
         return this;
     }
 
+    public HttpServerConfigurationBuilder withQueryResultCacheSize(long queryResultCacheSize) {
+        this.queryResultCacheSize = queryResultCacheSize;
+        return this;
+    }
+
     public DefaultHttpServerConfiguration build() {
         final IODispatcherConfiguration ioDispatcherConfiguration = new DefaultIODispatcherConfiguration() {
             @Override
@@ -275,6 +281,16 @@ public class HttpServerConfigurationBuilder {
             public JsonQueryProcessorConfiguration getJsonQueryProcessorConfiguration() {
                 return jsonQueryProcessorConfiguration;
             }
+
+            @Override
+            public long getQueryResultCacheSize() {
+                return queryResultCacheSize;
+            }
+
+            @Override
+            public boolean isQueryResultCacheEnabled() {
+                return queryResultCacheSize > 0;
+            }
         };
     }
 }
@@ -26,10 +26,11 @@ package io.questdb.cutlass.http;
 
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.InsertMethod;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cutlass.NetUtils;
 import io.questdb.cutlass.http.processors.JsonQueryProcessor;
-import io.questdb.cutlass.http.processors.QueryCache;
+import io.questdb.cutlass.http.processors.QueryResultCache;
 import io.questdb.cutlass.http.processors.StaticContentProcessor;
 import io.questdb.cutlass.http.processors.TextImportProcessor;
 import io.questdb.griffin.SqlCompiler;
@@ -1551,6 +1552,8 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
+                                httpServer.getQueryResultCache(),
                                 null,
                                 workerPool.getWorkerCount()
                         );
@@ -2068,6 +2071,8 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
+                                httpServer.getQueryResultCache(),
                                 null,
                                 workerPool.getWorkerCount()
                         );
@@ -2928,6 +2933,104 @@ public class IODispatcherTest {
                         "\r\n");
     }
 
+    @Test
+    public void testJsonQueryResultCache() throws Exception {
+        final String request = "GET /query?query=select+count()+from+x HTTP/1.1\r\n" +
+                "Host: localhost:9000\r\n" +
+                "Connection: keep-alive\r\n" +
+                "Accept: */*\r\n" +
+                "\r\n";
+        final String responseHeader = "HTTP/1.1 200 OK\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: application/json; charset=utf-8\r\n" +
+                "Keep-Alive: timeout=5, max=10000\r\n" +
+                "\r\n" +
+                "67\r\n";
+        final String responseTail = "\r\n" +
+                "00\r\n" +
+                "\r\n";
+
+        final HttpQueryTestBuilder builder = new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(1)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder()
+                        .withSendBufferSize(16 * 1024)
+                        .withQueryResultCacheSize(1024 * 1024))
+                .withTelemetry(false);
+        builder.run(engine -> {
+            final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1);
+            final QueryResultCache cache = builder.getQueryResultCache();
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                compiler.compile("create table x as (select x from long_sequence(10))", executionContext);
+
+                final String response10 = responseHeader +
+                        "{\"query\":\"select count() from x\",\"columns\":[{\"name\":\"count\",\"type\":\"LONG\"}],\"dataset\":[[10]],\"count\":1}" +
+                        responseTail;
+                sendAndReceive(NetworkFacadeImpl.INSTANCE, request, response10, 1, 0, false);
+                Assert.assertEquals(0, cache.getHitCount());
+                Assert.assertEquals(1, cache.getMissCount());
+
+                sendAndReceive(NetworkFacadeImpl.INSTANCE, request, response10, 1, 0, false);
+                Assert.assertEquals(1, cache.getHitCount());
+                Assert.assertEquals(1, cache.getMissCount());
+
+                // commit invalidates cached result
+                try (InsertMethod method = compiler.compile("insert into x values (11)", executionContext).getInsertStatement().createMethod(executionContext)) {
+                    method.execute();
+                    method.commit();
+                }
+
+                final String response11 = responseHeader +
+                        "{\"query\":\"select count() from x\",\"columns\":[{\"name\":\"count\",\"type\":\"LONG\"}],\"dataset\":[[11]],\"count\":1}" +
+                        responseTail;
+                sendAndReceive(NetworkFacadeImpl.INSTANCE, request, response11, 1, 0, false);
+                Assert.assertEquals(1, cache.getHitCount());
+                Assert.assertEquals(2, cache.getMissCount());
+
+                sendAndReceive(NetworkFacadeImpl.INSTANCE, request, response11, 1, 0, false);
+                Assert.assertEquals(2, cache.getHitCount());
+                Assert.assertEquals(2, cache.getMissCount());
+
+                // results of table functions are not cached
+                final String sequenceRequest = "GET /query?query=select+x+from+long_sequence(1) HTTP/1.1\r\n" +
+                        "Host: localhost:9000\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Accept: */*\r\n" +
+                        "\r\n";
+                final String sequenceResponse = "HTTP/1.1 200 OK\r\n" +
+                        "Server: questDB/1.0\r\n" +
+                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                        "Transfer-Encoding: chunked\r\n" +
+                        "Content-Type: application/json; charset=utf-8\r\n" +
+                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                        "\r\n" +
+                        "6b\r\n" +
+                        "{\"query\":\"select x from long_sequence(1)\",\"columns\":[{\"name\":\"x\",\"type\":\"LONG\"}],\"dataset\":[[1]],\"count\":1}" +
+                        responseTail;
+                sendAndReceive(NetworkFacadeImpl.INSTANCE, sequenceRequest, sequenceResponse, 2, 0, false);
+                Assert.assertEquals(2, cache.getHitCount());
+                Assert.assertEquals(4, cache.getMissCount());
+
+                // neither are results of non-deterministic functions
+                final String nowRequest = "GET /query?query=select+count()+from+x+where+now()+%3E+0 HTTP/1.1\r\n" +
+                        "Host: localhost:9000\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Accept: */*\r\n" +
+                        "\r\n";
+                final String nowResponse = responseHeader.replace("67\r\n", "77\r\n") +
+                        "{\"query\":\"select count() from x where now() > 0\",\"columns\":[{\"name\":\"count\",\"type\":\"LONG\"}],\"dataset\":[[11]],\"count\":1}" +
+                        responseTail;
+                sendAndReceive(NetworkFacadeImpl.INSTANCE, nowRequest, nowResponse, 2, 0, false);
+                Assert.assertEquals(2, cache.getHitCount());
+                Assert.assertEquals(6, cache.getMissCount());
+            } catch (SqlException e) {
+                Assert.fail(e.getMessage());
+            }
+        });
+    }
+
     @Test
     public void testJsonQuerySelectAlterSelect() throws Exception {
         testJsonQuery0(1, engine -> {
@@ -3243,6 +3346,8 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
+                                httpServer.getQueryResultCache(),
                                 null,
                                 workerPool.getWorkerCount()
                         );
@@ -3444,7 +3549,7 @@ public class IODispatcherTest {
                     @Override
                     public HttpRequestProcessor newInstance() {
                         return new JsonQueryProcessor(httpConfiguration.getJsonQueryProcessorConfiguration(), engine,
-                                null, workerPool.getWorkerCount());
+                                httpServer.getQueryCache(), httpServer.getQueryResultCache(), null, workerPool.getWorkerCount());
                     }
 
                     @Override
@@ -4306,7 +4411,6 @@ public class IODispatcherTest {
                     }
                 });
 
-                QueryCache.configure(httpConfiguration);
                 workerPool.start(LOG);
 
                 // create 20Mb file in /tmp directory
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.Chars;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryResultCacheTest extends AbstractGriffinTest {
+    private final StringSink result = new StringSink();
+    private final ObjList<CharSequence> tableNames = new ObjList<>();
+
+    @Test
+    public void testEviction() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a int)", sqlExecutionContext);
+            try (QueryResultCache cache = new QueryResultCache(100)) {
+                put(cache, "q1", "x", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+                put(cache, "q2", "x", "bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb");
+                Assert.assertEquals(80, cache.getSize());
+
+                // q1 becomes most recently used, q2 is evicted
+                Assert.assertTrue(get(cache, "q1"));
+                put(cache, "q3", "x", "cccccccccccccccccccccccccccccccccccccccc");
+                Assert.assertEquals(80, cache.getSize());
+                Assert.assertFalse(get(cache, "q2"));
+                Assert.assertTrue(get(cache, "q3"));
+                Assert.assertTrue(get(cache, "q1"));
+                Assert.assertEquals("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", result.toString());
+
+                // result larger than the cache is not stored and replaces previous result
+                put(cache, "q1", "x", "dddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddddd");
+                Assert.assertFalse(get(cache, "q1"));
+                Assert.assertEquals(40, cache.getSize());
+
+                Assert.assertEquals(3, cache.getHitCount());
+                Assert.assertEquals(2, cache.getMissCount());
+            }
+        });
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a int)", sqlExecutionContext);
+            compiler.compile("create table y (a int)", sqlExecutionContext);
+            try (QueryResultCache cache = new QueryResultCache(1024)) {
+                tableNames.clear();
+                tableNames.add("x");
+                tableNames.add("y");
+                put(cache, "q", tableNames, "[[1]]");
+                Assert.assertTrue(get(cache, "q"));
+                Assert.assertEquals("[[1]]", result.toString());
+
+                executeInsert("insert into y values (1)");
+                Assert.assertFalse(get(cache, "q"));
+                // tables are known even when result is stale
+                Assert.assertEquals(2, tableNames.size());
+                Assert.assertTrue(Chars.equals("x", tableNames.getQuick(0)));
+                Assert.assertTrue(Chars.equals("y", tableNames.getQuick(1)));
+
+                put(cache, "q", tableNames, "[[2]]");
+                Assert.assertTrue(get(cache, "q"));
+                Assert.assertEquals("[[2]]", result.toString());
+
+                compiler.compile("drop table y", sqlExecutionContext);
+                Assert.assertFalse(get(cache, "q"));
+            }
+        });
+    }
+
+    private boolean get(QueryResultCache cache, CharSequence key) {
+        result.clear();
+        tableNames.clear();
+        return cache.get(key, engine, sqlExecutionContext.getCairoSecurityContext(), (lo, hi) -> {
+            for (long p = lo; p < hi; p++) {
+                result.put((char) Unsafe.getUnsafe().getByte(p));
+            }
+        }, tableNames);
+    }
+
+    private void put(QueryResultCache cache, CharSequence key, CharSequence tableName, CharSequence value) {
+        final ObjList<CharSequence> names = new ObjList<>();
+        names.add(tableName);
+        put(cache, key, names, value);
+    }
+
+    private void put(QueryResultCache cache, CharSequence key, ObjList<CharSequence> tableNames, CharSequence value) {
+        final LongList versions = new LongList();
+        Assert.assertTrue(QueryResultCache.readTableVersions(engine, sqlExecutionContext.getCairoSecurityContext(), tableNames, versions));
+        final int len = value.length();
+        final long address = Unsafe.malloc(len);
+        try {
+            Chars.asciiStrCpy(value, len, address);
+            cache.put(key, tableNames, versions, address, address + len);
+        } finally {
+            Unsafe.free(address, len);
+        }
+    }
+}
@@ -33,5 +33,6 @@ public class LineProtoHourTimestampAdapterTest {
     @Test
     public void testRounding() throws NumericException {
         Assert.assertEquals(20444400000000L, LineProtoHourTimestampAdapter.INSTANCE.getMicros("5679"));
+        Assert.assertEquals(20444400000000L, LineProtoHourTimestampAdapter.INSTANCE.getMicros(5679L));
     }
 }
\ No newline at end of file
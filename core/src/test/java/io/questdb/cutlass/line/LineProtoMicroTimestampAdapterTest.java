@@ -33,5 +33,6 @@ public class LineProtoMicroTimestampAdapterTest {
     @Test
     public void testRounding() throws NumericException {
         Assert.assertEquals(5679L, LineProtoMicroTimestampAdapter.INSTANCE.getMicros("5679"));
+        Assert.assertEquals(5679L, LineProtoMicroTimestampAdapter.INSTANCE.getMicros(5679L));
     }
 }
\ No newline at end of file
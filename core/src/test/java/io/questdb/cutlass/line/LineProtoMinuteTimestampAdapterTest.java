@@ -33,5 +33,6 @@ public class LineProtoMinuteTimestampAdapterTest {
     @Test
     public void testRounding() throws NumericException {
         Assert.assertEquals(340740000000L, LineProtoMinuteTimestampAdapter.INSTANCE.getMicros("5679"));
+        Assert.assertEquals(340740000000L, LineProtoMinuteTimestampAdapter.INSTANCE.getMicros(5679L));
     }
 }
\ No newline at end of file
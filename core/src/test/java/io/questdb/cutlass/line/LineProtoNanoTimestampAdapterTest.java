@@ -33,5 +33,6 @@ public class LineProtoNanoTimestampAdapterTest {
     @Test
     public void testRounding() throws NumericException {
         Assert.assertEquals(56799L, LineProtoNanoTimestampAdapter.INSTANCE.getMicros("56799000"));
+        Assert.assertEquals(56799L, LineProtoNanoTimestampAdapter.INSTANCE.getMicros(56799000L));
     }
 }
\ No newline at end of file
@@ -33,5 +33,6 @@ public class LineProtoSecondTimestampAdapterTest {
     @Test
     public void testRounding() throws NumericException {
         Assert.assertEquals(5679000000L, LineProtoSecondTimestampAdapter.INSTANCE.getMicros("5679"));
+        Assert.assertEquals(5679000000L, LineProtoSecondTimestampAdapter.INSTANCE.getMicros(5679L));
     }
 }
\ No newline at end of file
@@ -43,7 +43,11 @@ public class AuthenticatedLineTCPProtoSender extends LineTCPProtoSender {
     private long buffer;
 
     public AuthenticatedLineTCPProtoSender(String keyId, PrivateKey privateKey, int sendToIPv4Address, int sendToPort, int bufferCapacity) {
-        super(sendToIPv4Address, sendToPort, bufferCapacity);
+        this(keyId, privateKey, sendToIPv4Address, sendToPort, bufferCapacity, false);
+    }
+
+    public AuthenticatedLineTCPProtoSender(String keyId, PrivateKey privateKey, int sendToIPv4Address, int sendToPort, int bufferCapacity, boolean binary) {
+        super(sendToIPv4Address, sendToPort, bufferCapacity, binary);
         keyIdBytes = keyId.getBytes(StandardCharsets.UTF_8);
         if (keyIdBytes.length >= (BUF_SZ - 1)) {
             throw new IllegalArgumentException("keyId \"" + keyId + "\" is too long");
@@ -25,16 +25,22 @@
 package io.questdb.cutlass.line.tcp;
 
 import io.questdb.cairo.*;
+import io.questdb.cutlass.line.LineProtoMilliTimestampAdapter;
+import io.questdb.cutlass.line.LineProtoNanoTimestampAdapter;
+import io.questdb.cutlass.line.LineProtoTimestampAdapter;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
 import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.*;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.Chars;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.LPSZ;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -43,9 +49,13 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
@@ -53,7 +63,11 @@ import java.util.function.Function;
 public class LineTcpConnectionContextTest extends AbstractCairoTest {
     private final static Log LOG = LogFactory.getLog(LineTcpConnectionContextTest.class);
     private static final int FD = 1_000_000;
+    private static final ThreadLocal<long[]> PROCESSING_NANOS = ThreadLocal.withInitial(() -> new long[1]);
     private static Function<LPSZ, Void> FF_OPENRW_TASK;
+    // called by writer thread before each measurement is processed
+    private static Runnable ON_WRITER_EVENT;
+    private static volatile long milliSecondTicks;
     private LineTcpConnectionContext context;
     private LineTcpReceiverConfiguration lineTcpConfiguration;
     private LineTcpMeasurementScheduler scheduler;
@@ -61,10 +75,14 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
     private String recvBuffer;
     private int nWriterThreads;
     private WorkerPool workerPool;
-    private int[] rebalanceLoadByThread;
+    private long[] rebalanceLoadByThread;
     private int rebalanceNLoadCheckCycles = 0;
     private int rebalanceNRebalances = 0;
     private long microSecondTicks;
+    private boolean recvBinary;
+    private LineProtoTimestampAdapter timestampAdapter;
+    private int maxUncommittedRows;
+    private long commitLagInMs;
 
     @BeforeClass
     public static void setUp() throws IOException {
@@ -86,12 +104,31 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
             public FilesFacade getFilesFacade() {
                 return ff;
             }
+
+            @Override
+            public NanosecondClock getNanosecondClock() {
+                // every measurement costs the same to make load rebalancing deterministic
+                return () -> {
+                    final long[] nanos = PROCESSING_NANOS.get();
+                    if (nanos[0] % 2000 == 0 && null != ON_WRITER_EVENT) {
+                        ON_WRITER_EVENT.run();
+                    }
+                    return nanos[0] += 1000;
+                };
+            }
+
+            @Override
+            public MillisecondClock getMillisecondClock() {
+                return () -> milliSecondTicks >= 0 ? milliSecondTicks : System.currentTimeMillis();
+            }
         };
     }
 
     @Before
     public void before() {
         FF_OPENRW_TASK = (name) -> null;
+        ON_WRITER_EVENT = null;
+        milliSecondTicks = -1;
         NetworkFacade nf = new NetworkFacadeImpl() {
             @Override
             public int recv(long fd, long buffer, int bufferLen) {
@@ -100,17 +137,22 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
                     return -1;
                 }
 
-                byte[] bytes = recvBuffer.getBytes(StandardCharsets.UTF_8);
+                // binary frames are built with one char per byte
+                byte[] bytes = recvBuffer.getBytes(recvBinary ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
                 int n = 0;
                 while (n < bufferLen && n < bytes.length) {
                     Unsafe.getUnsafe().putByte(buffer++, bytes[n++]);
                 }
-                recvBuffer = new String(bytes, n, bytes.length - n);
+                recvBuffer = new String(bytes, n, bytes.length - n, recvBinary ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
                 return n;
             }
         };
         nWriterThreads = 2;
         microSecondTicks = -1;
+        recvBinary = false;
+        timestampAdapter = LineProtoNanoTimestampAdapter.INSTANCE;
+        maxUncommittedRows = 1000;
+        commitLagInMs = 1000;
         lineTcpConfiguration = new DefaultLineTcpReceiverConfiguration() {
             @Override
             public int getNetMsgBufferSize() {
@@ -127,6 +169,26 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
                 return nf;
             }
 
+            @Override
+            public LineProtoTimestampAdapter getTimestampAdapter() {
+                return timestampAdapter;
+            }
+
+            @Override
+            public int getMaxUncommittedRows() {
+                return maxUncommittedRows;
+            }
+
+            @Override
+            public long getCommitLagInMs(CharSequence tableName) {
+                return Chars.equals(tableName, "weather") ? commitLagInMs : getCommitLagInMs();
+            }
+
+            @Override
+            public boolean isCommitRateAdaptive() {
+                return false;
+            }
+
             @Override
             public MicrosecondClock getMicrosecondClock() {
                 return new MicrosecondClockImpl() {
@@ -431,6 +493,85 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testBinaryProtocol() throws Exception {
+        runInContext(() -> {
+            recvBinary = true;
+            recvBuffer = (char) (LineTcpBinaryProtocol.MAGIC & 0xFF) +
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830100400200L, "temperature", 82.5, "flag", true, "note", "ok é", "count", 3L) +
+                    // unknown field type
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830100500200L, "temperature", (byte) 9) +
+                    // no fields
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830100600200L) +
+                    binaryFrame("weather", new String[]{"location", "us-eastcoast"}, 1465839830102400200L, "temperature", 81.0, "flag", false, "note", "x", "count", -7L);
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            waitForIOCompletion();
+            closeContext();
+            String expected = "location\ttemperature\tflag\tnote\tcount\ttimestamp\n" +
+                    "us-midwest\t82.5\ttrue\tok é\t3\t2016-06-13T17:43:50.100400Z\n" +
+                    "us-eastcoast\t81.0\tfalse\tx\t-7\t2016-06-13T17:43:50.102400Z\n";
+            assertTable(expected, "weather");
+        });
+    }
+
+    @Test
+    public void testBinaryProtocolNegativeFrameLength() throws Exception {
+        runInContext(() -> {
+            recvBinary = true;
+            recvBuffer = (char) (LineTcpBinaryProtocol.MAGIC & 0xFF) +
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830100400200L, "temperature", 82.5) +
+                    "\u00ff\u00ff\u00ff\u00ff" +
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830100500200L, "temperature", 83.5);
+            handleContextIO();
+            Assert.assertTrue(disconnected);
+            waitForIOCompletion();
+            closeContext();
+            String expected = "location\ttemperature\ttimestamp\n" +
+                    "us-midwest\t82.5\t2016-06-13T17:43:50.100400Z\n";
+            assertTable(expected, "weather");
+        });
+    }
+
+    @Test
+    public void testBinaryProtocolTimestampPrecision() throws Exception {
+        timestampAdapter = LineProtoMilliTimestampAdapter.INSTANCE;
+        runInContext(() -> {
+            recvBinary = true;
+            recvBuffer = (char) (LineTcpBinaryProtocol.MAGIC & 0xFF) +
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830100L, "temperature", 82.5) +
+                    binaryFrame("weather", new String[]{"location", "us-midwest"}, 1465839830102L, "temperature", 83.5);
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            waitForIOCompletion();
+            closeContext();
+            String expected = "location\ttemperature\ttimestamp\n" +
+                    "us-midwest\t82.5\t2016-06-13T17:43:50.100000Z\n" +
+                    "us-midwest\t83.5\t2016-06-13T17:43:50.102000Z\n";
+            assertTable(expected, "weather");
+        });
+    }
+
+    @Test
+    public void testCommitByCommitLag() throws Exception {
+        commitLagInMs = 1000;
+        milliSecondTicks = 0;
+        // rows 1 to 5 are received at 0ms, row 6 is at 1000ms and commits rows received so far
+        testCommitPolicy(9, 6, 6, () -> milliSecondTicks = 1000);
+    }
+
+    @Test
+    public void testCommitByRowCount() throws Exception {
+        maxUncommittedRows = 3;
+        commitLagInMs = 3_600_000;
+        // commits after 4th and 8th row
+        testCommitPolicy(10, 8, 0, null);
+    }
+
     @Test
     public void testCairoExceptionOnAddColumn() throws Exception {
         FF_OPENRW_TASK = (fnm) -> {
@@ -513,6 +654,29 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testColumnConversion2() throws Exception {
+        runInContext(() -> {
+            try (
+                    TableModel model = new TableModel(configuration, "t_ilp22",
+                            PartitionBy.NONE).col("event", ColumnType.SHORT).col("flag", ColumnType.BOOLEAN).col("value", ColumnType.DOUBLE).timestamp()) {
+                CairoTestUtils.create(model);
+            }
+            microSecondTicks = 1465839830102800L;
+            recvBuffer = "t_ilp22 event=12i,flag=t,value=1.5\n" +
+                    "t_ilp22 event=70000i,flag=t,value=2.5\n" +
+                    "t_ilp22 event=-7i,flag=false,value=-3e2\n";
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+            waitForIOCompletion();
+            closeContext();
+            String expected = "event\tflag\tvalue\ttimestamp\n" +
+                    "12\ttrue\t1.5\t2016-06-13T17:43:50.102800Z\n" +
+                    "-7\tfalse\t-300.0\t2016-06-13T17:43:50.102800Z\n";
+            assertTable(expected, "t_ilp22");
+        });
+    }
+
     @Test
     public void testColumnNameWithSlash1() throws Exception {
         runInContext(() -> {
@@ -939,9 +1103,9 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         double[] loadFactors = {10, 10, 10, 20, 20, 20, 20, 20, 20, 30, 30, 60};
         testThreading(nTables, nIterations, loadFactors);
 
-        int maxLoad = Integer.MIN_VALUE;
-        int minLoad = Integer.MAX_VALUE;
-        for (int load : rebalanceLoadByThread) {
+        long maxLoad = Long.MIN_VALUE;
+        long minLoad = Long.MAX_VALUE;
+        for (long load : rebalanceLoadByThread) {
             if (maxLoad < load) {
                 maxLoad = load;
             }
@@ -990,6 +1154,42 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         }
     }
 
+    private static String binaryFrame(String tableName, String[] tags, long timestamp, Object... fields) {
+        ByteBuffer buf = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(0);
+        putBinaryString(buf, tableName);
+        buf.put((byte) (tags.length / 2));
+        for (String tag : tags) {
+            putBinaryString(buf, tag);
+        }
+        buf.put((byte) (fields.length / 2));
+        for (int i = 0; i < fields.length; i += 2) {
+            putBinaryString(buf, (String) fields[i]);
+            Object value = fields[i + 1];
+            if (value instanceof Long) {
+                buf.put(LineTcpBinaryProtocol.TYPE_LONG).putLong((Long) value);
+            } else if (value instanceof Double) {
+                buf.put(LineTcpBinaryProtocol.TYPE_DOUBLE).putDouble((Double) value);
+            } else if (value instanceof Boolean) {
+                buf.put(LineTcpBinaryProtocol.TYPE_BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+            } else if (value instanceof String) {
+                buf.put(LineTcpBinaryProtocol.TYPE_STRING);
+                putBinaryString(buf, (String) value);
+            } else {
+                // raw type code
+                buf.put((Byte) value);
+            }
+        }
+        buf.putLong(timestamp);
+        buf.putInt(0, buf.position() - Integer.BYTES);
+        return new String(buf.array(), 0, buf.position(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static void putBinaryString(ByteBuffer buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buf.putShort((short) bytes.length).put(bytes);
+    }
+
     private void assertTable(CharSequence expected, CharSequence tableName) {
         try (TableReader reader = new TableReader(configuration, tableName)) {
             assertThat(expected, reader.getCursor(), reader.getMetadata(), true);
@@ -1121,6 +1321,61 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         workerPool.start(LOG);
     }
 
+    private void testCommitPolicy(int pauseAtRow, int expectedCommittedRows, int changeAtRow, Runnable onChange) throws Exception {
+        final int nRows = 10;
+        final CountDownLatch published = new CountDownLatch(1);
+        final CountDownLatch paused = new CountDownLatch(1);
+        final CountDownLatch resumed = new CountDownLatch(1);
+        final int[] row = {0};
+        ON_WRITER_EVENT = () -> {
+            // writer waits for all rows to be queued, so the queue is not drained in between
+            // and only the commit policy decides when rows are committed
+            row[0]++;
+            if (row[0] == 1) {
+                await(published);
+            }
+            if (row[0] == changeAtRow && null != onChange) {
+                onChange.run();
+            }
+            if (row[0] == pauseAtRow) {
+                paused.countDown();
+                await(resumed);
+            }
+        };
+        nWriterThreads = 1;
+        runInContext(() -> {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < nRows; i++) {
+                sb.append("weather,location=us-midwest temperature=").append(i).append(' ').append(1465839830100400200L + i * 1000L).append('\n');
+            }
+            recvBuffer = sb.toString();
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            published.countDown();
+            await(paused);
+            try (TableReader reader = new TableReader(configuration, "weather")) {
+                Assert.assertEquals(expectedCommittedRows, reader.size());
+            } finally {
+                resumed.countDown();
+            }
+            waitForIOCompletion();
+            closeContext();
+            try (TableReader reader = new TableReader(configuration, "weather")) {
+                Assert.assertEquals(nRows, reader.size());
+            }
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private void testFragmentation(int breakPos) throws Exception {
         runInContext(() -> {
             String allMsgs = "weather,location=us-midwest temperature=82 1465839830100400200\n" +
@@ -61,6 +61,16 @@ public class LineTcpServerTest extends AbstractCairoTest {
         test(null, null, 200, 1_000);
     }
 
+    @Test(timeout = 120000)
+    public void testUnauthenticatedBinary() {
+        test(null, null, 200, 1_000, true);
+    }
+
+    @Test(timeout = 120000)
+    public void testGoodAuthenticatedBinary() {
+        test(AUTH_KEY_ID1, AUTH_PRIVATE_KEY1, 768, 1_000, true);
+    }
+
     @Test(timeout = 120000)
     public void testGoodAuthenticated() {
         test(AUTH_KEY_ID1, AUTH_PRIVATE_KEY1, 768, 1_000);
@@ -77,6 +87,10 @@ public class LineTcpServerTest extends AbstractCairoTest {
     }
 
     private void test(String authKeyId, PrivateKey authPrivateKey, int msgBufferSize, final int nRows) {
+        test(authKeyId, authPrivateKey, msgBufferSize, nRows, false);
+    }
+
+    private void test(String authKeyId, PrivateKey authPrivateKey, int msgBufferSize, final int nRows, boolean binary) {
         WorkerPool sharedWorkerPool = new WorkerPool(new WorkerPoolConfiguration() {
             private final int[] affinity = { -1, -1 };
 
@@ -187,11 +201,11 @@ public class LineTcpServerTest extends AbstractCairoTest {
                 final LineProtoSender[] senders = new LineProtoSender[tables.length];
                 for (int n = 0; n < senders.length; n++) {
                     if (null != authKeyId) {
-                        AuthenticatedLineTCPProtoSender sender = new AuthenticatedLineTCPProtoSender(authKeyId, authPrivateKey, Net.parseIPv4("127.0.0.1"), bindPort, 4096);
+                        AuthenticatedLineTCPProtoSender sender = new AuthenticatedLineTCPProtoSender(authKeyId, authPrivateKey, Net.parseIPv4("127.0.0.1"), bindPort, 4096, binary);
                         sender.authenticate();
                         senders[n] = sender;
                     } else {
-                        senders[n] = new LineTCPProtoSender(Net.parseIPv4("127.0.0.1"), bindPort, 4096);
+                        senders[n] = new LineTCPProtoSender(Net.parseIPv4("127.0.0.1"), bindPort, 4096, binary);
                     }
                     StringBuilder sb = new StringBuilder((nRows + 1) * lineConfiguration.getMaxMeasurementSize());
                     sb.append("location\ttemp\ttimestamp\n");
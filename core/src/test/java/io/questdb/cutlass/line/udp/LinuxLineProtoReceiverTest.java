@@ -78,6 +78,11 @@ public class LinuxLineProtoReceiverTest extends AbstractCairoTest {
         assertReceive(new DefaultLineUdpReceiverConfiguration(), GENERIC_FACTORY);
     }
 
+    @Test
+    public void testGenericShardedReceive() throws Exception {
+        assertShardedReceive(LineProtoReceiver::new);
+    }
+
     @Test
     public void testLinuxCannotBindSocket() throws Exception {
         if (Os.type != Os.LINUX_AMD64) {
@@ -126,6 +131,14 @@ public class LinuxLineProtoReceiverTest extends AbstractCairoTest {
         assertReceive(new DefaultLineUdpReceiverConfiguration(), LINUX_FACTORY);
     }
 
+    @Test
+    public void testLinuxShardedReceive() throws Exception {
+        if (Os.type != Os.LINUX_AMD64) {
+            return;
+        }
+        assertShardedReceive(LinuxMMLineProtoReceiver::new);
+    }
+
     private void assertCannotBindSocket(ReceiverFactory factory) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             NetworkFacade nf = new NetworkFacadeImpl() {
@@ -291,6 +304,64 @@ public class LinuxLineProtoReceiverTest extends AbstractCairoTest {
         });
     }
 
+    private void assertShardedReceive(LineUdpReceiverGroup.ReceiverFactory factory) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int tableCount = 4;
+            final int senderCount = 8;
+            final int rowsPerSender = 48;
+
+            LineUdpReceiverConfiguration receiverCfg = new DefaultLineUdpReceiverConfiguration() {
+                @Override
+                public int getReceiverCount() {
+                    return 4;
+                }
+
+                @Override
+                public boolean isUnicast() {
+                    return true;
+                }
+            };
+
+            try (CairoEngine engine = new CairoEngine(configuration)) {
+                for (int i = 0; i < tableCount; i++) {
+                    try (TableModel model = new TableModel(configuration, "tab" + i, PartitionBy.NONE)
+                            .col("sender", ColumnType.LONG)
+                            .col("size", ColumnType.DOUBLE)
+                            .timestamp()) {
+                        CairoTestUtils.create(model);
+                    }
+                }
+
+                try (LineUdpReceiverGroup group = new LineUdpReceiverGroup(receiverCfg, engine, null, factory)) {
+                    Assert.assertEquals(4, group.getReceiverCount());
+
+                    // each sender has its own source port, kernel spreads them across receivers
+                    // while every datagram carries lines for all tables
+                    for (int s = 0; s < senderCount; s++) {
+                        try (LineProtoSender sender = new LineProtoSender(NetworkFacadeImpl.INSTANCE, 0, Net.parseIPv4("127.0.0.1"), receiverCfg.getPort(), 1400, 1)) {
+                            for (int i = 0; i < rowsPerSender; i++) {
+                                sender.metric("tab" + (i % tableCount)).field("sender", s).field("size", 3.4).$(100000000000L);
+                            }
+                            sender.flush();
+                        }
+                    }
+
+                    final int expectedRows = senderCount * rowsPerSender / tableCount;
+                    for (int i = 0; i < tableCount; i++) {
+                        try (TableReader reader = new TableReader(new DefaultCairoConfiguration(root), "tab" + i)) {
+                            int count = 1000000;
+                            while (count-- > 0 && reader.size() < expectedRows) {
+                                reader.reload();
+                                LockSupport.parkNanos(1);
+                            }
+                            Assert.assertEquals(expectedRows, reader.size());
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     private interface ReceiverFactory extends WorkerPoolAwareConfiguration.ServerFactory<AbstractLineProtoReceiver, LineUdpReceiverConfiguration> {
     }
 }
\ No newline at end of file
@@ -62,7 +62,7 @@ public class AlterTableAlterSymbolColumnCacheFlagTest extends AbstractGriffinTes
     @Test
     public void testAlterSymbolCacheFlagToFalseAndCheckOpenReaderWithCursor() throws Exception {
 
-        String expectedOrderedWhenCached = "sym\n" +
+        String expectedOrdered = "sym\n" +
                 "googl\n" +
                 "googl\n" +
                 "googl\n" +
@@ -86,26 +86,13 @@ public class AlterTableAlterSymbolColumnCacheFlagTest extends AbstractGriffinTes
                 "googl\n" +
                 "msft\n";
 
-
-        String expectedUnordered = "sym\n" +
-                "msft\n" +
-                "googl\n" +
-                "googl\n" +
-                "googl\n" +
-                "ibm\n" +
-                "googl\n" +
-                "ibm\n" +
-                "googl\n" +
-                "googl\n" +
-                "msft\n";
-
         final RecordCursorPrinter printer = new SingleColumnRecordCursorPrinter(sink, 1);
 
         assertMemoryLeak(() -> {
 
             assertMemoryLeak(this::createX);
 
-            assertQueryPlain(expectedOrderedWhenCached,
+            assertQueryPlain(expectedOrdered,
                     "select sym from x order by sym"
             );
 
@@ -133,7 +120,8 @@ public class AlterTableAlterSymbolColumnCacheFlagTest extends AbstractGriffinTes
             }
         });
 
-        assertQueryPlain(expectedUnordered,
+        // radix sort orders symbols by value whether or not symbol table is cached
+        assertQueryPlain(expectedOrdered,
                 "select sym from x order by 1 asc"
         );
     }
@@ -155,16 +143,16 @@ public class AlterTableAlterSymbolColumnCacheFlagTest extends AbstractGriffinTes
             executeInsert("insert into x values (9, 'GBP')\"");
         });
 
-        String expectUnordered = "sym\n" +
+        String expectedOrdered = "sym\n" +
+                "CHF\n" +
                 "GBP\n" +
                 "GBP\n" +
                 "GBP\n" +
                 "GBP\n" +
-                "USD\n" +
-                "JPY\n" +
                 "GBP\n" +
-                "CHF\n" +
-                "GBP\n";
+                "GBP\n" +
+                "JPY\n" +
+                "USD\n";
 
         String expected = "sym\n" +
                 "GBP\n" +
@@ -179,7 +167,7 @@ public class AlterTableAlterSymbolColumnCacheFlagTest extends AbstractGriffinTes
 
         assertMemoryLeak(() -> {
 
-            assertQueryPlain(expectUnordered,
+            assertQueryPlain(expectedOrdered,
                     "select sym from x order by sym"
             );
 
@@ -208,17 +196,6 @@ public class AlterTableAlterSymbolColumnCacheFlagTest extends AbstractGriffinTes
             }
         });
 
-        String expectedOrdered = "sym\n" +
-                "CHF\n" +
-                "GBP\n" +
-                "GBP\n" +
-                "GBP\n" +
-                "GBP\n" +
-                "GBP\n" +
-                "GBP\n" +
-                "JPY\n" +
-                "USD\n";
-
         assertQueryPlain(expectedOrdered,
                 "select sym from x order by 1 asc"
         );
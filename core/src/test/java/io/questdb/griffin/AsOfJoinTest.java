@@ -24,8 +24,12 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -79,6 +83,39 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAsOfJoinIndexedSymbolSeek() throws Exception {
+        assertMemoryLeak(() -> {
+            createSeekTables();
+            assertSeekMatchesScan(
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t asof join q on (sym)",
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t asof join (q where bid > -1) q on (sym)"
+            );
+        });
+    }
+
+    @Test
+    public void testAsOfJoinIntervalSlaveSeek() throws Exception {
+        assertMemoryLeak(() -> {
+            createSeekTables();
+            assertSeekMatchesScan(
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t asof join (q where ts > '1970-01-02T06') q on (sym)",
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t asof join (q where ts > '1970-01-02T06' and bid > -1) q on (sym)"
+            );
+        });
+    }
+
+    @Test
+    public void testAsOfJoinNoKeySeek() throws Exception {
+        assertMemoryLeak(() -> {
+            createSeekTables();
+            assertSeekMatchesScan(
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t asof join q",
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t asof join (q where bid > -1) q"
+            );
+        });
+    }
+
     @Test
     public void testAsofJoinForSelectWithTimestamps() throws Exception {
         final String expected = "tag\thi\tlo\tts\tts1\n" +
@@ -375,6 +412,17 @@ public class AsOfJoinTest extends AbstractGriffinTest {
 
     //select a.seq hi, b.seq lo from tab a lt join b where hi > lo + 1
 
+    @Test
+    public void testLtJoinIndexedSymbolSeek() throws Exception {
+        assertMemoryLeak(() -> {
+            createSeekTables();
+            assertSeekMatchesScan(
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t lt join q on (sym)",
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t lt join (q where bid > -1) q on (sym)"
+            );
+        });
+    }
+
     @Test
     public void testLtJoinNoTimestamp() throws Exception {
         final String expected = "tag\thi\tlo\n" +
@@ -409,6 +457,33 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testLtJoinNoKeySeek() throws Exception {
+        assertMemoryLeak(() -> {
+            createSeekTables();
+            // trades with even x are never at quote timestamps, which makes LT and ASOF results the same
+            assertSeekMatchesScan(
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from (t where x % 2 = 0) t lt join q",
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from (t where x % 2 = 0) t asof join (q where bid > -1) q"
+            );
+        });
+    }
+
+    @Test
+    public void testLtJoinNoKeyEqualTimestamps() throws Exception {
+        assertMemoryLeak(() -> {
+            createSeekTables();
+            // every other trade is at a quote timestamp, such quote must not be joined
+            assertSeekMatchesScan(
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t lt join q",
+                    "select t.sym, t.x, t.ts, q.sym, q.bid, q.ts from t lt join (q where bid > -1) q"
+            );
+            final String expected = "count\n0\n";
+            TestUtils.assertEquals(expected, printSql("select count() from (select t.ts tts, q.ts qts from t lt join q) where qts >= tts"));
+            TestUtils.assertEquals(expected, printSql("select count() from (select t.ts tts, q.ts qts from t lt join (q where bid > -1) q) where qts >= tts"));
+        });
+    }
+
     @Test
     public void testLtJoinOnRandomlyGeneratedColumn() throws Exception {
         final String expected = "tag\thi\tlo\n" +
@@ -604,5 +679,41 @@ public class AsOfJoinTest extends AbstractGriffinTest {
             printSqlResult(ex, query, null, null, null, false, true, false);
         });
     }
-}
 
+    private static String printSql(String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            return sink.toString();
+        }
+    }
+
+    private void assertSeekMatchesScan(String query, String scanQuery) throws SqlException {
+        // filtered slave is scanned, table slave is searched
+        final String expected = printSql(scanQuery);
+        Assert.assertTrue(expected.split("\n").length > 2);
+        TestUtils.assertEquals(expected, printSql(query));
+    }
+
+    private void createSeekTables() throws SqlException {
+        // quotes span several day partitions, trades start before quotes
+        // and half of trade timestamps match quote timestamps exactly
+        compiler.compile("create table q as (" +
+                "select" +
+                " rnd_symbol('AA', 'BB', 'CC', null) sym," +
+                " rnd_double(0) bid," +
+                " timestamp_sequence(86400000000, 3600000000) ts" +
+                " from long_sequence(200)" +
+                "), index(sym) timestamp(ts) partition by DAY", sqlExecutionContext);
+        compiler.compile("create table t as (" +
+                "select" +
+                " rnd_symbol('AA', 'BB', 'DD', null) sym," +
+                " x," +
+                " timestamp_sequence(72000000000, 1800000000) ts" +
+                " from long_sequence(100)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -29,6 +29,8 @@ import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.griffin.engine.join.MergeJoinLightRecordCursorFactory;
+import io.questdb.griffin.engine.table.SelectedRecordCursorFactory;
 import io.questdb.std.Chars;
 import io.questdb.std.Misc;
 import io.questdb.std.Rnd;
@@ -2679,6 +2681,15 @@ public class JoinTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testJoinInnerTimestampMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            createMergeJoinTables();
+            assertMergeJoin("x join y on (ts, s)");
+            assertMergeJoin("x join y on (ts)");
+        });
+    }
+
     @Test
     public void testJoinOnLong256() throws Exception {
         testFullFat(() -> assertMemoryLeak(() -> {
@@ -2963,6 +2974,15 @@ public class JoinTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testJoinOuterTimestampMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            createMergeJoinTables();
+            assertMergeJoin("x left join y on (ts, s)");
+            assertMergeJoin("x left join y on x.ts = y.ts");
+        });
+    }
+
     @Test
     public void testSpliceCorrectness() throws Exception {
         assertMemoryLeak(() -> {
@@ -3526,6 +3546,50 @@ public class JoinTest extends AbstractGriffinTest {
         testFullFat(this::testTypeMismatch);
     }
 
+    private void assertMergeJoin(String query) throws Exception {
+        // full fat join hashes the whole slave, its output is the reference
+        final String[] expected = new String[1];
+        testFullFat(() -> {
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(unwrap(factory) instanceof MergeJoinLightRecordCursorFactory);
+                expected[0] = printCursor(factory);
+            }
+        });
+        Assert.assertTrue(expected[0].split("\n").length > 10);
+
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(unwrap(factory) instanceof MergeJoinLightRecordCursorFactory);
+            TestUtils.assertEquals(expected[0], printCursor(factory));
+            // cursor is reusable
+            TestUtils.assertEquals(expected[0], printCursor(factory));
+        }
+    }
+
+    private void createMergeJoinTables() throws SqlException {
+        // both sides have timestamp duplicates and only some of their timestamps match
+        compiler.compile("create table x as (" +
+                "select rnd_symbol('A', 'B', 'C') s, x v, cast((x - 1) / 3 * 1000000 as timestamp) ts" +
+                " from long_sequence(300)" +
+                ") timestamp(ts) partition by NONE", sqlExecutionContext);
+        compiler.compile("create table y as (" +
+                "select rnd_symbol('A', 'B', 'D') s, x v, cast((x - 1) / 4 * 700000 as timestamp) ts" +
+                " from long_sequence(500)" +
+                ") timestamp(ts) partition by NONE", sqlExecutionContext);
+    }
+
+    private String printCursor(RecordCursorFactory factory) {
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            return sink.toString();
+        }
+    }
+
+    private static RecordCursorFactory unwrap(RecordCursorFactory factory) {
+        // join columns are re-ordered by selection on top of the join
+        return factory instanceof SelectedRecordCursorFactory ? ((SelectedRecordCursorFactory) factory).getBaseFactory() : factory;
+    }
+
     private void testFullFat(TestMethod method) throws Exception {
         compiler.setFullSatJoins(true);
         try {
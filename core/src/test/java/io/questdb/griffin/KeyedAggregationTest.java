@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.std.Rnd;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -865,4 +866,129 @@ public class KeyedAggregationTest extends AbstractGriffinTest {
             }
         });
     }
+
+    @Test
+    public void testLongKey() throws Exception {
+        assertQuery(
+                "l\tsum\tmin\tmax\n" +
+                        "NaN\t34019\t-1000\t997\n" +
+                        "-2\t47067\t-1000\t999\n" +
+                        "-1\t21334\t-999\t999\n" +
+                        "0\t-8717\t-1000\t1000\n" +
+                        "1\t-1323\t-1000\t1000\n" +
+                        "2\t-36570\t-997\t999\n",
+                "select l, sum(val), min(val), max(val) from tab order by l",
+                "create table tab as (select rnd_long(-2, 2, 1) l, rnd_int(-1000, 1000, 2) val from long_sequence(10000))",
+                null, true, true, true
+        );
+    }
+
+    @Test
+    public void testSymbolLongKey() throws Exception {
+        assertQuery(
+                "s1\tl\tcount\tmin\tmax\n" +
+                        "\tNaN\t627\t0.001081533415946745\t0.9962414895132147\n" +
+                        "\t0\t458\t3.2491934177480974E-4\t0.999708216046598\n" +
+                        "\t1\t454\t4.289669820148889E-4\t0.998380632043875\n" +
+                        "\t2\t467\t0.004396666071391664\t0.9907046055633255\n" +
+                        "\t3\t467\t0.004456425101622252\t0.9996790092056788\n" +
+                        "s1\tNaN\t624\t0.0014273967421094547\t0.9976811734146454\n" +
+                        "s1\t0\t442\t0.0011550109416510468\t0.9978098059763683\n" +
+                        "s1\t1\t481\t0.0011597715241595807\t0.9972404317467216\n" +
+                        "s1\t2\t452\t0.006210702479533592\t0.9988581249667128\n" +
+                        "s1\t3\t510\t7.026870378309402E-4\t0.9975907992178104\n" +
+                        "s2\tNaN\t593\t0.0014542249844708977\t0.9996363111824842\n" +
+                        "s2\t0\t489\t0.004959437841553727\t0.9976832115320369\n" +
+                        "s2\t1\t450\t0.0014510055926236776\t0.9980865776968566\n" +
+                        "s2\t2\t471\t0.005884246777378199\t0.9961707966196408\n" +
+                        "s2\t3\t496\t0.0015825383206248267\t0.9969864520690392\n" +
+                        "s3\tNaN\t632\t6.286085540453401E-4\t0.9997797234031688\n" +
+                        "s3\t0\t493\t0.0016758049660009489\t0.9999717539091364\n" +
+                        "s3\t1\t461\t0.005273687737640809\t0.9992032348785835\n" +
+                        "s3\t2\t458\t0.0011337472413908145\t0.9911133238757182\n" +
+                        "s3\t3\t475\t2.973800030106055E-4\t0.9986394253952143\n",
+                "select s1, l, count(), min(val), max(val) from tab order by s1, l",
+                "create table tab as (select rnd_symbol('s1','s2','s3', null) s1, rnd_long(0, 3, 1) l, rnd_double(2) val from long_sequence(10000))",
+                null, true, true, true
+        );
+    }
+
+    @Test
+    public void testSymbolSymbolKey() throws Exception {
+        assertQuery(
+                "s1\ts2\tsum\tmin\tmax\n" +
+                        "\t\t15918\t-999\t995\n" +
+                        "\ta1\t8465\t-998\t996\n" +
+                        "\ta2\t-1619\t-995\t992\n" +
+                        "\ta3\t6042\t-1000\t997\n" +
+                        "s1\t\t-3325\t-996\t996\n" +
+                        "s1\ta1\t3610\t-990\t998\n" +
+                        "s1\ta2\t-12999\t-993\t992\n" +
+                        "s1\ta3\t16288\t-997\t1000\n" +
+                        "s2\t\t-5076\t-992\t995\n" +
+                        "s2\ta1\t-15331\t-987\t991\n" +
+                        "s2\ta2\t3239\t-1000\t996\n" +
+                        "s2\ta3\t1407\t-998\t996\n" +
+                        "s3\t\t11734\t-993\t999\n" +
+                        "s3\ta1\t-6682\t-998\t1000\n" +
+                        "s3\ta2\t1057\t-998\t1000\n" +
+                        "s3\ta3\t589\t-983\t994\n",
+                "select s1, s2, sum(val), min(val), max(val) from tab order by s1, s2",
+                "create table tab as (select rnd_symbol('s1','s2','s3', null) s1, rnd_symbol('a1','a2','a3', null) s2, rnd_long(-1000, 1000, 2) val from long_sequence(10000))",
+                null, true, true, true
+        );
+    }
+
+    @Test
+    public void testSymbolSymbolKeyAddKeyPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol('s1','s2','s3', null) s1, rnd_long(-1000, 1000, 2) val, timestamp_sequence(0, 100000000) t from long_sequence(10000)) timestamp(t) partition by DAY", sqlExecutionContext);
+            compiler.compile("alter table tab add column s2 symbol cache", sqlExecutionContext);
+            compiler.compile("insert into tab select rnd_symbol('s1','s2','s3', null), rnd_long(-1000, 1000, 2), timestamp_sequence(cast('1970-01-13T00:00:00.000000Z' as timestamp), 100000000), rnd_symbol('a1','a2','a3', null) s2 from long_sequence(10000)", sqlExecutionContext);
+
+            try (RecordCursorFactory factory = compiler.compile("select s1, s2, sum(val) from tab", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory);
+            }
+
+            try (
+                    RecordCursorFactory factory = compiler.compile("select s1, s2, sum(val) from tab order by s1, s2", sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                String expected = "s1\ts2\tsum\n" +
+                        "\t\t35160\n" +
+                        "\ta1\t-13552\n" +
+                        "\ta2\t2129\n" +
+                        "\ta3\t17059\n" +
+                        "s1\t\t-24324\n" +
+                        "s1\ta1\t-1517\n" +
+                        "s1\ta2\t9949\n" +
+                        "s1\ta3\t-2577\n" +
+                        "s2\t\t-26878\n" +
+                        "s2\ta1\t-9656\n" +
+                        "s2\ta2\t5417\n" +
+                        "s2\ta3\t-7055\n" +
+                        "s3\t\t37892\n" +
+                        "s3\ta1\t19400\n" +
+                        "s3\ta2\t-19915\n" +
+                        "s3\ta3\t23258\n";
+
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(expected, sink);
+            }
+        });
+    }
+
+    @Test
+    public void testTimestampKey() throws Exception {
+        assertQuery(
+                "ts\tsum\n" +
+                        "1970-01-01T00:00:00.000000Z\t-13771\n" +
+                        "1970-01-02T00:00:00.000000Z\t-34813\n" +
+                        "1970-01-03T00:00:00.000000Z\t20931\n",
+                "select ts, sum(val) from tab order by ts",
+                "create table tab as (select cast(rnd_long(0, 2, 1) * 86400000000 as timestamp) ts, rnd_long(-1000, 1000, 2) val from long_sequence(10000))",
+                null, true, true, true
+        );
+    }
 }
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.InsertMethod;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MaterializedViewTest extends AbstractGriffinTest {
+
+    private static final String BASE_DDL = "create table base as (" +
+            "select" +
+            " x v," +
+            " timestamp_sequence(0, 600000000) ts" +
+            " from long_sequence(20)" +
+            ") timestamp(ts)";
+
+    private static final String SYMBOL_VIEW_AFTER_LATE_ROWS = "ts\tsym\ts\n" +
+            "1970-01-01T00:00:00.000000Z\ta\t1\n" +
+            "1970-01-01T00:00:00.000000Z\tb\t2\n" +
+            "1970-01-01T01:00:00.000000Z\ta\t3\n" +
+            "1970-01-01T01:00:00.000000Z\tb\t10\n" +
+            "1970-01-01T02:00:00.000000Z\tb\t4\n" +
+            "1970-01-01T03:00:00.000000Z\ta\t5\n";
+
+    @Test
+    public void testCreateMaterializesCompleteBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, sum(v) s, count() c from base sample by 1h)", sqlExecutionContext);
+
+            // bucket at 03:00 is still open
+            assertSql("v", "ts\ts\tc\n" +
+                    "1970-01-01T00:00:00.000000Z\t21\t6\n" +
+                    "1970-01-01T01:00:00.000000Z\t57\t6\n" +
+                    "1970-01-01T02:00:00.000000Z\t93\t6\n");
+
+            try (Path path = new Path()) {
+                Assert.assertTrue(configuration.getFilesFacade().exists(path.of(configuration.getRoot()).concat("v").concat(TableUtils.MATERIALIZED_VIEW_FILE_NAME).$()));
+            }
+        });
+    }
+
+    @Test
+    public void testDropView() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, sum(v) s from base sample by 1h)", sqlExecutionContext);
+            try (MaterializedViewRefreshJob job = new MaterializedViewRefreshJob(engine, null)) {
+                job.run(0);
+                engine.releaseAllWriters();
+                compiler.compile("drop table v", sqlExecutionContext);
+                compiler.compile("insert into base select x + 20, timestamp_sequence(12000000000, 600000000) from long_sequence(15)", sqlExecutionContext);
+                Thread.sleep(configuration.getMaterializedViewRefreshInterval() + 1);
+                Assert.assertFalse(job.run(0));
+            }
+        });
+    }
+
+    @Test
+    public void testFillNotSupported() throws Exception {
+        assertFailure(
+                "create materialized view v as (select ts, sum(v) s from base sample by 1h fill(prev))",
+                BASE_DDL,
+                79,
+                "FILL is not supported by materialized view"
+        );
+    }
+
+    @Test
+    public void testJoinNotSupported() throws Exception {
+        assertFailure(
+                "create materialized view v as (select b1.ts, sum(b1.v) s from base b1 join base b2 on v sample by 1h)",
+                BASE_DDL,
+                31,
+                "materialized view must select from a single table"
+        );
+    }
+
+    @Test
+    public void testRebuildAfterBaseTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, sum(v) s, count() c from base sample by 1h)", sqlExecutionContext);
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+
+            compiler.compile("truncate table base", sqlExecutionContext);
+            compiler.compile("insert into base select x * 10, timestamp_sequence(0, 1800000000) from long_sequence(5)", sqlExecutionContext);
+            refresh();
+
+            assertSql("v", "ts\ts\tc\n" +
+                    "1970-01-01T00:00:00.000000Z\t30\t2\n" +
+                    "1970-01-01T01:00:00.000000Z\t70\t2\n");
+        });
+    }
+
+    @Test
+    public void testRebuildAfterUnobservedLateRows() throws Exception {
+        assertOutOfOrder((engine, compiler, executionContext) -> {
+            createSymbolView(compiler, executionContext);
+
+            // writer outside of the pool does not report late rows to views
+            engine.releaseAllWriters();
+            try (TableWriter writer = new TableWriter(engine.getConfiguration(), "base")) {
+                TableWriter.Row row = writer.newRow(TimestampFormatUtils.parseTimestamp("1970-01-01T01:20:00.000000Z"));
+                row.putSym(0, "b");
+                row.putLong(1, 10);
+                row.append();
+                writer.commit();
+            }
+            insert(compiler, executionContext, "insert into base values ('a', 6, cast('1970-01-01T04:20:00.000000Z' as timestamp))");
+            refresh(engine);
+
+            assertSql(compiler, executionContext, "v", SYMBOL_VIEW_AFTER_LATE_ROWS);
+        });
+    }
+
+    @Test
+    public void testRecomputeBucketsWithLateRows() throws Exception {
+        assertOutOfOrder((engine, compiler, executionContext) -> {
+            createSymbolView(compiler, executionContext);
+
+            insert(compiler, executionContext, "insert into base values ('b', 10, cast('1970-01-01T01:20:00.000000Z' as timestamp))");
+            insert(compiler, executionContext, "insert into base values ('a', 6, cast('1970-01-01T04:20:00.000000Z' as timestamp))");
+            refresh(engine);
+
+            assertSql(compiler, executionContext, "v", SYMBOL_VIEW_AFTER_LATE_ROWS);
+        });
+    }
+
+    @Test
+    public void testRefreshAlignsBucketsToView() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table base (sym symbol, v long, ts timestamp) timestamp(ts)", sqlExecutionContext);
+            executeInsert("insert into base values ('a', 1, cast('1970-01-01T00:00:00.000000Z' as timestamp))");
+            executeInsert("insert into base values ('b', 2, cast('1970-01-01T00:30:00.000000Z' as timestamp))");
+            executeInsert("insert into base values ('a', 3, cast('1970-01-01T01:10:00.000000Z' as timestamp))");
+            compiler.compile("create materialized view v as (select ts, sym, sum(v) s from base sample by 1h)", sqlExecutionContext);
+
+            // first new row is not on bucket boundary
+            executeInsert("insert into base values ('b', 4, cast('1970-01-01T02:45:00.000000Z' as timestamp))");
+            executeInsert("insert into base values ('a', 5, cast('1970-01-01T03:15:00.000000Z' as timestamp))");
+            executeInsert("insert into base values ('a', 6, cast('1970-01-01T04:20:00.000000Z' as timestamp))");
+            refresh();
+
+            assertSql("v", "ts\tsym\ts\n" +
+                    "1970-01-01T00:00:00.000000Z\ta\t1\n" +
+                    "1970-01-01T00:00:00.000000Z\tb\t2\n" +
+                    "1970-01-01T01:00:00.000000Z\ta\t3\n" +
+                    "1970-01-01T02:00:00.000000Z\tb\t4\n" +
+                    "1970-01-01T03:00:00.000000Z\ta\t5\n");
+        });
+    }
+
+    @Test
+    public void testRefreshAppendsNewBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, sum(v) s, count() c from base sample by 1h)", sqlExecutionContext);
+
+            compiler.compile("insert into base select x + 20, timestamp_sequence(12000000000, 600000000) from long_sequence(15)", sqlExecutionContext);
+            refresh();
+
+            final String expected = "ts\ts\tc\n" +
+                    "1970-01-01T00:00:00.000000Z\t21\t6\n" +
+                    "1970-01-01T01:00:00.000000Z\t57\t6\n" +
+                    "1970-01-01T02:00:00.000000Z\t93\t6\n" +
+                    "1970-01-01T03:00:00.000000Z\t129\t6\n" +
+                    "1970-01-01T04:00:00.000000Z\t165\t6\n";
+            assertSql("v", expected);
+            // view matches its query over complete buckets
+            assertSql("select ts, sum(v) s, count() c from base where ts < '1970-01-01T05:00:00.000000Z' sample by 1h", expected);
+
+            // nothing new is complete
+            executeInsert("insert into base values (36, cast('1970-01-01T05:50:00.000000Z' as timestamp))");
+            refresh();
+            assertSql("v", expected);
+        });
+    }
+
+    @Test
+    public void testRefreshKeepsViewFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, sum(v) s from base where v % 2 = 0 sample by 1h) partition by DAY", sqlExecutionContext);
+            compiler.compile("insert into base select x + 20, timestamp_sequence(12000000000, 600000000) from long_sequence(15)", sqlExecutionContext);
+            refresh();
+
+            // buckets are aligned to the first row that passes the filter
+            assertSql("v", "ts\ts\n" +
+                    "1970-01-01T00:10:00.000000Z\t12\n" +
+                    "1970-01-01T01:10:00.000000Z\t30\n" +
+                    "1970-01-01T02:10:00.000000Z\t48\n" +
+                    "1970-01-01T03:10:00.000000Z\t66\n" +
+                    "1970-01-01T04:10:00.000000Z\t84\n");
+        });
+    }
+
+    @Test
+    public void testSampleByExpected() throws Exception {
+        assertFailure(
+                "create materialized view v as (select ts, v from base)",
+                BASE_DDL,
+                31,
+                "SAMPLE BY query expected"
+        );
+    }
+
+    private static void assertOutOfOrder(OutOfOrderCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                code.run(engine, compiler, executionContext);
+            }
+        });
+    }
+
+    private static void assertSql(SqlCompiler compiler, SqlExecutionContext executionContext, String sql, String expected) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(sql, executionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(executionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(expected, sink);
+            }
+        }
+    }
+
+    private static void createSymbolView(SqlCompiler compiler, SqlExecutionContext executionContext) throws SqlException {
+        compiler.compile("create table base (sym symbol, v long, ts timestamp) timestamp(ts) partition by DAY", executionContext);
+        insert(compiler, executionContext, "insert into base values ('a', 1, cast('1970-01-01T00:00:00.000000Z' as timestamp))");
+        insert(compiler, executionContext, "insert into base values ('b', 2, cast('1970-01-01T00:30:00.000000Z' as timestamp))");
+        insert(compiler, executionContext, "insert into base values ('a', 3, cast('1970-01-01T01:10:00.000000Z' as timestamp))");
+        insert(compiler, executionContext, "insert into base values ('b', 4, cast('1970-01-01T02:45:00.000000Z' as timestamp))");
+        insert(compiler, executionContext, "insert into base values ('a', 5, cast('1970-01-01T03:15:00.000000Z' as timestamp))");
+        compiler.compile("create materialized view v as (select ts, sym, sum(v) s from base sample by 1h) partition by DAY", executionContext);
+        assertSql(compiler, executionContext, "v", "ts\tsym\ts\n" +
+                "1970-01-01T00:00:00.000000Z\ta\t1\n" +
+                "1970-01-01T00:00:00.000000Z\tb\t2\n" +
+                "1970-01-01T01:00:00.000000Z\ta\t3\n" +
+                "1970-01-01T02:00:00.000000Z\tb\t4\n");
+    }
+
+    private static void insert(SqlCompiler compiler, SqlExecutionContext executionContext, String sql) throws SqlException {
+        try (InsertMethod method = compiler.compile(sql, executionContext).getInsertStatement().createMethod(executionContext)) {
+            method.execute();
+            method.commit();
+        }
+    }
+
+    private static void refresh(CairoEngine engine) {
+        engine.releaseAllWriters();
+        try (MaterializedViewRefreshJob job = new MaterializedViewRefreshJob(engine, null)) {
+            Assert.assertTrue(job.run(0));
+        }
+    }
+
+    private void assertSql(String sql, String expected) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(expected, sink);
+            }
+        }
+    }
+
+    private void refresh() {
+        engine.releaseAllWriters();
+        try (MaterializedViewRefreshJob job = new MaterializedViewRefreshJob(engine, null)) {
+            Assert.assertTrue(job.run(0));
+        }
+    }
+
+    @FunctionalInterface
+    private interface OutOfOrderCode {
+        void run(CairoEngine engine, SqlCompiler compiler, SqlExecutionContext executionContext) throws Exception;
+    }
+}
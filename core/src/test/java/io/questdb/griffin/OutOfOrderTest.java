@@ -26,24 +26,30 @@ package io.questdb.griffin;
 
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.OutOfOrderColumnJob;
+import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.std.Chars;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.File;
 import java.net.URL;
 
 public class OutOfOrderTest extends AbstractGriffinTest {
+    private final static Log LOG = LogFactory.getLog(OutOfOrderTest.class);
 
     @Before
     public void setUp3() {
@@ -69,6 +75,31 @@ public class OutOfOrderTest extends AbstractGriffinTest {
         SharedRandom.RANDOM.set(new Rnd());
     }
 
+    @Test
+    public void testPartitionPruningAfterMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select x a, timestamp_sequence(0, 3600000000) ts from long_sequence(72)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+
+            // merge into first partition, which is not the last one
+            compiler.compile("insert into x select 1000, cast(3600000000L * 3 + 1 as timestamp) from long_sequence(1)", sqlExecutionContext);
+            assertPruned("select a from x where a > 500", "a\n1000\n");
+
+            // merge into last partition
+            compiler.compile("insert into x select 2000, cast(3600000000L * 70 + 1 as timestamp) from long_sequence(1)", sqlExecutionContext);
+            assertPruned("select a from x where a > 1500", "a\n2000\n");
+
+            // append to last partition and start new one in the same transaction
+            compiler.compile("insert into x select 3000 + x, cast(3600000000L * (70 + x) + 2 as timestamp) from long_sequence(3)", sqlExecutionContext);
+            assertPruned("select a from x where a > 3001", "a\n3002\n3003\n");
+            assertPruned("select count() from x where a < 25", "count\n24\n");
+        });
+    }
+
     @Test
     public void testPartitionedDataAppendOOData() throws Exception {
         assertMemoryLeak(() -> {
@@ -157,8 +188,6 @@ public class OutOfOrderTest extends AbstractGriffinTest {
     }
 
     @Test
-    @Ignore
-    // todo: fix ooo indexer
     public void testPartitionedDataAppendOODataIndexed() throws Exception {
         assertMemoryLeak(() -> {
                     // create table with roughly 2AM data
@@ -517,6 +546,195 @@ public class OutOfOrderTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testPartitionedDataMergeDataParallel() throws Exception {
+        assertMemoryLeak(() -> {
+                    final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                        @Override
+                        public int[] getWorkerAffinity() {
+                            return new int[]{-1, -1};
+                        }
+
+                        @Override
+                        public int getWorkerCount() {
+                            return 2;
+                        }
+
+                        @Override
+                        public boolean haltOnError() {
+                            return false;
+                        }
+                    });
+                    workerPool.assign(new OutOfOrderColumnJob(engine.getMessageBus()));
+                    workerPool.start(LOG);
+                    try {
+                        // four days of data, out-of-order rows land in every partition
+                        compiler.compile(
+                                "create table x as (" +
+                                        "select" +
+                                        " cast(x as int) i," +
+                                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                                        " rnd_double(2) d," +
+                                        " rnd_str(5,16,2) n," +
+                                        " rnd_bin(10, 20, 2) m," +
+                                        " timestamp_sequence(500000000000L,600000000L) ts" +
+                                        " from long_sequence(500)" +
+                                        "), index(sym) timestamp (ts) partition by DAY",
+                                sqlExecutionContext
+                        );
+
+                        compiler.compile(
+                                "create table middle as (" +
+                                        "select" +
+                                        " cast(x as int) i," +
+                                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                                        " rnd_double(2) d," +
+                                        " rnd_str(5,16,2) n," +
+                                        " rnd_bin(10, 20, 2) m," +
+                                        " timestamp_sequence(500000000001L,3000000000L) ts" +
+                                        " from long_sequence(100)" +
+                                        ") timestamp (ts) partition by DAY",
+                                sqlExecutionContext
+                        );
+
+                        compiler.compile("create table y as (x union all middle)", sqlExecutionContext);
+
+                        compiler.compile("insert into x select * from middle", sqlExecutionContext);
+
+                        assertIndexedSymbol("x", "y order by ts");
+                        assertIndexedSymbol("x where sym = 'ibm'", "y where sym = 'ibm' order by ts");
+                    } finally {
+                        workerPool.halt();
+                    }
+                }
+        );
+    }
+
+    @Test
+    public void testPartitionedDataMergeKeepsVersionForReader() throws Exception {
+        assertMemoryLeak(() -> {
+                    compiler.compile(
+                            "create table x as (" +
+                                    "select" +
+                                    " cast(x as int) i," +
+                                    " rnd_str(5,16,2) n," +
+                                    " timestamp_sequence(500000000000L,1000000L) ts" +
+                                    " from long_sequence(500)" +
+                                    ") timestamp (ts) partition by DAY",
+                            sqlExecutionContext
+                    );
+
+                    compiler.compile(
+                            "create table middle as (" +
+                                    "select" +
+                                    " cast(x as int) i," +
+                                    " rnd_str(5,16,2) n," +
+                                    " timestamp_sequence(500288000001L,100000L) ts" +
+                                    " from long_sequence(100)" +
+                                    ") timestamp (ts) partition by DAY",
+                            sqlExecutionContext
+                    );
+
+                    sink.clear();
+                    try (RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory()) {
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            printer.print(cursor, factory.getMetadata(), true);
+                        }
+                    }
+                    final String before = Chars.toString(sink);
+
+                    // reader is at transaction before the merge, but has not opened any partitions yet
+                    try (TableReader reader = new TableReader(configuration, "x")) {
+                        compiler.compile("insert into x select * from middle", sqlExecutionContext);
+                        // next commit would purge superseded version if it was not for the reader
+                        compiler.compile("insert into x select i, n, ts + 1000000000 from middle", sqlExecutionContext);
+                        Assert.assertEquals(2, countPartitionVersions("x"));
+
+                        sink.clear();
+                        printer.print(reader.getCursor(), reader.getMetadata(), true);
+                        TestUtils.assertEquals(before, sink);
+                    }
+
+                    // pooled reader, which printed the table, is at old transaction too
+                    engine.releaseAllReaders();
+                    compiler.compile("insert into x select i, n, ts + 2000000000 from middle", sqlExecutionContext);
+                    Assert.assertEquals(1, countPartitionVersions("x"));
+                }
+        );
+    }
+
+    @Test
+    public void testPartitionedDataMergeDataReaderConsistency() throws Exception {
+        assertMemoryLeak(() -> {
+                    compiler.compile(
+                            "create table x as (" +
+                                    "select" +
+                                    " cast(x as int) i," +
+                                    " rnd_symbol('msft','ibm', 'googl') sym," +
+                                    " rnd_str(5,16,2) n," +
+                                    " timestamp_sequence(500000000000L,1000000L) ts" +
+                                    " from long_sequence(500)" +
+                                    "), index(sym) timestamp (ts) partition by DAY",
+                            sqlExecutionContext
+                    );
+
+                    compiler.compile(
+                            "create table middle as (" +
+                                    "select" +
+                                    " cast(x as int) i," +
+                                    " rnd_symbol('msft','ibm', 'googl') sym," +
+                                    " rnd_str(5,16,2) n," +
+                                    " timestamp_sequence(500288000001L,100000L) ts" +
+                                    " from long_sequence(100)" +
+                                    ") timestamp (ts) partition by DAY",
+                            sqlExecutionContext
+                    );
+
+                    compiler.compile("create table y as (x union all middle)", sqlExecutionContext);
+
+                    sink.clear();
+                    try (RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory()) {
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            printer.print(cursor, factory.getMetadata(), true);
+                        }
+                    }
+                    final String before = Chars.toString(sink);
+
+                    sink.clear();
+                    try (RecordCursorFactory factory = compiler.compile("y order by ts", sqlExecutionContext).getRecordCursorFactory()) {
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            printer.print(cursor, factory.getMetadata(), true);
+                        }
+                    }
+                    final String after = Chars.toString(sink);
+
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                        // make sure reader has partition open before data is merged
+                        sink.clear();
+                        printer.print(reader.getCursor(), reader.getMetadata(), true);
+                        TestUtils.assertEquals(before, sink);
+
+                        compiler.compile("insert into x select * from middle", sqlExecutionContext);
+
+                        // merged partition is a new version, reader is still looking at the old one
+                        sink.clear();
+                        printer.print(reader.getCursor(), reader.getMetadata(), true);
+                        TestUtils.assertEquals(before, sink);
+
+                        Assert.assertTrue(reader.reload());
+                        Assert.assertEquals(600, reader.size());
+                        sink.clear();
+                        printer.print(reader.getCursor(), reader.getMetadata(), true);
+                        TestUtils.assertEquals(after, sink);
+                    }
+
+                    // index must be consistent with merged data
+                    assertIndexedSymbol("x where sym = 'googl'", "y where sym = 'googl' order by ts");
+                    assertIndexedSymbol("x where sym = 'msft'", "y where sym = 'msft' order by ts");
+                }
+        );
+    }
+
     @Test
     public void testPartitionedDataMergeEnd() throws Exception {
         assertMemoryLeak(() -> {
@@ -1938,4 +2156,38 @@ public class OutOfOrderTest extends AbstractGriffinTest {
                 }
         );
     }
+
+    private static int countPartitionVersions(String tableName) {
+        final File[] partitions = new File(root.toString(), tableName).listFiles(File::isDirectory);
+        Assert.assertNotNull(partitions);
+        return partitions.length;
+    }
+
+    private void assertIndexedSymbol(String actualQuery, String expectedQuery) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(expectedQuery, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = Chars.toString(sink);
+
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(actualQuery, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void assertPruned(String query, String expected) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
 }
@@ -87,6 +87,17 @@ public class SecurityTest extends AbstractGriffinTest {
             public int getSqlSortLightValueMaxPages() {
                 return 11;
             }
+
+            @Override
+            public boolean isSqlSortSpillEnabled() {
+                // tests below expect sort to fail when memory limits are breached
+                return false;
+            }
+
+            @Override
+            public boolean isSqlHashJoinSpillEnabled() {
+                return false;
+            }
         };
         memoryRestrictedEngine = new CairoEngine(readOnlyConfiguration);
         SqlExecutionInterruptor dummyInterruptor = () -> {
@@ -275,22 +286,23 @@ public class SecurityTest extends AbstractGriffinTest {
     public void testMemoryRestrictionsWithRandomAccessOrderBy() throws Exception {
         assertMemoryLeak(() -> {
             sqlExecutionContext.getRandom().reset();
+            // string key keeps sort on the tree, radix sort does not have key pages
             compiler.compile("create table tb1 as (select" +
-                    " rnd_symbol(4,4,4,20000) sym," +
+                    " cast(rnd_symbol(4,4,4,20000) as string) sym," +
                     " rnd_double(2) d," +
                     " timestamp_sequence(0, 1000000000) ts" +
                     " from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
             assertQuery(
                     memoryRestrictedCompiler,
                     "sym\td\nVTJW\t0.1985581797355932\nVTJW\t0.21583224269349388\n",
-                    "select sym, d from tb1 where d < 0.3 ORDER BY d",
+                    "select sym, d from tb1 where d < 0.3 ORDER BY d, sym",
                     null,
                     true, readOnlyExecutionContext);
             try {
                 assertQuery(
                         memoryRestrictedCompiler,
                         "sym\td\nVTJW\t0.1985581797355932\nVTJW\t0.21583224269349388\nPEHN\t0.3288176907679504\n",
-                        "select sym, d from tb1 where d < 0.5 ORDER BY d",
+                        "select sym, d from tb1 where d < 0.5 ORDER BY d, sym",
                         null,
                         true, readOnlyExecutionContext);
                 Assert.fail();
@@ -364,6 +376,31 @@ public class SecurityTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testMemoryRestrictionsWithVectorGroupByCompositeKey() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.getRandom().reset();
+            // several partitions, limit is breached after tasks of earlier frames are published
+            compiler.compile("create table tb1 as (select" +
+                    " rnd_symbol(4,4,4,0) sym1," +
+                    " rnd_long() l," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 100000000) ts" +
+                    " from long_sequence(10000)) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try {
+                assertQuery(
+                        memoryRestrictedCompiler,
+                        "TOO MUCH",
+                        "select sym1, l, sum(d) from tb1",
+                        null,
+                        true, readOnlyExecutionContext);
+                Assert.fail();
+            } catch (Exception ex) {
+                Assert.assertTrue(ex.toString().contains("limit of 2 resizes exceeded"));
+            }
+        });
+    }
+
     @Test
     public void testMemoryRestrictionsWithSampleByFillLinear() throws Exception {
         assertMemoryLeak(() -> {
@@ -630,8 +667,9 @@ public class SecurityTest extends AbstractGriffinTest {
                 .with(new CairoSecurityContextImpl(false), bindVariableService, null, -1, null);
         assertMemoryLeak(() -> {
             sqlExecutionContext.getRandom().reset();
+            // string key keeps sort on the tree, radix sort does not have key pages
             compiler.compile("create table tb1 as (select" +
-                    " rnd_symbol(4,4,4,20000) sym1," +
+                    " cast(rnd_symbol(4,4,4,20000) as string) sym1," +
                     " rnd_symbol(2,2,2,20000) sym2," +
                     " rnd_double(2) d," +
                     " timestamp_sequence(0, 1000000000) ts" +
@@ -666,16 +704,17 @@ public class SecurityTest extends AbstractGriffinTest {
     public void testMemoryRestrictionsWithInnerJoin() throws Exception {
         assertMemoryLeak(() -> {
             sqlExecutionContext.getRandom().reset();
+            // timestamps are not designated, merge join would fit equi-join on them in memory
             compiler.compile("create table tb1 as (select" +
                     " rnd_symbol(4,4,4,20000) sym1," +
                     " rnd_double(2) d1," +
                     " timestamp_sequence(0, 1000000000) ts1" +
-                    " from long_sequence(10)) timestamp(ts1)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             compiler.compile("create table tb2 as (select" +
                     " rnd_symbol(3,3,3,20000) sym2," +
                     " rnd_double(2) d2," +
                     " timestamp_sequence(0, 1000000000) ts2" +
-                    " from long_sequence(10)) timestamp(ts2)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             assertQuery(
                     "sym1\tsym2\nVTJW\tFJG\nVTJW\tULO\n",
                     "select sym1, sym2 from tb1 inner join tb2 on tb2.ts2=tb1.ts1 where d1 < 0.3",
@@ -699,16 +738,17 @@ public class SecurityTest extends AbstractGriffinTest {
     public void testMemoryRestrictionsWithOuterJoin() throws Exception {
         assertMemoryLeak(() -> {
             sqlExecutionContext.getRandom().reset();
+            // timestamps are not designated, merge join would fit equi-join on them in memory
             compiler.compile("create table tb1 as (select" +
                     " rnd_symbol(4,4,4,20000) sym1," +
                     " rnd_double(2) d1," +
                     " timestamp_sequence(0, 1000000000) ts1" +
-                    " from long_sequence(10)) timestamp(ts1)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             compiler.compile("create table tb2 as (select" +
                     " rnd_symbol(3,3,3,20000) sym2," +
                     " rnd_double(2) d2," +
                     " timestamp_sequence(0, 1000000000) ts2" +
-                    " from long_sequence(10)) timestamp(ts2)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             assertQuery(
                     "sym1\tsym2\nVTJW\tFJG\nVTJW\tULO\n",
                     "select sym1, sym2 from tb1 outer join tb2 on tb2.ts2=tb1.ts1 where d1 < 0.3",
@@ -732,16 +772,17 @@ public class SecurityTest extends AbstractGriffinTest {
     public void testMemoryRestrictionsWithFullFatInnerJoin() throws Exception {
         assertMemoryLeak(() -> {
             sqlExecutionContext.getRandom().reset();
+            // timestamps are not designated, merge join would fit equi-join on them in memory
             compiler.compile("create table tb1 as (select" +
                     " rnd_symbol(4,4,4,20000) sym1," +
                     " rnd_double(2) d1," +
                     " timestamp_sequence(0, 1000000000) ts1" +
-                    " from long_sequence(10)) timestamp(ts1)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             compiler.compile("create table tb2 as (select" +
                     " rnd_symbol(3,3,3,20000) sym2," +
                     " rnd_double(2) d2," +
                     " timestamp_sequence(0, 1000000000) ts2" +
-                    " from long_sequence(10)) timestamp(ts2)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             try {
                 compiler.setFullSatJoins(true);
                 assertQuery(
@@ -770,16 +811,17 @@ public class SecurityTest extends AbstractGriffinTest {
     public void testMemoryRstrictionsWithFullFatOuterJoin() throws Exception {
         assertMemoryLeak(() -> {
             sqlExecutionContext.getRandom().reset();
+            // timestamps are not designated, merge join would fit equi-join on them in memory
             compiler.compile("create table tb1 as (select" +
                     " rnd_symbol(4,4,4,20000) sym1," +
                     " rnd_double(2) d1," +
                     " timestamp_sequence(0, 1000000000) ts1" +
-                    " from long_sequence(10)) timestamp(ts1)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             compiler.compile("create table tb2 as (select" +
                     " rnd_symbol(3,3,3,20000) sym2," +
                     " rnd_double(2) d2," +
                     " timestamp_sequence(0, 1000000000) ts2" +
-                    " from long_sequence(10)) timestamp(ts2)", sqlExecutionContext);
+                    " from long_sequence(10))", sqlExecutionContext);
             try {
                 compiler.setFullSatJoins(true);
                 assertQuery(
@@ -3392,21 +3392,21 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
     @Test
     public void testOrderByFullSymbol() throws Exception {
         assertQuery("b\tsum\tk\n" +
-                        "\t144.98448717090477\t1970-01-03T00:00:00.000000Z\n" +
-                        "\t87.99634725391621\t1970-01-03T03:00:00.000000Z\n" +
-                        "\t146.37943613686184\t1970-01-03T06:00:00.000000Z\n" +
-                        "\t52.98405941762054\t1970-01-03T12:00:00.000000Z\n" +
                         "\t177.51319993464244\t1970-01-03T15:00:00.000000Z\n" +
+                        "\t52.98405941762054\t1970-01-03T12:00:00.000000Z\n" +
+                        "\t146.37943613686184\t1970-01-03T06:00:00.000000Z\n" +
+                        "\t87.99634725391621\t1970-01-03T03:00:00.000000Z\n" +
+                        "\t144.98448717090477\t1970-01-03T00:00:00.000000Z\n" +
                         "CPSW\t78.83065830055033\t1970-01-03T12:00:00.000000Z\n" +
-                        "HYRX\t186.00010813544145\t1970-01-03T09:00:00.000000Z\n" +
-                        "HYRX\t84.45258177211063\t1970-01-03T12:00:00.000000Z\n" +
                         "HYRX\t157.95345554678028\t1970-01-03T18:00:00.000000Z\n" +
-                        "PEHN\t11.427984775756228\t1970-01-03T00:00:00.000000Z\n" +
-                        "PEHN\t94.84889498017726\t1970-01-03T03:00:00.000000Z\n" +
+                        "HYRX\t84.45258177211063\t1970-01-03T12:00:00.000000Z\n" +
+                        "HYRX\t186.00010813544145\t1970-01-03T09:00:00.000000Z\n" +
                         "PEHN\t49.00510449885239\t1970-01-03T15:00:00.000000Z\n" +
+                        "PEHN\t94.84889498017726\t1970-01-03T03:00:00.000000Z\n" +
+                        "PEHN\t11.427984775756228\t1970-01-03T00:00:00.000000Z\n" +
                         "VTJW\t40.22810626779558\t1970-01-03T09:00:00.000000Z\n",
-                // we have 'sample by fill(none)' because it doesn't support
-                // random record access, which is what we intend on testing
+                // 'sample by fill(none)' is vectorized and supports random access, rows
+                // with equal keys are returned latest first as with every light sort
                 "select b, sum(a), k from x sample by 3h fill(none) order by b",
                 "create table x as " +
                         "(" +
@@ -3427,25 +3427,25 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
                         " long_sequence(5)" +
                         ") timestamp(k)",
                 "b\tsum\tk\n" +
-                        "\t144.98448717090477\t1970-01-03T00:00:00.000000Z\n" +
-                        "\t87.99634725391621\t1970-01-03T03:00:00.000000Z\n" +
-                        "\t146.37943613686184\t1970-01-03T06:00:00.000000Z\n" +
-                        "\t52.98405941762054\t1970-01-03T12:00:00.000000Z\n" +
-                        "\t177.51319993464244\t1970-01-03T15:00:00.000000Z\n" +
-                        "\t57.78947915182423\t1970-01-04T03:00:00.000000Z\n" +
                         "\t49.42890511958454\t1970-01-04T06:00:00.000000Z\n" +
+                        "\t57.78947915182423\t1970-01-04T03:00:00.000000Z\n" +
+                        "\t177.51319993464244\t1970-01-03T15:00:00.000000Z\n" +
+                        "\t52.98405941762054\t1970-01-03T12:00:00.000000Z\n" +
+                        "\t146.37943613686184\t1970-01-03T06:00:00.000000Z\n" +
+                        "\t87.99634725391621\t1970-01-03T03:00:00.000000Z\n" +
+                        "\t144.98448717090477\t1970-01-03T00:00:00.000000Z\n" +
                         "CPSW\t78.83065830055033\t1970-01-03T12:00:00.000000Z\n" +
-                        "HYRX\t186.00010813544145\t1970-01-03T09:00:00.000000Z\n" +
-                        "HYRX\t84.45258177211063\t1970-01-03T12:00:00.000000Z\n" +
                         "HYRX\t157.95345554678028\t1970-01-03T18:00:00.000000Z\n" +
+                        "HYRX\t84.45258177211063\t1970-01-03T12:00:00.000000Z\n" +
+                        "HYRX\t186.00010813544145\t1970-01-03T09:00:00.000000Z\n" +
                         "OUIC\t86.85154305419587\t1970-01-04T06:00:00.000000Z\n" +
-                        "PEHN\t11.427984775756228\t1970-01-03T00:00:00.000000Z\n" +
-                        "PEHN\t94.84889498017726\t1970-01-03T03:00:00.000000Z\n" +
                         "PEHN\t49.00510449885239\t1970-01-03T15:00:00.000000Z\n" +
-                        "SDOT\t12.02416087573498\t1970-01-04T06:00:00.000000Z\n" +
+                        "PEHN\t94.84889498017726\t1970-01-03T03:00:00.000000Z\n" +
+                        "PEHN\t11.427984775756228\t1970-01-03T00:00:00.000000Z\n" +
                         "SDOT\t65.51335839796312\t1970-01-04T09:00:00.000000Z\n" +
+                        "SDOT\t12.02416087573498\t1970-01-04T06:00:00.000000Z\n" +
                         "VTJW\t40.22810626779558\t1970-01-03T09:00:00.000000Z\n",
-                true);
+                true, true, true);
     }
 
     @Test
@@ -127,6 +127,36 @@ public class SqlParserTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrameMissingPreceding() throws Exception {
+        assertSyntaxError("select a, f(c) over (order by ts rows 3) from xyz", 39, "'preceding' expected");
+    }
+
+    @Test
+    public void testAnalyticFrameRange() throws Exception {
+        assertQuery(
+                "select-analytic a, f(c) f over (partition by b order by ts range between '1h' preceding and current row) from (select [a, c, b, ts] from xyz timestamp (ts))",
+                "select a, f(c) over (partition by b order by ts range '1h' preceding) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRows() throws Exception {
+        assertQuery(
+                "select-analytic a, f(c) f over (order by ts rows between 10 preceding and current row), g(c) g over (rows between unbounded preceding and current row) from (select [a, c, ts] from xyz timestamp (ts))",
+                "select a, f(c) over (order by ts rows between 10 preceding and current row), g(c) over (rows unbounded preceding) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
     @Test
     public void testAnalyticPartitionByMultiple() throws Exception {
         assertQuery(
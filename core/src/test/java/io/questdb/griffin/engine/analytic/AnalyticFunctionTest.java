@@ -0,0 +1,207 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnalyticFunctionTest extends AbstractGriffinTest {
+
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " x % 2 k," +
+            " cast(x as double) v," +
+            " timestamp_sequence(0, 60000000) ts" +
+            " from long_sequence(8)" +
+            ") timestamp(ts)";
+
+    @Test
+    public void testFactorySelection() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            assertFactory(StreamingAnalyticRecordCursorFactory.class, "select ts, sum(v) over (partition by k order by ts rows 2 preceding) from x");
+            assertFactory(StreamingAnalyticRecordCursorFactory.class, "select ts, lag(v) over (), row_number() over (partition by k) from x");
+            // lead() needs rows that follow current row
+            assertFactory(CachedAnalyticRecordCursorFactory.class, "select ts, lead(v) over (order by ts) from x");
+            // whole partition has to be seen before aggregate value is known
+            assertFactory(CachedAnalyticRecordCursorFactory.class, "select ts, sum(v) over (partition by k) from x");
+            // order is different to the one of the table
+            assertFactory(CachedAnalyticRecordCursorFactory.class, "select ts, sum(v) over (order by ts desc) from x");
+        });
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        assertQuery("ts\tk\tv\tl1\tl2\tld\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1.0\tNaN\tNaN\t3.0\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t2.0\tNaN\tNaN\t4.0\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t3.0\t1.0\t1.0\t5.0\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t4.0\t2.0\t2.0\t6.0\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t5.0\t3.0\t3.0\t7.0\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t6.0\t4.0\t4.0\t8.0\n" +
+                        "1970-01-01T00:06:00.000000Z\t1\t7.0\t5.0\t5.0\tNaN\n" +
+                        "1970-01-01T00:07:00.000000Z\t0\t8.0\t6.0\t6.0\tNaN\n",
+                "select ts, k, v," +
+                        " lag(v) over (partition by k order by ts) l1," +
+                        " lag(v, 2) over (order by ts) l2," +
+                        " lead(v) over (partition by k order by ts) ld" +
+                        " from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testNegativeOffset() throws Exception {
+        assertFailure("select lag(v, -1) over () from x", DDL, 14, "offset must be non-negative");
+    }
+
+    @Test
+    public void testNonAnalyticFunction() throws Exception {
+        assertFailure("select abs(v) over () from x", DDL, 7, "unknown function name");
+    }
+
+    @Test
+    public void testPartition() throws Exception {
+        assertQuery("ts\tk\tv\ts\tmx\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1.0\t16.0\t7.0\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t2.0\t20.0\t8.0\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t3.0\t16.0\t7.0\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t4.0\t20.0\t8.0\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t5.0\t16.0\t7.0\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t6.0\t20.0\t8.0\n" +
+                        "1970-01-01T00:06:00.000000Z\t1\t7.0\t16.0\t7.0\n" +
+                        "1970-01-01T00:07:00.000000Z\t0\t8.0\t20.0\t8.0\n",
+                "select ts, k, v," +
+                        " sum(v) over (partition by k) s," +
+                        " max(v) over (partition by k order by v desc) mx" +
+                        " from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRangeFrame() throws Exception {
+        assertQuery("ts\tk\tv\ta\tmx\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1.0\t1.0\t1.0\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t2.0\t1.5\t2.0\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t3.0\t2.0\t3.0\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t4.0\t3.0\t4.0\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t5.0\t4.0\t5.0\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t6.0\t5.0\t6.0\n" +
+                        "1970-01-01T00:06:00.000000Z\t1\t7.0\t6.0\t7.0\n" +
+                        "1970-01-01T00:07:00.000000Z\t0\t8.0\t7.0\t8.0\n",
+                "select ts, k, v," +
+                        " avg(v) over (order by ts range between '2m' preceding and current row) a," +
+                        " max(v) over (partition by k range 120000000 preceding) mx" +
+                        " from x",
+                DDL,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testRangeFrameInvalidInterval() throws Exception {
+        assertFailure("select avg(v) over (order by ts range '2w' preceding) from x", DDL, 40, "unsupported interval qualifier");
+    }
+
+    @Test
+    public void testRangeFrameNotOrderedByTimestamp() throws Exception {
+        assertFailure("select avg(v) over (order by v range '2m' preceding) from x", DDL, 7, "RANGE frame requires ordering by designated timestamp");
+    }
+
+    @Test
+    public void testRowsFrame() throws Exception {
+        assertQuery("ts\tk\tv\ts\tmx\tmn\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1.0\t1.0\t1.0\t1.0\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t2.0\t2.0\t2.0\t1.0\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t3.0\t4.0\t3.0\t1.0\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t4.0\t6.0\t4.0\t1.0\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t5.0\t8.0\t5.0\t1.0\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t6.0\t10.0\t6.0\t1.0\n" +
+                        "1970-01-01T00:06:00.000000Z\t1\t7.0\t12.0\t7.0\t1.0\n" +
+                        "1970-01-01T00:07:00.000000Z\t0\t8.0\t14.0\t8.0\t1.0\n",
+                "select ts, k, v," +
+                        " sum(v) over (partition by k order by ts rows between 1 preceding and current row) s," +
+                        " max(v) over (order by ts rows 2 preceding) mx," +
+                        " min(v) over (rows between unbounded preceding and current row) mn" +
+                        " from x",
+                DDL,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testRowsFrameInvalid() throws Exception {
+        assertFailure("select sum(v) over (order by ts rows 'abc' preceding) from x", DDL, 37, "non-negative number of rows expected");
+    }
+
+    @Test
+    public void testRunning() throws Exception {
+        assertQuery("ts\tk\tv\ts\ta\tmn\tmx\trn\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1.0\t1.0\t1.0\t1.0\t1.0\t0\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t2.0\t2.0\t2.0\t1.0\t2.0\t0\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t3.0\t4.0\t2.0\t1.0\t3.0\t1\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t4.0\t6.0\t3.0\t1.0\t4.0\t1\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t5.0\t9.0\t3.0\t1.0\t5.0\t2\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t6.0\t12.0\t4.0\t1.0\t6.0\t2\n" +
+                        "1970-01-01T00:06:00.000000Z\t1\t7.0\t16.0\t4.0\t1.0\t7.0\t3\n" +
+                        "1970-01-01T00:07:00.000000Z\t0\t8.0\t20.0\t5.0\t1.0\t8.0\t3\n",
+                "select ts, k, v," +
+                        " sum(v) over (partition by k order by ts) s," +
+                        " avg(v) over (partition by k order by ts) a," +
+                        " min(v) over (order by ts) mn," +
+                        " max(v) over (partition by k order by ts) mx," +
+                        " row_number() over (partition by k) rn" +
+                        " from x",
+                DDL,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    private void assertFactory(Class<?> expected, String query) throws Exception {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(expected, factory.getClass());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecordCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.BaseFunctionFactoryTest;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterCompilerTest extends BaseFunctionFactoryTest {
+
+    @Test
+    public void testArithmetic() throws Exception {
+        assertFilters(
+                "i + l > 10",
+                "i - 3 < l * 2",
+                "i * 2 = i + i",
+                "b + s > i",
+                "b - s = 3",
+                "d * 2.5 - f >= 1",
+                "l * l > d * d",
+                "i + 2147483647 > 0",
+                "i * 100000 > 3",
+                "l - 5000000000 < -4999999950"
+        );
+    }
+
+    @Test
+    public void testComparison() throws Exception {
+        assertFilters(
+                "i > 10",
+                "10 < i",
+                "i >= l",
+                "i < d",
+                "i <= 5.5",
+                "5.5 >= i",
+                "i = 5",
+                "i != 5",
+                "i = l",
+                "l = 5",
+                "l <> i",
+                "d = f",
+                "d != 0.5",
+                "f > 0.25",
+                "b < s",
+                "ts > dt",
+                "ts <= 1450000000000000",
+                "dt != 1420070400000",
+                "l > -5000000000"
+        );
+    }
+
+    @Test
+    public void testInterpretedSubTrees() throws Exception {
+        assertFilters(
+                "sym = 'A' and i > 0",
+                "sym = 'A' or sym = 'B' or l = i",
+                "i = NaN or l = NaN",
+                "abs(i) > 50 and bool",
+                "not bool or d > 0.5",
+                "i + abs(l) > 10",
+                "d * 100 > abs(l) / 2"
+        );
+    }
+
+    @Test
+    public void testLogical() throws Exception {
+        assertFilters(
+                "not (i > 5) or l < 0",
+                "(i > 0 and l > 0) or (d > 0.5 and not bool)",
+                "bool and i > 0",
+                "not (i > 0 and l > 0)",
+                "not (i > 0 or l > 0)",
+                "d > 0 or i > 0 and not (l < 0 or b > 3)",
+                "(i > 0 or l > 0) and (d > 0.2 or f > 0.2) and (b > 0 or s > 0)"
+        );
+    }
+
+    @Test
+    public void testNotCompiled() throws Exception {
+        createTable();
+        try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+            final RecordMetadata metadata = reader.getMetadata();
+            final FunctionParser functionParser = new FunctionParser(configuration, compiler.getFunctionFactoryCache());
+            final FilterCompiler filterCompiler = new FilterCompiler(new BytecodeAssembler());
+            final String[] expressions = {"bool", "sym = 'A'", "i = NaN", "abs(i)"};
+            for (String expression : expressions) {
+                final ExpressionNode node = expr(expression);
+                try (Function function = functionParser.parseFunction(node, metadata, sqlExecutionContext)) {
+                    Assert.assertSame(expression, function, filterCompiler.compile(node, function, metadata));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compile("select count() from x where i > 0 and sym = 'A'", sqlExecutionContext).getRecordCursorFactory()) {
+                sink.clear();
+                printer.print(factory.getCursor(sqlExecutionContext), factory.getMetadata(), true);
+            }
+            final String expected = sink.toString();
+
+            // interpreted filter
+            assertQuery(
+                    expected,
+                    "select count() from x where abs(i) > 0 and i >= 0 and sym = 'A'",
+                    null,
+                    false,
+                    true
+            );
+        });
+    }
+
+    private void assertFilters(String... expressions) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final RecordMetadata metadata = reader.getMetadata();
+                final FunctionParser functionParser = new FunctionParser(configuration, compiler.getFunctionFactoryCache());
+                final FilterCompiler filterCompiler = new FilterCompiler(new BytecodeAssembler());
+                final TableReaderRecordCursor cursor = reader.getCursor();
+
+                for (String expression : expressions) {
+                    final ExpressionNode node = expr(expression);
+                    Function interpreted = null;
+                    Function compiled = null;
+                    try {
+                        interpreted = functionParser.parseFunction(node, metadata, sqlExecutionContext);
+                        compiled = filterCompiler.compile(node, functionParser.parseFunction(node, metadata, sqlExecutionContext), metadata);
+                        Assert.assertTrue(expression, compiled instanceof CompiledFilter);
+
+                        cursor.toTop();
+                        interpreted.init(cursor, sqlExecutionContext);
+                        compiled.init(cursor, sqlExecutionContext);
+
+                        final Record record = cursor.getRecord();
+                        int matches = 0;
+                        while (cursor.hasNext()) {
+                            final boolean expected = interpreted.getBool(record);
+                            Assert.assertEquals(expression, expected, compiled.getBool(record));
+                            if (expected) {
+                                matches++;
+                            }
+                        }
+                        Assert.assertTrue(expression, matches > 0);
+                    } finally {
+                        Misc.free(interpreted);
+                        Misc.free(compiled);
+                    }
+                }
+            }
+        });
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_byte(0, 10) b," +
+                " rnd_short(0, 10) s," +
+                " rnd_int(-100, 100, 4) i," +
+                " rnd_long(-100, 100, 4) l," +
+                " rnd_float(4) f," +
+                " rnd_double(4) d," +
+                " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 4) dt," +
+                " rnd_timestamp(to_timestamp('2015', 'yyyy'), to_timestamp('2016', 'yyyy'), 4) ts," +
+                " rnd_boolean() bool," +
+                " rnd_symbol('A', 'B', null) sym" +
+                " from long_sequence(1000)" +
+                ")", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecordCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.BaseFunctionFactoryTest;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Misc;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SymbolKeyFilterFunctionTest extends BaseFunctionFactoryTest {
+
+    @Test
+    public void testNotRewritten() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final RecordMetadata metadata = reader.getMetadata();
+                final FunctionParser functionParser = new FunctionParser(configuration, compiler.getFunctionFactoryCache());
+                final String[] expressions = {
+                        "sym = 'A'",
+                        "sym != 'A' and sym in ('B', 'C')",
+                        "i > 0",
+                        "length(sym) > i",
+                        "length(sym) > rnd_int(0, 4, 0)",
+                        "length(sym) > length(sym2)"
+                };
+                for (String expression : expressions) {
+                    try (Function function = functionParser.parseFunction(expr(expression), metadata, sqlExecutionContext)) {
+                        Assert.assertSame(expression, function, SymbolKeyFilterFunction.rewrite(function, configuration, sqlExecutionContext));
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compile("select count() from x where i > 0 and sym in (select distinct sym from x where length(sym) = 3)", sqlExecutionContext).getRecordCursorFactory()) {
+                sink.clear();
+                printer.print(factory.getCursor(sqlExecutionContext), factory.getMetadata(), true);
+            }
+            final String expected = sink.toString();
+
+            assertQuery(
+                    expected,
+                    "select count() from x where i > 0 and length(sym) = 3",
+                    null,
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRewritten() throws Exception {
+        assertFilters(
+                "length(sym) > 2",
+                "length(sym) = -1",
+                "cast(sym as string) ~ '^[A-M]'",
+                "cast(sym as string) like '%Z%'",
+                "to_uppercase(cast(sym as string)) = 'ZZ' or length(sym) = 1",
+                "sym = 'A' or length(sym) > 3",
+                "i > 0 and length(sym) < 3",
+                "not (length(sym2) > 2) or i < 0",
+                "length(sym) > 2 and length(sym2) > 2"
+        );
+    }
+
+    private void assertFilters(String... expressions) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final RecordMetadata metadata = reader.getMetadata();
+                final FunctionParser functionParser = new FunctionParser(configuration, compiler.getFunctionFactoryCache());
+                final TableReaderRecordCursor cursor = reader.getCursor();
+
+                for (String expression : expressions) {
+                    Function interpreted = null;
+                    Function rewritten = null;
+                    try {
+                        interpreted = functionParser.parseFunction(expr(expression), metadata, sqlExecutionContext);
+                        final Function function = functionParser.parseFunction(expr(expression), metadata, sqlExecutionContext);
+                        rewritten = SymbolKeyFilterFunction.rewrite(function, configuration, sqlExecutionContext);
+                        if (rewritten == function) {
+                            Assert.fail(expression);
+                        }
+
+                        cursor.toTop();
+                        interpreted.init(cursor, sqlExecutionContext);
+                        rewritten.init(cursor, sqlExecutionContext);
+
+                        final Record record = cursor.getRecord();
+                        int matches = 0;
+                        while (cursor.hasNext()) {
+                            final boolean expected = interpreted.getBool(record);
+                            Assert.assertEquals(expression, expected, rewritten.getBool(record));
+                            if (expected) {
+                                matches++;
+                            }
+                        }
+                        Assert.assertTrue(expression, matches > 0);
+                    } finally {
+                        Misc.free(interpreted);
+                        Misc.free(rewritten);
+                    }
+                }
+            }
+        });
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int(-100, 100, 4) i," +
+                " rnd_symbol(40, 1, 4, 5) sym," +
+                " rnd_symbol(20, 1, 4, 5) sym2" +
+                " from long_sequence(1000)" +
+                ")", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ParallelGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(ParallelGroupByRecordCursorFactoryTest.class);
+    private static final int WORKER_COUNT = 2;
+    private SqlExecutionContextImpl parallelExecutionContext;
+
+    @Before
+    public void setUp3() {
+        parallelExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)
+                .with(
+                        AllowAllCairoSecurityContext.INSTANCE,
+                        bindVariableService,
+                        null,
+                        -1,
+                        null);
+
+        // consume whatever other tests might have left in the queue
+        final Sequence subSeq = engine.getMessageBus().getPageFrameGroupBySubSequence();
+        while (true) {
+            long cursor = subSeq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                subSeq.done(cursor);
+            }
+        }
+    }
+
+    @Test
+    public void testAggregateOnOwnerThread() throws Exception {
+        // no workers, thread that runs the query aggregates all frames and merges all partitions
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQuery("select s, count(), sum(a), min(a), max(ts) from x", true, true);
+        });
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compiler.compile("alter table x add column k int", sqlExecutionContext);
+            compiler.compile("insert into x select" +
+                    " rnd_int() a," +
+                    " rnd_double(2) b," +
+                    " rnd_symbol('GZ','XY','ZZ',null) s," +
+                    " rnd_short() c," +
+                    " rnd_boolean() d," +
+                    " timestamp_sequence(1200000000000, 60000000) ts," +
+                    " rnd_int(0, 10, 2) k" +
+                    " from long_sequence(5000)", sqlExecutionContext);
+            engine.releaseAllWriters();
+            assertParallel("select k, s, count(), sum(a), max(c) from x");
+        });
+    }
+
+    @Test
+    public void testDoubleAggregates() throws Exception {
+        // merge order is not deterministic, floating point sums are rounded to hide that
+        assertMemoryLeak(() -> {
+            createTable();
+            // group-by factory is wrapped by the one that rounds
+            assertParallel("select s, round(sum(b), 6) sb, round(avg(b), 6) ab, round(ksum(b), 6) kb, round(nsum(b), 6) nb, min(b), max(b) from x", false);
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, a int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select s, count() from x", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof ParallelGroupByRecordCursorFactory);
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    Assert.assertFalse(cursor.hasNext());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testExpressionArgument() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select d, sum(a * 2), count(), max(a + c) from x");
+        });
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        // filter is evaluated by threads that aggregate, symbol in the filter reads their symbol tables
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select s, c, count(), sum(a), max(ts) from x where a > 0 and s != 'ZZ'");
+            assertParallel("select d, count(), min(b) from x where b < 0.3");
+        });
+    }
+
+    @Test
+    public void testFilterOnOwnerThread() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQuery("select s, count(), sum(a) from x where c > 100", true, true);
+        });
+    }
+
+    @Test
+    public void testNotMergeable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compile("select s, first(a) from x", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof ParallelGroupByRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select s, count(), sum(a), min(a), max(c), min(ts), max(ts) from x");
+        });
+    }
+
+    @Test
+    public void testTwoKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select s, c, count(), sum(a) from x");
+        });
+    }
+
+    private static String sortRows(CharSequence text) {
+        final String[] lines = text.toString().split("\n");
+        // keep header in place
+        Arrays.sort(lines, 1, lines.length);
+        return String.join("\n", lines);
+    }
+
+    private void assertParallel(String query) throws Exception {
+        assertParallel(query, true);
+    }
+
+    private void assertParallel(String query, boolean topLevel) throws Exception {
+        final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                return new int[]{-1, -1};
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return WORKER_COUNT;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        });
+        workerPool.assign(new PageFrameGroupByJob(engine.getMessageBus()));
+        workerPool.start(LOG);
+        try {
+            assertQuery(query, topLevel, false);
+        } finally {
+            workerPool.halt();
+        }
+    }
+
+    private void assertQuery(String query, boolean topLevel, boolean checkSymbols) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof ParallelGroupByRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = sortRows(sink);
+        Assert.assertTrue(expected.split("\n").length > 2);
+
+        try (RecordCursorFactory factory = compiler.compile(query, parallelExecutionContext).getRecordCursorFactory()) {
+            if (topLevel) {
+                Assert.assertTrue(factory instanceof ParallelGroupByRecordCursorFactory);
+            }
+            for (int i = 0; i < 2; i++) {
+                sink.clear();
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sortRows(sink));
+
+                    // same result after toTop()
+                    cursor.toTop();
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sortRows(sink));
+                }
+            }
+            if (checkSymbols) {
+                assertVariableColumns(factory, false);
+            }
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int() a," +
+                " rnd_double(2) b," +
+                " rnd_symbol('GZ','XY','ZZ',null) s," +
+                " rnd_short() c," +
+                " rnd_boolean() d," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(20000)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
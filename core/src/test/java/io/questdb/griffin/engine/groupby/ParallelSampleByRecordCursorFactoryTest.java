@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ParallelSampleByRecordCursorFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(ParallelSampleByRecordCursorFactoryTest.class);
+    private static final int WORKER_COUNT = 2;
+    private SqlExecutionContextImpl parallelExecutionContext;
+
+    @Before
+    public void setUp3() {
+        parallelExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)
+                .with(
+                        AllowAllCairoSecurityContext.INSTANCE,
+                        bindVariableService,
+                        null,
+                        -1,
+                        null);
+
+        // consume whatever other tests might have left in the queue
+        final Sequence subSeq = engine.getMessageBus().getPageFrameGroupBySubSequence();
+        while (true) {
+            long cursor = subSeq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                subSeq.done(cursor);
+            }
+        }
+    }
+
+    @Test
+    public void testAggregateOnOwnerThread() throws Exception {
+        // no workers, thread that runs the query aggregates all frames and merges all partitions
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQuery("select ts, s, count(), sum(a), min(a) from x sample by 1h", false);
+        });
+    }
+
+    @Test
+    public void testBucketSpansPartitions() throws Exception {
+        // buckets are wider than partitions, every bucket is merged from several frames
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select ts, count(), sum(a), max(c) from x sample by 3d", true);
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, a int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, count() from x sample by 1h", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof ParallelSampleByRecordCursorFactory);
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    Assert.assertFalse(cursor.hasNext());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFillIsNotParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, sum(a) from x sample by 1h fill(null)", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof ParallelSampleByRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select ts, s, count(), sum(a), min(a), max(c) from x sample by 1h", false);
+        });
+    }
+
+    @Test
+    public void testMonthBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select ts, s, count(), sum(a) from x sample by 1M", false);
+        });
+    }
+
+    @Test
+    public void testNotKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("select ts, count(), sum(a), min(a), max(c) from x sample by 30m", true);
+        });
+    }
+
+    @Test
+    public void testNotMergeable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, first(a) from x sample by 1h", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof ParallelSampleByRecordCursorFactory);
+            }
+        });
+    }
+
+    private static String sortRows(CharSequence text) {
+        final String[] lines = text.toString().split("\n");
+        // keep header in place
+        Arrays.sort(lines, 1, lines.length);
+        return String.join("\n", lines);
+    }
+
+    private static void assertTimestampOrder(CharSequence text) {
+        final String[] lines = text.toString().split("\n");
+        for (int i = 2; i < lines.length; i++) {
+            // timestamp is the first column, ISO strings compare in time order
+            Assert.assertTrue(lines[i - 1].split("\t")[0].compareTo(lines[i].split("\t")[0]) <= 0);
+        }
+    }
+
+    private void assertParallel(String query, boolean exactOrder) throws Exception {
+        final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                return new int[]{-1, -1};
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return WORKER_COUNT;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        });
+        workerPool.assign(new PageFrameGroupByJob(engine.getMessageBus()));
+        workerPool.start(LOG);
+        try {
+            assertQuery(query, exactOrder);
+        } finally {
+            workerPool.halt();
+        }
+    }
+
+    private void assertQuery(String query, boolean exactOrder) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof ParallelSampleByRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        // order of keys within bucket is not defined
+        final String expected = exactOrder ? sink.toString() : sortRows(sink);
+        Assert.assertTrue(expected.split("\n").length > 2);
+
+        try (RecordCursorFactory factory = compiler.compile(query, parallelExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof ParallelSampleByRecordCursorFactory);
+            for (int i = 0; i < 2; i++) {
+                sink.clear();
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    printer.print(cursor, factory.getMetadata(), true);
+                    assertTimestampOrder(sink);
+                    TestUtils.assertEquals(expected, exactOrder ? sink.toString() : sortRows(sink));
+
+                    // same result after toTop()
+                    cursor.toTop();
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, exactOrder ? sink.toString() : sortRows(sink));
+                }
+            }
+        }
+    }
+
+    private void createTable() throws SqlException {
+        // first row is not aligned to the hour, buckets are aligned to it
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int() a," +
+                " rnd_symbol('GZ','XY','ZZ',null) s," +
+                " rnd_short() c," +
+                " rnd_boolean() d," +
+                " timestamp_sequence(1700000000, 60000000) ts" +
+                " from long_sequence(20000)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
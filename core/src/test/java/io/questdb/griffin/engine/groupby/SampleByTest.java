@@ -417,7 +417,7 @@ public class SampleByTest extends AbstractGriffinTest {
             engine.releaseAllReaders();
 
             final FilesFacade ff = new FilesFacadeImpl() {
-                int count = 6;
+                int count = 7;
 
                 @Override
                 public long mmap(long fd, long len, long offset, int mode) {
@@ -1438,7 +1438,7 @@ public class SampleByTest extends AbstractGriffinTest {
             );
 
             FilesFacade ff = new FilesFacadeImpl() {
-                int count = 3;
+                int count = 4;
 
                 @Override
                 public long mmap(long fd, long len, long offset, int mode) {
@@ -1487,7 +1487,7 @@ public class SampleByTest extends AbstractGriffinTest {
             );
 
             FilesFacade ff = new FilesFacadeImpl() {
-                int count = 6;
+                int count = 7;
 
                 @Override
                 public long mmap(long fd, long len, long offset, int mode) {
@@ -1582,7 +1582,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "\t135.835983782176\t1970-01-04T06:00:00.000000Z\n" +
                         "UVSD\t49.42890511958454\t1970-01-04T06:00:00.000000Z\n" +
                         "KGHV\t67.52509547112409\t1970-01-04T09:00:00.000000Z\n",
-                false);
+                true, true, true);
     }
 
     @Test
@@ -1832,7 +1832,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "UVSD\t49.42890511958454\t1970-01-04T07:00:00.000000Z\n" +
                         "\t58.912164838797885\t1970-01-04T08:00:00.000000Z\n" +
                         "KGHV\t67.52509547112409\t1970-01-04T09:00:00.000000Z\n",
-                false);
+                true, true, true);
     }
 
     @Test
@@ -1905,7 +1905,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "54.49155021518948\t1970-01-04T03:00:00.000000Z\n" +
                         "185.26488890176051\t1970-01-04T06:00:00.000000Z\n" +
                         "67.52509547112409\t1970-01-04T09:00:00.000000Z\n",
-                false);
+                true, true, true);
     }
 
     @Test
@@ -1933,7 +1933,7 @@ public class SampleByTest extends AbstractGriffinTest {
                 "sum\tk\n" +
                         "139.2898345080353\t1970-01-04T05:00:00.000000Z\n" +
                         "121.75073858040724\t1970-01-04T08:00:00.000000Z\n",
-                false);
+                true, true, true);
     }
 
     @Test
@@ -1989,7 +1989,52 @@ public class SampleByTest extends AbstractGriffinTest {
                         "94.41658975532606\t1970-01-04T05:00:02.700000Z\n" +
                         "62.5966045857722\t1970-01-04T05:00:02.800000Z\n" +
                         "94.55893004802432\t1970-01-04T05:00:02.900000Z\n",
-                false);
+                true, true, true);
+    }
+
+    @Test
+    public void testSampleFillNoneVectorNotKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createVectorTable();
+            // buckets are wider than partitions
+            assertVectorSampleBy(
+                    "select k, max(a) s, max(i) m, avg(l) v from x sample by 2d",
+                    "select k, max(a) s, max(i) m, avg(l) v from x where i != -1 sample by 2d"
+            );
+        });
+    }
+
+    @Test
+    public void testSampleFillNoneVectorOverMapCapacity() throws Exception {
+        assertMemoryLeak(() -> {
+            createVectorTable();
+            // every row is a bucket of its own, there are more keys than default map capacity
+            assertVectorSampleBy(
+                    "select k, b, min(a) s, max(i) m, min(l) v from x sample by 1m",
+                    "select k, b, min(a) s, max(i) m, min(l) v from x where i != -1 sample by 1m"
+            );
+        });
+    }
+
+    @Test
+    public void testSampleFillNoneVectorSymbolKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createVectorTable();
+            assertVectorSampleBy(
+                    "select k, b, max(a) s, min(i) m, sum(l) v from x sample by 1h",
+                    "select k, b, max(a) s, min(i) m, sum(l) v from x where i != -1 sample by 1h"
+            );
+        });
+    }
+
+    @Test
+    public void testSampleFillNoneVectorTimestampNotSelected() throws Exception {
+        assertMemoryLeak(() -> {
+            createVectorTable();
+            try (RecordCursorFactory factory = compiler.compile("select b, sum(a) from x sample by 1h", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory);
+            }
+        });
     }
 
     @Test
@@ -4493,4 +4538,35 @@ public class SampleByTest extends AbstractGriffinTest {
                         "84.45258177211063\t1970-01-03T09:00:00.000000Z\n",
                 false);
     }
+
+    private void assertVectorSampleBy(String query, String serialQuery) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(serialQuery, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = sink.toString();
+        Assert.assertTrue(expected.split("\n").length > 2);
+        // rows are expected in the same order, buckets ascend and keys within bucket are in order of appearance
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory);
+            Assert.assertEquals(0, factory.getMetadata().getTimestampIndex());
+            assertCursor(expected, factory, true, true, true);
+        }
+    }
+
+    private void createVectorTable() throws SqlException {
+        // first row is not aligned to the hour, buckets are aligned to it
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_double(2) a," +
+                " rnd_symbol(5,4,4,1) b," +
+                " rnd_int(0, 1000, 0) i," +
+                " rnd_long(0, 1000, 0) l," +
+                " timestamp_sequence(1700000000, 37000000) k" +
+                " from long_sequence(10000)" +
+                ") timestamp(k) partition by DAY", sqlExecutionContext);
+    }
 }
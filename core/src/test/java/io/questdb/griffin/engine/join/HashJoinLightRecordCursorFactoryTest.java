@@ -0,0 +1,206 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.Files;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashJoinLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testSpill() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilled("select * from x join y on (k)", true);
+        });
+    }
+
+    @Test
+    public void testSpillDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try {
+                assertSpilled("select * from x join y on (k)", false);
+                Assert.fail();
+            } catch (LimitOverflowException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "limit of 2 resizes exceeded");
+            }
+        });
+    }
+
+    @Test
+    public void testSpillFilteredMaster() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilled("select x.i, y.j, y.s from x join y on (k) where x.a > 500", true);
+        });
+    }
+
+    @Test
+    public void testSpillMultipleKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilled("select * from x join y on x.k = y.k and x.s = y.s", true);
+        });
+    }
+
+    @Test
+    public void testSpillSkewedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            // rows with few keys at the start of slave make first spill partitions too coarse
+            // for unique keys that follow, such partitions have to be split further
+            compiler.compile("create table x as (" +
+                    "select" +
+                    " x i," +
+                    " cast(x % 1200 as int) k," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(3000)" +
+                    ") timestamp(ts)", sqlExecutionContext);
+            compiler.compile("create table y as (" +
+                    "select" +
+                    " x j," +
+                    " cast(case when x <= 2000 then x % 5 else x - 1800 end as int) k" +
+                    " from long_sequence(3000)" +
+                    ")", sqlExecutionContext);
+            assertSpilled("select * from x join y on (k)", true);
+        });
+    }
+
+    @Test
+    public void testSpillStringKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilled("select * from x join y on (s)", true);
+        });
+    }
+
+    private static void assertNoSpillFiles() {
+        try (Path path = new Path()) {
+            path.of(configuration.getSqlSpillRoot()).$();
+            if (!Files.exists(path)) {
+                return;
+            }
+            long find = Files.findFirst(path);
+            Assert.assertTrue(find > 0);
+            NativeLPSZ lpsz = new NativeLPSZ();
+            try {
+                do {
+                    String name = lpsz.of(Files.findName(find)).toString();
+                    Assert.assertTrue(name, ".".equals(name) || "..".equals(name));
+                } while (Files.findNext(find) > 0);
+            } finally {
+                Files.findClose(find);
+            }
+        }
+    }
+
+    private void assertSpilled(String query, boolean spillEnabled) throws SqlException {
+        final String expected;
+        final int timestampIndex;
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                expected = print(cursor, factory);
+            }
+            timestampIndex = factory.getMetadata().getTimestampIndex();
+        }
+        Assert.assertTrue(expected.split("\n").length > 10);
+
+        final CairoConfiguration restrictedConfiguration = new DefaultCairoConfiguration(root) {
+            @Override
+            public int getSqlMapPageSize() {
+                return 256;
+            }
+
+            @Override
+            public int getSqlMapMaxResizes() {
+                return 2;
+            }
+
+            @Override
+            public boolean isSqlHashJoinSpillEnabled() {
+                return spillEnabled;
+            }
+        };
+
+        try (
+                CairoEngine restrictedEngine = new CairoEngine(restrictedConfiguration);
+                SqlCompiler restrictedCompiler = new SqlCompiler(restrictedEngine)
+        ) {
+            final SqlExecutionContext restrictedContext = new SqlExecutionContextImpl(restrictedEngine, 1);
+            try (RecordCursorFactory factory = restrictedCompiler.compile(query, restrictedContext).getRecordCursorFactory()) {
+                // spilled join must keep master order, which is declared by its timestamp
+                Assert.assertEquals(timestampIndex, factory.getMetadata().getTimestampIndex());
+                try (RecordCursor cursor = factory.getCursor(restrictedContext)) {
+                    final String actual = print(cursor, factory);
+                    TestUtils.assertEquals(expected, actual);
+
+                    cursor.toTop();
+                    TestUtils.assertEquals(actual, print(cursor, factory));
+                }
+                assertNoSpillFiles();
+            }
+        }
+    }
+
+    private String print(RecordCursor cursor, RecordCursorFactory factory) {
+        sink.clear();
+        printer.print(cursor, factory.getMetadata(), true);
+        return sink.toString();
+    }
+
+    private void createTables() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " x i," +
+                " rnd_int(0, 1000, 0) a," +
+                " rnd_int(0, 400, 0) k," +
+                " rnd_str(2, 2, 0) s," +
+                " timestamp_sequence(0, 1000000) ts" +
+                " from long_sequence(3000)" +
+                ") timestamp(ts)", sqlExecutionContext);
+        compiler.compile("create table y as (" +
+                "select" +
+                " x j," +
+                " rnd_int(0, 400, 0) k," +
+                " rnd_str(2, 2, 0) s" +
+                " from long_sequence(3000)" +
+                ")", sqlExecutionContext);
+    }
+}
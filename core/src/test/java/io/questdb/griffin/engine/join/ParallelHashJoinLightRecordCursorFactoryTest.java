@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.table.SelectedRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelHashJoinLightRecordCursorFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(ParallelHashJoinLightRecordCursorFactoryTest.class);
+    private static final int WORKER_COUNT = 2;
+    private SqlExecutionContextImpl parallelExecutionContext;
+
+    @Before
+    public void setUp3() {
+        parallelExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)
+                .with(
+                        AllowAllCairoSecurityContext.INSTANCE,
+                        bindVariableService,
+                        null,
+                        -1,
+                        null);
+
+        // consume whatever other tests might have left in the queue
+        final Sequence subSeq = engine.getMessageBus().getPageFrameHashJoinSubSequence();
+        while (true) {
+            long cursor = subSeq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                subSeq.done(cursor);
+            }
+        }
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compiler.compile("alter table y add column w int", sqlExecutionContext);
+            compiler.compile("insert into y select" +
+                    " rnd_int(0, 1000, 0) j," +
+                    " rnd_symbol('GZ','XY','ZZ',null) t," +
+                    " rnd_long() v," +
+                    " timestamp_sequence(1200000000000, 600000000) ts2," +
+                    " rnd_int(0, 10, 2) w" +
+                    " from long_sequence(500)", sqlExecutionContext);
+            engine.releaseAllWriters();
+            assertParallel("select * from x join y on x.k = y.j");
+        });
+    }
+
+    @Test
+    public void testEmptySlave() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compiler.compile("create table z (j int, ts2 timestamp) timestamp(ts2) partition by DAY", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select * from x join z on x.k = z.j", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(unwrap(factory) instanceof ParallelHashJoinLightRecordCursorFactory);
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    Assert.assertFalse(cursor.hasNext());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testIntKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertParallel("select * from x join y on x.k = y.j");
+        });
+    }
+
+    @Test
+    public void testJoinOnOwnerThread() throws Exception {
+        // no workers, thread that runs the query builds and probes all frames
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQuery("select * from x join y on x.k = y.j");
+        });
+    }
+
+    @Test
+    public void testNotPageFrame() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compiler.compile("create table z as (select rnd_int(0, 1000, 0) j, rnd_str(3, 5, 1) t from long_sequence(100))", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select * from x join z on x.k = z.j", parallelExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(unwrap(factory) instanceof ParallelHashJoinLightRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        // symbol keys of different tables are compared as strings
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B','C','D',null) s, rnd_int() a, timestamp_sequence(0, 60000000) ts from long_sequence(3000)) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("create table y as (select rnd_symbol('D','C','E',null) t, rnd_long() v, timestamp_sequence(0, 3600000000) ts2 from long_sequence(100)) timestamp(ts2) partition by DAY", sqlExecutionContext);
+            assertParallel("select * from x join y on x.s = y.t");
+        });
+    }
+
+    private static RecordCursorFactory unwrap(RecordCursorFactory factory) {
+        // join columns are selected by their table alias
+        if (factory instanceof SelectedRecordCursorFactory) {
+            return ((SelectedRecordCursorFactory) factory).getBaseFactory();
+        }
+        return factory;
+    }
+
+    private void assertParallel(String query) throws Exception {
+        final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                return new int[]{-1, -1};
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return WORKER_COUNT;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        });
+        workerPool.assign(new PageFrameHashJoinJob(engine.getMessageBus()));
+        workerPool.start(LOG);
+        try {
+            assertQuery(query);
+        } finally {
+            workerPool.halt();
+        }
+    }
+
+    private void assertQuery(String query) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(unwrap(factory) instanceof ParallelHashJoinLightRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        // parallel join keeps order of the single threaded join
+        final String expected = sink.toString();
+        Assert.assertTrue(expected.split("\n").length > 2);
+
+        try (RecordCursorFactory factory = compiler.compile(query, parallelExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(unwrap(factory) instanceof ParallelHashJoinLightRecordCursorFactory);
+            for (int i = 0; i < 2; i++) {
+                sink.clear();
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+
+                    // same result after toTop()
+                    cursor.toTop();
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+                }
+            }
+        }
+    }
+
+    private void createTables() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int(0, 1000, 0) k," +
+                " rnd_int() a," +
+                " rnd_double(2) b," +
+                " rnd_symbol('GZ','XY','ZZ',null) s," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(5000)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+        compiler.compile("create table y as (" +
+                "select" +
+                " rnd_int(0, 1000, 0) j," +
+                " rnd_symbol('GZ','XY','ZZ',null) t," +
+                " rnd_long() v," +
+                " timestamp_sequence(0, 600000000) ts2" +
+                " from long_sequence(500)" +
+                ") timestamp(ts2) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.LimitRecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LimitedSizeSortedLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFilteredBase() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x where s = 'GZ' order by b desc", "10");
+        });
+    }
+
+    @Test
+    public void testGroupByBase() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select s, d, count() c, max(a) m from x order by c desc, m", "3");
+        });
+    }
+
+    @Test
+    public void testLimitLargerThanTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x order by a", "100000");
+        });
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x order by d, c desc, ts desc", "25");
+        });
+    }
+
+    @Test
+    public void testNotUsedForLastN() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertNotTopN("select * from x order by a limit -5");
+            assertNotTopN("select * from x order by a limit 5, -5");
+        });
+    }
+
+    @Test
+    public void testNotUsedForVariableKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertNotTopN("select * from x order by s limit 5");
+            assertNotTopN("select * from x order by a, s limit 5");
+        });
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x order by c", "30, 45");
+            assertTopN("select * from x order by c", "45, 30");
+        });
+    }
+
+    @Test
+    public void testTies() throws Exception {
+        // boolean key has only two distinct values, order within the ties
+        // has to be the same as the one produced by full sort
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x order by d", "17");
+            assertTopN("select * from x order by d desc", "17");
+        });
+    }
+
+    @Test
+    public void testTopN() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x order by a", "10");
+            assertTopN("select * from x order by b desc", "10");
+            assertTopN("select * from x order by ts desc", "1");
+        });
+    }
+
+    @Test
+    public void testZeroLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertTopN("select * from x order by a", "0");
+        });
+    }
+
+    private void assertNotTopN(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(((LimitRecordCursorFactory) factory).getBaseFactory() instanceof LimitedSizeSortedLightRecordCursorFactory);
+        }
+    }
+
+    private void assertTopN(String query, String limit) throws SqlException {
+        // bind variable limit is not a constant, it makes generator use full sort
+        final String[] parts = limit.split(",");
+        bindVariableService.clear();
+        bindVariableService.setLong(0, Long.parseLong(parts[0].trim()));
+        String variableLimit = "$1";
+        if (parts.length > 1) {
+            bindVariableService.setLong(1, Long.parseLong(parts[1].trim()));
+            variableLimit = "$1, $2";
+        }
+
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query + " limit " + variableLimit, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(((LimitRecordCursorFactory) factory).getBaseFactory() instanceof LimitedSizeSortedLightRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = sink.toString();
+
+        try (RecordCursorFactory factory = compiler.compile(query + " limit " + limit, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(((LimitRecordCursorFactory) factory).getBaseFactory() instanceof LimitedSizeSortedLightRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(expected, sink);
+
+                cursor.toTop();
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(expected, sink);
+            }
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int(0, 1000, 0) a," +
+                " rnd_double(2) b," +
+                " rnd_symbol('GZ','XY','ZZ',null) s," +
+                " rnd_short(0, 50) c," +
+                " rnd_boolean() d," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(5000)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Chars;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RadixSortedLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDoubleNulls() throws Exception {
+        // NaN is null, it goes first
+        assertQuery(
+                "i\td\n" +
+                        "4\tNaN\n" +
+                        "2\tNaN\n" +
+                        "1\t-1.5\n" +
+                        "3\t0.0\n" +
+                        "5\t1.5\n",
+                "x order by d",
+                "create table x as (select cast(x as int) i, case when x % 2 = 0 then cast(NaN as double) else (x - 3) * 0.75 end d from long_sequence(5))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testFilteredBase() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(1000);
+            assertRadixSort("select * from x where b > 0.5 order by a desc");
+        });
+    }
+
+    @Test
+    public void testGroupByBase() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(1000);
+            assertRadixSort("select s, e, z, count() n from x order by n desc, s");
+        });
+    }
+
+    @Test
+    public void testManySymbols() throws Exception {
+        // values of different length share prefixes, rank follows string order
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (" +
+                    "select" +
+                    " rnd_symbol(300, 1, 4, 5) s," +
+                    " cast(x as int) i," +
+                    " cast(null as string) z" +
+                    " from long_sequence(2000)" +
+                    ")", sqlExecutionContext);
+            assertRadixSort("select * from x order by s");
+            assertRadixSort("select * from x order by s desc, i");
+        });
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(1000);
+            // packed into a single word
+            assertRadixSort("select * from x order by e, c desc, f, h desc");
+            // several words
+            assertRadixSort("select * from x order by s desc, a, ts desc");
+            assertRadixSort("select * from x order by g, l desc, b");
+        });
+    }
+
+    @Test
+    public void testNotUsedForStrings() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(10);
+            try (RecordCursorFactory factory = compiler.compile("select * from x order by a, z", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof RadixSortedLightRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testSingleKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(1000);
+            assertSingleKeys();
+        });
+    }
+
+    @Test
+    public void testSingleKeySmall() throws Exception {
+        // small inputs are not sorted natively
+        assertMemoryLeak(() -> {
+            createTable(100);
+            assertSingleKeys();
+        });
+    }
+
+    @Test
+    public void testSymbolNoCache() throws Exception {
+        // tree sort cannot be the reference here, it compares values of
+        // symbols that are not cached incorrectly
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol nocache, i int)", sqlExecutionContext);
+            compiler.compile("insert into x select rnd_symbol('USD', 'GBP', 'CHF', 'JPY', null), cast(x as int) from long_sequence(700)", sqlExecutionContext);
+            assertSymbolOrder("select * from x order by s", 1);
+            assertSymbolOrder("select * from x order by s desc", -1);
+        });
+    }
+
+    private void assertRadixSort(String query) throws SqlException {
+        // string column "z" is the same in every row, it does not change
+        // the order, but makes code generator use tree based sort
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query + ", z", sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof RadixSortedLightRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = sink.toString();
+        Assert.assertTrue(expected.split("\n").length > 2);
+
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof RadixSortedLightRecordCursorFactory);
+            assertCursor(expected, factory, true, true, true, true);
+        }
+    }
+
+    private void assertSingleKeys() throws SqlException {
+        final String[] columns = {"a", "b", "c", "e", "f", "g", "h", "k", "l", "s"};
+        for (String column : columns) {
+            assertRadixSort("select * from x order by " + column);
+            assertRadixSort("select * from x order by " + column + " desc");
+        }
+        // ascending timestamp order is that of the table itself
+        assertRadixSort("select * from x order by ts desc");
+    }
+
+    private void assertSymbolOrder(String query, int direction) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof RadixSortedLightRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                final Record record = cursor.getRecord();
+                String prevSymbol = null;
+                int prevI = Integer.MAX_VALUE;
+                int count = 0;
+                while (cursor.hasNext()) {
+                    final String symbol = Chars.toString(record.getSym(0));
+                    final int i = record.getInt(1);
+                    if (count++ > 0) {
+                        final int cmp = Chars.compare(prevSymbol, symbol) * direction;
+                        Assert.assertTrue(cmp <= 0);
+                        // ties are later row first
+                        Assert.assertTrue(cmp < 0 || prevI > i);
+                    }
+                    prevSymbol = symbol;
+                    prevI = i;
+                }
+                Assert.assertEquals(700, count);
+            }
+        }
+    }
+
+    private void createTable(int rowCount) throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int() a," +
+                " rnd_double(0) b," +
+                " rnd_short() c," +
+                " rnd_boolean() e," +
+                " rnd_byte() f," +
+                " rnd_float(0) g," +
+                " rnd_char() h," +
+                " rnd_long(-10, 10, 2) k," +
+                " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) l," +
+                " rnd_symbol('GZ','XY','ZZ','AB',null) s," +
+                " cast(null as string) z," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(" + rowCount + ")" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
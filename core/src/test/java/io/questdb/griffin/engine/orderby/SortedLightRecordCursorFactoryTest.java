@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.Files;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testSpillDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try {
+                assertSpilled("select * from x order by s", false);
+                Assert.fail();
+            } catch (LimitOverflowException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages");
+            }
+        });
+    }
+
+    @Test
+    public void testSpillFilteredBase() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpilled("select * from x where d order by s desc, a", true);
+        });
+    }
+
+    @Test
+    public void testSpillMultipleKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpilled("select * from x order by d, c desc, ts desc", true);
+        });
+    }
+
+    @Test
+    public void testSpillStringKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpilled("select * from x order by s", true);
+            assertSpilled("select * from x order by s desc", true);
+        });
+    }
+
+    @Test
+    public void testSpillTies() throws Exception {
+        // boolean key has only two distinct values, order of ties across
+        // spilled runs has to be the same as the one of in-memory sort
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpilled("select * from x order by d", true);
+            assertSpilled("select * from x order by d desc", true);
+        });
+    }
+
+    private static void assertNoSpillFiles() {
+        try (Path path = new Path()) {
+            path.of(configuration.getSqlSpillRoot()).$();
+            if (!Files.exists(path)) {
+                return;
+            }
+            long find = Files.findFirst(path);
+            Assert.assertTrue(find > 0);
+            NativeLPSZ lpsz = new NativeLPSZ();
+            try {
+                do {
+                    String name = lpsz.of(Files.findName(find)).toString();
+                    Assert.assertTrue(name, ".".equals(name) || "..".equals(name));
+                } while (Files.findNext(find) > 0);
+            } finally {
+                Files.findClose(find);
+            }
+        }
+    }
+
+    private void assertSpilled(String query, boolean spillEnabled) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = sink.toString();
+
+        final CairoConfiguration restrictedConfiguration = new DefaultCairoConfiguration(root) {
+            @Override
+            public long getSqlSortKeyPageSize() {
+                return 4096;
+            }
+
+            @Override
+            public int getSqlSortKeyMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public long getSqlSortLightValuePageSize() {
+                return 4096;
+            }
+
+            @Override
+            public int getSqlSortLightValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlSortSpillEnabled() {
+                return spillEnabled;
+            }
+        };
+
+        try (
+                CairoEngine restrictedEngine = new CairoEngine(restrictedConfiguration);
+                SqlCompiler restrictedCompiler = new SqlCompiler(restrictedEngine)
+        ) {
+            final SqlExecutionContext restrictedContext = new SqlExecutionContextImpl(restrictedEngine, 1);
+            try (RecordCursorFactory factory = restrictedCompiler.compile(query, restrictedContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof SortedLightRecordCursorFactory);
+                try (RecordCursor cursor = factory.getCursor(restrictedContext)) {
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+
+                    cursor.toTop();
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+                }
+                assertNoSpillFiles();
+            }
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int(0, 1000, 0) a," +
+                " rnd_str(1, 2, 0) s," +
+                " rnd_short(0, 50) c," +
+                " rnd_boolean() d," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(5000)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
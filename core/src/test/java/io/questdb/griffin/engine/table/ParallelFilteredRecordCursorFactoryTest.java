@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.Chars;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(ParallelFilteredRecordCursorFactoryTest.class);
+    private static final int WORKER_COUNT = 2;
+    private SqlExecutionContextImpl parallelExecutionContext;
+
+    @Before
+    public void setUp3() {
+        parallelExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)
+                .with(
+                        AllowAllCairoSecurityContext.INSTANCE,
+                        bindVariableService,
+                        null,
+                        -1,
+                        null);
+
+        // consume whatever other tests might have left in the queue
+        final Sequence subSeq = engine.getMessageBus().getPageFrameFilterSubSequence();
+        while (true) {
+            long cursor = subSeq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                subSeq.done(cursor);
+            }
+        }
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (" +
+                    "select rnd_int() a, rnd_double(2) b, timestamp_sequence(0, 3600000000) ts" +
+                    " from long_sequence(200)" +
+                    ") timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("alter table x add column c long", sqlExecutionContext);
+            compiler.compile("insert into x select rnd_int() a, rnd_double(2) b, timestamp_sequence(720000000000, 3600000000) ts, rnd_long(0, 100, 2) c" +
+                    " from long_sequence(200)", sqlExecutionContext);
+            engine.releaseAllWriters();
+            assertParallel("x where c > 50 or b < 0.1");
+        });
+    }
+
+    @Test
+    public void testFilterOnOwnerThread() throws Exception {
+        // no workers, thread that runs the query filters all frames
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQuery("x where a > 0 and b < 0.5", false);
+        });
+    }
+
+    @Test
+    public void testInterval() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("x where ts > '1970-01-03T10:00:00.000000Z' and ts < '1970-01-08T00:00:00.000000Z' and a > 0");
+        });
+    }
+
+    @Test
+    public void testSimple() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("x where a > 0 and b < 0.5");
+        });
+    }
+
+    @Test
+    public void testSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("x where s = 'GZ' or c > 0");
+        });
+    }
+
+    @Test
+    public void testSymbolIn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertParallel("x where s in ('GZ', 'XY') and b > 0.3");
+        });
+    }
+
+    private void assertParallel(String query) throws Exception {
+        final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                return new int[]{-1, -1};
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return WORKER_COUNT;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        });
+        workerPool.assign(new PageFrameFilterJob(engine.getMessageBus()));
+        workerPool.start(LOG);
+        try {
+            assertQuery(query, true);
+        } finally {
+            workerPool.halt();
+        }
+    }
+
+    private void assertQuery(String query, boolean checkSymbols) throws SqlException {
+        sink.clear();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof ParallelFilteredRecordCursorFactory);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        final String expected = Chars.toString(sink);
+        Assert.assertTrue(expected.split("\n").length > 2);
+
+        try (RecordCursorFactory factory = compiler.compile(query, parallelExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof ParallelFilteredRecordCursorFactory);
+            for (int i = 0; i < 2; i++) {
+                sink.clear();
+                try (RecordCursor cursor = factory.getCursor(parallelExecutionContext)) {
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+
+                    // same result after toTop()
+                    cursor.toTop();
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+                }
+            }
+            if (checkSymbols) {
+                assertVariableColumns(factory, false);
+            }
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int() a," +
+                " rnd_double(2) b," +
+                " rnd_symbol('GZ','XY','ZZ',null) s," +
+                " rnd_short() c," +
+                " rnd_boolean() d," +
+                " timestamp_sequence(0, 60000000) ts" +
+                " from long_sequence(20000)" +
+                ") timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnStats;
+import io.questdb.cairo.FullFwdDataFrameCursorFactory;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.BaseFunctionFactoryTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionPruningDataFrameCursorFactoryTest extends BaseFunctionFactoryTest {
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compiler.compile("alter table x add column c int", sqlExecutionContext);
+            compiler.compile("insert into x select 100 + x, rnd_double(), cast(2 * 86400000000L + 3600000000L * (22 + x) + 1 as timestamp), cast(100 + x as int) from long_sequence(30)", sqlExecutionContext);
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                // partition 2 had 24 rows before column was added
+                final ColumnStats stats = new ColumnStats();
+                Assert.assertTrue(reader.readColumnStats(2, 3, stats));
+                Assert.assertEquals(101, stats.getMinLong());
+                Assert.assertEquals(101, stats.getMaxLong());
+                Assert.assertEquals(24, stats.getNullCount());
+                Assert.assertEquals(25, stats.getRowCount());
+
+                Assert.assertTrue(reader.readColumnStats(3, 3, stats));
+                Assert.assertEquals(102, stats.getMinLong());
+                Assert.assertEquals(125, stats.getMaxLong());
+                Assert.assertEquals(0, stats.getNullCount());
+                Assert.assertEquals(24, stats.getRowCount());
+            }
+
+            // partitions without column file have no stats and cannot be pruned
+            assertFrames("c > 101", "0,1,3,4");
+            // nulls satisfy ">=" and "<="
+            assertFrames("c <= 100", "0,1,2");
+            assertFrames("c = 101", "0,1,2");
+        });
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFrames("a > 30 and a < 40", "1");
+            assertFrames("30 < a and 40 > a", "1");
+            assertFrames("a >= 48", "1,2");
+            assertFrames("a <= 25.5", "0,1");
+            assertFrames("a = 24", "0");
+            assertFrames("a = 24.0", "0");
+            assertFrames("a < -5", "");
+            assertFrames("a > 30 or a < 10", "0,1,2");
+            assertFrames("a + 1 > 60", "0,1,2");
+            assertFrames("d > 1.5", "");
+            assertFrames("d < 1.5", "0,1,2");
+            assertFrames("a > 10 and d >= 0", "0,1,2");
+
+            assertSql("select count() from x where a > 30 and a < 40", "count\n9\n");
+        });
+    }
+
+    @Test
+    public void testIncompleteUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // odd version is what reader sees while writer is half way through update
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long buf = Unsafe.malloc(Long.BYTES);
+            try (Path path = new Path()) {
+                final long fd = ff.openRW(path.of(root).concat("x").concat("1970-01-02").concat("a.st").$());
+                Assert.assertTrue(fd > -1);
+                try {
+                    Assert.assertEquals(Long.BYTES, ff.read(fd, buf, Long.BYTES, 32));
+                    Unsafe.getUnsafe().putLong(buf, Unsafe.getUnsafe().getLong(buf) + 1);
+                    Assert.assertEquals(Long.BYTES, ff.write(fd, buf, Long.BYTES, 32));
+                } finally {
+                    ff.close(fd);
+                }
+            } finally {
+                Unsafe.free(buf, Long.BYTES);
+            }
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final ColumnStats stats = new ColumnStats();
+                Assert.assertFalse(reader.readColumnStats(1, 0, stats));
+                Assert.assertTrue(reader.readColumnStats(2, 0, stats));
+            }
+            // partition is scanned rather than pruned on statistics that may be torn
+            assertFrames("a > 60", "1,2");
+            assertSql("select count() from x where a > 60", "count\n12\n");
+        });
+    }
+
+    @Test
+    public void testNoPredicates() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final DataFrameCursorFactory base = new FullFwdDataFrameCursorFactory(engine, "x", 0);
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                Assert.assertSame(base, PartitionPruningDataFrameCursorFactory.of(base, expr("a > d"), reader.getMetadata()));
+                Assert.assertSame(base, PartitionPruningDataFrameCursorFactory.of(base, expr("a != 5"), reader.getMetadata()));
+                Assert.assertSame(base, PartitionPruningDataFrameCursorFactory.of(base, expr("a > null"), reader.getMetadata()));
+            }
+        });
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row row = writer.newRow(72 * 3600000000L);
+                row.putLong(0, 1000);
+                row.append();
+                // switching partition brings stats of day 2 up to date
+                row = writer.newRow(96 * 3600000000L);
+                row.putLong(0, 2000);
+                row.append();
+                writer.rollback();
+
+                row = writer.newRow(72 * 3600000000L);
+                row.putLong(0, 73);
+                row.append();
+                writer.commit();
+            }
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final ColumnStats stats = new ColumnStats();
+                Assert.assertTrue(reader.readColumnStats(3, 0, stats));
+                Assert.assertEquals(73, stats.getMinLong());
+                Assert.assertEquals(73, stats.getMaxLong());
+                Assert.assertEquals(1, stats.getRowCount());
+                Assert.assertTrue(reader.readColumnStats(2, 0, stats));
+                Assert.assertEquals(49, stats.getMinLong());
+                Assert.assertEquals(72, stats.getMaxLong());
+                Assert.assertEquals(24, stats.getRowCount());
+            }
+            assertFrames("a > 500", "");
+        });
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final ColumnStats stats = new ColumnStats();
+                Assert.assertTrue(reader.readColumnStats(1, 0, stats));
+                Assert.assertEquals(25, stats.getMinLong());
+                Assert.assertEquals(48, stats.getMaxLong());
+                Assert.assertEquals(0, stats.getNullCount());
+                Assert.assertEquals(24, stats.getRowCount());
+
+                Assert.assertTrue(reader.readColumnStats(2, 1, stats));
+                Assert.assertTrue(stats.getMinDouble() >= 0);
+                Assert.assertTrue(stats.getMaxDouble() < 1);
+                Assert.assertEquals(24, stats.getRowCount());
+
+                Assert.assertTrue(reader.readColumnStats(0, 2, stats));
+                Assert.assertEquals(0, stats.getMinLong());
+                Assert.assertEquals(23 * 3600000000L, stats.getMaxLong());
+            }
+
+            compiler.compile("truncate table x", sqlExecutionContext);
+            compiler.compile("insert into x select x, rnd_double(), cast(0 as timestamp) from long_sequence(1)", sqlExecutionContext);
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final ColumnStats stats = new ColumnStats();
+                Assert.assertTrue(reader.readColumnStats(0, 0, stats));
+                Assert.assertEquals(1, stats.getMinLong());
+                Assert.assertEquals(1, stats.getMaxLong());
+                Assert.assertEquals(1, stats.getRowCount());
+            }
+        });
+    }
+
+    private void assertFrames(String filter, String expected) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            final DataFrameCursorFactory factory = PartitionPruningDataFrameCursorFactory.of(
+                    new FullFwdDataFrameCursorFactory(engine, "x", reader.getVersion()),
+                    expr(filter),
+                    reader.getMetadata()
+            );
+            try (DataFrameCursor cursor = factory.getCursor(AllowAllCairoSecurityContext.INSTANCE)) {
+                DataFrame frame;
+                while ((frame = cursor.next()) != null) {
+                    if (sink.length() > 0) {
+                        sink.put(',');
+                    }
+                    sink.put(frame.getPartitionIndex());
+                }
+            }
+        }
+        Assert.assertEquals(filter, expected, sink.toString());
+    }
+
+    private void assertSql(String sql, String expected) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+            sink.clear();
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+            }
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select x a, rnd_double() d, timestamp_sequence(0, 3600000000) ts from long_sequence(72)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentAssociativeCacheTest {
+
+    @Test
+    public void testCheckout() {
+        final AtomicInteger closed = new AtomicInteger();
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(4, 8, 64)) {
+            final Value value = new Value(closed);
+            cache.put("X", value);
+            Assert.assertSame(value, cache.poll("X"));
+            // value is checked out until it is put back
+            Assert.assertNull(cache.poll("X"));
+            cache.put("X", value);
+            Assert.assertSame(value, cache.poll("X"));
+            cache.put("X", value);
+
+            // another thread has put value under the same key, incoming value is freed
+            final Value other = new Value(closed);
+            cache.put("X", other);
+            Assert.assertEquals(1, closed.get());
+            Assert.assertSame(value, cache.poll("X"));
+            cache.put("X", value);
+        }
+        Assert.assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void testConcurrentCheckout() throws Exception {
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        final String[] keys = {"A", "B", "C", "D", "E", "F", "G", "H"};
+        final AtomicInteger closed = new AtomicInteger();
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(threadCount, 8, 16)) {
+            final Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                final Rnd rnd = new Rnd(t, t);
+                threads[t] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < iterations; i++) {
+                            final String key = keys[rnd.nextPositiveInt() % keys.length];
+                            Value value = cache.poll(key);
+                            if (value == null) {
+                                value = new Value(closed);
+                                created.incrementAndGet();
+                            }
+                            // value must not be used by two threads at once
+                            if (value.owner.getAndIncrement() != 0) {
+                                errors.incrementAndGet();
+                            }
+                            value.owner.decrementAndGet();
+                            cache.put(key, value);
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    }
+                });
+                threads[t].start();
+            }
+            for (int t = 0; t < threadCount; t++) {
+                threads[t].join();
+            }
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(created.get(), closed.get());
+    }
+
+    private static class Value implements Closeable {
+        private final AtomicInteger closed;
+        private final AtomicInteger owner = new AtomicInteger();
+
+        private Value(AtomicInteger closed) {
+            this.closed = closed;
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}